@@ -8,6 +8,7 @@ import org.apache.ibatis.mapping.SqlCommandType;
 import org.apache.ibatis.plugin.*;
 import org.springframework.stereotype.Component;
 
+import java.util.Collection;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Properties;
@@ -48,14 +49,19 @@ public class AuditInterceptor implements Interceptor {
 
     private void fillForInsert(Object parameter) {
         Object target = unwrapTarget(parameter);
-        if (Objects.nonNull(target)) {
+        if (target instanceof Collection) {
+            // 批量语句（foreach 多行 VALUES）逐行填充
+            ((Collection<?>) target).stream().filter(Objects::nonNull).forEach(FillUserUtil::fillInsert);
+        } else if (Objects.nonNull(target)) {
             FillUserUtil.fillInsert(target);
         }
     }
 
     private void fillForUpdate(Object parameter) {
         Object target = unwrapTarget(parameter);
-        if (Objects.nonNull(target)) {
+        if (target instanceof Collection) {
+            ((Collection<?>) target).stream().filter(Objects::nonNull).forEach(FillUserUtil::fillUpdate);
+        } else if (Objects.nonNull(target)) {
             FillUserUtil.fillUpdate(target);
         }
     }
@@ -65,7 +71,8 @@ public class AuditInterceptor implements Interceptor {
             Map<?, ?> map = (Map<?, ?>) parameter;
             // 注意：MyBatis 的 MapperMethod$ParamMap 对不存在的 key 调 get() 会抛 BindingException
             // 因此这里必须先 containsKey 再 get
-            String[] keys = new String[]{"row", "record", "et", "entity", "param1"};
+            // list/collection：未加 @Param 的单个集合参数由 MyBatis 包装为这两个 key
+            String[] keys = new String[]{"row", "record", "et", "entity", "list", "collection", "param1"};
             for (String key : keys) {
                 if (map.containsKey(key)) {
                     Object val = map.get(key);
@@ -4,9 +4,11 @@ import cn.hutool.core.util.ArrayUtil;
 import cn.hutool.core.util.IdUtil;
 import com.example.sunxu_mall.annotation.ExcelExport;
 import com.example.sunxu_mall.constant.MQConstant;
+import com.example.sunxu_mall.dto.BasePageQuery;
 import com.example.sunxu_mall.dto.common.CommonTaskRequestDTO;
 import com.example.sunxu_mall.entity.auth.JwtUserEntity;
 import com.example.sunxu_mall.enums.ExcelBizTypeEnum;
+import com.example.sunxu_mall.enums.ExportFormatEnum;
 import com.example.sunxu_mall.idempotency.IdempotencyProperties;
 import com.example.sunxu_mall.mq.producer.MessageProducer;
 import com.example.sunxu_mall.util.JsonUtil;
@@ -64,6 +66,7 @@ public class CommonTaskAspect {
         }
 
         ExcelBizTypeEnum excelBizTypeEnum = excelExport.value();
+        validateExportFormat(joinPoint);
         String paramJson = extractParamJson(joinPoint);
         Long userId = null;
         String userName = null;
@@ -97,6 +100,16 @@ public class CommonTaskAspect {
         );
     }
 
+    /**
+     * 导出格式随查询条件进入 paramJson，在投递任务前校验，避免异步执行时才失败
+     */
+    private void validateExportFormat(JoinPoint joinPoint) {
+        Object[] arguments = joinPoint.getArgs();
+        if (ArrayUtil.isNotEmpty(arguments) && arguments[0] instanceof BasePageQuery) {
+            ExportFormatEnum.parse(((BasePageQuery) arguments[0]).getExportFormat());
+        }
+    }
+
     /**
      * 提取方法第一个参数的 JSON 字符串
      */
@@ -90,6 +90,27 @@ public class AsyncConfig implements AsyncConfigurer {
         return getThreadPoolTaskExecutor(config);
     }
 
+    /**
+     * 导入任务专用线程池（商品批量导入、批量级联删除）
+     * 按块写库，持有数据库连接时间较长，与导出线程池隔离
+     */
+    @Bean(name = "importExecutor")
+    public Executor importExecutor() {
+        ThreadPoolConfig.PoolConfig config = null;
+        if (Objects.nonNull(threadPoolProperties.getPools())) {
+            config = threadPoolProperties.getPools().get("import");
+        }
+
+        // 如果缺少配置，服务应该无法启动，不需要配置兜底策略
+        if (Objects.isNull(config)) {
+            throw new BusinessException(ErrorCode.CONFIG_MISSING.getCode(), "Thread pool configuration 'import' is required");
+        }
+
+        log.info("Initializing importExecutor with config: {}", config);
+
+        return getThreadPoolTaskExecutor(config);
+    }
+
     /**
      * 通知任务专用线程池
      * 独立于其他线程池，避免通知任务影响其他业务
@@ -111,6 +132,27 @@ public class AsyncConfig implements AsyncConfigurer {
         return getThreadPoolTaskExecutor(config);
     }
 
+    /**
+     * 商品详情读取专用线程池
+     * 用于 findById 子查询并行加载（IO 密集型），有界队列避免拖垮 DB 连接池
+     */
+    @Bean(name = "productReadExecutor")
+    public Executor productReadExecutor() {
+        ThreadPoolConfig.PoolConfig config = null;
+        if (Objects.nonNull(threadPoolProperties.getPools())) {
+            config = threadPoolProperties.getPools().get("product-read");
+        }
+
+        // 如果缺少配置，服务应该无法启动，不需要配置兜底策略
+        if (Objects.isNull(config)) {
+            throw new BusinessException(ErrorCode.CONFIG_MISSING.getCode(), "Thread pool configuration 'product-read' is required");
+        }
+
+        log.info("Initializing productReadExecutor with config: {}", config);
+
+        return getThreadPoolTaskExecutor(config);
+    }
+
     @Override
     public Executor getAsyncExecutor() {
         return commonTaskExecutor();
@@ -1,6 +1,10 @@
 package com.example.sunxu_mall.config.beans;
 
 import com.example.sunxu_mall.config.props.IpCityConfig;
+import com.example.sunxu_mall.config.props.ProductCacheConfig;
+import com.example.sunxu_mall.config.props.ProductGroupCacheConfig;
+import com.example.sunxu_mall.config.props.StockConfig;
+import com.example.sunxu_mall.config.props.TotalCountConfig;
 import com.github.benmanes.caffeine.cache.Caffeine;
 import lombok.RequiredArgsConstructor;
 import org.springframework.cache.CacheManager;
@@ -20,12 +24,36 @@ import java.util.concurrent.TimeUnit;
 public class CacheConfig {
 
     private final IpCityConfig ipCityConfig;
+    private final ProductCacheConfig productCacheConfig;
+    private final TotalCountConfig totalCountConfig;
+    private final ProductGroupCacheConfig productGroupCacheConfig;
+    private final StockConfig stockConfig;
 
     /**
      * IP城市信息缓存名称
      */
     public static final String IP_CITY_CACHE = "ipCityCache";
 
+    /**
+     * 商品详情（组装后的 ProductDetailDTO）缓存名称
+     */
+    public static final String PRODUCT_DETAIL_CACHE = "productDetailCache";
+
+    /**
+     * 游标分页列表总数（按查询条件指纹）缓存名称
+     */
+    public static final String TOTAL_COUNT_CACHE = "totalCountCache";
+
+    /**
+     * 商品组哈希 -> 商品组ID 缓存名称
+     */
+    public static final String PRODUCT_GROUP_CACHE = "productGroupCache";
+
+    /**
+     * 商品ID -> 库存分段数 缓存名称
+     */
+    public static final String STOCK_SEGMENT_CACHE = "stockSegmentCache";
+
     @Bean
     public CacheManager cacheManager() {
         CaffeineCacheManager cacheManager = new CaffeineCacheManager();
@@ -41,7 +69,38 @@ public class CacheConfig {
                         .maximumSize(maxSize)
                         .recordStats()
                         .build());
-                        
+
+        // 配置商品详情缓存（L1，L2 由 Redis 承担）
+        cacheManager.registerCustomCache(PRODUCT_DETAIL_CACHE,
+                Caffeine.newBuilder()
+                        .expireAfterWrite(productCacheConfig.getCaffeineTtlSeconds(), TimeUnit.SECONDS)
+                        .maximumSize(productCacheConfig.getCaffeineMaxSize())
+                        .recordStats()
+                        .build());
+
+        // 配置列表总数缓存（短 TTL，翻页时复用，避免每次翻页都 COUNT）
+        cacheManager.registerCustomCache(TOTAL_COUNT_CACHE,
+                Caffeine.newBuilder()
+                        .expireAfterWrite(totalCountConfig.getCacheTtlSeconds(), TimeUnit.SECONDS)
+                        .maximumSize(totalCountConfig.getCacheMaxSize())
+                        .recordStats()
+                        .build());
+
+        // 配置商品组解析缓存（L1，L2 由 Redis 承担；商品组创建后键值不再变化）
+        cacheManager.registerCustomCache(PRODUCT_GROUP_CACHE,
+                Caffeine.newBuilder()
+                        .expireAfterWrite(productGroupCacheConfig.getCaffeineTtlSeconds(), TimeUnit.SECONDS)
+                        .maximumSize(productGroupCacheConfig.getCaffeineMaxSize())
+                        .recordStats()
+                        .build());
+
+        cacheManager.registerCustomCache(STOCK_SEGMENT_CACHE,
+                Caffeine.newBuilder()
+                        .expireAfterWrite(stockConfig.getSegmentModeCacheMillis(), TimeUnit.MILLISECONDS)
+                        .maximumSize(10000)
+                        .recordStats()
+                        .build());
+
         return cacheManager;
     }
 }
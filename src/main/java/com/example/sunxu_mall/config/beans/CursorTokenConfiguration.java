@@ -0,0 +1,27 @@
+package com.example.sunxu_mall.config.beans;
+
+import com.example.sunxu_mall.config.props.CursorTokenConfig;
+import com.example.sunxu_mall.util.CursorTokenCodec;
+import org.apache.commons.lang3.StringUtils;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * 游标令牌编解码器配置
+ *
+ * @author sunxu
+ */
+@Configuration
+public class CursorTokenConfiguration {
+
+    @Bean
+    public CursorTokenCodec cursorTokenCodec(CursorTokenConfig cursorTokenConfig) {
+        if (StringUtils.isBlank(cursorTokenConfig.getSecret())) {
+            throw new IllegalStateException("mall.mgt.cursor-token.secret 未配置");
+        }
+        return new CursorTokenCodec(cursorTokenConfig.getSecret().getBytes(StandardCharsets.UTF_8),
+                cursorTokenConfig.getWindowSize(), cursorTokenConfig.isAcceptLegacyJson());
+    }
+}
@@ -0,0 +1,34 @@
+package com.example.sunxu_mall.config.props;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * 属性/属性值内存字典配置
+ * <p>
+ * 对应配置项：mall.mgt.attribute-dict.*
+ *
+ * @author sunxu
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "mall.mgt.attribute-dict")
+public class AttributeDictionaryConfig {
+
+    /**
+     * 是否启用内存字典（关闭后每次直接查询 DB）
+     */
+    private boolean enabled = true;
+
+    /**
+     * 增量刷新间隔（毫秒），用于感知其他实例的修改
+     */
+    private long refreshIntervalMs = 30000;
+
+    /**
+     * 增量刷新时水位线回拨秒数
+     * update_time 由应用侧写入，事务提交晚于写入时间、多实例时钟偏差都可能导致漏读，回拨一小段时间兜底
+     */
+    private long watermarkOverlapSeconds = 10;
+}
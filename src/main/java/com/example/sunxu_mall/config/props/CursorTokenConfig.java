@@ -0,0 +1,33 @@
+package com.example.sunxu_mall.config.props;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * 游标分页令牌配置
+ * <p>
+ * 对应配置项：mall.mgt.cursor-token.*
+ *
+ * @author sunxu
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "mall.mgt.cursor-token")
+public class CursorTokenConfig {
+
+    /**
+     * 令牌签名密钥（HMAC-SHA256，多实例部署需保持一致）
+     */
+    private String secret;
+
+    /**
+     * 令牌中保留的页游标数量（距当前页最近的 N 页），超出窗口的页需从第一页重新翻页
+     */
+    private int windowSize = 20;
+
+    /**
+     * 是否继续接受旧版 Base64 JSON 令牌（迁移期开启，旧令牌全部过期后可关闭）
+     */
+    private boolean acceptLegacyJson = true;
+}
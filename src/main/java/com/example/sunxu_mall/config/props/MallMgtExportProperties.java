@@ -11,6 +11,9 @@ import org.springframework.stereotype.Component;
  * - mall.mgt.exportPageSize
  * - mall.mgt.sheetDataSize
  * - mall.mgt.temp-path
+ * - mall.mgt.export-prefetch-enabled / prefetch-pages
+ * - mall.mgt.export-parallelism / partition-min-id-span
+ * - mall.mgt.csv-utf8-bom
  */
 @Data
 @Component
@@ -31,5 +34,30 @@ public class MallMgtExportProperties {
      * 临时文件目录
      */
     private String tempPath = "./temp/";
+
+    /**
+     * 分区并行导出的分区数（1 表示顺序导出；仅对提供主键范围的导出生效）
+     */
+    private int exportParallelism = 1;
+
+    /**
+     * 主键跨度小于该值时不分区（小表分区只会增加查询次数）
+     */
+    private long partitionMinIdSpan = 200_000;
+
+    /**
+     * 是否开启预取：后台线程拉取下一页的同时写入当前页
+     */
+    private boolean exportPrefetchEnabled = true;
+
+    /**
+     * 预取缓冲页数（每个分区；队列满时拉取线程等待，内存上限约为 分区数 × 该值 × exportPageSize 行）
+     */
+    private int prefetchPages = 4;
+
+    /**
+     * CSV 导出是否写入 UTF-8 BOM（Excel 直接打开 CSV 时据此识别中文编码）
+     */
+    private boolean csvUtf8Bom = true;
 }
 
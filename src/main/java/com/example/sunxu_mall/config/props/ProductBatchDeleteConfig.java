@@ -0,0 +1,55 @@
+package com.example.sunxu_mall.config.props;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalTime;
+
+/**
+ * 商品批量级联删除配置
+ * <p>
+ * 对应配置项：mall.mgt.product-batch-delete.*
+ *
+ * @author sunxu
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "mall.mgt.product-batch-delete")
+public class ProductBatchDeleteConfig {
+
+    /**
+     * 单次提交的最大商品ID数量
+     */
+    private int maxIds = 20000;
+
+    /**
+     * 非业务时段每块商品数（每块一个事务）
+     */
+    private int chunkSize = 500;
+
+    /**
+     * 业务时段每块商品数（更小的块，缩短行锁持有时间）
+     */
+    private int businessHoursChunkSize = 100;
+
+    /**
+     * 非业务时段块间停顿（毫秒）
+     */
+    private long pauseMillis = 20;
+
+    /**
+     * 业务时段块间停顿（毫秒），让出锁与连接给在线请求
+     */
+    private long businessHoursPauseMillis = 200;
+
+    /**
+     * 业务时段开始时间
+     */
+    private LocalTime businessHoursStart = LocalTime.of(9, 0);
+
+    /**
+     * 业务时段结束时间
+     */
+    private LocalTime businessHoursEnd = LocalTime.of(22, 0);
+}
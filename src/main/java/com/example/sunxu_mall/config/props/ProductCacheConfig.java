@@ -0,0 +1,49 @@
+package com.example.sunxu_mall.config.props;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * 商品详情缓存配置
+ * <p>
+ * 对应配置项：mall.mgt.product-cache.*
+ *
+ * @author sunxu
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "mall.mgt.product-cache")
+public class ProductCacheConfig {
+
+    /**
+     * 是否启用商品详情缓存（关闭后 findById 直接回源 DB）
+     */
+    private boolean enabled = true;
+
+    /**
+     * L1 Caffeine 缓存过期时间（秒）
+     */
+    private long caffeineTtlSeconds = 300;
+
+    /**
+     * L1 Caffeine 缓存最大条目数
+     */
+    private long caffeineMaxSize = 20000;
+
+    /**
+     * L2 Redis 缓存过期时间（秒）
+     */
+    private long redisTtlSeconds = 3600;
+
+    /**
+     * 不存在商品的负缓存过期时间（秒），防止缓存穿透
+     */
+    private long nullTtlSeconds = 60;
+
+    /**
+     * 延迟双删间隔（毫秒）：失效后延迟再删一次 L2 并再广播一次 L1 失效，0 表示关闭
+     * 应大于一次回源的耗时
+     */
+    private long delayedEvictMillis = 1000;
+}
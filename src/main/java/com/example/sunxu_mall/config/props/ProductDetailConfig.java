@@ -0,0 +1,28 @@
+package com.example.sunxu_mall.config.props;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * 商品详情（富文本）存储配置
+ * <p>
+ * 对应配置项：mall.mgt.product-detail.*
+ *
+ * @author sunxu
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "mall.mgt.product-detail")
+public class ProductDetailConfig {
+
+    /**
+     * 写入时是否压缩（关闭后新数据按原始 UTF-8 存储，读取始终兼容两种格式）
+     */
+    private boolean compressEnabled = true;
+
+    /**
+     * 启用压缩的最小原文字节数
+     */
+    private int compressMinBytes = 1024;
+}
@@ -0,0 +1,38 @@
+package com.example.sunxu_mall.config.props;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * 商品组哈希 -> 商品组ID 解析缓存配置
+ * <p>
+ * 对应配置项：mall.mgt.product-group-cache.*
+ *
+ * @author sunxu
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "mall.mgt.product-group-cache")
+public class ProductGroupCacheConfig {
+
+    /**
+     * 是否启用（关闭后每次创建商品都查询 mall_product_group）
+     */
+    private boolean enabled = true;
+
+    /**
+     * L1 Caffeine 缓存过期时间（秒）
+     */
+    private long caffeineTtlSeconds = 600;
+
+    /**
+     * L1 Caffeine 缓存最大条目数
+     */
+    private long caffeineMaxSize = 50000;
+
+    /**
+     * L2 Redis 缓存过期时间（秒）
+     */
+    private long redisTtlSeconds = 86400;
+}
@@ -0,0 +1,33 @@
+package com.example.sunxu_mall.config.props;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * 商品批量导入配置
+ * <p>
+ * 对应配置项：mall.mgt.product-import.*
+ *
+ * @author sunxu
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "mall.mgt.product-import")
+public class ProductImportConfig {
+
+    /**
+     * 每个事务写入的行数（块内批量插入，块失败只回滚本块）
+     */
+    private int chunkSize = 500;
+
+    /**
+     * 上传文件大小上限（字节）
+     */
+    private long maxFileBytes = 50L * 1024 * 1024;
+
+    /**
+     * 错误报告最多记录的行数（超出后只计数）
+     */
+    private int maxErrorRows = 10000;
+}
@@ -0,0 +1,43 @@
+package com.example.sunxu_mall.config.props;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * 商品详情读取配置
+ * <p>
+ * 对应配置项：mall.mgt.product-read.*
+ *
+ * @author sunxu
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "mall.mgt.product-read")
+public class ProductReadConfig {
+
+    /**
+     * 是否并行加载详情子查询（SPU/SKU 属性、图片、详情），关闭后退化为串行执行
+     */
+    private boolean parallelEnabled = true;
+
+    /**
+     * SPU 属性加载超时时间（毫秒）
+     */
+    private long spuTimeoutMillis = 500;
+
+    /**
+     * SKU 属性加载超时时间（毫秒）
+     */
+    private long skuTimeoutMillis = 500;
+
+    /**
+     * 图片加载超时时间（毫秒）
+     */
+    private long photoTimeoutMillis = 500;
+
+    /**
+     * 详情描述加载超时时间（毫秒，BLOB 较大，默认放宽）
+     */
+    private long detailTimeoutMillis = 1000;
+}
@@ -0,0 +1,55 @@
+package com.example.sunxu_mall.config.props;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * 商品名称/型号内存倒排索引配置
+ * <p>
+ * 对应配置项：mall.mgt.product-search.*
+ *
+ * @author sunxu
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "mall.mgt.product-search")
+public class ProductSearchConfig {
+
+    /**
+     * 是否启用倒排索引（关闭或索引未加载完成时回退到 LIKE 查询）
+     */
+    private boolean enabled = true;
+
+    /**
+     * 全量加载时每批读取的商品数量
+     */
+    private int loadBatchSize = 2000;
+
+    /**
+     * 增量刷新间隔（毫秒），用于感知其他实例的修改
+     */
+    private long refreshIntervalMs = 30000;
+
+    /**
+     * 增量刷新时水位线回拨秒数
+     */
+    private long watermarkOverlapSeconds = 10;
+
+    /**
+     * 每轮从索引中取出的候选ID数量（随后按主键回表并应用分类/品牌等过滤条件）
+     */
+    private int candidateBatchSize = 500;
+
+    /**
+     * 单次查询在索引中最多访问的候选ID数量（不论是否匹配），超过后回退到 LIKE 查询
+     * （关键词组合很少匹配、或其他过滤条件选择性很高时，避免扫描整张倒排表或多轮回表）
+     */
+    private int maxScanCandidates = 20000;
+
+    /**
+     * 索引的商品数上限：全量加载超过上限时放弃建索引，增量更新后超过上限时丢弃索引，查询均回退到 LIKE
+     * （每个商品约占用数百字节，当前占用见 /monitor/performance/product-search）
+     */
+    private int maxIndexedProducts = 2000000;
+}
@@ -0,0 +1,33 @@
+package com.example.sunxu_mall.config.props;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * 商品读模型（mall_product_view）配置
+ * <p>
+ * 对应配置项：mall.mgt.product-view.*
+ *
+ * @author sunxu
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "mall.mgt.product-view")
+public class ProductViewConfig {
+
+    /**
+     * 是否维护读模型（发布商品变更消息并投影到 mall_product_view）
+     */
+    private boolean enabled = false;
+
+    /**
+     * 商品详情查询是否走读模型（需先开启 enabled 并完成一次重建）
+     */
+    private boolean readEnabled = false;
+
+    /**
+     * 重建时每批处理的商品数量
+     */
+    private int rebuildBatchSize = 200;
+}
@@ -0,0 +1,84 @@
+package com.example.sunxu_mall.config.props;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * 库存预扣配置（Redis 原子扣减 + 异步回写 MySQL）
+ * <p>
+ * 对应配置项：mall.mgt.stock.*
+ *
+ * @author sunxu
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "mall.mgt.stock")
+public class StockConfig {
+
+    /**
+     * 是否启用 Redis 预扣（默认关闭）；关闭时直接对 MySQL 做条件扣减。
+     * 开启后库存以 Redis 为准，商品编辑不再直接写 remain_quantity，依赖流水回写任务落库
+     */
+    private boolean enabled = false;
+
+    /**
+     * 扣减/回补幂等键保留时间（秒）
+     */
+    private long requestTtlSeconds = 86400;
+
+    /**
+     * 单轮回写读取的流水条数
+     */
+    private int flushBatchSize = 1000;
+
+    /**
+     * 单次调度最多回写轮数（避免长时间占用回写锁）
+     */
+    private int flushMaxRounds = 20;
+
+    /**
+     * 回写间隔（毫秒）
+     */
+    private long flushIntervalMs = 1000;
+
+    /**
+     * 对账 cron 表达式
+     */
+    private String reconcileCron = "0 0/10 * * * ?";
+
+    /**
+     * 对账时每批比对的商品数
+     */
+    private int reconcileBatchSize = 500;
+
+    /**
+     * mall_stock_journal 保留天数（只用于追溯，回写去重只依赖各流水的最大序号）；&lt;= 0 不清理
+     */
+    private int journalRetentionDays = 7;
+
+    /**
+     * 流水清理 cron 表达式
+     */
+    private String journalPurgeCron = "0 30 3 * * ?";
+
+    /**
+     * 流水清理每批删除条数（小批量删除，避免长事务与主从延迟）
+     */
+    private int journalPurgeBatchSize = 5000;
+
+    /**
+     * 分段桶分片数（每个分片独立 hash tag 与流水），单个商品的分段数不能超过该值
+     */
+    private int segmentShards = 16;
+
+    /**
+     * 商品分段数本地缓存时间（毫秒），关闭分段时会等待该时长后再归集一次
+     */
+    private long segmentModeCacheMillis = 3000;
+
+    /**
+     * 分段桶不足时最多再平衡次数
+     */
+    private int segmentRebalanceAttempts = 3;
+}
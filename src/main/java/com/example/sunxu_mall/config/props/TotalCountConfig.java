@@ -0,0 +1,33 @@
+package com.example.sunxu_mall.config.props;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * 游标分页列表总数配置
+ * <p>
+ * 对应配置项：mall.mgt.total-count.*（精确计数阈值沿用 mall.mgt.maxOffsetForTotal）
+ *
+ * @author sunxu
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "mall.mgt.total-count")
+public class TotalCountConfig {
+
+    /**
+     * 是否返回列表总数（关闭后 needTotal 参数无效，响应中不含 total）
+     */
+    private boolean enabled = true;
+
+    /**
+     * 总数缓存过期时间（秒），同一查询条件翻页期间复用同一结果
+     */
+    private long cacheTtlSeconds = 30;
+
+    /**
+     * 总数缓存最大条目数（按查询条件指纹）
+     */
+    private long cacheMaxSize = 5000;
+}
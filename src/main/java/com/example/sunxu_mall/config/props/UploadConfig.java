@@ -31,6 +31,10 @@ public class UploadConfig {
          * 访问域名/前缀
          */
         private String domain;
+        /**
+         * 可续传上传（导出）的检查点间隔（KB），每写入约该大小的内容刷盘一次
+         */
+        private int checkpointKb = 8 * 1024;
     }
 
     @Data
@@ -52,5 +56,9 @@ public class UploadConfig {
         private String bucket;
         private String region;
         private String endpoint;
+        /**
+         * 流式上传分片大小（MB，S3 要求不小于 5），也是单次流式上传的内存占用
+         */
+        private int partSizeMb = 8;
     }
 }
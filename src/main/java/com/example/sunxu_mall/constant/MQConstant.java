@@ -21,6 +21,11 @@ public class MQConstant {
      */
     public static final String MALL_NOTIFICATION_TOPIC = "mall-notify-topic";
 
+    /**
+     * 商品变更 Topic（驱动商品读模型投影）
+     */
+    public static final String MALL_PRODUCT_CHANGE_TOPIC = "mall-product-change-topic";
+
     /**
      * Excel导出任务 Tag
      */
@@ -35,4 +40,9 @@ public class MQConstant {
      * 任务完成通知 Tag
      */
     public static final String TAG_NOTIFICATION = "TAG_NOTIFICATION";
+
+    /**
+     * 商品变更 Tag
+     */
+    public static final String TAG_PRODUCT_CHANGE = "TAG_PRODUCT_CHANGE";
 }
@@ -4,12 +4,18 @@ import com.example.sunxu_mall.annotation.ExcelExport;
 import com.example.sunxu_mall.annotation.Idempotency;
 import com.example.sunxu_mall.convert.mall.ProductStructMapper;
 import com.example.sunxu_mall.dto.mall.CreateProductDTO;
+import com.example.sunxu_mall.dto.mall.ProductDetailDTO;
+import com.example.sunxu_mall.dto.mall.ProductPriceDeltaDTO;
 import com.example.sunxu_mall.dto.mall.ProductQueryDTO;
+import com.example.sunxu_mall.dto.mall.ProductStockDeltaDTO;
 import com.example.sunxu_mall.dto.mall.UpdateProductDTO;
 import com.example.sunxu_mall.entity.mall.ProductEntity;
 import com.example.sunxu_mall.enums.ExcelBizTypeEnum;
 import com.example.sunxu_mall.model.ResponseCursorEntity;
+import com.example.sunxu_mall.service.mall.ProductBatchDeleteService;
+import com.example.sunxu_mall.service.mall.ProductImportService;
 import com.example.sunxu_mall.service.mall.ProductService;
+import com.example.sunxu_mall.service.mall.ProductViewService;
 import com.example.sunxu_mall.vo.mall.ProductVO;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
@@ -18,8 +24,10 @@ import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.multipart.MultipartFile;
 
 import javax.validation.Valid;
+import java.util.List;
 
 /**
  * @author sunxu
@@ -35,11 +43,19 @@ public class ProductController {
 
     private final ProductService productService;
     private final ProductStructMapper productStructMapper;
+    private final ProductViewService productViewService;
+    private final ProductImportService productImportService;
+    private final ProductBatchDeleteService productBatchDeleteService;
 
 
-    public ProductController(ProductService productService, ProductStructMapper productStructMapper) {
+    public ProductController(ProductService productService, ProductStructMapper productStructMapper,
+                             ProductViewService productViewService, ProductImportService productImportService,
+                             ProductBatchDeleteService productBatchDeleteService) {
         this.productService = productService;
         this.productStructMapper = productStructMapper;
+        this.productViewService = productViewService;
+        this.productImportService = productImportService;
+        this.productBatchDeleteService = productBatchDeleteService;
     }
 
     /**
@@ -56,16 +72,67 @@ public class ProductController {
         return ResponseEntity.ok(productStructMapper.toVO(created));
     }
 
+    /**
+     * 批量导入商品
+     *
+     * @param file 导入文件（xlsx / xls / csv）
+     * @return 任务业务键（进度通过 WebSocket 推送，完成后发送站内信）
+     */
+    @Operation(summary = "批量导入商品", description = "异步导入 Excel/CSV，按块事务写入，错误行汇总为错误报告")
+    @Idempotency
+    @PostMapping("/import")
+    public ResponseEntity<String> importProducts(
+            @Parameter(description = "导入文件", required = true) @RequestParam("file") MultipartFile file) {
+        return ResponseEntity.ok(productImportService.submit(file));
+    }
+
     /**
      * 通过 id查询商品信息
      *
-     * @param id 系统 ID
+     * @param id            系统 ID
+     * @param includeDetail 是否返回详情描述
      * @return 商品信息
      */
-    @Operation(summary = "通过id查询商品信息", description = "通过id查询商品信息")
+    @Operation(summary = "通过id查询商品信息", description = "通过id查询商品信息，includeDetail=false 时不返回详情描述（富文本）")
     @GetMapping("/findById")
-    public ProductEntity findById(Long id) {
-        return productService.findById(id);
+    public ProductEntity findById(Long id,
+                                  @Parameter(description = "是否返回详情描述")
+                                  @RequestParam(defaultValue = "true") boolean includeDetail) {
+        if (productViewService.isReadEnabled()) {
+            return productViewService.findById(id, includeDetail);
+        }
+        return productService.findById(id, includeDetail);
+    }
+
+    /**
+     * 通过 id 列表批量查询商品详情
+     * 查询次数恒定，不随商品数量增长，适用于列表/对比等需要多个商品详情的场景
+     *
+     * @param ids           商品ID列表
+     * @param includeDetail 是否返回详情描述
+     * @return 商品详情列表（按入参顺序，不存在的商品会被忽略）
+     */
+    @Operation(summary = "通过id列表批量查询商品详情", description = "一次请求获取多个商品详情，单次最多200个")
+    @PostMapping("/findByIds")
+    public List<ProductDetailDTO> findByIds(@RequestBody List<Long> ids,
+                                            @Parameter(description = "是否返回详情描述")
+                                            @RequestParam(defaultValue = "true") boolean includeDetail) {
+        if (productViewService.isReadEnabled()) {
+            return productViewService.findByIds(ids, includeDetail);
+        }
+        return productService.findByIds(ids, includeDetail);
+    }
+
+    /**
+     * 全量重建商品读模型（异步执行）
+     *
+     * @return true=已开始重建，false=已有重建任务在执行
+     */
+    @Operation(summary = "重建商品读模型", description = "按ID游标分批全量投影 mall_product_view，并清理已删除商品")
+    @Idempotency(ttlSeconds = 30)
+    @PostMapping("/view/rebuild")
+    public ResponseEntity<Boolean> rebuildView() {
+        return ResponseEntity.ok(productViewService.startRebuild());
     }
 
     /**
@@ -81,17 +148,18 @@ public class ProductController {
 
     /**
      * 更新商品信息
-     * 采用乐观锁（CAS）控制并发：客户端必须提供 version，版本不匹配返回 409
+     * 采用乐观锁（CAS）控制并发：客户端提供 version（整行比较）或 original（所修改字段的原值，按字段比较），冲突返回 409
      *
      * @param id      商品ID
-     * @param request 更新请求（包含 version 用于并发控制）
+     * @param request 更新请求（包含 version 或所修改字段的原值 original 用于并发控制）
      * @return 更新后的商品信息
      */
-    @Operation(summary = "更新商品信息", description = "使用乐观锁控制并发，客户端需传入当前版本号，版本冲突返回409")
+    @Operation(summary = "更新商品信息", description = "传入 version 时整行乐观锁；传入 original 时按字段合并，"
+            + "只有所修改的字段已被他人改成不同值时才返回409")
     @ApiResponses({
             @ApiResponse(responseCode = "200", description = "更新成功"),
             @ApiResponse(responseCode = "404", description = "商品不存在"),
-            @ApiResponse(responseCode = "409", description = "版本冲突，数据已被其他用户修改，请刷新后重试")
+            @ApiResponse(responseCode = "409", description = "版本冲突或字段冲突，数据已被其他用户修改，请刷新后重试")
     })
     @Idempotency
     @PutMapping("/{id}")
@@ -103,6 +171,42 @@ public class ProductController {
         return ResponseEntity.ok(productStructMapper.toVO(updated));
     }
 
+    /**
+     * 按增量调整剩余库存（单条语句，无版本冲突）
+     *
+     * @param id      商品ID
+     * @param request 调整请求
+     * @return 是否成功
+     */
+    @Operation(summary = "调整剩余库存", description = "按增量调整剩余库存，不需要版本号；超出 0 ~ 总库存范围返回409")
+    @Idempotency
+    @PatchMapping("/{id}/remainQuantity")
+    public ResponseEntity<Boolean> adjustRemainQuantity(
+            @Parameter(description = "商品ID", required = true)
+            @PathVariable Long id,
+            @Valid @RequestBody ProductStockDeltaDTO request) {
+        productService.adjustRemainQuantity(id, request.getDelta(), request.getBizKey());
+        return ResponseEntity.ok(true);
+    }
+
+    /**
+     * 按增量调整价格（单条语句，无版本冲突）
+     *
+     * @param id      商品ID
+     * @param request 调整请求
+     * @return 是否成功
+     */
+    @Operation(summary = "调整价格", description = "按增量调整价格，不需要版本号；调整后版本号自增")
+    @Idempotency
+    @PatchMapping("/{id}/price")
+    public ResponseEntity<Boolean> adjustPrice(
+            @Parameter(description = "商品ID", required = true)
+            @PathVariable Long id,
+            @Valid @RequestBody ProductPriceDeltaDTO request) {
+        productService.adjustPrice(id, request.getDelta());
+        return ResponseEntity.ok(true);
+    }
+
     /**
      * 删除商品（软删除）
      */
@@ -117,6 +221,19 @@ public class ProductController {
         return ResponseEntity.ok(true);
     }
 
+    /**
+     * 批量删除商品（异步任务，分块级联软删）
+     *
+     * @param ids 商品ID列表
+     * @return 任务业务键（完成后发送站内信）
+     */
+    @Operation(summary = "批量删除商品", description = "提交异步任务，按ID分块、每块一个短事务级联软删详情/属性/图片等关联数据")
+    @Idempotency
+    @PostMapping("/batchDelete")
+    public ResponseEntity<String> batchDelete(@RequestBody List<Long> ids) {
+        return ResponseEntity.ok(productBatchDeleteService.submit(ids));
+    }
+
     /**
      * 导出商品数据, 通过注解异步实现
      */
@@ -0,0 +1,84 @@
+package com.example.sunxu_mall.controller.mall;
+
+import com.example.sunxu_mall.dto.mall.StockChangeDTO;
+import com.example.sunxu_mall.service.mall.StockService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import javax.validation.Valid;
+
+/**
+ * @author sunxu
+ * @description 商品库存预扣接口
+ */
+@Tag(name = "库存操作", description = "库存预扣接口")
+@RestController
+@RequestMapping("/v1/stock")
+public class StockController {
+
+    private final StockService stockService;
+
+    public StockController(StockService stockService) {
+        this.stockService = stockService;
+    }
+
+    /**
+     * 查询剩余库存
+     *
+     * @param productId 商品ID
+     * @return 剩余库存
+     */
+    @Operation(summary = "查询剩余库存", description = "读取 Redis 中的剩余库存，未加载时从数据库加载")
+    @GetMapping("/{productId}")
+    public ResponseEntity<Integer> getRemain(
+            @Parameter(description = "商品ID", required = true)
+            @PathVariable Long productId
+    ) {
+        return ResponseEntity.ok(stockService.getRemain(productId));
+    }
+
+    /**
+     * 设置商品库存分段数（热点商品）
+     *
+     * @param productId 商品ID
+     * @param count     分段数，&lt;= 1 表示关闭分段
+     * @return 调整后的剩余库存
+     */
+    @Operation(summary = "设置库存分段数", description = "热点商品的库存拆分到多个分段桶独立扣减，分段数<=1时关闭分段并归集库存")
+    @PutMapping("/{productId}/segments")
+    public ResponseEntity<Integer> configureSegments(
+            @Parameter(description = "商品ID", required = true)
+            @PathVariable Long productId,
+            @Parameter(description = "分段数", required = true)
+            @RequestParam Integer count
+    ) {
+        return ResponseEntity.ok(stockService.configureSegments(productId, count));
+    }
+
+    /**
+     * 扣减库存
+     *
+     * @param request 扣减请求
+     * @return 扣减后的剩余库存
+     */
+    @Operation(summary = "扣减库存", description = "Redis Lua 原子扣减，库存不足返回409，同一业务键只扣一次")
+    @PostMapping("/deduct")
+    public ResponseEntity<Integer> deduct(@Valid @RequestBody StockChangeDTO request) {
+        return ResponseEntity.ok(stockService.deduct(request.getProductId(), request.getQuantity(), request.getBizKey()));
+    }
+
+    /**
+     * 回补库存
+     *
+     * @param request 回补请求
+     * @return 回补后的剩余库存
+     */
+    @Operation(summary = "回补库存", description = "取消订单等场景回补库存，同一业务键只回补一次")
+    @PostMapping("/release")
+    public ResponseEntity<Integer> release(@Valid @RequestBody StockChangeDTO request) {
+        return ResponseEntity.ok(stockService.release(request.getProductId(), request.getQuantity(), request.getBizKey()));
+    }
+}
@@ -1,6 +1,9 @@
 package com.example.sunxu_mall.controller.monitor;
 
 import com.example.sunxu_mall.annotation.NoLogin;
+import com.example.sunxu_mall.service.mall.ProductDetailCacheService;
+import com.example.sunxu_mall.service.mall.ProductSearchService;
+import com.example.sunxu_mall.service.mall.StockSegmentService;
 import com.github.benmanes.caffeine.cache.Cache;
 import com.github.benmanes.caffeine.cache.stats.CacheStats;
 import io.swagger.v3.oas.annotations.Operation;
@@ -29,9 +32,18 @@ import java.util.Map;
 public class PerformanceMonitorController {
 
     private final CacheManager cacheManager;
+    private final ProductDetailCacheService productDetailCacheService;
+    private final StockSegmentService stockSegmentService;
+    private final ProductSearchService productSearchService;
 
-    public PerformanceMonitorController(CacheManager cacheManager) {
+    public PerformanceMonitorController(CacheManager cacheManager,
+                                        ProductDetailCacheService productDetailCacheService,
+                                        StockSegmentService stockSegmentService,
+                                        ProductSearchService productSearchService) {
         this.cacheManager = cacheManager;
+        this.productDetailCacheService = productDetailCacheService;
+        this.stockSegmentService = stockSegmentService;
+        this.productSearchService = productSearchService;
     }
 
     /**
@@ -63,7 +75,30 @@ public class PerformanceMonitorController {
                 result.put(cacheName, cacheInfo);
             }
         }
-        
+
+        // 商品详情 L2（Redis）统计
+        result.put("productDetailCache.l2", productDetailCacheService.l2Stats());
+
         return result;
     }
+
+    /**
+     * 获取分段库存统计信息
+     */
+    @NoLogin
+    @Operation(summary = "获取分段库存统计信息", description = "返回分段扣减、库存不足、再平衡次数及各分段商品的分段库存")
+    @GetMapping("/stock-segments")
+    public Map<String, Object> getStockSegmentStats() {
+        return stockSegmentService.stats();
+    }
+
+    /**
+     * 获取商品搜索倒排索引统计信息
+     */
+    @NoLogin
+    @Operation(summary = "获取商品搜索索引统计信息", description = "返回内存倒排索引的商品数、词项数与估算内存占用")
+    @GetMapping("/product-search")
+    public Map<String, Object> getProductSearchStats() {
+        return productSearchService.stats();
+    }
 }
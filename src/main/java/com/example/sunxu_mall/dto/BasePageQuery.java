@@ -15,8 +15,11 @@ public class BasePageQuery implements Serializable {
     @Schema(description = "Page size", example = "10")
     private Integer pageSize = 10;
 
-    @Schema(description = "Whether to query total count", example = "true")
-    private Boolean needTotal = true;
+    /**
+     * 是否返回列表总数（默认不返回，需要时显式传 true，避免每次翻页都计数）
+     */
+    @Schema(description = "Whether to query total count, default false", example = "true")
+    private Boolean needTotal;
 
     /**
      * 旧版单向游标分页字段（当前对外主接口已统一为 bidirectional cursor + cursorToken）
@@ -32,6 +35,24 @@ public class BasePageQuery implements Serializable {
     @Schema(description = "[Deprecated] Cursor direction for legacy keyset pagination: NEXT/PREV", example = "NEXT", deprecated = true)
     private String cursorDirection = "NEXT"; // NEXT, PREV
 
+    /**
+     * 排序字段（须为接口声明支持的字段），为空时按 id 倒序
+     */
+    @Schema(description = "Sort field, must be supported by the endpoint; default sort is id desc", example = "price")
+    private String sortBy;
+
+    /**
+     * 排序方向：ASC / DESC（仅在指定 sortBy 时生效，id 作为第二排序键方向一致）
+     */
+    @Schema(description = "Sort direction: ASC/DESC, effective only when sortBy is set", example = "DESC")
+    private String sortDirection = "DESC";
+
     @Schema(description = "Cursor state token for bidirectional pagination (required for jumping within visited pages)", example = "eyJwYWdlTnVtIjozLCJwYWdlU2l6ZSI6MTAsImxhc3RJZCI6MTAwfQ==")
     private String cursorToken; // Base64编码的游标状态
+
+    /**
+     * 导出格式：xlsx（默认）/ csv / csv.gz，仅对导出接口生效
+     */
+    @Schema(description = "Export format: xlsx (default) / csv / csv.gz, effective only for export endpoints", example = "csv.gz")
+    private String exportFormat;
 }
@@ -28,6 +28,15 @@ public class CursorState implements Serializable {
     @Schema(description = "Page number to cursor ID mapping")
     private Map<Integer, Long> pageCursorMap = new HashMap<>();
 
+    @Schema(description = "Sort field bound to this token")
+    private String sortBy;
+
+    @Schema(description = "Sort direction bound to this token")
+    private String sortDirection;
+
+    @Schema(description = "Page number to last sort value mapping (composite keyset cursor)")
+    private Map<Integer, String> pageSortValueMap = new HashMap<>();
+
     public CursorState() {
     }
 
@@ -56,4 +65,25 @@ public class CursorState implements Serializable {
         }
         pageCursorMap.put(pageNum, cursorId);
     }
-}
\ No newline at end of file
+
+    /**
+     * Get last sort value for specific page
+     * @param pageNum page number
+     * @return sort value or null if not found
+     */
+    public String getSortValueForPage(Integer pageNum) {
+        return Objects.nonNull(pageSortValueMap) ? pageSortValueMap.get(pageNum) : null;
+    }
+
+    /**
+     * Set last sort value for specific page
+     * @param pageNum page number
+     * @param sortValue sort value
+     */
+    public void setSortValueForPage(Integer pageNum, String sortValue) {
+        if (Objects.isNull(pageSortValueMap)) {
+            pageSortValueMap = new HashMap<>(10);
+        }
+        pageSortValueMap.put(pageNum, sortValue);
+    }
+}
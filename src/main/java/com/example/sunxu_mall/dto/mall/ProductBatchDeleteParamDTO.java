@@ -0,0 +1,27 @@
+package com.example.sunxu_mall.dto.mall;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.util.List;
+
+/**
+ * 商品批量删除任务参数（存入 common_task.request_param）
+ *
+ * @author sunxu
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductBatchDeleteParamDTO implements Serializable {
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * 商品ID（已去重、升序）
+     */
+    private List<Long> ids;
+}
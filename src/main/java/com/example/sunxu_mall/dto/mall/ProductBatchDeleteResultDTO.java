@@ -0,0 +1,42 @@
+package com.example.sunxu_mall.dto.mall;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.util.List;
+
+/**
+ * 商品批量删除结果（站内信内容）
+ *
+ * @author sunxu
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductBatchDeleteResultDTO implements Serializable {
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * 任务ID
+     */
+    private Long taskId;
+
+    /**
+     * 提交的商品数
+     */
+    private Integer totalCount;
+
+    /**
+     * 实际删除的商品数（此前已删除或不存在的不计入）
+     */
+    private Integer deletedCount;
+
+    /**
+     * 删除失败的商品ID（所在块事务回滚，可重新提交）
+     */
+    private List<Long> failedIds;
+}
@@ -0,0 +1,46 @@
+package com.example.sunxu_mall.dto.mall;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Data;
+
+import java.math.BigDecimal;
+
+/**
+ * 商品字段原值 DTO（字段级合并更新时，客户端提交所修改字段在编辑前读到的值）
+ *
+ * @author sunxu
+ */
+@Data
+@Schema(description = "商品字段原值（字段级合并）")
+public class ProductFieldValuesDTO {
+
+    @Schema(description = "分类ID")
+    private Long categoryId;
+
+    @Schema(description = "品牌ID")
+    private Long brandId;
+
+    @Schema(description = "单位ID")
+    private Long unitId;
+
+    @Schema(description = "产品组ID")
+    private Long productGroupId;
+
+    @Schema(description = "商品名称")
+    private String name;
+
+    @Schema(description = "型号")
+    private String model;
+
+    @Schema(description = "总库存数量")
+    private Integer quantity;
+
+    @Schema(description = "剩余库存数量")
+    private Integer remainQuantity;
+
+    @Schema(description = "价格")
+    private BigDecimal price;
+
+    @Schema(description = "封面图片URL")
+    private String coverUrl;
+}
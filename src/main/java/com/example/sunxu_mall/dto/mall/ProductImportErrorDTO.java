@@ -0,0 +1,23 @@
+package com.example.sunxu_mall.dto.mall;
+
+import com.alibaba.excel.annotation.ExcelProperty;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 商品批量导入错误行（写入错误报告）
+ *
+ * @author sunxu
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductImportErrorDTO {
+
+    @ExcelProperty("行号")
+    private Integer rowNum;
+
+    @ExcelProperty("错误信息")
+    private String message;
+}
@@ -0,0 +1,41 @@
+package com.example.sunxu_mall.dto.mall;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+
+/**
+ * 商品批量导入任务参数（存入 common_task.request_param）
+ *
+ * @author sunxu
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductImportParamDTO implements Serializable {
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * 原始文件名
+     */
+    private String originalName;
+
+    /**
+     * 文件类型（xlsx / xls / csv）
+     */
+    private String fileType;
+
+    /**
+     * 上传后的本地路径（本地存储模式下优先读取）
+     */
+    private String filePath;
+
+    /**
+     * 上传后的访问地址（对象存储模式下通过 URL 流式读取）
+     */
+    private String fileUrl;
+}
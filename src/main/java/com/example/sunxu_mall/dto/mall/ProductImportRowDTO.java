@@ -0,0 +1,53 @@
+package com.example.sunxu_mall.dto.mall;
+
+import com.alibaba.excel.annotation.ExcelProperty;
+import lombok.Data;
+
+import java.math.BigDecimal;
+
+/**
+ * 商品批量导入行（按表头名称匹配列）
+ * <p>
+ * 属性列格式：属性ID:属性值ID，多个以分号分隔，如 "1:11;2:21"；轮播图多个 URL 以分号分隔。
+ *
+ * @author sunxu
+ */
+@Data
+public class ProductImportRowDTO {
+
+    @ExcelProperty("分类ID")
+    private Long categoryId;
+
+    @ExcelProperty("品牌ID")
+    private Long brandId;
+
+    @ExcelProperty("单位ID")
+    private Long unitId;
+
+    @ExcelProperty("商品名称")
+    private String name;
+
+    @ExcelProperty("型号")
+    private String model;
+
+    @ExcelProperty("价格")
+    private BigDecimal price;
+
+    @ExcelProperty("库存")
+    private Integer quantity;
+
+    @ExcelProperty("封面URL")
+    private String coverUrl;
+
+    @ExcelProperty("SPU属性")
+    private String spuAttributes;
+
+    @ExcelProperty("SKU属性")
+    private String skuAttributes;
+
+    @ExcelProperty("轮播图")
+    private String photos;
+
+    @ExcelProperty("详情")
+    private String detail;
+}
@@ -0,0 +1,23 @@
+package com.example.sunxu_mall.dto.mall;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Data;
+
+import javax.validation.constraints.Digits;
+import javax.validation.constraints.NotNull;
+import java.math.BigDecimal;
+
+/**
+ * 商品价格增量调整请求 DTO
+ *
+ * @author sunxu
+ */
+@Data
+@Schema(description = "价格增量调整请求")
+public class ProductPriceDeltaDTO {
+
+    @NotNull(message = "价格增量不能为空")
+    @Digits(integer = 10, fraction = 2, message = "价格格式不正确，最多2位小数")
+    @Schema(description = "价格增量（可为负，调整后不能小于0）", required = true)
+    private BigDecimal delta;
+}
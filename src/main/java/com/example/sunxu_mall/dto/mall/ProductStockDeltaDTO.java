@@ -0,0 +1,25 @@
+package com.example.sunxu_mall.dto.mall;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Data;
+
+import javax.validation.constraints.NotNull;
+import javax.validation.constraints.Size;
+
+/**
+ * 商品剩余库存增量调整请求 DTO
+ *
+ * @author sunxu
+ */
+@Data
+@Schema(description = "剩余库存增量调整请求")
+public class ProductStockDeltaDTO {
+
+    @NotNull(message = "库存增量不能为空")
+    @Schema(description = "库存增量（负数扣减，正数回补）", required = true)
+    private Integer delta;
+
+    @Size(max = 64, message = "业务键不能超过64个字符")
+    @Schema(description = "业务键（可选，启用库存预扣时用于幂等）")
+    private String bizKey;
+}
@@ -0,0 +1,33 @@
+package com.example.sunxu_mall.dto.mall;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Data;
+
+import javax.validation.constraints.Min;
+import javax.validation.constraints.NotBlank;
+import javax.validation.constraints.NotNull;
+import javax.validation.constraints.Size;
+
+/**
+ * 库存扣减/回补请求 DTO
+ *
+ * @author sunxu
+ */
+@Data
+@Schema(description = "库存扣减/回补请求")
+public class StockChangeDTO {
+
+    @NotNull(message = "商品ID不能为空")
+    @Schema(description = "商品ID", required = true)
+    private Long productId;
+
+    @NotNull(message = "数量不能为空")
+    @Min(value = 1, message = "数量必须大于0")
+    @Schema(description = "数量", required = true)
+    private Integer quantity;
+
+    @NotBlank(message = "业务键不能为空")
+    @Size(max = 64, message = "业务键不能超过64个字符")
+    @Schema(description = "业务键（订单号等，幂等期内同一业务键只生效一次）", required = true)
+    private String bizKey;
+}
@@ -10,6 +10,8 @@ import java.util.List;
 
 /**
  * 商品更新请求 DTO（字段白名单，仅包含允许更新的字段）
+ * <p>
+ * 并发控制二选一：version 整行乐观锁，或 original 字段级合并（优先）
  *
  * @author sunxu
  */
@@ -17,10 +19,12 @@ import java.util.List;
 @Schema(description = "商品更新请求")
 public class UpdateProductDTO {
 
-    @NotNull(message = "版本号不能为空")
-    @Schema(description = "乐观锁版本号（必填，用于并发控制）", required = true)
+    @Schema(description = "乐观锁版本号（整行比较；与 original 二选一）")
     private Integer version;
 
+    @Schema(description = "所修改字段的原值（字段级合并：仅当这些字段被他人改成不同值时才冲突；与 version 二选一）")
+    private ProductFieldValuesDTO original;
+
     @Schema(description = "分类ID")
     private Long categoryId;
 
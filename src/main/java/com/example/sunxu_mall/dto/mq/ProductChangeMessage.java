@@ -0,0 +1,40 @@
+package com.example.sunxu_mall.dto.mq;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.util.List;
+
+/**
+ * 商品变更消息（驱动商品读模型投影）
+ * <p>
+ * 只携带商品ID，消费方回源读取最新数据，因此消息重复/乱序都不影响最终结果
+ *
+ * @author sunxu
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductChangeMessage implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * 变更的商品ID列表
+     */
+    private List<Long> productIds;
+
+    /**
+     * 变更类型：CREATE / UPDATE / DELETE
+     */
+    private String action;
+
+    /**
+     * 事件时间戳（毫秒）
+     */
+    private Long eventTime;
+}
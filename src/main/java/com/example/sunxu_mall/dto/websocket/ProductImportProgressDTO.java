@@ -0,0 +1,56 @@
+package com.example.sunxu_mall.dto.websocket;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+
+/**
+ * 商品批量导入进度消息（每处理完一块推送一次）
+ *
+ * @author sunxu
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductImportProgressDTO implements Serializable {
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * 消息类型，固定为 PRODUCT_IMPORT_PROGRESS
+     */
+    private String type;
+
+    /**
+     * 任务ID
+     */
+    private Long taskId;
+
+    /**
+     * 已处理行数
+     */
+    private Long processedRows;
+
+    /**
+     * 成功行数
+     */
+    private Long successRows;
+
+    /**
+     * 失败行数
+     */
+    private Long failedRows;
+
+    /**
+     * 是否已完成
+     */
+    private Boolean finished;
+
+    /**
+     * 错误报告下载地址（完成且存在失败行时返回）
+     */
+    private String errorFileUrl;
+}
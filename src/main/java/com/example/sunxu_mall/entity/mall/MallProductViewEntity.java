@@ -0,0 +1,88 @@
+package com.example.sunxu_mall.entity.mall;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * 商品读模型（mall_product_view）
+ *
+ * @author sunxu
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class MallProductViewEntity implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * 商品ID
+     */
+    private Long productId;
+
+    private Long categoryId;
+
+    private Long productGroupId;
+
+    private Long brandId;
+
+    private Long unitId;
+
+    private String name;
+
+    private String model;
+
+    private Integer quantity;
+
+    private Integer remainQuantity;
+
+    private BigDecimal price;
+
+    private String coverUrl;
+
+    /**
+     * SPU 属性值列表 JSON
+     */
+    private String spuAttributesJson;
+
+    /**
+     * SKU 属性值列表 JSON
+     */
+    private String skuAttributesJson;
+
+    /**
+     * 封面图列表 JSON
+     */
+    private String coverJson;
+
+    /**
+     * 轮播图列表 JSON
+     */
+    private String swiperJson;
+
+    /**
+     * 商品详情（与 mall_product_detail.detail 相同编码）
+     */
+    private byte[] detail;
+
+    /**
+     * 投影时的商品版本号
+     */
+    private Integer productVersion;
+
+    private LocalDateTime productCreateTime;
+
+    private LocalDateTime productUpdateTime;
+
+    /**
+     * 投影同步时间
+     */
+    private LocalDateTime syncTime;
+}
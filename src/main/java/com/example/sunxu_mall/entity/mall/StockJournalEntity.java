@@ -0,0 +1,58 @@
+package com.example.sunxu_mall.entity.mall;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.time.LocalDateTime;
+
+/**
+ * 库存流水实体（mall_stock_journal，Redis 预扣流水回写记录）
+ *
+ * @author sunxu
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class StockJournalEntity implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * 主键ID
+     */
+    private Long id;
+
+    /**
+     * 流水名称（main 或 segment-分片号）
+     */
+    private String journal;
+
+    /**
+     * Redis 流水序号（同一流水内唯一）
+     */
+    private Long entrySeq;
+
+    /**
+     * 商品ID
+     */
+    private Long productId;
+
+    /**
+     * 库存变化量（扣减为负，回补为正）
+     */
+    private Integer delta;
+
+    /**
+     * 业务键（订单号等）
+     */
+    private String bizKey;
+
+    /**
+     * 回写时间
+     */
+    private LocalDateTime createTime;
+}
@@ -0,0 +1,63 @@
+package com.example.sunxu_mall.enums;
+
+import com.example.sunxu_mall.errorcode.ErrorCode;
+import com.example.sunxu_mall.exception.BusinessException;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import org.springframework.util.StringUtils;
+
+/**
+ * 导出文件格式枚举
+ *
+ * @author sunxu
+ */
+@Getter
+@AllArgsConstructor
+public enum ExportFormatEnum {
+
+    XLSX("xlsx", ".xlsx", "application/vnd.ms-excel", false, "Excel 工作簿"),
+    CSV("csv", ".csv", "text/csv", true, "CSV（UTF-8）"),
+    CSV_GZIP("csv.gz", ".csv.gz", "application/gzip", true, "gzip 压缩的 CSV");
+
+    /**
+     * 请求中的格式标识
+     */
+    private final String code;
+
+    /**
+     * 文件后缀
+     */
+    private final String suffix;
+
+    /**
+     * Content-Type
+     */
+    private final String contentType;
+
+    /**
+     * 是否支持断点续传（xlsx 为 zip 容器，写到一半的文件无法续写）
+     */
+    private final boolean resumable;
+
+    private final String desc;
+
+    /**
+     * 解析请求中的格式，未指定时为 xlsx
+     *
+     * @param code 格式标识（不区分大小写）
+     * @return 导出格式
+     * @throws BusinessException 格式不支持时抛出参数校验异常
+     */
+    public static ExportFormatEnum parse(String code) {
+        if (!StringUtils.hasText(code)) {
+            return XLSX;
+        }
+        for (ExportFormatEnum value : values()) {
+            if (value.code.equalsIgnoreCase(code.trim())) {
+                return value;
+            }
+        }
+        throw new BusinessException(ErrorCode.PARAMETER_VALIDATION_ERROR.getCode(),
+                String.format("不支持的导出格式:%s", code));
+    }
+}
@@ -11,7 +11,9 @@ import lombok.Getter;
 public enum TaskTypeEnum {
 
     EXPORT_EXCEL((byte) 1, "通用Excel数据导出"),
-    SEND_EMAIL((byte) 2, "发送邮件");
+    SEND_EMAIL((byte) 2, "发送邮件"),
+    IMPORT_PRODUCT((byte) 3, "商品批量导入"),
+    DELETE_PRODUCT((byte) 4, "商品批量删除");
 
     private final Byte code;
     private final String desc;
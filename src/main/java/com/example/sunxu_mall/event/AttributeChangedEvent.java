@@ -0,0 +1,14 @@
+package com.example.sunxu_mall.event;
+
+import org.springframework.context.ApplicationEvent;
+
+/**
+ * 属性/属性值变更事件
+ * 由 AttributeService / AttributeValueService 在写操作中发布，监听方在事务提交后刷新属性字典
+ */
+public class AttributeChangedEvent extends ApplicationEvent {
+
+    public AttributeChangedEvent(Object source) {
+        super(source);
+    }
+}
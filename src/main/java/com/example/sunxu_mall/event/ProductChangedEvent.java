@@ -0,0 +1,37 @@
+package com.example.sunxu_mall.event;
+
+import lombok.Getter;
+import org.springframework.context.ApplicationEvent;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 商品变更事件
+ * 由 ProductService 在写操作中发布，监听方在事务提交后处理（缓存失效等）
+ */
+@Getter
+public class ProductChangedEvent extends ApplicationEvent {
+
+    /**
+     * 变更类型
+     */
+    public enum Action {
+        CREATE,
+        UPDATE,
+        DELETE
+    }
+
+    private final List<Long> productIds;
+    private final Action action;
+
+    public ProductChangedEvent(Object source, List<Long> productIds, Action action) {
+        super(source);
+        this.productIds = productIds == null ? Collections.emptyList() : productIds;
+        this.action = action;
+    }
+
+    public ProductChangedEvent(Object source, Long productId, Action action) {
+        this(source, Collections.singletonList(productId), action);
+    }
+}
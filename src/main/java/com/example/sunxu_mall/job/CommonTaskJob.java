@@ -7,6 +7,8 @@ import com.example.sunxu_mall.enums.ExcelBizTypeEnum;
 import com.example.sunxu_mall.enums.TaskTypeEnum;
 import com.example.sunxu_mall.service.common.CommonTaskService;
 import com.example.sunxu_mall.service.task.IAsyncTask;
+import com.example.sunxu_mall.service.task.impl.ProductBatchDeleteTask;
+import com.example.sunxu_mall.service.task.impl.ProductImportTask;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.scheduling.annotation.Scheduled;
@@ -28,6 +30,8 @@ public class CommonTaskJob {
 
     private final CommonTaskService commonTaskService;
     private final IAsyncTask excelExportTask;
+    private final ProductImportTask productImportTask;
+    private final ProductBatchDeleteTask productBatchDeleteTask;
 
     /**
      * 定时轮询待处理任务 (兜底机制)
@@ -57,6 +61,14 @@ public class CommonTaskJob {
                         log.info("Processing Excel export task: id={}, bizType={}", task.getId(), task.getBizType());
                         excelExportTask.doTask(task);
                         break;
+                    case IMPORT_PRODUCT:
+                        log.info("Processing product import task: id={}", task.getId());
+                        productImportTask.doTask(task);
+                        break;
+                    case DELETE_PRODUCT:
+                        log.info("Processing product batch delete task: id={}", task.getId());
+                        productBatchDeleteTask.doTask(task);
+                        break;
                     default:
                         log.debug("Skipping non-excel task: id={}, bizType={}", task.getId(), task.getBizType());
                         break;
@@ -0,0 +1,63 @@
+package com.example.sunxu_mall.job;
+
+import com.example.sunxu_mall.config.props.StockConfig;
+import com.example.sunxu_mall.service.mall.StockSyncService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * @author sunxu
+ * @description 库存流水回写与对账 Job
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class StockSyncJob {
+
+    private final StockSyncService stockSyncService;
+    private final StockConfig stockConfig;
+
+    /**
+     * 定时回写 Redis 库存流水到 MySQL
+     */
+    @Scheduled(fixedDelayString = "${mall.mgt.stock.flush-interval-ms:1000}")
+    public void flush() {
+        if (!stockConfig.isEnabled()) {
+            return;
+        }
+        try {
+            stockSyncService.flush();
+        } catch (Exception e) {
+            log.warn("[Stock-Sync] Flush failed", e);
+        }
+    }
+
+    /**
+     * 定时对账（以 Redis 为准修复 MySQL）
+     */
+    @Scheduled(cron = "${mall.mgt.stock.reconcile-cron:0 0/10 * * * ?}")
+    public void reconcile() {
+        if (!stockConfig.isEnabled()) {
+            return;
+        }
+        try {
+            stockSyncService.reconcile();
+        } catch (Exception e) {
+            log.warn("[Stock-Sync] Reconcile failed", e);
+        }
+    }
+
+    /**
+     * 定时清理已回写的旧流水
+     */
+    @Scheduled(cron = "${mall.mgt.stock.journal-purge-cron:0 30 3 * * ?}")
+    public void purgeJournal() {
+        try {
+            stockSyncService.purgeJournal();
+        } catch (Exception e) {
+            log.warn("[Stock-Sync] Journal purge failed", e);
+        }
+    }
+}
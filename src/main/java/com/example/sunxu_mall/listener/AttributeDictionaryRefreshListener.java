@@ -0,0 +1,29 @@
+package com.example.sunxu_mall.listener;
+
+import com.example.sunxu_mall.event.AttributeChangedEvent;
+import com.example.sunxu_mall.service.mall.AttributeDictionaryService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+/**
+ * 属性变更事件监听器：事务提交后增量刷新属性字典
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class AttributeDictionaryRefreshListener {
+
+    private final AttributeDictionaryService attributeDictionaryService;
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onAttributeChanged(AttributeChangedEvent event) {
+        try {
+            attributeDictionaryService.refresh();
+        } catch (Exception e) {
+            log.warn("[Attribute-Dict] Failed to refresh after attribute change, will retry on schedule", e);
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package com.example.sunxu_mall.listener;
+
+import com.example.sunxu_mall.event.ProductChangedEvent;
+import com.example.sunxu_mall.service.mall.ProductDetailCacheService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+/**
+ * 商品变更事件监听器：事务提交后精确失效商品详情缓存
+ * <p>
+ * 放在 AFTER_COMMIT 阶段执行，避免"先删缓存、事务未提交又被并发读回填旧值"的问题
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ProductCacheEvictListener {
+
+    private final ProductDetailCacheService productDetailCacheService;
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        try {
+            productDetailCacheService.evict(event.getProductIds());
+        } catch (Exception e) {
+            log.warn("[Product-Cache] Failed to evict cache, action={}, productIds={}",
+                    event.getAction(), event.getProductIds(), e);
+        }
+    }
+}
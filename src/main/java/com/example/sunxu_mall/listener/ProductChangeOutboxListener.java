@@ -0,0 +1,46 @@
+package com.example.sunxu_mall.listener;
+
+import cn.hutool.core.util.IdUtil;
+import com.example.sunxu_mall.constant.MQConstant;
+import com.example.sunxu_mall.dto.mq.ProductChangeMessage;
+import com.example.sunxu_mall.event.ProductChangedEvent;
+import com.example.sunxu_mall.mq.producer.MessageProducer;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+/**
+ * 商品变更事件 -> 商品变更消息
+ * <p>
+ * 使用同步 @EventListener，在业务事务内执行：Kafka/RocketMQ 模式下消息写入 Outbox 表，与商品数据同事务提交；
+ * Local 模式下发布 MqEvent，由消费者在事务提交后处理。
+ *
+ * @author sunxu
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "mall.mgt.product-view.enabled", havingValue = "true")
+@RequiredArgsConstructor
+public class ProductChangeOutboxListener {
+
+    private final MessageProducer messageProducer;
+
+    @EventListener
+    public void onProductChanged(ProductChangedEvent event) {
+        if (event.getProductIds().isEmpty()) {
+            return;
+        }
+        ProductChangeMessage message = ProductChangeMessage.builder()
+                .productIds(event.getProductIds())
+                .action(event.getAction().name())
+                .eventTime(event.getTimestamp())
+                .build();
+        // 每次变更一条消息，key 使用雪花ID，避免 Outbox (topic,tag,msg_key) 去重误伤
+        messageProducer.send(MQConstant.MALL_PRODUCT_CHANGE_TOPIC, MQConstant.TAG_PRODUCT_CHANGE,
+                IdUtil.getSnowflakeNextIdStr(), message);
+        log.debug("[Product-View] Product change message sent, action={}, productIds={}",
+                event.getAction(), event.getProductIds());
+    }
+}
@@ -0,0 +1,30 @@
+package com.example.sunxu_mall.listener;
+
+import com.example.sunxu_mall.event.ProductChangedEvent;
+import com.example.sunxu_mall.service.mall.ProductSearchService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+/**
+ * 商品变更事件监听器：事务提交后增量更新商品搜索索引
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ProductSearchIndexListener {
+
+    private final ProductSearchService productSearchService;
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        try {
+            productSearchService.onProductsChanged(event.getProductIds());
+        } catch (Exception e) {
+            log.warn("[Product-Search] Failed to update index, action={}, productIds={}, will retry on schedule",
+                    event.getAction(), event.getProductIds(), e);
+        }
+    }
+}
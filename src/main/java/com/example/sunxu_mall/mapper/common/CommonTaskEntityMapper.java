@@ -155,4 +155,21 @@ public interface CommonTaskEntityMapper {
      * @return 影响行数，1=抢占成功，0=已被抢占或状态不对
      */
     int tryLockForRunByBizKey(@Param("bizKey") String bizKey);
-}
\ No newline at end of file
+
+    /**
+     * 查询导出检查点
+     *
+     * @param id 任务ID
+     * @return 检查点 JSON，没有时为 null
+     */
+    String selectExportCheckpoint(@Param("id") Long id);
+
+    /**
+     * 更新导出检查点（不修改乐观锁版本号，不影响任务状态的并发更新）
+     *
+     * @param id         任务ID
+     * @param checkpoint 检查点 JSON，为 null 时清除
+     * @return 影响行数
+     */
+    int updateExportCheckpoint(@Param("id") Long id, @Param("checkpoint") String checkpoint);
+}
@@ -120,4 +120,12 @@ public interface MallProductDetailEntityMapper {
      * @mbg.generated
      */
     int updateByPrimaryKey(MallProductDetailEntity row);
-}
\ No newline at end of file
+
+    /**
+     * 批量插入商品详情（多行 VALUES，一次往返）
+     *
+     * @param list 详情列表
+     * @return 插入行数
+     */
+    int batchInsert(@Param("list") List<MallProductDetailEntity> list);
+}
@@ -96,4 +96,15 @@ public interface MallProductGroupEntityMapper {
      * @mbg.generated
      */
     int updateByPrimaryKey(MallProductGroupEntity row);
-}
\ No newline at end of file
+
+    /**
+     * 插入商品组，(category_id, unit_id, hash, del_id) 唯一键冲突时不插入并回填已存在的ID
+     * <p>
+     * 冲突时通过 LAST_INSERT_ID(id) 回填已有主键，同时 version + 1 使影响行数固定为 2（新插入为 1），
+     * 不受驱动 useAffectedRows 配置影响，调用方据此判断是否由本次插入创建
+     *
+     * @param row 商品组
+     * @return 1 新插入；2 已存在
+     */
+    int upsertReturningId(MallProductGroupEntity row);
+}
@@ -96,4 +96,12 @@ public interface MallProductPhotoEntityMapper {
      * @mbg.generated
      */
     int updateByPrimaryKey(MallProductPhotoEntity row);
-}
\ No newline at end of file
+
+    /**
+     * 批量插入商品图片（多行 VALUES，一次往返）
+     *
+     * @param list 图片列表
+     * @return 插入行数
+     */
+    int batchInsert(@Param("list") List<MallProductPhotoEntity> list);
+}
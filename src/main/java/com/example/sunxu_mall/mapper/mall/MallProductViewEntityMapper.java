@@ -0,0 +1,57 @@
+package com.example.sunxu_mall.mapper.mall;
+
+import com.example.sunxu_mall.entity.mall.MallProductViewEntity;
+import org.apache.ibatis.annotations.Param;
+
+import java.util.List;
+
+/**
+ * 商品读模型 Mapper
+ *
+ * @author sunxu
+ */
+public interface MallProductViewEntityMapper {
+
+    /**
+     * 根据商品ID查询
+     *
+     * @param productId     商品ID
+     * @param includeDetail 是否查询详情列
+     * @return 读模型，不存在返回 null
+     */
+    MallProductViewEntity selectByProductId(@Param("productId") Long productId,
+                                            @Param("includeDetail") boolean includeDetail);
+
+    /**
+     * 根据商品ID批量查询
+     *
+     * @param productIds    商品ID列表
+     * @param includeDetail 是否查询详情列
+     * @return 读模型列表
+     */
+    List<MallProductViewEntity> selectByProductIds(@Param("productIds") List<Long> productIds,
+                                                   @Param("includeDetail") boolean includeDetail);
+
+    /**
+     * 批量写入（存在则按版本号覆盖，旧版本不会覆盖新版本）
+     *
+     * @param rows 读模型列表
+     * @return 影响行数
+     */
+    int batchUpsert(@Param("rows") List<MallProductViewEntity> rows);
+
+    /**
+     * 根据商品ID批量删除
+     *
+     * @param productIds 商品ID列表
+     * @return 影响行数
+     */
+    int deleteByProductIds(@Param("productIds") List<Long> productIds);
+
+    /**
+     * 删除源商品已不存在或已删除的读模型（重建时清理）
+     *
+     * @return 影响行数
+     */
+    int deleteOrphans();
+}
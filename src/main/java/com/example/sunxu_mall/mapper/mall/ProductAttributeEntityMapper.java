@@ -126,4 +126,18 @@ public interface ProductAttributeEntityMapper {
     int batchSoftDeleteByIds(@Param("ids") List<Long> ids,
                               @Param("updateUserId") Long updateUserId,
                               @Param("updateUserName") String updateUserName);
+
+    /**
+     * 批量更新属性值（CASE id WHEN ... 一条语句更新多行）
+     *
+     * @param productId      商品ID（限定只更新该商品下的属性）
+     * @param list           属性列表（id、attributeId、attributeValueId 必填）
+     * @param updateUserId   更新用户ID
+     * @param updateUserName 更新用户名
+     * @return 更新行数
+     */
+    int batchUpdateValues(@Param("productId") Long productId,
+                          @Param("list") List<ProductAttributeEntity> list,
+                          @Param("updateUserId") Long updateUserId,
+                          @Param("updateUserName") String updateUserName);
 }
\ No newline at end of file
@@ -2,10 +2,14 @@ package com.example.sunxu_mall.mapper.mall;
 
 import com.example.sunxu_mall.entity.mall.ProductEntity;
 import com.example.sunxu_mall.entity.mall.ProductEntityExample;
+import com.example.sunxu_mall.model.IdRange;
+import com.example.sunxu_mall.model.KeysetSeek;
 import org.apache.ibatis.annotations.Mapper;
 import org.apache.ibatis.annotations.Param;
 
+import java.math.BigDecimal;
 import java.util.List;
+import java.util.Map;
 
 @Mapper
 public interface ProductEntityMapper {
@@ -123,4 +127,151 @@ public interface ProductEntityMapper {
             @Param("cursorId") Long cursorId,
             @Param("limit") int limit
     );
-}
\ No newline at end of file
+
+    /**
+     * 按ID列表回表并应用其余过滤条件（倒排索引检索后使用），按 id 倒序
+     */
+    List<ProductEntity> selectByIdsWithFilters(
+            @Param("ids") List<Long> ids,
+            @Param("categoryId") Long categoryId,
+            @Param("brandId") Long brandId,
+            @Param("productGroupId") Long productGroupId
+    );
+
+    /**
+     * 键集分页查询（支持按 price / create_time / name 等列与 id 组成的复合游标）
+     */
+    List<ProductEntity> selectBySeekWithLimit(
+            @Param("name") String name,
+            @Param("model") String model,
+            @Param("categoryId") Long categoryId,
+            @Param("brandId") Long brandId,
+            @Param("productGroupId") Long productGroupId,
+            @Param("seek") KeysetSeek seek,
+            @Param("limit") int limit
+    );
+
+    /**
+     * 有上限的计数（最多数到 limit 行），用于列表总数
+     */
+    long countWithLimit(
+            @Param("name") String name,
+            @Param("model") String model,
+            @Param("categoryId") Long categoryId,
+            @Param("brandId") Long brandId,
+            @Param("productGroupId") Long productGroupId,
+            @Param("limit") long limit
+    );
+
+    /**
+     * 未删除且满足分类/品牌/商品组条件的主键范围，用于分区并行导出
+     */
+    IdRange selectIdRange(
+            @Param("categoryId") Long categoryId,
+            @Param("brandId") Long brandId,
+            @Param("productGroupId") Long productGroupId
+    );
+
+    /**
+     * 列表查询的执行计划（rows/filtered 用于估算总数）
+     */
+    List<Map<String, Object>> explainList(
+            @Param("name") String name,
+            @Param("model") String model,
+            @Param("categoryId") Long categoryId,
+            @Param("brandId") Long brandId,
+            @Param("productGroupId") Long productGroupId
+    );
+
+    /**
+     * 批量插入商品（多行 VALUES），自增ID按顺序回填到列表元素
+     *
+     * @param list 商品列表
+     * @return 插入行数
+     */
+    int batchInsert(@Param("list") List<ProductEntity> list);
+
+    /**
+     * 批量软删除商品（del_id 置为自身ID，已删除的商品不受影响）
+     *
+     * @param ids            商品ID列表
+     * @param updateUserId   更新用户ID
+     * @param updateUserName 更新用户名
+     * @return 更新行数
+     */
+    int batchSoftDeleteByIds(@Param("ids") List<Long> ids,
+                             @Param("updateUserId") Long updateUserId,
+                             @Param("updateUserName") String updateUserName);
+
+    /**
+     * 条件扣减剩余库存（未启用 Redis 预扣时使用，remain_quantity 不足时不更新）
+     *
+     * @param id       商品ID
+     * @param quantity 扣减数量
+     * @return 更新行数，0 表示库存不足或商品不存在
+     */
+    int deductRemainQuantity(@Param("id") Long id, @Param("quantity") Integer quantity);
+
+    /**
+     * 按商品聚合的增量批量调整剩余库存（remain_quantity = remain_quantity + delta，一条 CASE 语句）
+     * <p>
+     * 不修改 version 和 update_time：库存回写不应与后台编辑的乐观锁冲突，也不应触发读模型刷新。
+     *
+     * @param deltas 商品ID -> 库存增量
+     * @return 更新行数
+     */
+    int batchAddRemainQuantity(@Param("deltas") Map<Long, Integer> deltas);
+
+    /**
+     * 批量查询库存（仅 id、quantity、remain_quantity、is_del）
+     *
+     * @param ids 商品ID列表
+     * @return 商品实体列表
+     */
+    List<ProductEntity> selectRemainQuantityByIds(@Param("ids") List<Long> ids);
+
+    /**
+     * 覆盖剩余库存（对账修复使用，不修改 version 和 update_time）
+     *
+     * @param id             商品ID
+     * @param remainQuantity 剩余库存
+     * @return 更新行数
+     */
+    int updateRemainQuantity(@Param("id") Long id, @Param("remainQuantity") Integer remainQuantity);
+
+    /**
+     * 按增量调整剩余库存（单条语句，结果须落在 [0, quantity] 内，不修改 version）
+     *
+     * @param id    商品ID
+     * @param delta 库存增量（可为负）
+     * @return 更新行数，0 表示商品不存在或超出范围
+     */
+    int addRemainQuantityWithinBounds(@Param("id") Long id, @Param("delta") Integer delta);
+
+    /**
+     * 按增量调整价格（单条语句，结果不能为负；version 自增，使基于旧版本的整体更新返回冲突）
+     *
+     * @param id             商品ID
+     * @param delta          价格增量（可为负）
+     * @param updateUserId   更新用户ID
+     * @param updateUserName 更新用户名
+     * @return 更新行数，0 表示商品不存在或结果为负
+     */
+    int addPrice(@Param("id") Long id,
+                 @Param("delta") BigDecimal delta,
+                 @Param("updateUserId") Long updateUserId,
+                 @Param("updateUserName") String updateUserName);
+
+    /**
+     * 字段级合并更新：只写入 row 中非空的字段，且每个被修改字段的当前值必须等于客户端读到的原值或本次新值
+     * （他人改了其他字段不影响本次更新；version 照常自增）
+     *
+     * @param row         待写入的字段（id 必填）
+     * @param original    被修改字段的原值
+     * @param guardRemain 是否在 SQL 中校验剩余数量不大于总数量（剩余库存由 Redis 维护时由服务层校验）
+     * @return 更新行数，0 表示商品不存在、字段冲突或违反数量约束
+     */
+    int mergeUpdateFields(@Param("row") ProductEntity row,
+                          @Param("original") ProductEntity original,
+                          @Param("guardRemain") boolean guardRemain);
+}
@@ -96,4 +96,12 @@ public interface ProductGroupAttributeEntityMapper {
      * @mbg.generated
      */
     int updateByPrimaryKey(ProductGroupAttributeEntity row);
-}
\ No newline at end of file
+
+    /**
+     * 批量插入商品组属性（多行 VALUES，一次往返）
+     *
+     * @param list 属性列表
+     * @return 插入行数
+     */
+    int batchInsert(@Param("list") List<ProductGroupAttributeEntity> list);
+}
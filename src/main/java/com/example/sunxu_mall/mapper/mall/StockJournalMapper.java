@@ -0,0 +1,45 @@
+package com.example.sunxu_mall.mapper.mall;
+
+import com.example.sunxu_mall.entity.mall.StockJournalEntity;
+import org.apache.ibatis.annotations.Param;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * 库存流水 Mapper
+ *
+ * @author sunxu
+ */
+public interface StockJournalMapper {
+
+    /**
+     * 批量插入流水（多行 VALUES）
+     *
+     * @param list 流水列表
+     * @return 影响行数
+     */
+    int batchInsert(@Param("list") List<StockJournalEntity> list);
+
+    /**
+     * 指定流水已回写的最大序号
+     *
+     * @param journal 流水名称
+     * @return 最大序号，无记录返回 null
+     */
+    Long selectMaxEntrySeq(@Param("journal") String journal);
+
+    /**
+     * 删除指定流水中序号小于水位且早于指定时间的记录（按序号从小到大，每次最多 limit 条）
+     *
+     * @param journal 流水名称
+     * @param maxSeq  保留的最小序号（已回写的最大序号，该行必须保留作为水位）
+     * @param before  只删除早于该时间回写的记录
+     * @param limit   单次最多删除条数
+     * @return 删除条数
+     */
+    int deleteFlushedBefore(@Param("journal") String journal,
+                            @Param("maxSeq") Long maxSeq,
+                            @Param("before") LocalDateTime before,
+                            @Param("limit") int limit);
+}
@@ -2,7 +2,9 @@ package com.example.sunxu_mall.mapper.sys;
 
 import com.example.sunxu_mall.entity.sys.web.UserWebEntity;
 import com.example.sunxu_mall.entity.sys.web.UserWebEntityExample;
+import com.example.sunxu_mall.model.KeysetSeek;
 import java.util.List;
+import java.util.Map;
 
 import org.apache.ibatis.annotations.Mapper;
 import org.apache.ibatis.annotations.Param;
@@ -128,4 +130,40 @@ public interface UserWebEntityMapper {
             @Param("cursorId") Long cursorId,
             @Param("limit") int limit
     );
+
+    /**
+     * 键集分页查询（支持按 create_time / user_name 等列与 id 组成的复合游标）
+     */
+    List<UserWebEntity> selectBySeekWithLimit(
+            @Param("userName") String userName,
+            @Param("phone") String phone,
+            @Param("email") String email,
+            @Param("validStatus") Boolean validStatus,
+            @Param("deptId") Long deptId,
+            @Param("seek") KeysetSeek seek,
+            @Param("limit") int limit
+    );
+
+    /**
+     * 有上限的计数（最多数到 limit 行），用于列表总数
+     */
+    long countWithLimit(
+            @Param("userName") String userName,
+            @Param("phone") String phone,
+            @Param("email") String email,
+            @Param("validStatus") Boolean validStatus,
+            @Param("deptId") Long deptId,
+            @Param("limit") long limit
+    );
+
+    /**
+     * 列表查询的执行计划（rows/filtered 用于估算总数）
+     */
+    List<Map<String, Object>> explainList(
+            @Param("userName") String userName,
+            @Param("phone") String phone,
+            @Param("email") String email,
+            @Param("validStatus") Boolean validStatus,
+            @Param("deptId") Long deptId
+    );
 }
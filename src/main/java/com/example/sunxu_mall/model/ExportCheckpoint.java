@@ -0,0 +1,38 @@
+package com.example.sunxu_mall.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 导出检查点：已写出到 cursorId（含）为止的数据，对应的文件内容由 upload 描述
+ *
+ * @author sunxu
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ExportCheckpoint {
+
+    /**
+     * 导出格式标识，格式不一致时不续传
+     */
+    private String format;
+
+    /**
+     * 最后一条已写出记录的 id（按 id 倒序导出，续传时从 id &lt; cursorId 开始）
+     */
+    private Long cursorId;
+
+    /**
+     * 已写出的行数
+     */
+    private long rows;
+
+    /**
+     * 存储端检查点
+     */
+    private UploadCheckpoint upload;
+}
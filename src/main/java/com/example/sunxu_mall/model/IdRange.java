@@ -0,0 +1,20 @@
+package com.example.sunxu_mall.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 主键范围（闭区间），用于分区并行导出
+ *
+ * @author sunxu
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class IdRange {
+
+    private Long minId;
+
+    private Long maxId;
+}
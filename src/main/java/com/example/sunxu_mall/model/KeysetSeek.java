@@ -0,0 +1,139 @@
+package com.example.sunxu_mall.model;
+
+import lombok.Getter;
+
+import java.util.Objects;
+
+/**
+ * 键集分页（keyset / seek）谓词
+ * <p>
+ * 由 BaseService 根据排序规格与游标状态构造，传给子类的游标查询，Mapper 中按如下方式渲染：
+ * <pre>
+ * -- 仅按 id 排序
+ * and id &lt; #{seek.lastId} order by id desc
+ * -- 复合排序 (column, id)
+ * and (column &lt; #{seek.lastValue} or (column = #{seek.lastValue} and id &lt; #{seek.lastId}))
+ * order by column desc, id desc
+ * </pre>
+ * 排序列允许 NULL：沿用 MySQL 的 NULL 排序（NULL 最小，正序在最前、倒序在最后），order by 不变，仍可走 (列, id) 索引；
+ * seek 条件需补上 NULL 段，见 {@link #isLastValueNull()}：
+ * <pre>
+ * -- 上一页末条排序值为 NULL：倒序只剩 NULL 段；正序先取完 NULL 段，再进入非 NULL 段
+ * and ((column is null and id &lt; #{seek.lastId}))                       -- 倒序
+ * and ((column is null and id &gt; #{seek.lastId}) or column is not null)  -- 正序
+ * -- 上一页末条排序值非 NULL：倒序时 NULL 段排在其后
+ * and (column &lt; #{seek.lastValue} or (column = #{seek.lastValue} and id &lt; #{seek.lastId}) or column is null)
+ * </pre>
+ * 分区导出时另带 id 下界（含），仅用于 id 倒序：{@code and id &gt;= #{seek.lowerId}}，
+ * 使每个分区的查询停在自己的范围内，而不是读入相邻分区后再在内存中截断。
+ * <p>
+ * column / comparator / orderBy 只可能来自子类声明的 {@link SortableField} 白名单，可安全用于 ${} 拼接。
+ *
+ * @author sunxu
+ */
+@Getter
+public class KeysetSeek {
+
+    public static final String ID_COLUMN = "id";
+
+    /**
+     * 排序列（数据库列名），仅按 id 排序时为 "id"
+     */
+    private final String column;
+
+    /**
+     * 是否倒序（id 作为第二排序键，方向与主排序键一致）
+     */
+    private final boolean descending;
+
+    /**
+     * 上一页最后一条记录的排序列值（已按字段类型解析）
+     */
+    private final Object lastValue;
+
+    /**
+     * 上一页最后一条记录的 ID，为 null 表示从头开始
+     */
+    private final Long lastId;
+
+    /**
+     * id 下界（含），为 null 表示不限（仅分区导出使用）
+     */
+    private final Long lowerId;
+
+    private KeysetSeek(String column, boolean descending, Object lastValue, Long lastId, Long lowerId) {
+        this.column = column;
+        this.descending = descending;
+        this.lastValue = lastValue;
+        this.lastId = lastId;
+        this.lowerId = lowerId;
+    }
+
+    /**
+     * 默认排序：id 倒序
+     *
+     * @param cursorId 上一页最后一条记录的 ID，可为 null
+     */
+    public static KeysetSeek afterId(Long cursorId) {
+        return afterId(cursorId, null);
+    }
+
+    /**
+     * 默认排序（id 倒序），限定 id 下界
+     *
+     * @param cursorId 上一页最后一条记录的 ID，可为 null
+     * @param lowerId  id 下界（含），可为 null
+     */
+    public static KeysetSeek afterId(Long cursorId, Long lowerId) {
+        return new KeysetSeek(ID_COLUMN, true, null, cursorId, lowerId);
+    }
+
+    /**
+     * 复合排序：(field, id)
+     *
+     * @param field      排序字段
+     * @param descending 是否倒序
+     * @param lastValue  上一页最后一条记录的排序值，首页为 null
+     * @param lastId     上一页最后一条记录的 ID，首页为 null
+     */
+    public static KeysetSeek of(SortableField<?> field, boolean descending, Object lastValue, Long lastId) {
+        Objects.requireNonNull(field, "field");
+        return new KeysetSeek(field.getColumn(), descending, lastValue, lastId, null);
+    }
+
+    /**
+     * 是否仅按 id 排序
+     */
+    public boolean isIdOnly() {
+        return ID_COLUMN.equals(column);
+    }
+
+    /**
+     * 是否有游标（首页为 false）
+     */
+    public boolean isHasCursor() {
+        return Objects.nonNull(lastId);
+    }
+
+    /**
+     * 复合排序时，上一页最后一条记录的排序值是否为 NULL
+     */
+    public boolean isLastValueNull() {
+        return !isIdOnly() && Objects.isNull(lastValue);
+    }
+
+    /**
+     * 比较运算符：倒序为 &lt;，正序为 &gt;
+     */
+    public String getComparator() {
+        return descending ? "<" : ">";
+    }
+
+    /**
+     * ORDER BY 子句（不含 ORDER BY 关键字）
+     */
+    public String getOrderBy() {
+        String direction = descending ? "desc" : "asc";
+        return isIdOnly() ? "id " + direction : column + " " + direction + ", id " + direction;
+    }
+}
@@ -36,6 +36,12 @@ public class ResponseCursorEntity<T> implements Serializable {
     @Schema(description = "Whether has previous page")
     private Boolean hasPrev;
 
+    @Schema(description = "Total count (exact when totalExact is true, otherwise an estimate); null when not requested")
+    private Long total;
+
+    @Schema(description = "Whether total is exact; false means an estimate above mall.mgt.maxOffsetForTotal")
+    private Boolean totalExact;
+
     public ResponseCursorEntity() {
     }
 
@@ -65,6 +71,8 @@ public class ResponseCursorEntity<T> implements Serializable {
         target.setCurrentPageNum(source.getCurrentPageNum());
         target.setPrevCursorId(source.getPrevCursorId());
         target.setHasPrev(source.getHasPrev());
+        target.setTotal(source.getTotal());
+        target.setTotalExact(source.getTotalExact());
         return target;
     }
 }
@@ -0,0 +1,94 @@
+package com.example.sunxu_mall.model;
+
+import lombok.Getter;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Objects;
+import java.util.function.Function;
+
+/**
+ * 可排序字段声明（排序白名单）
+ * <p>
+ * 子类服务声明对外字段名、数据库列、Java 类型及取值函数，BaseService 据此构造 {@link KeysetSeek}，
+ * 并将排序值以字符串形式保存在游标令牌中、读取时按类型还原。
+ * <p>
+ * 排序列需建立 (列, id) 索引（InnoDB 二级索引自带主键，单列索引即可）；允许 NULL，
+ * NULL 排序值在令牌中记为 null，seek 条件按 MySQL 的 NULL 排序补齐（见 {@link KeysetSeek}）。
+ *
+ * @author sunxu
+ */
+@Getter
+public class SortableField<K> {
+
+    /**
+     * 对外字段名（BasePageQuery.sortBy）
+     */
+    private final String name;
+
+    /**
+     * 数据库列名
+     */
+    private final String column;
+
+    /**
+     * 字段类型（支持 String / Long / Integer / BigDecimal / LocalDateTime）
+     */
+    private final Class<?> type;
+
+    private final Function<K, ?> extractor;
+
+    private SortableField(String name, String column, Class<?> type, Function<K, ?> extractor) {
+        this.name = name;
+        this.column = column;
+        this.type = type;
+        this.extractor = extractor;
+    }
+
+    public static <K> SortableField<K> of(String name, String column, Class<?> type, Function<K, ?> extractor) {
+        return new SortableField<>(name, column, type, extractor);
+    }
+
+    /**
+     * 提取实体的排序值并格式化为字符串（用于写入游标令牌）
+     *
+     * @return 排序值为 null 时返回 null
+     */
+    public String format(K entity) {
+        Object value = extractor.apply(entity);
+        if (Objects.isNull(value)) {
+            return null;
+        }
+        if (value instanceof BigDecimal) {
+            return ((BigDecimal) value).toPlainString();
+        }
+        return value.toString();
+    }
+
+    /**
+     * 将游标令牌中的字符串还原为字段类型的值
+     *
+     * @throws IllegalArgumentException 格式错误或类型不支持时抛出
+     */
+    public Object parse(String text) {
+        if (Objects.isNull(text)) {
+            return null;
+        }
+        if (type == String.class) {
+            return text;
+        }
+        if (type == BigDecimal.class) {
+            return new BigDecimal(text);
+        }
+        if (type == LocalDateTime.class) {
+            return LocalDateTime.parse(text);
+        }
+        if (type == Long.class) {
+            return Long.valueOf(text);
+        }
+        if (type == Integer.class) {
+            return Integer.valueOf(text);
+        }
+        throw new IllegalArgumentException("Unsupported sort field type: " + type.getName());
+    }
+}
@@ -0,0 +1,35 @@
+package com.example.sunxu_mall.model;
+
+import lombok.Getter;
+
+import java.io.Serializable;
+
+/**
+ * 列表总数
+ * <p>
+ * 总数不超过阈值（mall.mgt.maxOffsetForTotal）时为精确值；超过阈值时为估算值（exact = false），
+ * 前端应展示为“约 N 条”。
+ *
+ * @author sunxu
+ */
+@Getter
+public class TotalCount implements Serializable {
+    private static final long serialVersionUID = 1L;
+
+    private final long total;
+
+    private final boolean exact;
+
+    private TotalCount(long total, boolean exact) {
+        this.total = total;
+        this.exact = exact;
+    }
+
+    public static TotalCount exact(long total) {
+        return new TotalCount(total, true);
+    }
+
+    public static TotalCount estimated(long total) {
+        return new TotalCount(total, false);
+    }
+}
@@ -0,0 +1,50 @@
+package com.example.sunxu_mall.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * 可续传上传的检查点：检查点之前的内容已持久化到存储端
+ *
+ * @author sunxu
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class UploadCheckpoint {
+
+    /**
+     * 存储路径（S3 为对象 key，本地为文件全路径）
+     */
+    private String path;
+
+    /**
+     * S3 分片上传 ID（本地存储为空）
+     */
+    private String uploadId;
+
+    /**
+     * 已上传的分片（本地存储为空）
+     */
+    private List<Part> parts;
+
+    /**
+     * 已持久化的字节数
+     */
+    private long bytes;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Part {
+
+        private int partNumber;
+
+        private String etag;
+    }
+}
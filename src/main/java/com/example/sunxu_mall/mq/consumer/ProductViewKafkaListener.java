@@ -0,0 +1,39 @@
+package com.example.sunxu_mall.mq.consumer;
+
+import com.example.sunxu_mall.dto.mq.ProductChangeMessage;
+import com.example.sunxu_mall.service.mall.ProductViewService;
+import com.example.sunxu_mall.util.JsonUtil;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.stereotype.Component;
+
+import java.util.Objects;
+
+/**
+ * @author sunxu
+ * @description Kafka 商品变更消费者（投影商品读模型）
+ */
+@Slf4j
+@Component
+@ConditionalOnExpression("'${app.mq.type:local}' == 'kafka' and ${mall.mgt.product-view.enabled:false}")
+@RequiredArgsConstructor
+public class ProductViewKafkaListener {
+
+    private final ProductViewService productViewService;
+
+    @KafkaListener(topics = "${app.mq.kafka.product-change-topic}",
+            groupId = "${app.mq.kafka.product-view-consumer-group}")
+    public void onMessage(ConsumerRecord<?, ?> record) {
+        if (Objects.isNull(record.value())) {
+            return;
+        }
+        log.info("Received Kafka product change message: key={}, value={}", record.key(), record.value());
+        ProductChangeMessage message = JsonUtil.parseObject(record.value().toString(), ProductChangeMessage.class);
+        if (Objects.nonNull(message)) {
+            productViewService.project(message.getProductIds());
+        }
+    }
+}
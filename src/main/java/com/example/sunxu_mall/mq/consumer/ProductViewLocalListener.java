@@ -0,0 +1,54 @@
+package com.example.sunxu_mall.mq.consumer;
+
+import com.example.sunxu_mall.constant.MQConstant;
+import com.example.sunxu_mall.dto.mq.ProductChangeMessage;
+import com.example.sunxu_mall.event.MqEvent;
+import com.example.sunxu_mall.service.mall.ProductViewService;
+import com.example.sunxu_mall.util.JsonUtil;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.Objects;
+
+/**
+ * @author sunxu
+ * @description 本地商品变更消费者（投影商品读模型）
+ */
+@Slf4j
+@Component
+@ConditionalOnExpression("'${app.mq.type:local}' == 'local' and ${mall.mgt.product-view.enabled:false}")
+@RequiredArgsConstructor
+public class ProductViewLocalListener {
+
+    private final ProductViewService productViewService;
+
+    @Async("commonTaskExecutor")
+    @TransactionalEventListener(
+            phase = TransactionPhase.AFTER_COMMIT,
+            fallbackExecution = true,
+            condition = "#event.topic == '" + MQConstant.MALL_PRODUCT_CHANGE_TOPIC + "'"
+    )
+    public void onEvent(MqEvent event) {
+        // 兼容 ProductChangeMessage 对象与 String JSON
+        Object message = event.getMessage();
+        ProductChangeMessage changeMessage = null;
+        if (message instanceof ProductChangeMessage) {
+            changeMessage = (ProductChangeMessage) message;
+        } else if (message instanceof String) {
+            changeMessage = JsonUtil.parseObject((String) message, ProductChangeMessage.class);
+        }
+        if (Objects.isNull(changeMessage)) {
+            return;
+        }
+        try {
+            productViewService.project(changeMessage.getProductIds());
+        } catch (Exception e) {
+            log.warn("[Product-View] Failed to project local event, productIds={}", changeMessage.getProductIds(), e);
+        }
+    }
+}
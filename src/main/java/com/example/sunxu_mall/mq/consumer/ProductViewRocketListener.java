@@ -0,0 +1,40 @@
+package com.example.sunxu_mall.mq.consumer;
+
+import com.example.sunxu_mall.constant.MQConstant;
+import com.example.sunxu_mall.dto.mq.ProductChangeMessage;
+import com.example.sunxu_mall.service.mall.ProductViewService;
+import com.example.sunxu_mall.util.JsonUtil;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.rocketmq.spring.annotation.RocketMQMessageListener;
+import org.apache.rocketmq.spring.core.RocketMQListener;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.stereotype.Component;
+
+import java.util.Objects;
+
+/**
+ * @author sunxu
+ * @description RocketMQ 商品变更消费者（投影商品读模型）
+ */
+@Slf4j
+@Component
+@ConditionalOnExpression("'${app.mq.type:local}' == 'rocket' and ${mall.mgt.product-view.enabled:false}")
+@RocketMQMessageListener(topic = "${app.mq.rocket.product-change-topic}",
+        consumerGroup = "${app.mq.rocket.product-view-consumer-group}",
+        selectorExpression = MQConstant.TAG_PRODUCT_CHANGE)
+@RequiredArgsConstructor
+public class ProductViewRocketListener implements RocketMQListener<String> {
+
+    private final ProductViewService productViewService;
+
+    @Override
+    public void onMessage(String message) {
+        log.info("RocketMQ product change consumer received message: {}", message);
+        ProductChangeMessage changeMessage = JsonUtil.parseObject(message, ProductChangeMessage.class);
+        if (Objects.nonNull(changeMessage)) {
+            // 抛出异常由 RocketMQ 重试
+            productViewService.project(changeMessage.getProductIds());
+        }
+    }
+}
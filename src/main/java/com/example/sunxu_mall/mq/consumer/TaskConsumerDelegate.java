@@ -6,6 +6,8 @@ import com.example.sunxu_mall.entity.common.CommonTaskEntity;
 import com.example.sunxu_mall.enums.TaskTypeEnum;
 import com.example.sunxu_mall.mapper.common.CommonTaskEntityMapper;
 import com.example.sunxu_mall.service.task.IAsyncTask;
+import com.example.sunxu_mall.service.task.impl.ProductBatchDeleteTask;
+import com.example.sunxu_mall.service.task.impl.ProductImportTask;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.scheduling.annotation.Async;
@@ -24,6 +26,8 @@ public class TaskConsumerDelegate {
 
     private final CommonTaskEntityMapper commonTaskEntityMapper;
     private final IAsyncTask excelExportTask;
+    private final ProductImportTask productImportTask;
+    private final ProductBatchDeleteTask productBatchDeleteTask;
 
     /**
      * 消费任务：通过原子抢占（WAITING→RUNNING）保证同一任务只被执行一次
@@ -86,6 +90,14 @@ public class TaskConsumerDelegate {
                         task.getId(), task.getBizKey(), task.getBizType());
                 excelExportTask.doTask(task);
                 break;
+            case IMPORT_PRODUCT:
+                log.info("Processing product import task: id={}, bizKey={}", task.getId(), task.getBizKey());
+                productImportTask.doTask(task);
+                break;
+            case DELETE_PRODUCT:
+                log.info("Processing product batch delete task: id={}, bizKey={}", task.getId(), task.getBizKey());
+                productBatchDeleteTask.doTask(task);
+                break;
             default:
                 log.debug("No handler for task type: {}", typeEnum);
                 break;
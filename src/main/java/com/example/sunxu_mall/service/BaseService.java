@@ -3,14 +3,26 @@ package com.example.sunxu_mall.service;
 import com.example.sunxu_mall.dto.BasePageQuery;
 import com.example.sunxu_mall.dto.CursorState;
 import com.example.sunxu_mall.exception.BusinessException;
+import com.example.sunxu_mall.model.ExportCheckpoint;
+import com.example.sunxu_mall.model.IdRange;
+import com.example.sunxu_mall.model.KeysetSeek;
 import com.example.sunxu_mall.model.ResponseCursorEntity;
+import com.example.sunxu_mall.model.SortableField;
+import com.example.sunxu_mall.model.TotalCount;
+import com.example.sunxu_mall.service.common.TotalCountService;
 import com.example.sunxu_mall.service.export.ExcelExportService;
+import com.example.sunxu_mall.util.CursorTokenCodec;
 import com.example.sunxu_mall.util.CursorTokenUtil;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
+import java.util.function.Consumer;
+
+import static com.example.sunxu_mall.errorcode.ErrorCode.PARAMETER_VALIDATION_ERROR;
 
 /**
  * @author sunxu
@@ -24,6 +36,12 @@ public abstract class BaseService<K, V extends BasePageQuery> {
     @Autowired
     private ExcelExportService excelExportService;
 
+    @Autowired
+    private CursorTokenCodec cursorTokenCodec;
+
+    @Autowired
+    private TotalCountService totalCountService;
+
     /**
      * 子类需实现此方法，根据查询条件返回列表数据（带 limit）
      * SQL 应显式包含 limit 子句
@@ -35,15 +53,16 @@ public abstract class BaseService<K, V extends BasePageQuery> {
     protected abstract List<K> selectListWithLimit(V query, int limit);
 
     /**
-     * 子类需实现此方法，根据游标条件返回列表数据（带 limit）
-     * SQL 应显式包含：where id < cursorId order by id desc limit #{limit}
+     * 子类需实现此方法，根据键集谓词返回列表数据（带 limit）
+     * SQL 应按 {@link KeysetSeek} 渲染 seek 条件与 order by，并显式包含 limit 子句；
+     * 未声明 {@link #sortableFields()} 的子类只会收到 id 倒序的谓词
      *
-     * @param query    查询条件
-     * @param cursorId 游标 ID（可为 null，表示从头开始）
-     * @param limit    限制条数
+     * @param query 查询条件
+     * @param seek  键集谓词（seek.lastId 为 null 表示从头开始）
+     * @param limit 限制条数
      * @return 数据列表
      */
-    protected abstract List<K> selectListByCursorWithLimit(V query, Long cursorId, int limit);
+    protected abstract List<K> selectListByCursorWithLimit(V query, KeysetSeek seek, int limit);
 
     /**
      * 子类需实现此方法，提取实体的 ID 用作游标
@@ -53,6 +72,48 @@ public abstract class BaseService<K, V extends BasePageQuery> {
      */
     protected abstract Long extractEntityId(K entity);
 
+    /**
+     * 子类可覆盖此方法声明支持的排序字段（sortBy -> 字段），默认仅支持 id 倒序
+     *
+     * @return 排序字段白名单
+     */
+    protected Map<String, SortableField<K>> sortableFields() {
+        return Collections.emptyMap();
+    }
+
+    /**
+     * 子类可覆盖此方法提供有上限的精确计数，用于返回列表总数；默认返回 null，表示不支持总数
+     * <p>
+     * 计数 SQL 形如 select count(*) from (select 1 from t where ... limit #{limit}) t；
+     * 条件无法走索引（如关键词 LIKE '%kw%'）时计数器可返回 null，只使用 {@link #estimateCount(BasePageQuery)}
+     *
+     * @param query 查询条件
+     * @return 有上限的计数器，不支持总数返回 null
+     */
+    protected TotalCountService.BoundedCounter totalCounter(V query) {
+        return null;
+    }
+
+    /**
+     * 子类可覆盖此方法提供主键范围，用于导出时按 id 分区并行拉取（大表建议覆盖）
+     *
+     * @param query 查询条件
+     * @return 主键范围，不支持分区返回 null
+     */
+    protected IdRange selectIdRange(V query) {
+        return null;
+    }
+
+    /**
+     * 子类可覆盖此方法提供总数估算（超过精确计数阈值时使用），如 EXPLAIN 的 rows * filtered
+     *
+     * @param query 查询条件
+     * @return 估算总数，无法估算返回 null
+     */
+    protected Long estimateCount(V query) {
+        return null;
+    }
+
     /**
      * 双向游标分页查询，支持在已访问页内跳转
      * <p>
@@ -78,33 +139,55 @@ public abstract class BaseService<K, V extends BasePageQuery> {
             pageNum = 1;
         }
 
+        // 解析排序规格（白名单校验）
+        SortableField<K> sortField = resolveSortField(query.getSortBy());
+        boolean ascending = isAscending(query.getSortDirection());
+        boolean descending = Objects.isNull(sortField) || !ascending;
+        String sortBy = Objects.isNull(sortField) ? null : sortField.getName();
+        String sortDirection = descending ? "DESC" : "ASC";
+
         // 解码游标状态
-        CursorState state = CursorTokenUtil.decode(cursorToken);
+        CursorState state = cursorTokenCodec.decode(cursorToken);
         if (Objects.isNull(state)) {
             // 首次查询，创建初始状态
             state = CursorTokenUtil.createInitialState(pageNum, pageSize);
+            state.setSortBy(sortBy);
+            state.setSortDirection(sortDirection);
         } else {
             // P1：语义自洽 - token 绑定 pageSize，避免用户篡改导致“已访问页”的游标语义错乱
             if (Objects.nonNull(state.getPageSize()) && !state.getPageSize().equals(pageSize)) {
                 throw new BusinessException("pageSize与cursorToken不一致，请重新从第一页查询");
             }
+            // token 同样绑定排序规格，排序变化后旧游标不再有意义
+            if (!Objects.equals(state.getSortBy(), sortBy)
+                    || (Objects.nonNull(state.getSortDirection()) && !state.getSortDirection().equals(sortDirection))) {
+                throw new BusinessException("排序条件与cursorToken不一致，请重新从第一页查询");
+            }
         }
 
-        // 计算查询用的游标 ID
-        // - 第 1 页：cursorId = null
-        // - 第 N 页（N > 1）：cursorId = state.getCursorForPage(N - 1)
+        // 计算查询用的键集谓词
+        // - 第 1 页：无游标
+        // - 第 N 页（N > 1）：上一页最后一条记录的 (排序值, ID)
         Long cursorId = null;
+        Object lastSortValue = null;
         if (pageNum > 1) {
             cursorId = state.getCursorForPage(pageNum - 1);
             // 未访问页拦截：如果请求的页码 > 1 但没有前一页的游标，说明用户跳到了未访问的页
             if (Objects.isNull(cursorId)) {
+                // 令牌只保留当前页附近的页游标，窗口外的已访问页同样需要重新翻页
                 throw new BusinessException("只能跳转到已访问页，请从第一页逐页翻页后再尝试跳转");
             }
+            if (Objects.nonNull(sortField)) {
+                lastSortValue = parseSortValue(sortField, state.getSortValueForPage(pageNum - 1));
+            }
         }
+        KeysetSeek seek = Objects.isNull(sortField)
+                ? KeysetSeek.afterId(cursorId)
+                : KeysetSeek.of(sortField, descending, lastSortValue, cursorId);
 
-        // 执行游标查询（始终使用 NEXT 方向：id < cursorId order by id desc limit #{fetchSize}）
+        // 执行游标查询（始终使用 NEXT 方向：seek 条件 + order by 排序列, id limit #{fetchSize}）
         int fetchSize = pageSize + 1;
-        List<K> dataList = selectListByCursorWithLimit(query, cursorId, fetchSize);
+        List<K> dataList = selectListByCursorWithLimit(query, seek, fetchSize);
 
         // 判断是否有下一页
         boolean hasNext = Objects.nonNull(dataList) && dataList.size() > pageSize;
@@ -123,13 +206,16 @@ public abstract class BaseService<K, V extends BasePageQuery> {
         state.setPageSize(pageSize);
         state.setLastId(afterCursor);
 
-        // 记录当前页的 afterCursor，供后续页使用
+        // 记录当前页的 afterCursor（及排序值），供后续页使用
         if (Objects.nonNull(afterCursor)) {
             state.setCursorForPage(pageNum, afterCursor);
+            if (Objects.nonNull(sortField)) {
+                state.setSortValueForPage(pageNum, sortField.format(dataList.get(dataList.size() - 1)));
+            }
         }
 
         // 生成新的游标令牌
-        String newCursorToken = CursorTokenUtil.encode(state);
+        String newCursorToken = cursorTokenCodec.encode(state);
 
         // 判断是否有上一页
         boolean hasPrev = pageNum > 1;
@@ -151,6 +237,7 @@ public abstract class BaseService<K, V extends BasePageQuery> {
         response.setCurrentPageNum(pageNum);
         response.setPrevCursorId(prevCursorId);
         response.setHasPrev(hasPrev);
+        fillTotal(query, response);
 
         return response;
     }
@@ -164,12 +251,106 @@ public abstract class BaseService<K, V extends BasePageQuery> {
      * @return 下载地址
      */
     public String export(V query, String fileName, String clazzName) {
+        return export(query, fileName, clazzName, null, null);
+    }
+
+    /**
+     * 可续传的excel导出方法（csv / csv.gz 在存储支持时按检查点续传）
+     *
+     * @param query              查询条件
+     * @param fileName           文件名称
+     * @param clazzName          实体类名称
+     * @param resumeFrom         上次中断时的检查点（可为 null）
+     * @param checkpointListener 检查点回调（可为 null）
+     * @return 下载地址
+     */
+    public String export(V query, String fileName, String clazzName,
+                         ExportCheckpoint resumeFrom, Consumer<ExportCheckpoint> checkpointListener) {
         return excelExportService.export(
                 query,
                 fileName,
                 clazzName,
-                this::selectListByCursorWithLimit,
-                this::extractEntityId
+                (q, cursorId, lowerId, limit) ->
+                        selectListByCursorWithLimit(q, KeysetSeek.afterId(cursorId, lowerId), limit),
+                this::extractEntityId,
+                () -> selectIdRange(query),
+                resumeFrom,
+                checkpointListener
         );
     }
+
+    /**
+     * 填充列表总数（needTotal 且子类提供计数器时），结果按查询条件缓存，翻页不会重复计数
+     */
+    private void fillTotal(V query, ResponseCursorEntity<K> response) {
+        if (!Boolean.TRUE.equals(query.getNeedTotal()) || !totalCountService.isEnabled()) {
+            return;
+        }
+        TotalCountService.BoundedCounter counter = totalCounter(query);
+        if (Objects.isNull(counter)) {
+            return;
+        }
+        TotalCount totalCount = totalCountService.count(getClass().getName(), query,
+                counter, () -> estimateCount(query));
+        if (Objects.isNull(totalCount)) {
+            return;
+        }
+        response.setTotal(totalCount.getTotal());
+        response.setTotalExact(totalCount.isExact());
+    }
+
+    /**
+     * 解析排序字段
+     *
+     * @param sortBy 对外字段名，为空表示默认 id 倒序
+     * @return 排序字段，默认排序返回 null
+     * @throws BusinessException 字段不在白名单内时抛出
+     */
+    private SortableField<K> resolveSortField(String sortBy) {
+        if (Objects.isNull(sortBy) || sortBy.trim().isEmpty()) {
+            return null;
+        }
+        SortableField<K> field = sortableFields().get(sortBy.trim());
+        if (Objects.isNull(field)) {
+            throw new BusinessException(PARAMETER_VALIDATION_ERROR.getCode(),
+                    "不支持的排序字段: " + sortBy + "，可选值: " + sortableFields().keySet());
+        }
+        return field;
+    }
+
+    /**
+     * 解析排序方向
+     *
+     * @param sortDirection ASC / DESC（不区分大小写），为空表示倒序
+     * @return 是否正序
+     * @throws BusinessException 取值不合法时抛出
+     */
+    private static boolean isAscending(String sortDirection) {
+        if (Objects.isNull(sortDirection) || sortDirection.trim().isEmpty()) {
+            return false;
+        }
+        String direction = sortDirection.trim();
+        if ("ASC".equalsIgnoreCase(direction)) {
+            return true;
+        }
+        if ("DESC".equalsIgnoreCase(direction)) {
+            return false;
+        }
+        throw new BusinessException(PARAMETER_VALIDATION_ERROR.getCode(),
+                "不支持的排序方向: " + sortDirection + "，可选值: [ASC, DESC]");
+    }
+
+    /**
+     * 还原上一页末条记录的排序值，令牌中为 null 表示该记录的排序列为 NULL
+     */
+    private Object parseSortValue(SortableField<K> sortField, String text) {
+        if (Objects.isNull(text)) {
+            return null;
+        }
+        try {
+            return sortField.parse(text);
+        } catch (Exception e) {
+            throw new BusinessException("cursorToken排序游标无效，请重新从第一页查询");
+        }
+    }
 }
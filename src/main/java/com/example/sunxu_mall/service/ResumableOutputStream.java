@@ -0,0 +1,37 @@
+package com.example.sunxu_mall.service;
+
+import com.example.sunxu_mall.model.UploadCheckpoint;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * 可续传的上传输出流：调用方在内容边界处调用 {@link #checkpoint()}，把已写入的内容持久化到存储端，
+ * 返回的检查点可在失败后交给 {@link ResumableUploadService} 从该位置继续写入。
+ *
+ * @author sunxu
+ */
+public abstract class ResumableOutputStream extends OutputStream {
+
+    /**
+     * @return 续传起点；为 null 表示从头写入
+     */
+    public abstract UploadCheckpoint getResumedFrom();
+
+    /**
+     * @return 自上个检查点以来写入、尚未持久化的字节数
+     */
+    public abstract long getPendingBytes();
+
+    /**
+     * @return 建议的检查点间隔（字节），待持久化字节数达到该值时再调用 {@link #checkpoint()}
+     */
+    public abstract long getCheckpointBytes();
+
+    /**
+     * 持久化已写入的全部内容
+     *
+     * @return 当前位置的检查点
+     */
+    public abstract UploadCheckpoint checkpoint() throws IOException;
+}
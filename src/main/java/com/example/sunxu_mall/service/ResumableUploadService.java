@@ -0,0 +1,44 @@
+package com.example.sunxu_mall.service;
+
+import com.example.sunxu_mall.dto.file.FileDTO;
+import com.example.sunxu_mall.model.UploadCheckpoint;
+
+/**
+ * @author sunxu
+ * @description 可续传的流式上传接口：写出过程中按检查点持久化，失败后可从最后一个检查点继续
+ */
+public interface ResumableUploadService extends StreamUploadService {
+
+    /**
+     * 可续传的流式上传
+     * <p>
+     * writer 正常返回时提交文件。抛出异常时：尚无检查点则丢弃已写入的内容；
+     * 已有检查点则保留检查点之前的内容，供下次以该检查点续传，不再需要时调用 {@link #discard(UploadCheckpoint)}。
+     * 续传时若检查点已失效（分片上传被中止、文件被删除等），退化为从头写入，writer 通过
+     * {@link ResumableOutputStream#getResumedFrom()} 区分。
+     *
+     * @param originalName 原始文件名（用于取后缀）
+     * @param bizType      业务类型
+     * @param fileType     文件类型（Content-Type）
+     * @param resumeFrom   续传检查点，为 null 时从头写入
+     * @param writer       内容写出逻辑
+     * @return 文件信息
+     */
+    FileDTO uploadResumable(String originalName, String bizType, String fileType,
+                            UploadCheckpoint resumeFrom, ResumableContentWriter writer);
+
+    /**
+     * 丢弃检查点对应的未完成上传（中止分片上传、删除本地文件）
+     *
+     * @param checkpoint 检查点
+     */
+    void discard(UploadCheckpoint checkpoint);
+
+    /**
+     * 可续传的内容写出逻辑
+     */
+    @FunctionalInterface
+    interface ResumableContentWriter {
+        void write(ResumableOutputStream out) throws Exception;
+    }
+}
@@ -0,0 +1,34 @@
+package com.example.sunxu_mall.service;
+
+import com.example.sunxu_mall.dto.file.FileDTO;
+
+import java.io.OutputStream;
+
+/**
+ * @author sunxu
+ * @description 流式上传接口：内容由调用方直接写入存储端的输出流，不经过临时文件和 MultipartFile
+ */
+public interface StreamUploadService {
+
+    /**
+     * 流式上传
+     * <p>
+     * writer 正常返回时提交文件；抛出异常时丢弃已写入的内容（如中止分片上传、删除本地文件）。
+     * writer 不应关闭传入的输出流。
+     *
+     * @param originalName 原始文件名（用于取后缀）
+     * @param bizType      业务类型
+     * @param fileType     文件类型（Content-Type）
+     * @param writer       内容写出逻辑
+     * @return 文件信息
+     */
+    FileDTO uploadStream(String originalName, String bizType, String fileType, ContentWriter writer);
+
+    /**
+     * 内容写出逻辑
+     */
+    @FunctionalInterface
+    interface ContentWriter {
+        void write(OutputStream out) throws Exception;
+    }
+}
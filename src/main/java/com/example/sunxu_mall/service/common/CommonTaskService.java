@@ -11,8 +11,10 @@ import com.example.sunxu_mall.enums.TaskStatusEnum;
 import com.example.sunxu_mall.enums.TaskTypeEnum;
 import com.example.sunxu_mall.exception.BusinessException;
 import com.example.sunxu_mall.mapper.common.CommonTaskEntityMapper;
+import com.example.sunxu_mall.model.ExportCheckpoint;
 import com.example.sunxu_mall.mq.producer.MessageProducer;
 import com.example.sunxu_mall.util.BeanCopyUtils;
+import com.example.sunxu_mall.util.JsonUtil;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.dao.DuplicateKeyException;
@@ -68,7 +70,37 @@ public class CommonTaskService {
                 .andCreateTimeLessThan(beforeTime);
         // 按创建时间升序，优先处理旧任务
         example.setOrderByClause("create_time asc");
-        return commonTaskEntityMapper.selectByExample(example);
+        // 重新执行需要 request_param（BLOB 字段）
+        return commonTaskEntityMapper.selectByExampleWithBLOBs(example);
+    }
+
+    /**
+     * 查询导出检查点
+     *
+     * @param taskId 任务ID
+     * @return 检查点，没有时为 null
+     */
+    public ExportCheckpoint getExportCheckpoint(Long taskId) {
+        return JsonUtil.parseObject(commonTaskEntityMapper.selectExportCheckpoint(taskId), ExportCheckpoint.class);
+    }
+
+    /**
+     * 保存导出检查点（导出过程中调用，不参与任务的乐观锁）
+     *
+     * @param taskId     任务ID
+     * @param checkpoint 检查点
+     */
+    public void saveExportCheckpoint(Long taskId, ExportCheckpoint checkpoint) {
+        commonTaskEntityMapper.updateExportCheckpoint(taskId, JsonUtil.toJsonStr(checkpoint));
+    }
+
+    /**
+     * 清除导出检查点
+     *
+     * @param taskId 任务ID
+     */
+    public void clearExportCheckpoint(Long taskId) {
+        commonTaskEntityMapper.updateExportCheckpoint(taskId, null);
     }
 
     /**
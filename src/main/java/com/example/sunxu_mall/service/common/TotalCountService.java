@@ -0,0 +1,170 @@
+package com.example.sunxu_mall.service.common;
+
+import com.alibaba.fastjson2.JSON;
+import com.alibaba.fastjson2.JSONObject;
+import com.example.sunxu_mall.config.beans.CacheConfig;
+import com.example.sunxu_mall.config.props.TotalCountConfig;
+import com.example.sunxu_mall.model.TotalCount;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.collections4.CollectionUtils;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+import java.util.function.Supplier;
+
+/**
+ * 游标分页列表总数服务
+ * <p>
+ * 计数策略：
+ * - 先做有上限的精确计数（最多数到 maxOffsetForTotal + 1 行），不超过阈值时直接返回精确值
+ * - 超过阈值时改用估算值（通常为 EXPLAIN 的 rows * filtered，即 InnoDB 统计信息），且不小于阈值 + 1
+ * - 计数器无法廉价精确计数（返回 null，如关键词无法走索引）时只返回估算值，无法估算则不返回总数
+ * <p>
+ * 结果按“作用域 + 查询条件指纹”缓存（短 TTL），同一筛选条件下翻页不会重复计数；
+ * 指纹不包含分页/排序/游标字段，因此各页共用同一个总数。
+ *
+ * @author sunxu
+ */
+@Slf4j
+@Service
+public class TotalCountService {
+
+    /**
+     * 不参与指纹计算的字段（分页、排序与游标，不影响总数）
+     */
+    private static final List<String> NON_FILTER_FIELDS = Arrays.asList(
+            "pageNum", "pageSize", "needTotal", "cursorId", "cursorDirection",
+            "sortBy", "sortDirection", "cursorToken", "exportFormat");
+
+    private final CacheManager cacheManager;
+    private final TotalCountConfig totalCountConfig;
+
+    @Value("${mall.mgt.maxOffsetForTotal:5000}")
+    private long maxOffsetForTotal;
+
+    public TotalCountService(CacheManager cacheManager, TotalCountConfig totalCountConfig) {
+        this.cacheManager = cacheManager;
+        this.totalCountConfig = totalCountConfig;
+    }
+
+    public boolean isEnabled() {
+        return totalCountConfig.isEnabled();
+    }
+
+    /**
+     * 获取总数（优先读缓存）
+     *
+     * @param scope        作用域（如服务类名），区分不同列表
+     * @param query        查询条件
+     * @param boundedCount 有上限的精确计数
+     * @param estimator    估算总数，可返回 null（此时以阈值 + 1 作为下限估算）
+     * @return 总数；无法精确计数且无法估算时返回 null
+     */
+    public TotalCount count(String scope, Object query, BoundedCounter boundedCount, Supplier<Long> estimator) {
+        String key = scope + ":" + fingerprint(query);
+        Cache cache = cacheManager.getCache(CacheConfig.TOTAL_COUNT_CACHE);
+        if (Objects.isNull(cache)) {
+            return compute(boundedCount, estimator);
+        }
+        return cache.get(key, () -> compute(boundedCount, estimator));
+    }
+
+    TotalCount compute(BoundedCounter boundedCount, Supplier<Long> estimator) {
+        long threshold = Math.max(0, maxOffsetForTotal);
+        Long counted = boundedCount.count(threshold + 1);
+        if (Objects.nonNull(counted) && counted <= threshold) {
+            return TotalCount.exact(counted);
+        }
+        Long estimate = null;
+        try {
+            estimate = estimator.get();
+        } catch (Exception e) {
+            log.warn("[Total-Count] Estimate failed, fallback to threshold", e);
+        }
+        if (Objects.isNull(counted)) {
+            // 没有精确计数作下限，估算值原样返回
+            return Objects.isNull(estimate) ? null : TotalCount.estimated(Math.max(0, estimate));
+        }
+        long total = Objects.isNull(estimate) ? threshold + 1 : Math.max(estimate, threshold + 1);
+        return TotalCount.estimated(total);
+    }
+
+    /**
+     * 查询条件指纹：去掉分页/排序字段后按字段名排序的 JSON（null 字段不输出）
+     */
+    static String fingerprint(Object query) {
+        if (Objects.isNull(query)) {
+            return "{}";
+        }
+        JSONObject json = JSON.parseObject(JSON.toJSONString(query));
+        if (Objects.isNull(json)) {
+            return "{}";
+        }
+        Map<String, Object> filters = new TreeMap<>(json);
+        NON_FILTER_FIELDS.forEach(filters::remove);
+        return JSON.toJSONString(filters);
+    }
+
+    /**
+     * 从 EXPLAIN 结果估算行数：首行（驱动表）rows * filtered / 100
+     *
+     * @param explainRows EXPLAIN 结果
+     * @return 估算行数，无法解析时返回 null
+     */
+    public static Long estimateFromExplain(List<Map<String, Object>> explainRows) {
+        if (CollectionUtils.isEmpty(explainRows)) {
+            return null;
+        }
+        Map<String, Object> first = explainRows.get(0);
+        BigDecimal rows = toDecimal(getIgnoreCase(first, "rows"));
+        if (Objects.isNull(rows)) {
+            return null;
+        }
+        BigDecimal filtered = toDecimal(getIgnoreCase(first, "filtered"));
+        if (Objects.nonNull(filtered)) {
+            rows = rows.multiply(filtered).divide(BigDecimal.valueOf(100));
+        }
+        return rows.longValue();
+    }
+
+    /**
+     * 有上限的精确计数
+     */
+    @FunctionalInterface
+    public interface BoundedCounter {
+
+        /**
+         * @param limit 最多计数的行数
+         * @return 实际计数（不超过 limit）；无法廉价精确计数时返回 null，只使用估算值
+         */
+        Long count(long limit);
+    }
+
+    private static Object getIgnoreCase(Map<String, Object> row, String key) {
+        for (Map.Entry<String, Object> entry : row.entrySet()) {
+            if (key.equalsIgnoreCase(entry.getKey())) {
+                return entry.getValue();
+            }
+        }
+        return null;
+    }
+
+    private static BigDecimal toDecimal(Object value) {
+        if (Objects.isNull(value)) {
+            return null;
+        }
+        try {
+            return new BigDecimal(value.toString());
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,322 @@
+package com.example.sunxu_mall.service.export;
+
+import com.alibaba.excel.annotation.ExcelIgnore;
+import com.alibaba.excel.annotation.ExcelIgnoreUnannotated;
+import com.alibaba.excel.annotation.ExcelProperty;
+import com.alibaba.excel.annotation.format.DateTimeFormat;
+import com.alibaba.excel.annotation.format.NumberFormat;
+import com.alibaba.excel.converters.AutoConverter;
+import com.alibaba.excel.converters.Converter;
+import com.alibaba.excel.converters.WriteConverterContext;
+import com.alibaba.excel.metadata.GlobalConfiguration;
+import com.alibaba.excel.metadata.data.WriteCellData;
+import com.alibaba.excel.metadata.property.ExcelContentProperty;
+import com.example.sunxu_mall.exception.BusinessException;
+import org.springframework.beans.BeanUtils;
+import org.springframework.util.ReflectionUtils;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.text.DecimalFormat;
+import java.text.SimpleDateFormat;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.TemporalAccessor;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.List;
+import java.util.Objects;
+import java.util.function.Function;
+
+/**
+ * CSV 流式写出（RFC 4180，UTF-8）
+ * <p>
+ * 表头与列顺序沿用 EasyExcel 的头元数据：{@link ExcelProperty}（value 取最后一级、index、order）、
+ * {@link ExcelIgnore}、{@link ExcelIgnoreUnannotated}，未注解字段以字段名作为表头；
+ * 日期按 {@link DateTimeFormat} 或 EasyExcel 的默认格式（yyyy-MM-dd HH:mm:ss / yyyy-MM-dd）输出，
+ * 数值按 {@link NumberFormat}（DecimalFormat 模式与舍入方式）输出，否则 BigDecimal 输出 plain 字符串；
+ * {@link ExcelProperty#converter()} 指定的转换器优先，其结果按单元格类型（文本/数值/布尔）取值。
+ * 与 xlsx 的差异：CSV 没有单元格格式，上述格式都直接写成文本；转换器拿不到 EasyExcel 的写上下文（WriteContext 为 null），
+ * 不支持图片、超链接、公式等单元格类型。
+ * <p>
+ * 公式注入防护：文本以 = + - @ 制表符或回车开头时前置单引号，避免 Excel 打开时当作公式执行；数值、布尔与日期不处理。
+ * 逐行直接写入缓冲字符流，没有行数上限、不分 Sheet、不产生临时文件。
+ *
+ * @author sunxu
+ */
+class CsvExportWriter {
+
+    private static final String DEFAULT_DATE_PATTERN = "yyyy-MM-dd HH:mm:ss";
+    private static final String DEFAULT_LOCAL_DATE_PATTERN = "yyyy-MM-dd";
+    private static final int BUFFER_CHARS = 64 * 1024;
+    private static final char UTF8_BOM = '\uFEFF';
+    private static final String FORMULA_PREFIXES = "=+-@\t\r";
+
+    private final Writer writer;
+    private final StringBuilder line = new StringBuilder(256);
+
+    /**
+     * 表头类型，为 null 时取第一行数据的类型
+     */
+    private final Class<?> headType;
+    private List<Column> columns;
+
+    /**
+     * @param out      输出流（不会被关闭）
+     * @param headType 表头类型，为 null 时按第一行数据的类型解析
+     * @param utf8Bom  是否写入 UTF-8 BOM（便于 Excel 直接打开时识别中文）
+     */
+    CsvExportWriter(OutputStream out, Class<?> headType, boolean utf8Bom) throws IOException {
+        this.writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), BUFFER_CHARS);
+        this.headType = headType;
+        if (utf8Bom) {
+            writer.write(UTF8_BOM);
+        }
+    }
+
+    /**
+     * 续写已有文件：不写 BOM 和表头，列按表头类型解析
+     *
+     * @param out      输出流（不会被关闭）
+     * @param headType 表头类型
+     */
+    static CsvExportWriter continuing(OutputStream out, Class<?> headType) throws IOException {
+        CsvExportWriter csvWriter = new CsvExportWriter(out, headType, false);
+        csvWriter.columns = resolveColumns(headType);
+        return csvWriter;
+    }
+
+    /**
+     * 写入一页数据（首次写入前先写表头）
+     */
+    void write(List<?> rows) throws IOException {
+        if (rows.isEmpty()) {
+            return;
+        }
+        if (Objects.isNull(columns)) {
+            writeHeader(Objects.nonNull(headType) ? headType : rows.get(0).getClass());
+        }
+        for (Object row : rows) {
+            line.setLength(0);
+            for (int i = 0; i < columns.size(); i++) {
+                if (i > 0) {
+                    line.append(',');
+                }
+                appendEscaped(columns.get(i).format(row));
+            }
+            line.append("\r\n");
+            writer.append(line);
+        }
+    }
+
+    /**
+     * 刷出缓冲，使已写入的行全部进入底层输出流
+     */
+    void flush() throws IOException {
+        writer.flush();
+    }
+
+    /**
+     * 结束写出：没有数据时仍写入表头，并刷出缓冲（不关闭底层输出流）
+     */
+    void finish() throws IOException {
+        if (Objects.isNull(columns) && Objects.nonNull(headType)) {
+            writeHeader(headType);
+        }
+        writer.flush();
+    }
+
+    private void writeHeader(Class<?> type) throws IOException {
+        columns = resolveColumns(type);
+        line.setLength(0);
+        for (int i = 0; i < columns.size(); i++) {
+            if (i > 0) {
+                line.append(',');
+            }
+            appendEscaped(columns.get(i).head);
+        }
+        line.append("\r\n");
+        writer.append(line);
+    }
+
+    /**
+     * 含逗号、引号或换行的值加引号，内部引号双写
+     */
+    private void appendEscaped(String value) {
+        if (Objects.isNull(value)) {
+            return;
+        }
+        boolean quote = false;
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == ',' || c == '"' || c == '\n' || c == '\r') {
+                quote = true;
+                break;
+            }
+        }
+        if (!quote) {
+            line.append(value);
+            return;
+        }
+        line.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"') {
+                line.append('"');
+            }
+            line.append(c);
+        }
+        line.append('"');
+    }
+
+    /**
+     * 可能被电子表格当作公式的文本前置单引号
+     */
+    static String neutralizeFormula(String value) {
+        if (Objects.isNull(value) || value.isEmpty() || FORMULA_PREFIXES.indexOf(value.charAt(0)) < 0) {
+            return value;
+        }
+        return "'" + value;
+    }
+
+    private static List<Column> resolveColumns(Class<?> headType) {
+        List<Field> fields = new ArrayList<>();
+        // 与 EasyExcel 一致：子类字段在前，父类字段在后
+        for (Class<?> type = headType; Objects.nonNull(type) && type != Object.class; type = type.getSuperclass()) {
+            for (Field field : type.getDeclaredFields()) {
+                fields.add(field);
+            }
+        }
+        boolean ignoreUnannotated = headType.isAnnotationPresent(ExcelIgnoreUnannotated.class);
+
+        List<Column> columns = new ArrayList<>(fields.size());
+        for (Field field : fields) {
+            if (Modifier.isStatic(field.getModifiers()) || Modifier.isTransient(field.getModifiers())
+                    || field.isAnnotationPresent(ExcelIgnore.class)) {
+                continue;
+            }
+            ExcelProperty property = field.getAnnotation(ExcelProperty.class);
+            if (Objects.isNull(property) && ignoreUnannotated) {
+                continue;
+            }
+            columns.add(new Column(field, property));
+        }
+        columns.sort(Comparator.comparingInt((Column c) -> c.index).thenComparingInt(c -> c.order));
+        return columns;
+    }
+
+    private static final class Column {
+
+        private final Field field;
+        private final String head;
+        private final int index;
+        private final int order;
+        private final Function<Object, String> formatter;
+
+        private Column(Field field, ExcelProperty property) {
+            ReflectionUtils.makeAccessible(field);
+            this.field = field;
+            String[] values = Objects.isNull(property) ? new String[0] : property.value();
+            this.head = values.length > 0 && !values[values.length - 1].isEmpty()
+                    ? values[values.length - 1] : field.getName();
+            this.index = Objects.nonNull(property) && property.index() >= 0 ? property.index() : Integer.MAX_VALUE;
+            this.order = Objects.isNull(property) ? Integer.MAX_VALUE : property.order();
+            this.formatter = formatterFor(field, property);
+        }
+
+        private String format(Object row) {
+            Object value = ReflectionUtils.getField(field, row);
+            return Objects.isNull(value) ? null : formatter.apply(value);
+        }
+
+        private static Function<Object, String> formatterFor(Field field, ExcelProperty property) {
+            if (Objects.nonNull(property) && property.converter() != AutoConverter.class) {
+                return converterFormatter(field, property);
+            }
+            NumberFormat numberFormat = field.getAnnotation(NumberFormat.class);
+            if (Objects.nonNull(numberFormat) && !numberFormat.value().isEmpty()) {
+                // DecimalFormat 非线程安全，每个写出器独享
+                DecimalFormat formatter = new DecimalFormat(numberFormat.value());
+                formatter.setRoundingMode(numberFormat.roundingMode());
+                return value -> value instanceof Number ? formatter.format(value) : text(value);
+            }
+            DateTimeFormat dateTimeFormat = field.getAnnotation(DateTimeFormat.class);
+            Class<?> type = field.getType();
+            String pattern = Objects.nonNull(dateTimeFormat) && !dateTimeFormat.value().isEmpty()
+                    ? dateTimeFormat.value()
+                    : LocalDate.class == type ? DEFAULT_LOCAL_DATE_PATTERN : DEFAULT_DATE_PATTERN;
+            if (LocalDateTime.class == type || LocalDate.class == type) {
+                DateTimeFormatter formatter = DateTimeFormatter.ofPattern(pattern);
+                return value -> formatter.format((TemporalAccessor) value);
+            }
+            if (Date.class.isAssignableFrom(type)) {
+                // SimpleDateFormat 非线程安全，每个写出器独享
+                SimpleDateFormat formatter = new SimpleDateFormat(pattern);
+                return value -> formatter.format((Date) value);
+            }
+            if (BigDecimal.class == type) {
+                return value -> ((BigDecimal) value).toPlainString();
+            }
+            return Column::text;
+        }
+
+        private static String text(Object value) {
+            if (value instanceof Number || value instanceof Boolean) {
+                return String.valueOf(value);
+            }
+            return neutralizeFormula(String.valueOf(value));
+        }
+
+        /**
+         * 自定义转换器：优先调用 (value, contentProperty, globalConfiguration) 版本，未实现时调用上下文版本
+         */
+        @SuppressWarnings("unchecked")
+        private static Function<Object, String> converterFormatter(Field field, ExcelProperty property) {
+            Converter<Object> converter = (Converter<Object>) BeanUtils.instantiateClass(property.converter());
+            ExcelContentProperty contentProperty = new ExcelContentProperty();
+            contentProperty.setField(field);
+            GlobalConfiguration globalConfiguration = new GlobalConfiguration();
+            return value -> {
+                WriteCellData<?> cell;
+                try {
+                    try {
+                        cell = converter.convertToExcelData(value, contentProperty, globalConfiguration);
+                    } catch (UnsupportedOperationException e) {
+                        WriteConverterContext<Object> context = new WriteConverterContext<>();
+                        context.setValue(value);
+                        context.setContentProperty(contentProperty);
+                        cell = converter.convertToExcelData(context);
+                    }
+                } catch (Exception e) {
+                    throw new BusinessException(String.format("导出字段%s转换失败: %s", field.getName(), e.getMessage()));
+                }
+                return cellText(cell);
+            };
+        }
+
+        private static String cellText(WriteCellData<?> cell) {
+            if (Objects.isNull(cell) || Objects.isNull(cell.getType())) {
+                return null;
+            }
+            switch (cell.getType()) {
+                case NUMBER:
+                    return Objects.isNull(cell.getNumberValue()) ? null : cell.getNumberValue().toPlainString();
+                case BOOLEAN:
+                    return Objects.isNull(cell.getBooleanValue()) ? null : String.valueOf(cell.getBooleanValue());
+                case EMPTY:
+                    return null;
+                default:
+                    return neutralizeFormula(cell.getStringValue());
+            }
+        }
+    }
+}
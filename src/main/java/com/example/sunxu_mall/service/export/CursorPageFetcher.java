@@ -11,10 +11,13 @@ import java.util.List;
 public interface CursorPageFetcher<K, V extends BasePageQuery> {
 
     /**
+     * 按 id 倒序拉取 id &lt; cursorId 且 id &gt;= lowerId 的记录
+     *
      * @param query    查询条件
      * @param cursorId 游标（可为 null，表示从头开始）
+     * @param lowerId  id 下界（含，可为 null 表示不限），分区导出时应下推到查询条件中
      * @param limit    拉取条数
      */
-    List<K> fetch(V query, Long cursorId, int limit);
+    List<K> fetch(V query, Long cursorId, Long lowerId, int limit);
 }
 
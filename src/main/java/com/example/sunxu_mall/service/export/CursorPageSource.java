@@ -0,0 +1,75 @@
+package com.example.sunxu_mall.service.export;
+
+import com.example.sunxu_mall.dto.BasePageQuery;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.function.Function;
+
+/**
+ * 游标分页数据源：按 id 倒序逐页拉取（id &lt; cursor），可选下界用于分区
+ *
+ * @author sunxu
+ */
+class CursorPageSource<K, V extends BasePageQuery> implements PageSource<K> {
+
+    private final V query;
+    private final CursorPageFetcher<K, V> fetcher;
+    private final Function<K, Long> idExtractor;
+    private final int pageSize;
+
+    /**
+     * 下界（含），为 null 表示不限
+     */
+    private final Long lowerBound;
+
+    private Long cursorId;
+    private boolean done;
+
+    /**
+     * @param startCursor 起始游标（不含），为 null 表示从最大 id 开始
+     * @param lowerBound  下界（含），为 null 表示读到末尾
+     */
+    CursorPageSource(V query, CursorPageFetcher<K, V> fetcher, Function<K, Long> idExtractor, int pageSize,
+                     Long startCursor, Long lowerBound) {
+        this.query = query;
+        this.fetcher = fetcher;
+        this.idExtractor = idExtractor;
+        this.pageSize = pageSize;
+        this.cursorId = startCursor;
+        this.lowerBound = lowerBound;
+    }
+
+    @Override
+    public List<K> nextPage() {
+        if (done) {
+            return Collections.emptyList();
+        }
+        List<K> page = fetcher.fetch(query, cursorId, lowerBound, pageSize);
+        if (Objects.isNull(page) || page.isEmpty()) {
+            done = true;
+            return Collections.emptyList();
+        }
+        // 返回数量少于请求数量，说明没有更多数据
+        if (page.size() < pageSize) {
+            done = true;
+        }
+        // 下界已下推到查询条件；未下推的拉取器可能返回下界以外的记录，这里截断兜底
+        if (Objects.nonNull(lowerBound)) {
+            int end = page.size();
+            while (end > 0 && idExtractor.apply(page.get(end - 1)) < lowerBound) {
+                end--;
+            }
+            if (end < page.size()) {
+                done = true;
+                page = page.subList(0, end);
+            }
+        }
+        if (!page.isEmpty()) {
+            // 更新游标为最后一条记录的 ID
+            cursorId = idExtractor.apply(page.get(page.size() - 1));
+        }
+        return page;
+    }
+}
@@ -1,43 +1,65 @@
 package com.example.sunxu_mall.service.export;
 
-import cn.hutool.core.collection.CollectionUtil;
 import com.alibaba.excel.EasyExcel;
 import com.alibaba.excel.ExcelWriter;
 import com.alibaba.excel.write.metadata.WriteSheet;
 import com.example.sunxu_mall.config.props.MallMgtExportProperties;
 import com.example.sunxu_mall.dto.BasePageQuery;
 import com.example.sunxu_mall.dto.file.FileDTO;
+import com.example.sunxu_mall.enums.ExportFormatEnum;
 import com.example.sunxu_mall.exception.BusinessException;
+import com.example.sunxu_mall.model.ExportCheckpoint;
+import com.example.sunxu_mall.model.IdRange;
+import com.example.sunxu_mall.model.UploadCheckpoint;
+import com.example.sunxu_mall.service.ResumableOutputStream;
+import com.example.sunxu_mall.service.ResumableUploadService;
+import com.example.sunxu_mall.service.StreamUploadService;
 import com.example.sunxu_mall.service.UploadService;
 import com.example.sunxu_mall.util.FileUtil;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
 
+import java.io.BufferedOutputStream;
 import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import java.util.Objects;
+import java.util.concurrent.Executor;
+import java.util.function.Consumer;
 import java.util.function.Function;
+import java.util.function.Supplier;
 
 /**
  * Excel 导出服务（使用游标分页循环拉取，不依赖 PageHelper）
  *
  * 目标：把“导出/文件/上传”等 IO 关注点从通用分页基类中剥离出来。
+ * 存储支持流式上传时直接写入存储端（内存占用为一个缓冲区，不落临时文件），否则沿用临时文件 + MultipartFile 上传。
+ * 格式由查询条件的 exportFormat 指定：xlsx（默认）、csv、csv.gz（CSV 流式写出，无 Sheet 行数上限，可断点续传）。
+ * 拉取与写入流水线并行（后台预取到有界队列）；配置并行度且提供了主键范围时，按 id 范围分区并行拉取，写入顺序与顺序导出一致。
  */
 @Slf4j
 @Service
 public class ExcelExportService {
 
-    private static final String FILE_TYPE_EXCEL = "application/vnd.ms-excel";
     private static final String FILE_BIZ_TYPE = "file";
+    private static final int GZIP_BUFFER_SIZE = 64 * 1024;
 
     private final UploadService uploadService;
     private final MallMgtExportProperties exportProperties;
+    private final Executor exportExecutor;
 
-    public ExcelExportService(UploadService uploadService, MallMgtExportProperties exportProperties) {
+    public ExcelExportService(UploadService uploadService,
+                              MallMgtExportProperties exportProperties,
+                              @Qualifier("exportExecutor") Executor exportExecutor) {
         this.uploadService = uploadService;
         this.exportProperties = exportProperties;
+        this.exportExecutor = exportExecutor;
     }
 
     public <K, V extends BasePageQuery> String export(
@@ -46,6 +68,40 @@ public class ExcelExportService {
             String clazzName,
             CursorPageFetcher<K, V> fetcher,
             Function<K, Long> idExtractor
+    ) {
+        return export(query, fileName, clazzName, fetcher, idExtractor, null);
+    }
+
+    public <K, V extends BasePageQuery> String export(
+            V query,
+            String fileName,
+            String clazzName,
+            CursorPageFetcher<K, V> fetcher,
+            Function<K, Long> idExtractor,
+            Supplier<IdRange> idRangeSupplier
+    ) {
+        return export(query, fileName, clazzName, fetcher, idExtractor, idRangeSupplier, null, null);
+    }
+
+    /**
+     * 导出
+     * <p>
+     * 格式支持续传（csv / csv.gz）且存储支持可续传上传时，每持久化约一个分片的内容回调一次检查点；
+     * 失败后以最后一个检查点重新导出，从检查点的游标继续拉取并续写同一个文件。
+     *
+     * @param idRangeSupplier    主键范围（可为 null），提供时按配置的并行度分区拉取
+     * @param resumeFrom         续传检查点（可为 null）
+     * @param checkpointListener 检查点回调（可为 null，为 null 时不续传）
+     */
+    public <K, V extends BasePageQuery> String export(
+            V query,
+            String fileName,
+            String clazzName,
+            CursorPageFetcher<K, V> fetcher,
+            Function<K, Long> idExtractor,
+            Supplier<IdRange> idRangeSupplier,
+            ExportCheckpoint resumeFrom,
+            Consumer<ExportCheckpoint> checkpointListener
     ) {
         if (Objects.isNull(fetcher)) {
             throw new BusinessException("导出配置异常：fetcher 不能为空");
@@ -54,25 +110,35 @@ public class ExcelExportService {
             throw new BusinessException("导出配置异常：idExtractor 不能为空");
         }
 
-        File file = prepareExportFile(fileName);
-
         Class<?> clazz = getExportClass(clazzName);
+        ExportFormatEnum format = ExportFormatEnum.parse(query.getExportFormat());
 
-        ExcelWriter excelWriter = null;
-        try {
-            excelWriter = EasyExcel.write(file).build();
-            fillExcelDataWithCursor(excelWriter, query, clazz, fetcher, idExtractor);
+        if (Objects.nonNull(checkpointListener) && format.isResumable()
+                && uploadService instanceof ResumableUploadService) {
+            return exportResumable(query, fileName, format, clazz, fetcher, idExtractor, idRangeSupplier,
+                    resumeFrom, checkpointListener);
+        }
+
+        StreamUploadService.ContentWriter contentWriter = out -> writeContent(out, format, clazz,
+                () -> buildPageSource(query, fetcher, idExtractor, idRangeSupplier, null));
+
+        // 支持流式上传的存储（S3/MinIO、本地）：内容直接写入存储端输出流，不落临时文件
+        if (uploadService instanceof StreamUploadService) {
+            FileDTO fileDTO = ((StreamUploadService) uploadService).uploadStream(
+                    fileName + format.getSuffix(), FILE_BIZ_TYPE, format.getContentType(), contentWriter);
+            return fileDTO.getDownloadUrl();
+        }
+
+        File file = prepareExportFile(fileName + format.getSuffix());
+        try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(file.toPath()))) {
+            contentWriter.write(out);
         } catch (Exception e) {
             log.warn("Export Excel file exception", e);
             throw new BusinessException("导出Excel文件异常: " + e.getMessage());
-        } finally {
-            if (Objects.nonNull(excelWriter)) {
-                excelWriter.finish();
-            }
         }
 
         try {
-            return uploadFileToOss(fileName, file, file.getAbsolutePath());
+            return uploadFileToOss(fileName, file, file.getAbsolutePath(), format.getContentType());
         } finally {
             // 删除临时文件，防止磁盘写满
             if (Objects.nonNull(file) && file.exists()) {
@@ -84,8 +150,195 @@ public class ExcelExportService {
         }
     }
 
+    /**
+     * 丢弃检查点对应的未完成文件（不再续传时调用）
+     */
+    public void discardCheckpoint(ExportCheckpoint checkpoint) {
+        if (Objects.nonNull(checkpoint) && uploadService instanceof ResumableUploadService) {
+            ((ResumableUploadService) uploadService).discard(checkpoint.getUpload());
+        }
+    }
+
+    /**
+     * 可续传导出：存储端检查点有效时从检查点游标继续拉取并续写，否则从头导出
+     */
+    private <K, V extends BasePageQuery> String exportResumable(
+            V query,
+            String fileName,
+            ExportFormatEnum format,
+            Class<?> clazz,
+            CursorPageFetcher<K, V> fetcher,
+            Function<K, Long> idExtractor,
+            Supplier<IdRange> idRangeSupplier,
+            ExportCheckpoint resumeFrom,
+            Consumer<ExportCheckpoint> checkpointListener
+    ) {
+        ResumableUploadService resumableUploadService = (ResumableUploadService) uploadService;
+        UploadCheckpoint uploadCheckpoint = null;
+        if (Objects.nonNull(resumeFrom)) {
+            if (format.getCode().equals(resumeFrom.getFormat()) && Objects.nonNull(resumeFrom.getCursorId())) {
+                uploadCheckpoint = resumeFrom.getUpload();
+            } else {
+                resumableUploadService.discard(resumeFrom.getUpload());
+            }
+        }
+
+        FileDTO fileDTO = resumableUploadService.uploadResumable(fileName + format.getSuffix(), FILE_BIZ_TYPE,
+                format.getContentType(), uploadCheckpoint, out -> {
+                    // 存储端检查点失效时退化为从头导出
+                    ExportCheckpoint start = Objects.nonNull(out.getResumedFrom()) ? resumeFrom : null;
+                    if (Objects.nonNull(start)) {
+                        log.info("Resume export, cursorId={}, rows={}, bytes={}",
+                                start.getCursorId(), start.getRows(), out.getResumedFrom().getBytes());
+                    }
+                    writeCsvResumable(out, format, clazz, idExtractor, start,
+                            () -> buildPageSource(query, fetcher, idExtractor, idRangeSupplier,
+                                    Objects.isNull(start) ? null : start.getCursorId()),
+                            checkpointListener);
+                });
+        return fileDTO.getDownloadUrl();
+    }
+
+    /**
+     * 按格式写出内容（不关闭输出流）
+     */
+    private <K> void writeContent(OutputStream out, ExportFormatEnum format, Class<?> clazz,
+                                  Supplier<PageSource<K>> sourceSupplier) throws IOException {
+        switch (format) {
+            case CSV:
+                writeCsv(new CsvExportWriter(out, clazz, exportProperties.isCsvUtf8Bom()), sourceSupplier, null);
+                break;
+            case CSV_GZIP:
+                try (GzipMemberOutputStream gzip = new GzipMemberOutputStream(out, GZIP_BUFFER_SIZE)) {
+                    writeCsv(new CsvExportWriter(gzip, clazz, exportProperties.isCsvUtf8Bom()), sourceSupplier, null);
+                }
+                break;
+            default:
+                writeWorkbook(EasyExcel.write(out).autoCloseStream(false).build(), clazz, sourceSupplier);
+        }
+    }
+
+    /**
+     * 写入 CSV 并在行边界处产生检查点（csv.gz 在检查点处结束当前 gzip member）
+     *
+     * @param start 续传起点，为 null 时从头写入（含 BOM 与表头）
+     */
+    private <K> void writeCsvResumable(ResumableOutputStream out, ExportFormatEnum format, Class<?> clazz,
+                                       Function<K, Long> idExtractor, ExportCheckpoint start,
+                                       Supplier<PageSource<K>> sourceSupplier,
+                                       Consumer<ExportCheckpoint> checkpointListener) throws IOException {
+        GzipMemberOutputStream gzip = format == ExportFormatEnum.CSV_GZIP
+                ? new GzipMemberOutputStream(out, GZIP_BUFFER_SIZE) : null;
+        OutputStream target = Objects.nonNull(gzip) ? gzip : out;
+        CsvExportWriter csvWriter = Objects.isNull(start)
+                ? new CsvExportWriter(target, clazz, exportProperties.isCsvUtf8Bom())
+                : CsvExportWriter.continuing(target, clazz);
+        long[] rows = {Objects.isNull(start) ? 0 : start.getRows()};
+
+        writeCsv(csvWriter, sourceSupplier, page -> {
+            rows[0] += page.size();
+            if (out.getPendingBytes() < out.getCheckpointBytes()) {
+                return;
+            }
+            csvWriter.flush();
+            if (Objects.nonNull(gzip)) {
+                gzip.finishMember();
+            }
+            checkpointListener.accept(ExportCheckpoint.builder()
+                    .format(format.getCode())
+                    .cursorId(idExtractor.apply(page.get(page.size() - 1)))
+                    .rows(rows[0])
+                    .upload(out.checkpoint())
+                    .build());
+        });
+        if (Objects.nonNull(gzip)) {
+            gzip.finishMember();
+        }
+    }
+
+    /**
+     * 逐页写入 CSV（无 Sheet 行数上限）
+     *
+     * @param afterPage 每页写入后的回调（可为 null）
+     */
+    private <K> void writeCsv(CsvExportWriter csvWriter, Supplier<PageSource<K>> sourceSupplier,
+                              PageCallback<K> afterPage) throws IOException {
+        try (PageSource<K> source = sourceSupplier.get()) {
+            List<K> dataEntities = source.nextPage();
+            while (!dataEntities.isEmpty()) {
+                csvWriter.write(dataEntities);
+                if (Objects.nonNull(afterPage)) {
+                    afterPage.afterPage(dataEntities);
+                }
+                dataEntities = source.nextPage();
+            }
+        }
+        csvWriter.finish();
+    }
+
+    /**
+     * 逐页写入工作簿，结束时 finish（输出流是否关闭由 writer 的构建参数决定）
+     * <p>
+     * 数据源在写入线程上创建，结束或异常时关闭（取消分区的后台拉取）
+     */
+    private <K> void writeWorkbook(ExcelWriter excelWriter, Class<?> clazz, Supplier<PageSource<K>> sourceSupplier) {
+        try (PageSource<K> source = sourceSupplier.get()) {
+            fillExcelData(excelWriter, clazz, source);
+        } finally {
+            excelWriter.finish();
+        }
+    }
+
+    /**
+     * 构建数据源：并行度大于 1 且主键范围足够大时分区并行，否则顺序游标分页（开启预取时后台拉取）
+     */
+    private <K, V extends BasePageQuery> PageSource<K> buildPageSource(
+            V query,
+            CursorPageFetcher<K, V> fetcher,
+            Function<K, Long> idExtractor,
+            Supplier<IdRange> idRangeSupplier,
+            Long startCursor
+    ) {
+        int pageSize = exportProperties.getExportPageSize();
+        int parallelism = exportProperties.getExportParallelism();
+        IdRange range = parallelism > 1 && Objects.nonNull(idRangeSupplier) ? idRangeSupplier.get() : null;
+        if (Objects.nonNull(range) && Objects.nonNull(range.getMaxId()) && Objects.nonNull(startCursor)) {
+            // 续传只需导出 id < startCursor 的部分
+            range = new IdRange(range.getMinId(), Math.min(range.getMaxId(), startCursor - 1));
+        }
+        if (Objects.isNull(range) || Objects.isNull(range.getMinId()) || Objects.isNull(range.getMaxId())
+                || range.getMaxId() - range.getMinId() + 1 < exportProperties.getPartitionMinIdSpan()) {
+            PageSource<K> source = new CursorPageSource<>(query, fetcher, idExtractor, pageSize, startCursor, null);
+            // 流水线：后台拉取下一页的同时写入当前页
+            return exportProperties.isExportPrefetchEnabled()
+                    ? new PrefetchingPageSource<>(List.of(source), exportExecutor, exportProperties.getPrefetchPages())
+                    : source;
+        }
+
+        long span = range.getMaxId() - range.getMinId() + 1;
+        long partitionSize = (span + parallelism - 1) / parallelism;
+        List<PageSource<K>> sources = new ArrayList<>(parallelism);
+        for (int i = 0; i < parallelism; i++) {
+            long upper = range.getMaxId() - i * partitionSize;
+            long lower = Math.max(range.getMinId(), upper - partitionSize + 1);
+            if (upper < range.getMinId()) {
+                break;
+            }
+            boolean first = i == 0;
+            boolean last = lower == range.getMinId();
+            // 首分区不设上界（续传时从 startCursor 开始）、末分区不设下界，导出期间新增/范围外的数据与顺序导出保持一致
+            sources.add(new CursorPageSource<>(query, fetcher, idExtractor, pageSize,
+                    first ? startCursor : upper + 1, last ? null : lower));
+            if (last) {
+                break;
+            }
+        }
+        log.info("Partitioned export, idRange=[{}, {}], partitions={}", range.getMinId(), range.getMaxId(), sources.size());
+        return new PrefetchingPageSource<>(sources, exportExecutor, exportProperties.getPrefetchPages());
+    }
+
     private File prepareExportFile(String fileName) {
-        String downloadPath = exportProperties.getTempPath() + fileName + ".xlsx";
+        String downloadPath = exportProperties.getTempPath() + fileName;
         File file = new File(downloadPath);
         File parentFile = file.getParentFile();
         if (Objects.nonNull(parentFile) && !parentFile.exists()) {
@@ -106,48 +359,31 @@ public class ExcelExportService {
         }
     }
 
-    private <K, V extends BasePageQuery> void fillExcelDataWithCursor(
-            ExcelWriter excelWriter,
-            V query,
-            Class<?> clazz,
-            CursorPageFetcher<K, V> fetcher,
-            Function<K, Long> idExtractor
-    ) {
+    private <K> void fillExcelData(ExcelWriter excelWriter, Class<?> clazz, PageSource<K> source) {
         int sheetIndex = 1;
         int currentSheetRowCount = 0;
-        Long cursorId = null;
-        boolean hasMore = true;
 
         WriteSheet writeSheet = buildWriteSheet(sheetIndex, clazz);
 
-        while (hasMore) {
-            List<K> dataEntities = fetcher.fetch(query, cursorId, exportProperties.getExportPageSize());
+        List<K> dataEntities = source.nextPage();
+        if (dataEntities.isEmpty()) {
+            // 没有数据：确保至少写入空表头
+            excelWriter.write(Collections.emptyList(), writeSheet);
+            return;
+        }
 
-            if (CollectionUtil.isEmpty(dataEntities)) {
-                // 没有更多数据：确保至少写入空表头
-                if (sheetIndex == 1 && currentSheetRowCount == 0) {
-                    excelWriter.write(Collections.emptyList(), writeSheet);
-                }
-                break;
+        while (!dataEntities.isEmpty()) {
+            // 当前 Sheet 已满且还有数据时切换到新的 Sheet
+            if (currentSheetRowCount >= exportProperties.getSheetDataSize()) {
+                sheetIndex++;
+                writeSheet = buildWriteSheet(sheetIndex, clazz);
+                currentSheetRowCount = 0;
             }
 
             excelWriter.write(dataEntities, writeSheet);
             currentSheetRowCount += dataEntities.size();
 
-            // 更新游标为最后一条记录的 ID
-            cursorId = idExtractor.apply(dataEntities.get(dataEntities.size() - 1));
-
-            // 如果返回数量少于请求数量，说明没有更多数据
-            if (dataEntities.size() < exportProperties.getExportPageSize()) {
-                hasMore = false;
-            }
-
-            // 检查是否需要切换到新的 Sheet
-            if (currentSheetRowCount >= exportProperties.getSheetDataSize() && hasMore) {
-                sheetIndex++;
-                writeSheet = buildWriteSheet(sheetIndex, clazz);
-                currentSheetRowCount = 0;
-            }
+            dataEntities = source.nextPage();
         }
     }
 
@@ -160,15 +396,22 @@ public class ExcelExportService {
         }
     }
 
-    private String uploadFileToOss(String fileName, File file, String defaultPath) {
+    private String uploadFileToOss(String fileName, File file, String defaultPath, String contentType) {
         try {
             MultipartFile multipartFile = FileUtil.toMultipartFile(fileName, file);
-            FileDTO fileDTO = uploadService.upload(multipartFile, FILE_BIZ_TYPE, FILE_TYPE_EXCEL);
+            FileDTO fileDTO = uploadService.upload(multipartFile, FILE_BIZ_TYPE, contentType);
             return fileDTO.getDownloadUrl();
         } catch (Exception e) {
             log.warn("Failed to upload excel file to oss server, return local path. Reason: {}", e.getMessage());
             return defaultPath;
         }
     }
-}
 
+    /**
+     * 每页写入后的回调
+     */
+    @FunctionalInterface
+    private interface PageCallback<K> {
+        void afterPage(List<K> page) throws IOException;
+    }
+}
@@ -0,0 +1,70 @@
+package com.example.sunxu_mall.service.export;
+
+import org.springframework.util.StreamUtils;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Objects;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * 由多个 gzip member 首尾相接组成的 gzip 输出（RFC 1952 允许，gzip/zcat 与 GZIPInputStream 均按一个文件解压）
+ * <p>
+ * {@link #finishMember()} 结束当前 member，使已写出的字节构成完整的 gzip 文件，可作为续传的切分点；
+ * 之后的写入自动开始新的 member。关闭时不关闭底层输出流。
+ *
+ * @author sunxu
+ */
+class GzipMemberOutputStream extends OutputStream {
+
+    private final OutputStream out;
+    private final int bufferSize;
+    private GZIPOutputStream member;
+
+    GzipMemberOutputStream(OutputStream out, int bufferSize) {
+        this.out = StreamUtils.nonClosing(out);
+        this.bufferSize = bufferSize;
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+        member().write(b);
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+        member().write(b, off, len);
+    }
+
+    @Override
+    public void flush() throws IOException {
+        if (Objects.nonNull(member)) {
+            member.flush();
+        } else {
+            out.flush();
+        }
+    }
+
+    /**
+     * 结束当前 member（写出剩余压缩数据与尾部，释放 Deflater）
+     */
+    void finishMember() throws IOException {
+        if (Objects.nonNull(member)) {
+            GZIPOutputStream finished = member;
+            member = null;
+            finished.close();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        finishMember();
+    }
+
+    private GZIPOutputStream member() throws IOException {
+        if (Objects.isNull(member)) {
+            member = new GZIPOutputStream(out, bufferSize);
+        }
+        return member;
+    }
+}
@@ -0,0 +1,23 @@
+package com.example.sunxu_mall.service.export;
+
+import java.util.List;
+
+/**
+ * 导出数据页来源（按输出顺序逐页返回，返回空列表表示结束）
+ *
+ * @author sunxu
+ */
+interface PageSource<K> extends AutoCloseable {
+
+    /**
+     * 下一页数据，结束时返回空列表
+     */
+    List<K> nextPage();
+
+    /**
+     * 释放资源（如取消后台拉取），默认无操作
+     */
+    @Override
+    default void close() {
+    }
+}
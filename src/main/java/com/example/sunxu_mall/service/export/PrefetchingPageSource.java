@@ -0,0 +1,158 @@
+package com.example.sunxu_mall.service.export;
+
+import com.example.sunxu_mall.exception.BusinessException;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 预取数据源：后台线程拉取数据页放入有界队列，写入方按顺序消费，拉取与写入流水线并行
+ * <p>
+ * 支持一个或多个分区（分区按 id 范围切分，见 {@link CursorPageSource} 的上下界）：
+ * 每个分区由一个后台任务拉取，至多缓冲 bufferPages 页（队列满时阻塞，即背压）；
+ * 写入方依次消费分区 0、1、2……，输出顺序与顺序导出完全一致，内存占用不超过 分区数 × bufferPages 页。
+ * <p>
+ * 分区任务尚未开始（线程池繁忙排队或被拒绝后由调用线程执行）时，写入方到达该分区会直接接管、在当前线程同步拉取，
+ * 后台任务随后启动时发现已被接管即退出，因此与导出任务共用线程池也不会互相等待。
+ * 后台拉取异常在写入方读到该位置时抛出；写入方结束或失败时 {@link #close()} 取消所有后台拉取。
+ *
+ * @author sunxu
+ */
+@Slf4j
+class PrefetchingPageSource<K> implements PageSource<K> {
+
+    private static final long OFFER_TIMEOUT_MILLIS = 200;
+
+    private static final int UNCLAIMED = 0;
+    private static final int BY_BACKGROUND = 1;
+    private static final int BY_WRITER = 2;
+
+    private final List<Partition<K>> partitions;
+    private final Thread writerThread;
+
+    private volatile boolean cancelled;
+    private int current;
+
+    /**
+     * @param sources     各分区数据源，按输出顺序（id 从大到小）排列
+     * @param executor    后台拉取线程池
+     * @param bufferPages 每个分区最多缓冲的页数
+     */
+    PrefetchingPageSource(List<? extends PageSource<K>> sources, Executor executor, int bufferPages) {
+        this.writerThread = Thread.currentThread();
+        this.partitions = new ArrayList<>(sources.size());
+        for (PageSource<K> source : sources) {
+            partitions.add(new Partition<>(source, Math.max(1, bufferPages)));
+        }
+        for (int i = 0; i < partitions.size(); i++) {
+            Partition<K> partition = partitions.get(i);
+            try {
+                executor.execute(() -> produce(partition));
+            } catch (RejectedExecutionException e) {
+                log.debug("Prefetch partition {} rejected by executor, will be read by writer", i);
+            }
+        }
+    }
+
+    @Override
+    public List<K> nextPage() {
+        while (current < partitions.size()) {
+            List<K> page = partitions.get(current).next(this);
+            if (!page.isEmpty()) {
+                return page;
+            }
+            current++;
+        }
+        return Collections.emptyList();
+    }
+
+    @Override
+    public void close() {
+        cancelled = true;
+    }
+
+    private void produce(Partition<K> partition) {
+        // 拒绝策略为调用方执行时会在写入线程上运行：留给写入方到达时同步读取
+        if (Thread.currentThread() == writerThread || !partition.claim(BY_BACKGROUND)) {
+            return;
+        }
+        try {
+            List<K> page;
+            do {
+                page = partition.source.nextPage();
+                if (!partition.offer(page, this)) {
+                    return;
+                }
+            } while (!page.isEmpty());
+        } catch (Throwable e) {
+            log.warn("Prefetch export page failed", e);
+            partition.error = e;
+            partition.offer(Collections.emptyList(), this);
+        }
+    }
+
+    private static final class Partition<K> {
+
+        private final PageSource<K> source;
+        private final BlockingQueue<List<K>> buffer;
+        private final AtomicInteger owner = new AtomicInteger(UNCLAIMED);
+        private volatile Throwable error;
+
+        private Partition(PageSource<K> source, int bufferPages) {
+            this.source = source;
+            this.buffer = new ArrayBlockingQueue<>(bufferPages);
+        }
+
+        private boolean claim(int by) {
+            return owner.compareAndSet(UNCLAIMED, by);
+        }
+
+        /**
+         * 写入方读取下一页（空列表表示该分区结束）
+         */
+        private List<K> next(PrefetchingPageSource<K> parent) {
+            if (claim(BY_WRITER) || owner.get() == BY_WRITER) {
+                return source.nextPage();
+            }
+            try {
+                List<K> page = buffer.take();
+                if (page.isEmpty() && error != null) {
+                    if (error instanceof RuntimeException) {
+                        throw (RuntimeException) error;
+                    }
+                    throw new BusinessException("导出拉取数据异常: " + error.getMessage());
+                }
+                return page;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                parent.cancelled = true;
+                throw new BusinessException("导出被中断");
+            }
+        }
+
+        /**
+         * 后台线程放入一页（队列满时等待），写入方取消时返回 false
+         */
+        private boolean offer(List<K> page, PrefetchingPageSource<K> parent) {
+            try {
+                while (!parent.cancelled) {
+                    if (buffer.offer(page, OFFER_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS)) {
+                        return true;
+                    }
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            log.debug("Prefetch export cancelled, stop fetching");
+            return false;
+        }
+    }
+}
@@ -0,0 +1,324 @@
+package com.example.sunxu_mall.service.mall;
+
+import com.example.sunxu_mall.config.props.AttributeDictionaryConfig;
+import com.example.sunxu_mall.entity.mall.AttributeValueEntity;
+import com.example.sunxu_mall.entity.mall.MallAttributeEntity;
+import com.example.sunxu_mall.entity.mall.MallAttributeEntityExample;
+import com.example.sunxu_mall.entity.mall.MallAttributeValueEntity;
+import com.example.sunxu_mall.entity.mall.MallAttributeValueEntityExample;
+import com.example.sunxu_mall.mapper.mall.MallAttributeEntityMapper;
+import com.example.sunxu_mall.mapper.mall.MallAttributeValueEntityMapper;
+import com.example.sunxu_mall.util.LongObjectMap;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.collections4.CollectionUtils;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Objects;
+import java.util.stream.Collectors;
+
+/**
+ * 属性/属性值内存字典
+ * <p>
+ * mall_attribute、mall_attribute_value 数据量小且很少变更，全量常驻内存，按 ID 查询不再访问 DB。
+ * <p>
+ * 数据结构：long 主键的开放寻址表（{@link LongObjectMap}），整份快照写时复制、volatile 引用替换，读操作无锁。
+ * <p>
+ * 刷新策略：
+ * - 首次访问时全量加载
+ * - 按 update_time 水位线增量刷新（定时 + 本实例写操作提交后触发）
+ * - 按 ID 查询未命中时回源补齐（覆盖其他实例新建、尚未被定时刷新感知的数据）
+ * <p>
+ * 软删除的数据同样保留在 ID 字典中（已关联商品仍需展示属性名），仅在"全部属性"列表中过滤。
+ *
+ * @author sunxu
+ */
+@Slf4j
+@Service
+public class AttributeDictionaryService {
+
+    private static final LocalDateTime INITIAL_WATERMARK = LocalDateTime.of(1970, 1, 1, 0, 0);
+
+    private final MallAttributeEntityMapper attributeEntityMapper;
+    private final MallAttributeValueEntityMapper attributeValueEntityMapper;
+    private final AttributeDictionaryConfig attributeDictionaryConfig;
+
+    private final Object refreshLock = new Object();
+
+    private volatile Snapshot snapshot;
+
+    public AttributeDictionaryService(MallAttributeEntityMapper attributeEntityMapper,
+                                      MallAttributeValueEntityMapper attributeValueEntityMapper,
+                                      AttributeDictionaryConfig attributeDictionaryConfig) {
+        this.attributeEntityMapper = attributeEntityMapper;
+        this.attributeValueEntityMapper = attributeValueEntityMapper;
+        this.attributeDictionaryConfig = attributeDictionaryConfig;
+    }
+
+    /**
+     * 按ID批量获取属性值（商品详情组装使用）
+     *
+     * @param attributeValueIds 属性值ID列表
+     * @return 属性值实体列表（按入参顺序，忽略不存在的ID）
+     */
+    public List<AttributeValueEntity> getAttributeValues(List<Long> attributeValueIds) {
+        if (CollectionUtils.isEmpty(attributeValueIds)) {
+            return Collections.emptyList();
+        }
+        if (!attributeDictionaryConfig.isEnabled()) {
+            return toAttributeValueViews(selectValuesByIds(attributeValueIds));
+        }
+
+        Snapshot current = ensureLoaded();
+        List<Long> missed = new ArrayList<>();
+        for (Long id : attributeValueIds) {
+            if (Objects.nonNull(id) && Objects.isNull(current.valueViews.get(id))) {
+                missed.add(id);
+            }
+        }
+        if (!missed.isEmpty()) {
+            current = loadMissedValues(missed);
+        }
+
+        List<AttributeValueEntity> result = new ArrayList<>(attributeValueIds.size());
+        for (Long id : attributeValueIds) {
+            if (Objects.isNull(id)) {
+                continue;
+            }
+            AttributeValueEntity value = current.valueViews.get(id);
+            if (Objects.nonNull(value)) {
+                result.add(value);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * 获取所有未删除的属性（按ID升序）
+     */
+    public List<MallAttributeEntity> getActiveAttributes() {
+        if (!attributeDictionaryConfig.isEnabled()) {
+            MallAttributeEntityExample example = new MallAttributeEntityExample();
+            example.createCriteria().andIsDelEqualTo(false);
+            example.setOrderByClause("id asc");
+            return attributeEntityMapper.selectByExample(example);
+        }
+        return ensureLoaded().activeAttributes;
+    }
+
+    /**
+     * 获取属性下所有未删除的属性值（按排序值、ID升序）
+     *
+     * @param attributeId 属性ID
+     * @return 属性值列表，不存在返回空列表
+     */
+    public List<MallAttributeValueEntity> getActiveValuesByAttributeId(Long attributeId) {
+        if (Objects.isNull(attributeId)) {
+            return Collections.emptyList();
+        }
+        if (!attributeDictionaryConfig.isEnabled()) {
+            MallAttributeValueEntityExample example = new MallAttributeValueEntityExample();
+            example.createCriteria().andAttributeIdEqualTo(attributeId).andIsDelEqualTo(false);
+            example.setOrderByClause("sort asc, id asc");
+            return attributeValueEntityMapper.selectByExample(example);
+        }
+        List<MallAttributeValueEntity> values = ensureLoaded().activeValuesByAttribute.get(attributeId);
+        return Objects.isNull(values) ? Collections.emptyList() : values;
+    }
+
+    /**
+     * 增量刷新（本实例写操作提交后调用）
+     */
+    public void refresh() {
+        if (!attributeDictionaryConfig.isEnabled()) {
+            return;
+        }
+        synchronized (refreshLock) {
+            if (Objects.isNull(snapshot)) {
+                snapshot = fullLoad();
+                return;
+            }
+            refreshIncrementally();
+        }
+    }
+
+    /**
+     * 定时增量刷新，感知其他实例的修改（未加载过则跳过，保持懒加载）
+     */
+    @Scheduled(fixedDelayString = "${mall.mgt.attribute-dict.refresh-interval-ms:30000}")
+    public void scheduledRefresh() {
+        if (!attributeDictionaryConfig.isEnabled() || Objects.isNull(snapshot)) {
+            return;
+        }
+        try {
+            refresh();
+        } catch (Exception e) {
+            log.warn("[Attribute-Dict] Scheduled refresh failed", e);
+        }
+    }
+
+    private Snapshot ensureLoaded() {
+        Snapshot current = snapshot;
+        if (Objects.nonNull(current)) {
+            return current;
+        }
+        synchronized (refreshLock) {
+            if (Objects.isNull(snapshot)) {
+                snapshot = fullLoad();
+            }
+            return snapshot;
+        }
+    }
+
+    private Snapshot fullLoad() {
+        List<MallAttributeEntity> attributes = attributeEntityMapper.selectByExample(new MallAttributeEntityExample());
+        List<MallAttributeValueEntity> values = attributeValueEntityMapper.selectByExample(new MallAttributeValueEntityExample());
+
+        LongObjectMap<MallAttributeEntity> attributeMap = new LongObjectMap<>(attributes.size());
+        attributes.forEach(attr -> attributeMap.put(attr.getId(), attr));
+        LongObjectMap<MallAttributeValueEntity> valueMap = new LongObjectMap<>(values.size());
+        values.forEach(value -> valueMap.put(value.getId(), value));
+
+        LocalDateTime watermark = maxUpdateTime(INITIAL_WATERMARK, attributes, values);
+        log.info("[Attribute-Dict] Full load: attributes={}, values={}, watermark={}",
+                attributeMap.size(), valueMap.size(), watermark);
+        return new Snapshot(attributeMap, valueMap, watermark);
+    }
+
+    /**
+     * 基于 update_time 水位线拉取变更（含软删除），写时复制后替换快照
+     * 调用方需持有 refreshLock
+     */
+    private void refreshIncrementally() {
+        Snapshot current = snapshot;
+        LocalDateTime since = current.watermark.minusSeconds(attributeDictionaryConfig.getWatermarkOverlapSeconds());
+
+        MallAttributeEntityExample attrExample = new MallAttributeEntityExample();
+        attrExample.createCriteria().andUpdateTimeGreaterThanOrEqualTo(since);
+        List<MallAttributeEntity> changedAttributes = attributeEntityMapper.selectByExample(attrExample);
+
+        MallAttributeValueEntityExample valueExample = new MallAttributeValueEntityExample();
+        valueExample.createCriteria().andUpdateTimeGreaterThanOrEqualTo(since);
+        List<MallAttributeValueEntity> changedValues = attributeValueEntityMapper.selectByExample(valueExample);
+
+        if (changedAttributes.isEmpty() && changedValues.isEmpty()) {
+            return;
+        }
+
+        snapshot = current.apply(changedAttributes, changedValues,
+                maxUpdateTime(current.watermark, changedAttributes, changedValues));
+        log.debug("[Attribute-Dict] Incremental refresh: attributes={}, values={}",
+                changedAttributes.size(), changedValues.size());
+    }
+
+    private Snapshot loadMissedValues(List<Long> missedIds) {
+        List<MallAttributeValueEntity> loaded = selectValuesByIds(missedIds);
+        if (loaded.isEmpty()) {
+            return snapshot;
+        }
+        synchronized (refreshLock) {
+            Snapshot current = snapshot;
+            // 水位线保持不变：回源补齐的只是个别ID，不能代表其他变更已被感知
+            snapshot = current.apply(Collections.emptyList(), loaded, current.watermark);
+            return snapshot;
+        }
+    }
+
+    private List<MallAttributeValueEntity> selectValuesByIds(List<Long> ids) {
+        List<Long> distinctIds = ids.stream().filter(Objects::nonNull).distinct().collect(Collectors.toList());
+        if (distinctIds.isEmpty()) {
+            return Collections.emptyList();
+        }
+        MallAttributeValueEntityExample example = new MallAttributeValueEntityExample();
+        example.createCriteria().andIdIn(distinctIds);
+        return attributeValueEntityMapper.selectByExample(example);
+    }
+
+    private List<AttributeValueEntity> toAttributeValueViews(List<MallAttributeValueEntity> values) {
+        return values.stream().map(AttributeDictionaryService::toAttributeValueView).collect(Collectors.toList());
+    }
+
+    private static AttributeValueEntity toAttributeValueView(MallAttributeValueEntity source) {
+        AttributeValueEntity target = new AttributeValueEntity();
+        target.setId(source.getId());
+        target.setAttributeId(source.getAttributeId());
+        target.setValue(source.getValue());
+        target.setSort(source.getSort());
+        target.setCreateUserId(source.getCreateUserId());
+        target.setCreateUserName(source.getCreateUserName());
+        target.setCreateTime(source.getCreateTime());
+        target.setUpdateUserId(source.getUpdateUserId());
+        target.setUpdateUserName(source.getUpdateUserName());
+        target.setUpdateTime(source.getUpdateTime());
+        target.setIsDel(source.getIsDel());
+        return target;
+    }
+
+    private static LocalDateTime maxUpdateTime(LocalDateTime base,
+                                               List<MallAttributeEntity> attributes,
+                                               List<MallAttributeValueEntity> values) {
+        LocalDateTime max = base;
+        for (MallAttributeEntity attr : attributes) {
+            if (Objects.nonNull(attr.getUpdateTime()) && attr.getUpdateTime().isAfter(max)) {
+                max = attr.getUpdateTime();
+            }
+        }
+        for (MallAttributeValueEntity value : values) {
+            if (Objects.nonNull(value.getUpdateTime()) && value.getUpdateTime().isAfter(max)) {
+                max = value.getUpdateTime();
+            }
+        }
+        return max;
+    }
+
+    /**
+     * 字典快照（不可变，发布后只读）
+     */
+    private static final class Snapshot {
+        private final LongObjectMap<MallAttributeEntity> attributes;
+        private final LongObjectMap<MallAttributeValueEntity> values;
+        private final LongObjectMap<AttributeValueEntity> valueViews;
+        private final List<MallAttributeEntity> activeAttributes;
+        private final LongObjectMap<List<MallAttributeValueEntity>> activeValuesByAttribute;
+        private final LocalDateTime watermark;
+
+        private Snapshot(LongObjectMap<MallAttributeEntity> attributes,
+                         LongObjectMap<MallAttributeValueEntity> values,
+                         LocalDateTime watermark) {
+            this.attributes = attributes;
+            this.values = values;
+            this.watermark = watermark;
+
+            this.valueViews = new LongObjectMap<>(values.size());
+            values.forEach((id, value) -> valueViews.put(id, toAttributeValueView(value)));
+
+            this.activeAttributes = Collections.unmodifiableList(attributes.values().stream()
+                    .filter(attr -> !Boolean.TRUE.equals(attr.getIsDel()))
+                    .sorted(Comparator.comparing(MallAttributeEntity::getId))
+                    .collect(Collectors.toList()));
+
+            this.activeValuesByAttribute = new LongObjectMap<>(activeAttributes.size());
+            values.values().stream()
+                    .filter(value -> !Boolean.TRUE.equals(value.getIsDel()) && Objects.nonNull(value.getAttributeId()))
+                    .sorted(Comparator.comparing(MallAttributeValueEntity::getSort, Comparator.nullsLast(Comparator.naturalOrder()))
+                            .thenComparing(MallAttributeValueEntity::getId))
+                    .collect(Collectors.groupingBy(MallAttributeValueEntity::getAttributeId, Collectors.toList()))
+                    .forEach((attributeId, list) -> activeValuesByAttribute.put(attributeId, Collections.unmodifiableList(list)));
+        }
+
+        private Snapshot apply(List<MallAttributeEntity> changedAttributes,
+                               List<MallAttributeValueEntity> changedValues,
+                               LocalDateTime newWatermark) {
+            LongObjectMap<MallAttributeEntity> newAttributes = new LongObjectMap<>(attributes);
+            changedAttributes.forEach(attr -> newAttributes.put(attr.getId(), attr));
+            LongObjectMap<MallAttributeValueEntity> newValues = new LongObjectMap<>(values);
+            changedValues.forEach(value -> newValues.put(value.getId(), value));
+            return new Snapshot(newAttributes, newValues, newWatermark);
+        }
+    }
+}
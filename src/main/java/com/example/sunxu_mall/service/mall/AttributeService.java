@@ -5,16 +5,16 @@ import com.example.sunxu_mall.dto.mall.CreateAttributeDTO;
 import com.example.sunxu_mall.dto.mall.UpdateAttributeDTO;
 import com.example.sunxu_mall.entity.mall.MallAttributeEntity;
 import com.example.sunxu_mall.entity.mall.MallAttributeEntityExample;
-import com.example.sunxu_mall.entity.mall.MallAttributeValueEntity;
-import com.example.sunxu_mall.entity.mall.MallAttributeValueEntityExample;
+import com.example.sunxu_mall.event.AttributeChangedEvent;
 import com.example.sunxu_mall.exception.BusinessException;
 import com.example.sunxu_mall.mapper.mall.MallAttributeEntityMapper;
-import com.example.sunxu_mall.mapper.mall.MallAttributeValueEntityMapper;
+import com.example.sunxu_mall.model.KeysetSeek;
 import com.example.sunxu_mall.model.ResponseCursorEntity;
 import com.example.sunxu_mall.service.BaseService;
 import com.example.sunxu_mall.vo.mall.AttributeVO;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.BeanUtils;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.retry.annotation.Backoff;
 import org.springframework.retry.annotation.Retryable;
@@ -39,14 +39,18 @@ public class AttributeService extends BaseService<AttributeVO, AttributeQueryDTO
 
     private final MallAttributeEntityMapper attributeEntityMapper;
 
-    private final MallAttributeValueEntityMapper attributeValueEntityMapper;
+    private final AttributeDictionaryService attributeDictionaryService;
+
+    private final ApplicationEventPublisher eventPublisher;
 
     public AttributeService(
             MallAttributeEntityMapper attributeEntityMapper,
-            MallAttributeValueEntityMapper attributeValueEntityMapper
+            AttributeDictionaryService attributeDictionaryService,
+            ApplicationEventPublisher eventPublisher
     ) {
         this.attributeEntityMapper = attributeEntityMapper;
-        this.attributeValueEntityMapper = attributeValueEntityMapper;
+        this.attributeDictionaryService = attributeDictionaryService;
+        this.eventPublisher = eventPublisher;
     }
 
 
@@ -64,10 +68,10 @@ public class AttributeService extends BaseService<AttributeVO, AttributeQueryDTO
     }
 
     @Override
-    protected List<AttributeVO> selectListByCursorWithLimit(AttributeQueryDTO query, Long cursorId, int limit) {
+    protected List<AttributeVO> selectListByCursorWithLimit(AttributeQueryDTO query, KeysetSeek seek, int limit) {
         return attributeEntityMapper.selectByCursorWithLimit(
                 query.getName(),
-                cursorId,
+                seek.getLastId(),
                 limit
         );
     }
@@ -78,23 +82,17 @@ public class AttributeService extends BaseService<AttributeVO, AttributeQueryDTO
     }
 
 
+    /**
+     * 获取所有属性及其属性值（读取内存字典）
+     *
+     * @return 属性列表，每项包含 id、name、values
+     */
     public List<Map<String, Object>> getAllWithValues() {
-        MallAttributeEntityExample attrExample = new MallAttributeEntityExample();
-        attrExample.createCriteria().andIsDelEqualTo(false);
-        List<MallAttributeEntity> attrs = attributeEntityMapper.selectByExample(attrExample);
-
-        MallAttributeValueEntityExample valueExample = new MallAttributeValueEntityExample();
-        valueExample.createCriteria().andIsDelEqualTo(false);
-        List<MallAttributeValueEntity> values = attributeValueEntityMapper.selectByExample(valueExample);
-
-        Map<Long, List<MallAttributeValueEntity>> valueMap = values.stream()
-                .collect(Collectors.groupingBy(MallAttributeValueEntity::getAttributeId));
-
-        return attrs.stream().map(attr -> {
+        return attributeDictionaryService.getActiveAttributes().stream().map(attr -> {
             Map<String, Object> map = new HashMap<>();
             map.put("id", attr.getId());
             map.put("name", attr.getName());
-            map.put("values", valueMap.getOrDefault(attr.getId(), new ArrayList<>()));
+            map.put("values", attributeDictionaryService.getActiveValuesByAttributeId(attr.getId()));
             return map;
         }).collect(Collectors.toList());
     }
@@ -119,6 +117,7 @@ public class AttributeService extends BaseService<AttributeVO, AttributeQueryDTO
         // 审计字段由 MyBatis 拦截器自动填充
 
         attributeEntityMapper.insertSelective(attribute);
+        eventPublisher.publishEvent(new AttributeChangedEvent(this));
 
         return convertToVO(attribute);
     }
@@ -161,6 +160,7 @@ public class AttributeService extends BaseService<AttributeVO, AttributeQueryDTO
             log.warn("Optimistic lock failure for attributeId {}", id);
             throw new OptimisticLockingFailureException("属性数据已被修改，请刷新后重试");
         }
+        eventPublisher.publishEvent(new AttributeChangedEvent(this));
 
         // 重新查询并返回更新后的数据
         MallAttributeEntity updated = attributeEntityMapper.selectByPrimaryKey(id);
@@ -188,7 +188,9 @@ public class AttributeService extends BaseService<AttributeVO, AttributeQueryDTO
         update.setIsDel(true);
         // 审计字段由 MyBatis 拦截器自动填充
 
-        return attributeEntityMapper.updateByExampleSelective(update, example) > 0;
+        boolean deleted = attributeEntityMapper.updateByExampleSelective(update, example) > 0;
+        eventPublisher.publishEvent(new AttributeChangedEvent(this));
+        return deleted;
     }
 
 
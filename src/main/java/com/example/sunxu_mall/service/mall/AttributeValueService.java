@@ -6,15 +6,18 @@ import com.example.sunxu_mall.dto.mall.UpdateAttributeValueDTO;
 import com.example.sunxu_mall.entity.mall.MallAttributeEntity;
 import com.example.sunxu_mall.entity.mall.MallAttributeValueEntity;
 import com.example.sunxu_mall.entity.mall.MallAttributeValueEntityExample;
+import com.example.sunxu_mall.event.AttributeChangedEvent;
 import com.example.sunxu_mall.exception.BusinessException;
 import com.example.sunxu_mall.mapper.mall.MallAttributeEntityMapper;
 import com.example.sunxu_mall.mapper.mall.MallAttributeValueEntityMapper;
+import com.example.sunxu_mall.model.KeysetSeek;
 import com.example.sunxu_mall.model.ResponseCursorEntity;
 import com.example.sunxu_mall.service.BaseService;
 import com.example.sunxu_mall.util.BeanCopyUtils;
 import com.example.sunxu_mall.vo.mall.AttributeValueVO;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.BeanUtils;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.retry.annotation.Backoff;
 import org.springframework.retry.annotation.Retryable;
@@ -43,12 +46,16 @@ public class AttributeValueService extends BaseService<AttributeValueVO, Attribu
 
     private final MallAttributeEntityMapper attributeEntityMapper;
 
+    private final ApplicationEventPublisher eventPublisher;
+
     public AttributeValueService(
             MallAttributeValueEntityMapper attributeValueEntityMapper,
-            MallAttributeEntityMapper attributeEntityMapper
+            MallAttributeEntityMapper attributeEntityMapper,
+            ApplicationEventPublisher eventPublisher
     ) {
         this.attributeValueEntityMapper = attributeValueEntityMapper;
         this.attributeEntityMapper = attributeEntityMapper;
+        this.eventPublisher = eventPublisher;
     }
 
 
@@ -67,11 +74,11 @@ public class AttributeValueService extends BaseService<AttributeValueVO, Attribu
     }
 
     @Override
-    protected List<AttributeValueVO> selectListByCursorWithLimit(AttributeValueQueryDTO query, Long cursorId, int limit) {
+    protected List<AttributeValueVO> selectListByCursorWithLimit(AttributeValueQueryDTO query, KeysetSeek seek, int limit) {
         return attributeValueEntityMapper.selectByCursorWithLimit(
                 query.getAttributeId(),
                 query.getValue(),
-                cursorId,
+                seek.getLastId(),
                 limit
         );
     }
@@ -106,7 +113,9 @@ public class AttributeValueService extends BaseService<AttributeValueVO, Attribu
         entity.setVersion(1);
         // 审计字段由 MyBatis 拦截器自动填充
 
-        return attributeValueEntityMapper.insert(entity) > 0;
+        boolean inserted = attributeValueEntityMapper.insert(entity) > 0;
+        eventPublisher.publishEvent(new AttributeChangedEvent(this));
+        return inserted;
     }
 
 
@@ -153,6 +162,7 @@ public class AttributeValueService extends BaseService<AttributeValueVO, Attribu
             throw new OptimisticLockingFailureException("属性值数据已被修改，请刷新后重试");
         }
 
+        eventPublisher.publishEvent(new AttributeChangedEvent(this));
         return true;
     }
 
@@ -177,7 +187,9 @@ public class AttributeValueService extends BaseService<AttributeValueVO, Attribu
         MallAttributeValueEntityExample example = new MallAttributeValueEntityExample();
         example.createCriteria().andIdIn(ids).andIsDelEqualTo(false);
 
-        return attributeValueEntityMapper.updateByExampleSelective(update, example) > 0;
+        boolean deleted = attributeValueEntityMapper.updateByExampleSelective(update, example) > 0;
+        eventPublisher.publishEvent(new AttributeChangedEvent(this));
+        return deleted;
     }
 
     private void validateAttribute(Long attributeId) {
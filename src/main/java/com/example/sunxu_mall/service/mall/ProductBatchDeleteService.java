@@ -0,0 +1,171 @@
+package com.example.sunxu_mall.service.mall;
+
+import cn.hutool.core.util.IdUtil;
+import com.example.sunxu_mall.config.props.ProductBatchDeleteConfig;
+import com.example.sunxu_mall.dto.mall.ProductBatchDeleteParamDTO;
+import com.example.sunxu_mall.dto.mall.ProductBatchDeleteResultDTO;
+import com.example.sunxu_mall.entity.common.CommonTaskEntity;
+import com.example.sunxu_mall.enums.ExcelBizTypeEnum;
+import com.example.sunxu_mall.enums.TaskStatusEnum;
+import com.example.sunxu_mall.enums.TaskTypeEnum;
+import com.example.sunxu_mall.errorcode.ErrorCode;
+import com.example.sunxu_mall.exception.BusinessException;
+import com.example.sunxu_mall.service.common.CommonTaskService;
+import com.example.sunxu_mall.util.JsonUtil;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.collections4.CollectionUtils;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.stream.Collectors;
+
+/**
+ * 商品批量级联删除（异步任务，按ID升序分块、每块一个短事务）
+ * <p>
+ * 每块调用 {@link ProductService#cascadeDeleteChunk(List)}，固定 5 条批量语句软删商品、属性、详情、图片和旧图片表；
+ * 业务时段使用更小的块和更长的块间停顿，避免长时间持有商品相关表的行锁。
+ * 级联删除只作用于未删除的行，任务可安全重跑。
+ *
+ * @author sunxu
+ */
+@Slf4j
+@Service
+public class ProductBatchDeleteService {
+
+    private final ProductService productService;
+    private final CommonTaskService commonTaskService;
+    private final ProductBatchDeleteConfig productBatchDeleteConfig;
+
+    public ProductBatchDeleteService(ProductService productService,
+                                     CommonTaskService commonTaskService,
+                                     ProductBatchDeleteConfig productBatchDeleteConfig) {
+        this.productService = productService;
+        this.commonTaskService = commonTaskService;
+        this.productBatchDeleteConfig = productBatchDeleteConfig;
+    }
+
+    /**
+     * 提交批量删除任务
+     *
+     * @param ids 商品ID列表
+     * @return 任务业务键
+     */
+    public String submit(List<Long> ids) {
+        if (CollectionUtils.isEmpty(ids)) {
+            throw new BusinessException(ErrorCode.PARAMETER_MISSING.getCode(), "商品ID不能为空");
+        }
+        List<Long> sortedIds = ids.stream()
+                .filter(Objects::nonNull)
+                .distinct()
+                .sorted()
+                .collect(Collectors.toList());
+        if (sortedIds.size() > productBatchDeleteConfig.getMaxIds()) {
+            throw new BusinessException(ErrorCode.PARAMETER_VALIDATION_ERROR.getCode(),
+                    String.format("单次最多删除%d个商品", productBatchDeleteConfig.getMaxIds()));
+        }
+
+        CommonTaskEntity task = CommonTaskEntity.builder()
+                .bizKey(IdUtil.getSnowflakeNextIdStr())
+                .name(String.format("Delete %d Products", sortedIds.size()))
+                .status(TaskStatusEnum.WAITING.getCode())
+                .failureCount((byte) 0)
+                .type(TaskTypeEnum.DELETE_PRODUCT.getCode())
+                .bizType(ExcelBizTypeEnum.PRODUCT.getCode())
+                .requestParam(JsonUtil.toJsonStr(ProductBatchDeleteParamDTO.builder().ids(sortedIds).build()))
+                .isDel(false)
+                .version(0)
+                .build();
+        commonTaskService.insert(task);
+        return task.getBizKey();
+    }
+
+    /**
+     * 执行批量删除（块失败只记录该块ID，继续处理后续块）
+     *
+     * @param task 删除任务
+     * @return 删除结果
+     */
+    public ProductBatchDeleteResultDTO runDelete(CommonTaskEntity task) {
+        ProductBatchDeleteParamDTO param = JsonUtil.parseObject(task.getRequestParam(), ProductBatchDeleteParamDTO.class);
+        if (Objects.isNull(param) || CollectionUtils.isEmpty(param.getIds())) {
+            throw new BusinessException(ErrorCode.PARAMETER_MISSING.getCode(), "删除任务参数缺失");
+        }
+        List<Long> ids = param.getIds();
+        long startTime = System.currentTimeMillis();
+
+        int deleted = 0;
+        int chunks = 0;
+        List<Long> failedIds = new ArrayList<>();
+        int from = 0;
+        while (from < ids.size()) {
+            boolean businessHours = isBusinessHours(LocalTime.now());
+            int chunkSize = Math.max(1, businessHours
+                    ? productBatchDeleteConfig.getBusinessHoursChunkSize()
+                    : productBatchDeleteConfig.getChunkSize());
+            List<Long> chunk = new ArrayList<>(ids.subList(from, Math.min(from + chunkSize, ids.size())));
+            try {
+                deleted += productService.cascadeDeleteChunk(chunk);
+            } catch (Exception e) {
+                log.warn("[Product-Batch-Delete] Task {} chunk failed, firstId={}, size={}",
+                        task.getId(), chunk.get(0), chunk.size(), e);
+                failedIds.addAll(chunk);
+            }
+            from += chunk.size();
+            chunks++;
+
+            if (from < ids.size() && !pause(businessHours)) {
+                log.warn("[Product-Batch-Delete] Task {} interrupted, remaining={}", task.getId(), ids.size() - from);
+                failedIds.addAll(ids.subList(from, ids.size()));
+                break;
+            }
+        }
+
+        log.info("[Product-Batch-Delete] Task {} finished, total={}, deleted={}, failed={}, chunks={}, cost={}ms",
+                task.getId(), ids.size(), deleted, failedIds.size(), chunks, System.currentTimeMillis() - startTime);
+        return ProductBatchDeleteResultDTO.builder()
+                .taskId(task.getId())
+                .totalCount(ids.size())
+                .deletedCount(deleted)
+                .failedIds(failedIds)
+                .build();
+    }
+
+    /**
+     * 是否处于业务时段（支持跨零点，如 20:00-02:00）
+     */
+    boolean isBusinessHours(LocalTime now) {
+        LocalTime start = productBatchDeleteConfig.getBusinessHoursStart();
+        LocalTime end = productBatchDeleteConfig.getBusinessHoursEnd();
+        if (Objects.isNull(start) || Objects.isNull(end) || start.equals(end)) {
+            return false;
+        }
+        if (start.isBefore(end)) {
+            return !now.isBefore(start) && now.isBefore(end);
+        }
+        return !now.isBefore(start) || now.isBefore(end);
+    }
+
+    /**
+     * 块间停顿
+     *
+     * @return 被中断时返回 false
+     */
+    private boolean pause(boolean businessHours) {
+        long millis = businessHours
+                ? productBatchDeleteConfig.getBusinessHoursPauseMillis()
+                : productBatchDeleteConfig.getPauseMillis();
+        if (millis <= 0) {
+            return true;
+        }
+        try {
+            Thread.sleep(millis);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+}
@@ -0,0 +1,496 @@
+package com.example.sunxu_mall.service.mall;
+
+import com.example.sunxu_mall.config.beans.CacheConfig;
+import com.example.sunxu_mall.config.props.ProductCacheConfig;
+import com.example.sunxu_mall.dto.mall.ProductDetailDTO;
+import com.example.sunxu_mall.util.JsonUtil;
+import com.example.sunxu_mall.util.RedisUtil;
+import lombok.extern.slf4j.Slf4j;
+import org.redisson.api.RTopic;
+import org.redisson.api.RedissonClient;
+import org.redisson.client.codec.StringCodec;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Service;
+import org.springframework.util.StringUtils;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+
+/**
+ * 商品详情多级缓存（组装后的 ProductDetailDTO）
+ * <p>
+ * 缓存策略：
+ * - L1: Caffeine 本地缓存（CacheConfig.PRODUCT_DETAIL_CACHE）
+ * - L2: Redis 分布式缓存（跨实例共享）
+ * <p>
+ * 防护策略：
+ * - 穿透保护：对不存在的商品做短 TTL 负缓存
+ * - 击穿保护：本地互斥锁，同一商品同一时刻只允许一个线程回源
+ * <p>
+ * 失效策略：由 ProductChangedEvent 在事务提交后触发 {@link #evict(Collection)}，精确删除受影响条目
+ * - L1 失效通过 Redisson RTopic 广播到所有实例（含本实例），各实例失效自己的 Caffeine 条目
+ * - 回源前记录商品的失效代数，写回缓存前比较：回源期间发生过失效则不回填，避免旧值覆盖
+ * - 延迟双删：失效后延迟再删一次 L2 并再广播一次，兜底其他实例在失效前已开始、失效后才写回的回源
+ *
+ * @author sunxu
+ */
+@Slf4j
+@Service
+public class ProductDetailCacheService {
+
+    private static final String REDIS_PREFIX = "product:detail:";
+
+    /**
+     * 负缓存标记（用于穿透保护）
+     */
+    private static final String NULL_CACHE_VALUE = "__NULL__";
+
+    /**
+     * L1 失效广播主题（消息为逗号分隔的商品ID）
+     */
+    private static final String EVICT_TOPIC = "product:detail:evict";
+
+    /**
+     * 失效代数分段数（按商品ID取模，分段内任一商品失效都会使该分段的回源结果不回填）
+     */
+    private static final int EPOCH_STRIPES = 1024;
+
+    private final CacheManager cacheManager;
+    private final RedisUtil redisUtil;
+    private final ProductCacheConfig productCacheConfig;
+    private final RedissonClient redissonClient;
+
+    /**
+     * 失效代数：本实例收到某商品的失效时递增
+     */
+    private final AtomicLongArray evictEpochs = new AtomicLongArray(EPOCH_STRIPES);
+
+    private final ScheduledExecutorService delayedEvictExecutor = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "product-cache-delayed-evict");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private RTopic evictTopic;
+    private int evictListenerId = -1;
+
+    /**
+     * 本地锁映射（用于击穿保护，仅防止单实例内的并发回源）
+     */
+    private final ConcurrentHashMap<Long, ReentrantLock> lockMap = new ConcurrentHashMap<>();
+
+    /**
+     * L2 命中/未命中统计（L1 统计由 Caffeine recordStats 提供）
+     */
+    private final LongAdder l2HitCount = new LongAdder();
+    private final LongAdder l2MissCount = new LongAdder();
+    private final LongAdder l2ErrorCount = new LongAdder();
+    private final LongAdder evictCount = new LongAdder();
+
+    public ProductDetailCacheService(CacheManager cacheManager,
+                                     RedisUtil redisUtil,
+                                     ProductCacheConfig productCacheConfig,
+                                     RedissonClient redissonClient) {
+        this.cacheManager = cacheManager;
+        this.redisUtil = redisUtil;
+        this.productCacheConfig = productCacheConfig;
+        this.redissonClient = redissonClient;
+    }
+
+    /**
+     * 订阅 L1 失效广播
+     */
+    @PostConstruct
+    public void subscribe() {
+        try {
+            evictTopic = redissonClient.getTopic(EVICT_TOPIC, StringCodec.INSTANCE);
+            evictListenerId = evictTopic.addListener(String.class, (channel, message) -> evictLocal(parseIds(message)));
+        } catch (Exception e) {
+            log.warn("[Product-Cache] Failed to subscribe evict topic, L1 relies on TTL only", e);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        delayedEvictExecutor.shutdownNow();
+        if (Objects.nonNull(evictTopic) && evictListenerId >= 0) {
+            evictTopic.removeListener(evictListenerId);
+        }
+    }
+
+    /**
+     * 是否启用缓存
+     */
+    public boolean isEnabled() {
+        return productCacheConfig.isEnabled();
+    }
+
+    /**
+     * 读取商品详情：L1 -> L2 -> loader（回源 DB）
+     *
+     * @param productId 商品ID
+     * @param loader    回源加载函数，返回 null 表示商品不存在
+     * @return 商品详情，不存在返回 null
+     */
+    public ProductDetailDTO get(Long productId, Function<Long, ProductDetailDTO> loader) {
+        if (Objects.isNull(productId)) {
+            return null;
+        }
+        if (!productCacheConfig.isEnabled()) {
+            return loader.apply(productId);
+        }
+
+        // 1. L1
+        Cache cache = cacheManager.getCache(CacheConfig.PRODUCT_DETAIL_CACHE);
+        Cache.ValueWrapper wrapper = getFromL1(cache, productId);
+        if (Objects.nonNull(wrapper)) {
+            return unwrap(wrapper.get());
+        }
+
+        // 2. L2
+        Cache.ValueWrapper redisValue = getFromL2(cache, productId);
+        if (Objects.nonNull(redisValue)) {
+            return unwrap(redisValue.get());
+        }
+
+        // 3. 回源
+        return loadWithLock(productId, cache, loader);
+    }
+
+    /**
+     * 批量读取商品详情：L1 逐个命中 -> L2 一次 MGET -> batchLoader 一次回源剩余未命中
+     * <p>
+     * 批量回源不加单 key 互斥锁（由 batchLoader 自身保证查询次数恒定）
+     *
+     * @param productIds  商品ID集合（已去重）
+     * @param batchLoader 批量回源函数，返回 商品ID -> 详情，不存在的商品不出现在结果中
+     * @return 商品ID -> 详情，不存在的商品不出现在结果中
+     */
+    public Map<Long, ProductDetailDTO> getAll(Collection<Long> productIds,
+                                              Function<List<Long>, Map<Long, ProductDetailDTO>> batchLoader) {
+        Map<Long, ProductDetailDTO> result = new HashMap<>();
+        if (Objects.isNull(productIds) || productIds.isEmpty()) {
+            return result;
+        }
+        if (!productCacheConfig.isEnabled()) {
+            return batchLoader.apply(new ArrayList<>(productIds));
+        }
+
+        // 1. L1
+        Cache cache = cacheManager.getCache(CacheConfig.PRODUCT_DETAIL_CACHE);
+        List<Long> l1Missed = new ArrayList<>();
+        for (Long productId : productIds) {
+            Cache.ValueWrapper wrapper = getFromL1(cache, productId);
+            if (Objects.isNull(wrapper)) {
+                l1Missed.add(productId);
+                continue;
+            }
+            putIfPresent(result, productId, unwrap(wrapper.get()));
+        }
+        if (l1Missed.isEmpty()) {
+            return result;
+        }
+
+        // 2. L2（一次 MGET）
+        List<Long> l2Missed = getAllFromL2(cache, l1Missed, result);
+        if (l2Missed.isEmpty()) {
+            return result;
+        }
+
+        // 3. 批量回源，并回填（包括负缓存）
+        long[] epochs = new long[l2Missed.size()];
+        for (int i = 0; i < epochs.length; i++) {
+            epochs[i] = epochOf(l2Missed.get(i));
+        }
+        Map<Long, ProductDetailDTO> loaded = batchLoader.apply(l2Missed);
+        for (int i = 0; i < epochs.length; i++) {
+            Long productId = l2Missed.get(i);
+            ProductDetailDTO value = loaded.get(productId);
+            putIfNotEvicted(productId, cache, value, epochs[i]);
+            putIfPresent(result, productId, value);
+        }
+        return result;
+    }
+
+    /**
+     * 精确失效指定商品的 L1/L2 缓存：删除 L2 并广播 L1 失效，延迟后再执行一次
+     *
+     * @param productIds 商品ID集合
+     */
+    public void evict(Collection<Long> productIds) {
+        if (Objects.isNull(productIds) || productIds.isEmpty()) {
+            return;
+        }
+        List<Long> ids = new ArrayList<>(productIds.size());
+        for (Long productId : productIds) {
+            if (Objects.nonNull(productId)) {
+                ids.add(productId);
+            }
+        }
+        if (ids.isEmpty()) {
+            return;
+        }
+        evictShared(ids);
+        long delayMillis = productCacheConfig.getDelayedEvictMillis();
+        if (delayMillis > 0) {
+            try {
+                delayedEvictExecutor.schedule(() -> evictShared(ids), delayMillis, TimeUnit.MILLISECONDS);
+            } catch (RejectedExecutionException e) {
+                log.debug("[Product-Cache] Delayed evict rejected (shutting down), productIds={}", ids);
+            }
+        }
+        log.debug("[Product-Cache] Evicted productIds={}", ids);
+    }
+
+    /**
+     * 删除 L2，并失效本实例 L1、广播其他实例失效 L1
+     */
+    private void evictShared(List<Long> productIds) {
+        // 先失效本实例，不依赖广播送达
+        evictLocal(productIds);
+        for (Long productId : productIds) {
+            try {
+                redisUtil.delete(REDIS_PREFIX + productId);
+            } catch (Exception e) {
+                l2ErrorCount.increment();
+                log.warn("[Product-Cache] Redis evict error, productId={}", productId, e);
+            }
+            evictCount.increment();
+        }
+        if (Objects.nonNull(evictTopic)) {
+            try {
+                evictTopic.publish(joinIds(productIds));
+            } catch (Exception e) {
+                log.warn("[Product-Cache] Failed to broadcast L1 evict, productIds={}", productIds, e);
+            }
+        }
+    }
+
+    /**
+     * 失效本实例 L1，并推进失效代数使进行中的回源不再回填
+     */
+    void evictLocal(Collection<Long> productIds) {
+        Cache cache = cacheManager.getCache(CacheConfig.PRODUCT_DETAIL_CACHE);
+        for (Long productId : productIds) {
+            evictEpochs.incrementAndGet(stripe(productId));
+            if (Objects.nonNull(cache)) {
+                cache.evict(productId);
+            }
+        }
+    }
+
+    /**
+     * L2 统计信息（供 PerformanceMonitorController 展示）
+     */
+    public Map<String, Object> l2Stats() {
+        long hit = l2HitCount.sum();
+        long miss = l2MissCount.sum();
+        long total = hit + miss;
+
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("hitCount", hit);
+        stats.put("missCount", miss);
+        stats.put("hitRate", String.format("%.2f%%", total == 0 ? 0D : hit * 100.0 / total));
+        stats.put("errorCount", l2ErrorCount.sum());
+        stats.put("evictCount", evictCount.sum());
+        return stats;
+    }
+
+    private Cache.ValueWrapper getFromL1(Cache cache, Long productId) {
+        if (Objects.isNull(cache)) {
+            return null;
+        }
+        return cache.get(productId);
+    }
+
+    /**
+     * 读取 L2，命中则回填 L1
+     *
+     * @return 命中返回包装值（可能是负缓存标记），未命中返回 null
+     */
+    private Cache.ValueWrapper getFromL2(Cache cache, Long productId) {
+        String redisKey = REDIS_PREFIX + productId;
+        try {
+            String json = redisUtil.get(redisKey);
+            if (!StringUtils.hasText(json)) {
+                l2MissCount.increment();
+                return null;
+            }
+            Object value = NULL_CACHE_VALUE.equals(json)
+                    ? NULL_CACHE_VALUE
+                    : JsonUtil.parseObject(json, ProductDetailDTO.class);
+            if (Objects.isNull(value)) {
+                l2MissCount.increment();
+                return null;
+            }
+            l2HitCount.increment();
+            if (Objects.nonNull(cache)) {
+                cache.put(productId, value);
+            }
+            return () -> value;
+        } catch (Exception e) {
+            l2ErrorCount.increment();
+            log.warn("[Product-Cache] Redis error, productId={}", productId, e);
+            return null;
+        }
+    }
+
+    /**
+     * 批量读取 L2，命中项写入 result 并回填 L1
+     *
+     * @return 未命中（或读取失败）的商品ID
+     */
+    private List<Long> getAllFromL2(Cache cache, List<Long> productIds, Map<Long, ProductDetailDTO> result) {
+        Map<String, Long> keyToId = new LinkedHashMap<>();
+        for (Long productId : productIds) {
+            keyToId.put(REDIS_PREFIX + productId, productId);
+        }
+
+        Map<String, String> values;
+        try {
+            values = redisUtil.multiGet(keyToId.keySet());
+        } catch (Exception e) {
+            l2ErrorCount.increment();
+            log.warn("[Product-Cache] Redis multi get error, size={}", productIds.size(), e);
+            return productIds;
+        }
+
+        List<Long> missed = new ArrayList<>();
+        for (Map.Entry<String, Long> entry : keyToId.entrySet()) {
+            Long productId = entry.getValue();
+            String json = values.get(entry.getKey());
+            Object value = null;
+            if (StringUtils.hasText(json)) {
+                value = NULL_CACHE_VALUE.equals(json)
+                        ? NULL_CACHE_VALUE
+                        : JsonUtil.parseObject(json, ProductDetailDTO.class);
+            }
+            if (Objects.isNull(value)) {
+                l2MissCount.increment();
+                missed.add(productId);
+                continue;
+            }
+            l2HitCount.increment();
+            if (Objects.nonNull(cache)) {
+                cache.put(productId, value);
+            }
+            putIfPresent(result, productId, unwrap(value));
+        }
+        return missed;
+    }
+
+    private void putIfPresent(Map<Long, ProductDetailDTO> result, Long productId, ProductDetailDTO value) {
+        if (Objects.nonNull(value)) {
+            result.put(productId, value);
+        }
+    }
+
+    private ProductDetailDTO loadWithLock(Long productId, Cache cache, Function<Long, ProductDetailDTO> loader) {
+        ReentrantLock lock = lockMap.computeIfAbsent(productId, k -> new ReentrantLock());
+        lock.lock();
+        try {
+            // Double check：加锁后再次检查 L1
+            Cache.ValueWrapper wrapper = getFromL1(cache, productId);
+            if (Objects.nonNull(wrapper)) {
+                return unwrap(wrapper.get());
+            }
+
+            long epoch = epochOf(productId);
+            ProductDetailDTO result = loader.apply(productId);
+            putIfNotEvicted(productId, cache, result, epoch);
+            return result;
+        } finally {
+            lock.unlock();
+            lockMap.remove(productId, lock);
+        }
+    }
+
+    /**
+     * 回源期间该商品（所在分段）未发生失效时才回填缓存
+     */
+    private void putIfNotEvicted(Long productId, Cache cache, ProductDetailDTO value, long epoch) {
+        if (epochOf(productId) != epoch) {
+            log.debug("[Product-Cache] Skip stale fill, productId={}", productId);
+            return;
+        }
+        put(productId, cache, value);
+    }
+
+    private long epochOf(Long productId) {
+        return evictEpochs.get(stripe(productId));
+    }
+
+    private static int stripe(Long productId) {
+        return (int) Math.floorMod(productId, (long) EPOCH_STRIPES);
+    }
+
+    private static String joinIds(List<Long> productIds) {
+        StringBuilder builder = new StringBuilder();
+        for (Long productId : productIds) {
+            if (builder.length() > 0) {
+                builder.append(',');
+            }
+            builder.append(productId);
+        }
+        return builder.toString();
+    }
+
+    private static List<Long> parseIds(String message) {
+        List<Long> ids = new ArrayList<>();
+        if (!StringUtils.hasText(message)) {
+            return ids;
+        }
+        for (String part : message.split(",")) {
+            if (StringUtils.hasText(part)) {
+                ids.add(Long.valueOf(part.trim()));
+            }
+        }
+        return ids;
+    }
+
+    private void put(Long productId, Cache cache, ProductDetailDTO value) {
+        String redisKey = REDIS_PREFIX + productId;
+        try {
+            if (Objects.nonNull(value)) {
+                if (Objects.nonNull(cache)) {
+                    cache.put(productId, value);
+                }
+                redisUtil.set(redisKey, JsonUtil.toJsonStr(value),
+                        productCacheConfig.getRedisTtlSeconds(), TimeUnit.SECONDS);
+            } else {
+                if (Objects.nonNull(cache)) {
+                    cache.put(productId, NULL_CACHE_VALUE);
+                }
+                redisUtil.set(redisKey, NULL_CACHE_VALUE,
+                        productCacheConfig.getNullTtlSeconds(), TimeUnit.SECONDS);
+            }
+        } catch (Exception e) {
+            l2ErrorCount.increment();
+            log.warn("[Product-Cache] Failed to update cache, productId={}", productId, e);
+        }
+    }
+
+    private ProductDetailDTO unwrap(Object value) {
+        if (value instanceof ProductDetailDTO) {
+            return (ProductDetailDTO) value;
+        }
+        return null;
+    }
+}
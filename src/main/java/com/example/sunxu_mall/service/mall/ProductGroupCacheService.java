@@ -0,0 +1,197 @@
+package com.example.sunxu_mall.service.mall;
+
+import com.example.sunxu_mall.config.beans.CacheConfig;
+import com.example.sunxu_mall.config.props.ProductGroupCacheConfig;
+import com.example.sunxu_mall.util.RedisUtil;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 商品组解析缓存：(分类ID, 单位ID, SPU 哈希) -> 商品组ID
+ * <p>
+ * 缓存策略：
+ * - L1: Caffeine 本地缓存（CacheConfig.PRODUCT_GROUP_CACHE）
+ * - L2: Redis 分布式缓存（跨实例共享）
+ * <p>
+ * 商品组创建后分类、单位、哈希均不再修改，也没有删除商品组的入口，因此映射关系不会失效，无需主动清除；
+ * 不做负缓存（未命中时由调用方查库或插入）。
+ * <p>
+ * 写入在事务提交后进行（{@link #putAfterCommit(String, Long)}），避免回滚后缓存指向不存在的商品组。
+ *
+ * @author sunxu
+ */
+@Slf4j
+@Service
+public class ProductGroupCacheService {
+
+    private static final String REDIS_PREFIX = "product:group:";
+
+    private final CacheManager cacheManager;
+    private final RedisUtil redisUtil;
+    private final ProductGroupCacheConfig productGroupCacheConfig;
+
+    public ProductGroupCacheService(CacheManager cacheManager,
+                                    RedisUtil redisUtil,
+                                    ProductGroupCacheConfig productGroupCacheConfig) {
+        this.cacheManager = cacheManager;
+        this.redisUtil = redisUtil;
+        this.productGroupCacheConfig = productGroupCacheConfig;
+    }
+
+    /**
+     * 缓存键
+     */
+    public static String key(Long categoryId, Long unitId, String groupHash) {
+        return categoryId + ":" + unitId + ":" + groupHash;
+    }
+
+    /**
+     * 读取商品组ID：L1 -> L2
+     *
+     * @param key 缓存键
+     * @return 商品组ID，未命中返回 null
+     */
+    public Long get(String key) {
+        if (!productGroupCacheConfig.isEnabled() || Objects.isNull(key)) {
+            return null;
+        }
+        Cache cache = cacheManager.getCache(CacheConfig.PRODUCT_GROUP_CACHE);
+        if (Objects.nonNull(cache)) {
+            Long local = cache.get(key, Long.class);
+            if (Objects.nonNull(local)) {
+                return local;
+            }
+        }
+        try {
+            Long groupId = parse(redisUtil.get(REDIS_PREFIX + key));
+            if (Objects.nonNull(groupId) && Objects.nonNull(cache)) {
+                cache.put(key, groupId);
+            }
+            return groupId;
+        } catch (Exception e) {
+            log.warn("[Product-Group-Cache] Redis error, key={}", key, e);
+            return null;
+        }
+    }
+
+    /**
+     * 批量读取：L1 逐个命中，剩余一次 MGET
+     *
+     * @param keys 缓存键集合
+     * @return 缓存键 -> 商品组ID，未命中的键不出现在结果中
+     */
+    public Map<String, Long> getAll(Collection<String> keys) {
+        Map<String, Long> result = new HashMap<>();
+        if (!productGroupCacheConfig.isEnabled() || Objects.isNull(keys) || keys.isEmpty()) {
+            return result;
+        }
+        Cache cache = cacheManager.getCache(CacheConfig.PRODUCT_GROUP_CACHE);
+        List<String> missed = new ArrayList<>();
+        for (String key : keys) {
+            Long local = Objects.isNull(cache) ? null : cache.get(key, Long.class);
+            if (Objects.nonNull(local)) {
+                result.put(key, local);
+            } else {
+                missed.add(key);
+            }
+        }
+        if (missed.isEmpty()) {
+            return result;
+        }
+
+        Map<String, String> redisKeys = new LinkedHashMap<>();
+        missed.forEach(key -> redisKeys.put(REDIS_PREFIX + key, key));
+        try {
+            Map<String, String> values = redisUtil.multiGet(redisKeys.keySet());
+            values.forEach((redisKey, value) -> {
+                Long groupId = parse(value);
+                String key = redisKeys.get(redisKey);
+                if (Objects.nonNull(groupId) && Objects.nonNull(key)) {
+                    result.put(key, groupId);
+                    if (Objects.nonNull(cache)) {
+                        cache.put(key, groupId);
+                    }
+                }
+            });
+        } catch (Exception e) {
+            log.warn("[Product-Group-Cache] Redis multi get error, size={}", missed.size(), e);
+        }
+        return result;
+    }
+
+    /**
+     * 写入缓存：存在事务时在提交后写入，否则立即写入
+     *
+     * @param key     缓存键
+     * @param groupId 商品组ID
+     */
+    public void putAfterCommit(String key, Long groupId) {
+        Map<String, Long> entries = new HashMap<>(2);
+        entries.put(key, groupId);
+        putAllAfterCommit(entries);
+    }
+
+    /**
+     * 批量写入缓存：存在事务时在提交后写入，否则立即写入
+     *
+     * @param entries 缓存键 -> 商品组ID
+     */
+    public void putAllAfterCommit(Map<String, Long> entries) {
+        if (!productGroupCacheConfig.isEnabled() || Objects.isNull(entries) || entries.isEmpty()) {
+            return;
+        }
+        Map<String, Long> snapshot = new HashMap<>(entries);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    putAll(snapshot);
+                }
+            });
+            return;
+        }
+        putAll(snapshot);
+    }
+
+    private void putAll(Map<String, Long> entries) {
+        Cache cache = cacheManager.getCache(CacheConfig.PRODUCT_GROUP_CACHE);
+        entries.forEach((key, groupId) -> {
+            if (Objects.isNull(key) || Objects.isNull(groupId)) {
+                return;
+            }
+            if (Objects.nonNull(cache)) {
+                cache.put(key, groupId);
+            }
+            try {
+                redisUtil.set(REDIS_PREFIX + key, String.valueOf(groupId),
+                        productGroupCacheConfig.getRedisTtlSeconds(), TimeUnit.SECONDS);
+            } catch (Exception e) {
+                log.warn("[Product-Group-Cache] Failed to update redis, key={}", key, e);
+            }
+        });
+    }
+
+    private static Long parse(String value) {
+        if (Objects.isNull(value) || value.isEmpty()) {
+            return null;
+        }
+        try {
+            return Long.valueOf(value);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+}
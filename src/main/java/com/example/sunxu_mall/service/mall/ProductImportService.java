@@ -0,0 +1,414 @@
+package com.example.sunxu_mall.service.mall;
+
+import cn.hutool.core.util.IdUtil;
+import com.alibaba.excel.EasyExcel;
+import com.alibaba.excel.context.AnalysisContext;
+import com.alibaba.excel.exception.ExcelDataConvertException;
+import com.alibaba.excel.read.listener.ReadListener;
+import com.alibaba.excel.support.ExcelTypeEnum;
+import com.example.sunxu_mall.config.props.MallMgtExportProperties;
+import com.example.sunxu_mall.config.props.ProductImportConfig;
+import com.example.sunxu_mall.dto.file.FileDTO;
+import com.example.sunxu_mall.dto.mall.CreateProductAttributeDTO;
+import com.example.sunxu_mall.dto.mall.CreateProductDTO;
+import com.example.sunxu_mall.dto.mall.ProductImportErrorDTO;
+import com.example.sunxu_mall.dto.mall.ProductImportParamDTO;
+import com.example.sunxu_mall.dto.mall.ProductImportRowDTO;
+import com.example.sunxu_mall.dto.websocket.ProductImportProgressDTO;
+import com.example.sunxu_mall.entity.common.CommonTaskEntity;
+import com.example.sunxu_mall.enums.ExcelBizTypeEnum;
+import com.example.sunxu_mall.enums.TaskStatusEnum;
+import com.example.sunxu_mall.enums.TaskTypeEnum;
+import com.example.sunxu_mall.errorcode.ErrorCode;
+import com.example.sunxu_mall.exception.BusinessException;
+import com.example.sunxu_mall.service.UploadService;
+import com.example.sunxu_mall.service.common.CommonTaskService;
+import com.example.sunxu_mall.util.DateFormatUtil;
+import com.example.sunxu_mall.util.FileUtil;
+import com.example.sunxu_mall.util.JsonUtil;
+import com.example.sunxu_mall.websocket.WebSocketServer;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.lang3.StringUtils;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+
+import javax.validation.ConstraintViolation;
+import javax.validation.Validator;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * 商品批量导入（Excel / CSV）
+ * <p>
+ * 流程：
+ * - 提交：上传原始文件，创建 IMPORT_PRODUCT 类型的通用任务，由任务消费者异步执行
+ * - 执行：EasyExcel 事件模式逐行读取（不把整个文件读入内存），行校验通过后缓冲，
+ * 每满 chunkSize 行调用 {@link ProductService#batchCreateProducts(Map)} 写入（每块一个事务）
+ * - 行级错误（格式/校验/规格重复）只记录不中断；某块整体写入失败时该块所有行记为失败（报告中只写分类提示，
+ * 原始异常记日志），后续块继续
+ * - 每块处理完通过 WebSocket 推送进度，结束后生成错误报告（行号 + 错误信息）并上传
+ *
+ * @author sunxu
+ */
+@Slf4j
+@Service
+public class ProductImportService {
+
+    private static final String UPLOAD_BIZ_TYPE = "product-import";
+    private static final String FILE_BIZ_TYPE = "file";
+    private static final String FILE_TYPE_EXCEL = "application/vnd.ms-excel";
+    private static final String PROGRESS_TYPE = "PRODUCT_IMPORT_PROGRESS";
+    private static final List<String> SUPPORTED_SUFFIXES = Arrays.asList("xlsx", "xls", "csv");
+
+    private final ProductService productService;
+    private final CommonTaskService commonTaskService;
+    private final UploadService uploadService;
+    private final Validator validator;
+    private final ProductImportConfig productImportConfig;
+    private final MallMgtExportProperties exportProperties;
+
+    public ProductImportService(ProductService productService,
+                                CommonTaskService commonTaskService,
+                                UploadService uploadService,
+                                Validator validator,
+                                ProductImportConfig productImportConfig,
+                                MallMgtExportProperties exportProperties) {
+        this.productService = productService;
+        this.commonTaskService = commonTaskService;
+        this.uploadService = uploadService;
+        this.validator = validator;
+        this.productImportConfig = productImportConfig;
+        this.exportProperties = exportProperties;
+    }
+
+    /**
+     * 提交导入任务
+     *
+     * @param file 导入文件（xlsx / xls / csv）
+     * @return 任务业务键
+     */
+    public String submit(MultipartFile file) {
+        if (Objects.isNull(file) || file.isEmpty()) {
+            throw new BusinessException(ErrorCode.PARAMETER_MISSING.getCode(), "导入文件不能为空");
+        }
+        if (file.getSize() > productImportConfig.getMaxFileBytes()) {
+            throw new BusinessException(ErrorCode.PARAMETER_VALIDATION_ERROR.getCode(), "导入文件过大");
+        }
+        String suffix = StringUtils.lowerCase(
+                StringUtils.substringAfterLast(file.getOriginalFilename(), "."), Locale.ROOT);
+        if (!SUPPORTED_SUFFIXES.contains(suffix)) {
+            throw new BusinessException(ErrorCode.PARAMETER_FORMAT_ERROR.getCode(), "仅支持 xlsx、xls、csv 文件");
+        }
+
+        FileDTO fileDTO = uploadService.upload(file, UPLOAD_BIZ_TYPE, file.getContentType());
+        ProductImportParamDTO param = ProductImportParamDTO.builder()
+                .originalName(file.getOriginalFilename())
+                .fileType(suffix)
+                .filePath(fileDTO.getPath())
+                .fileUrl(fileDTO.getDownloadUrl())
+                .build();
+
+        CommonTaskEntity task = CommonTaskEntity.builder()
+                .bizKey(IdUtil.getSnowflakeNextIdStr())
+                .name(String.format("Import Product Data (%s)", file.getOriginalFilename()))
+                .status(TaskStatusEnum.WAITING.getCode())
+                .failureCount((byte) 0)
+                .type(TaskTypeEnum.IMPORT_PRODUCT.getCode())
+                .bizType(ExcelBizTypeEnum.PRODUCT.getCode())
+                .requestParam(JsonUtil.toJsonStr(param))
+                .isDel(false)
+                .version(0)
+                .build();
+        commonTaskService.insert(task);
+        return task.getBizKey();
+    }
+
+    /**
+     * 执行导入
+     *
+     * @param task 导入任务
+     * @return 最终进度（含错误报告地址）
+     */
+    public ProductImportProgressDTO runImport(CommonTaskEntity task) throws IOException {
+        ProductImportParamDTO param = JsonUtil.parseObject(task.getRequestParam(), ProductImportParamDTO.class);
+        if (Objects.isNull(param)) {
+            throw new BusinessException(ErrorCode.PARAMETER_MISSING.getCode(), "导入任务参数缺失");
+        }
+
+        long startTime = System.currentTimeMillis();
+        ImportListener listener = new ImportListener(task);
+        try (InputStream inputStream = openSource(param)) {
+            EasyExcel.read(inputStream, ProductImportRowDTO.class, listener)
+                    .excelType(toExcelType(param.getFileType()))
+                    .charset(StandardCharsets.UTF_8)
+                    .sheet()
+                    .doRead();
+        }
+
+        ProductImportProgressDTO result = listener.progress(true);
+        if (!listener.errors.isEmpty()) {
+            result.setErrorFileUrl(writeErrorReport(task, listener.errors));
+        }
+        log.info("[Product-Import] Task {} finished, processed={}, success={}, failed={}, cost={}ms",
+                task.getId(), result.getProcessedRows(), result.getSuccessRows(), result.getFailedRows(),
+                System.currentTimeMillis() - startTime);
+        push(task, result);
+        return result;
+    }
+
+    /**
+     * 本地存储时直接读文件，否则按 URL 流式读取
+     */
+    private InputStream openSource(ProductImportParamDTO param) throws IOException {
+        if (StringUtils.isNotBlank(param.getFilePath())) {
+            File file = new File(param.getFilePath());
+            if (file.isFile()) {
+                return new FileInputStream(file);
+            }
+        }
+        if (StringUtils.isBlank(param.getFileUrl())) {
+            throw new BusinessException(ErrorCode.PARAMETER_MISSING.getCode(), "导入文件地址缺失");
+        }
+        return new URL(param.getFileUrl()).openStream();
+    }
+
+    private static ExcelTypeEnum toExcelType(String fileType) {
+        if ("csv".equalsIgnoreCase(fileType)) {
+            return ExcelTypeEnum.CSV;
+        }
+        return "xls".equalsIgnoreCase(fileType) ? ExcelTypeEnum.XLS : ExcelTypeEnum.XLSX;
+    }
+
+    /**
+     * 行数据转换为创建请求，格式错误抛出 IllegalArgumentException（消息作为行错误）
+     */
+    private CreateProductDTO toCreateDTO(ProductImportRowDTO row) {
+        CreateProductDTO dto = new CreateProductDTO();
+        dto.setCategoryId(row.getCategoryId());
+        dto.setBrandId(row.getBrandId());
+        dto.setUnitId(row.getUnitId());
+        dto.setName(StringUtils.trimToNull(row.getName()));
+        dto.setModel(StringUtils.trimToNull(row.getModel()));
+        dto.setPrice(row.getPrice());
+        dto.setQuantity(row.getQuantity());
+        dto.setCoverUrl(StringUtils.trimToNull(row.getCoverUrl()));
+        dto.setDetail(row.getDetail());
+        dto.setSpuAttributes(parseAttributes(row.getSpuAttributes(), "SPU属性"));
+        dto.setSkuAttributes(parseAttributes(row.getSkuAttributes(), "SKU属性"));
+        dto.setPhotos(splitList(row.getPhotos()));
+        return dto;
+    }
+
+    /**
+     * 解析 "属性ID:属性值ID;..." 格式
+     */
+    private static List<CreateProductAttributeDTO> parseAttributes(String text, String column) {
+        List<String> items = splitList(text);
+        if (Objects.isNull(items)) {
+            return null;
+        }
+        List<CreateProductAttributeDTO> attributes = new ArrayList<>(items.size());
+        for (String item : items) {
+            String[] pair = item.split("[:：]");
+            if (pair.length != 2) {
+                throw new IllegalArgumentException(column + "格式错误：" + item);
+            }
+            CreateProductAttributeDTO attribute = new CreateProductAttributeDTO();
+            try {
+                attribute.setAttributeId(Long.valueOf(pair[0].trim()));
+                attribute.setAttributeValueId(Long.valueOf(pair[1].trim()));
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException(column + "格式错误：" + item);
+            }
+            attributes.add(attribute);
+        }
+        return attributes;
+    }
+
+    private static List<String> splitList(String text) {
+        if (StringUtils.isBlank(text)) {
+            return null;
+        }
+        List<String> items = Arrays.stream(text.split("[;；,，]"))
+                .map(String::trim)
+                .filter(StringUtils::isNotEmpty)
+                .collect(Collectors.toList());
+        return items.isEmpty() ? null : items;
+    }
+
+    private String validate(CreateProductDTO dto) {
+        Set<ConstraintViolation<CreateProductDTO>> violations = validator.validate(dto);
+        if (violations.isEmpty()) {
+            return null;
+        }
+        return violations.stream()
+                .map(ConstraintViolation::getMessage)
+                .sorted()
+                .collect(Collectors.joining("；"));
+    }
+
+    /**
+     * 块写入失败时写入错误报告的提示：业务异常沿用其消息，其余异常只给出分类提示，
+     * 原始异常（可能含 SQL、表名等内部信息）仅记录日志
+     */
+    static String chunkFailureMessage(Exception e) {
+        if (e instanceof BusinessException) {
+            return "写入失败：" + e.getMessage();
+        }
+        if (e instanceof DuplicateKeyException) {
+            return "写入失败：商品数据重复，请检查是否已导入";
+        }
+        if (e instanceof DataIntegrityViolationException) {
+            return "写入失败：数据不符合约束（字段超长、必填项缺失或关联数据不存在）";
+        }
+        if (e instanceof DataAccessException) {
+            return "写入失败：数据库暂时不可用，请稍后重试";
+        }
+        return "写入失败：系统内部错误，请联系管理员";
+    }
+
+    /**
+     * 写错误报告并上传，上传失败时返回本地路径
+     */
+    private String writeErrorReport(CommonTaskEntity task, List<ProductImportErrorDTO> errors) {
+        String fileName = String.format("商品导入错误_%s_%s", task.getId(), DateFormatUtil.nowForFile());
+        File file = new File(exportProperties.getTempPath() + fileName + ".xlsx");
+        File parentFile = file.getParentFile();
+        if (Objects.nonNull(parentFile) && !parentFile.exists()) {
+            parentFile.mkdirs();
+        }
+        EasyExcel.write(file, ProductImportErrorDTO.class).sheet("错误明细").doWrite(errors);
+        try {
+            FileDTO fileDTO = uploadService.upload(FileUtil.toMultipartFile(fileName, file), FILE_BIZ_TYPE, FILE_TYPE_EXCEL);
+            return fileDTO.getDownloadUrl();
+        } catch (Exception e) {
+            log.warn("[Product-Import] Failed to upload error report, return local path. Reason: {}", e.getMessage());
+            return file.getAbsolutePath();
+        } finally {
+            if (file.exists() && !file.delete()) {
+                log.warn("Failed to delete temp file: {}", file.getAbsolutePath());
+            }
+        }
+    }
+
+    private void push(CommonTaskEntity task, ProductImportProgressDTO progress) {
+        if (Objects.nonNull(task.getCreateUserId())) {
+            WebSocketServer.sendObject(String.valueOf(task.getCreateUserId()), progress);
+        }
+    }
+
+    /**
+     * 逐行读取监听器：缓冲合法行，满块写入
+     */
+    private class ImportListener implements ReadListener<ProductImportRowDTO> {
+
+        private final CommonTaskEntity task;
+        private final int chunkSize;
+        private final Map<Integer, CreateProductDTO> buffer;
+        private final List<ProductImportErrorDTO> errors = new ArrayList<>();
+
+        private long processed;
+        private long success;
+        private long failed;
+
+        ImportListener(CommonTaskEntity task) {
+            this.task = task;
+            this.chunkSize = Math.max(1, productImportConfig.getChunkSize());
+            this.buffer = new LinkedHashMap<>(chunkSize * 2);
+        }
+
+        @Override
+        public void invoke(ProductImportRowDTO row, AnalysisContext context) {
+            int rowNum = context.readRowHolder().getRowIndex() + 1;
+            processed++;
+            try {
+                CreateProductDTO dto = toCreateDTO(row);
+                String violation = validate(dto);
+                if (Objects.nonNull(violation)) {
+                    fail(rowNum, violation);
+                    return;
+                }
+                buffer.put(rowNum, dto);
+            } catch (IllegalArgumentException e) {
+                fail(rowNum, e.getMessage());
+                return;
+            }
+            if (buffer.size() >= chunkSize) {
+                flush();
+            }
+        }
+
+        /**
+         * 单元格类型转换失败（如价格填了文字）只记录该行，不中断读取
+         */
+        @Override
+        public void onException(Exception exception, AnalysisContext context) throws Exception {
+            if (exception instanceof ExcelDataConvertException) {
+                ExcelDataConvertException convertException = (ExcelDataConvertException) exception;
+                processed++;
+                fail(convertException.getRowIndex() + 1,
+                        String.format("第%d列数据格式错误", convertException.getColumnIndex() + 1));
+                return;
+            }
+            throw exception;
+        }
+
+        @Override
+        public void doAfterAllAnalysed(AnalysisContext context) {
+            flush();
+        }
+
+        private void flush() {
+            if (buffer.isEmpty()) {
+                return;
+            }
+            int size = buffer.size();
+            try {
+                Map<Integer, String> rowErrors = productService.batchCreateProducts(buffer);
+                rowErrors.forEach(this::fail);
+                success += size - rowErrors.size();
+            } catch (Exception e) {
+                log.warn("[Product-Import] Task {} chunk failed, rows={}", task.getId(), size, e);
+                String message = chunkFailureMessage(e);
+                buffer.keySet().forEach(rowNum -> fail(rowNum, message));
+            } finally {
+                buffer.clear();
+            }
+            push(task, progress(false));
+        }
+
+        private void fail(Integer rowNum, String message) {
+            failed++;
+            if (errors.size() < productImportConfig.getMaxErrorRows()) {
+                errors.add(new ProductImportErrorDTO(rowNum, message));
+            }
+        }
+
+        ProductImportProgressDTO progress(boolean finished) {
+            return ProductImportProgressDTO.builder()
+                    .type(PROGRESS_TYPE)
+                    .taskId(task.getId())
+                    .processedRows(processed)
+                    .successRows(success)
+                    .failedRows(failed)
+                    .finished(finished)
+                    .build();
+        }
+    }
+}
@@ -0,0 +1,457 @@
+package com.example.sunxu_mall.service.mall;
+
+import com.example.sunxu_mall.config.props.ProductSearchConfig;
+import com.example.sunxu_mall.dto.mall.ProductQueryDTO;
+import com.example.sunxu_mall.entity.mall.ProductEntity;
+import com.example.sunxu_mall.entity.mall.ProductEntityExample;
+import com.example.sunxu_mall.mapper.mall.ProductEntityMapper;
+import com.example.sunxu_mall.util.NgramIndex;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.collections4.CollectionUtils;
+import org.apache.commons.lang3.StringUtils;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.LongPredicate;
+import java.util.stream.Collectors;
+
+/**
+ * 商品名称/型号搜索（内存 n-gram 倒排索引）
+ * <p>
+ * name/model 的 LIKE '%keyword%' 无法走索引，数据量大时退化为全表扫描。
+ * 这里将未删除商品的 name、model 分别建立 {@link NgramIndex}，查询时在索引中按 ID 倒序取出候选，
+ * 再按主键回表（同时应用分类/品牌/商品组过滤），保持与原游标分页一致的排序与语义。
+ * <p>
+ * 维护策略：
+ * - 应用启动后异步全量加载，加载完成前查询回退到 LIKE
+ * - 本实例商品写操作提交后按ID增量更新（{@link #onProductsChanged(Collection)}）
+ * - 按 update_time 水位线定时增量刷新，感知其他实例的修改（依赖 mall_product(update_time) 索引）
+ * - 商品数超过 maxIndexedProducts 时不建索引（或丢弃索引），查询回退到 LIKE；占用见 {@link #stats()}
+ * <p>
+ * 回表结果会再次校验关键词，索引短暂滞后时不会返回不匹配的数据（可能暂时漏掉刚改名的商品）。
+ * <p>
+ * 与 LIKE 的语义差异：索引按字面子串匹配，不区分大小写（与默认排序规则一致）。
+ * 关键词含 LIKE 通配符（%、_、\）或首尾空白时索引与 LIKE 结果不同，这类查询不走索引，直接回退到 LIKE。
+ *
+ * @author sunxu
+ */
+@Slf4j
+@Service
+public class ProductSearchService {
+
+    private final ProductEntityMapper productMapper;
+    private final ProductSearchConfig productSearchConfig;
+    private final Executor commonTaskExecutor;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final AtomicBoolean loading = new AtomicBoolean(false);
+
+    /**
+     * 名称索引、型号索引（全量加载完成前为 null），读写受 lock 保护
+     */
+    private volatile NgramIndex nameIndex;
+    private volatile NgramIndex modelIndex;
+
+    private volatile LocalDateTime watermark;
+
+    public ProductSearchService(ProductEntityMapper productMapper,
+                                ProductSearchConfig productSearchConfig,
+                                @Qualifier("commonTaskExecutor") Executor commonTaskExecutor) {
+        this.productMapper = productMapper;
+        this.productSearchConfig = productSearchConfig;
+        this.commonTaskExecutor = commonTaskExecutor;
+    }
+
+    /**
+     * 索引是否可用于该查询（已启用、已加载、包含 name 或 model 条件，且关键词按字面匹配与 LIKE 结果一致）
+     */
+    public boolean canServe(String name, String model) {
+        return productSearchConfig.isEnabled()
+                && Objects.nonNull(nameIndex)
+                && (StringUtils.isNotBlank(name) || StringUtils.isNotBlank(model))
+                && isLiteral(name)
+                && isLiteral(model);
+    }
+
+    /**
+     * 游标分页搜索：语义等同 selectByCursorWithLimit（is_del = 0，id &lt; cursorId，按 id 倒序，最多 limit 条）
+     *
+     * @param query    查询条件（name/model 至少一个非空）
+     * @param cursorId 游标ID，可为 null
+     * @param limit    最多返回条数
+     * @return 商品列表；索引不可用或候选过多时返回 null，由调用方回退到 LIKE 查询
+     */
+    public List<ProductEntity> searchByCursor(ProductQueryDTO query, Long cursorId, int limit) {
+        return searchByCursor(query, cursorId, null, limit);
+    }
+
+    /**
+     * 游标分页搜索，限定 id 下界（分区导出使用）
+     *
+     * @param query    查询条件（name/model 至少一个非空）
+     * @param cursorId 游标ID，可为 null
+     * @param lowerId  id 下界（含），可为 null
+     * @param limit    最多返回条数
+     * @return 商品列表；索引不可用或候选过多时返回 null，由调用方回退到 LIKE 查询
+     */
+    public List<ProductEntity> searchByCursor(ProductQueryDTO query, Long cursorId, Long lowerId, int limit) {
+        if (!canServe(query.getName(), query.getModel())) {
+            return null;
+        }
+        List<ProductEntity> result = new ArrayList<>(limit);
+        long beforeId = Objects.isNull(cursorId) ? Long.MAX_VALUE : cursorId;
+        int batchSize = Math.max(limit, productSearchConfig.getCandidateBatchSize());
+        NgramIndex.ScanBudget budget = new NgramIndex.ScanBudget(productSearchConfig.getMaxScanCandidates());
+
+        while (result.size() < limit) {
+            long[] candidates = searchIds(query.getName(), query.getModel(), beforeId, batchSize, budget);
+            if (Objects.isNull(candidates)) {
+                logBudgetExhausted(query, budget);
+                return null;
+            }
+            if (candidates.length == 0) {
+                break;
+            }
+
+            // 候选按 id 倒序，遇到下界以外的 id 即可结束
+            boolean reachedLower = false;
+            List<Long> ids = new ArrayList<>(candidates.length);
+            for (long id : candidates) {
+                if (Objects.nonNull(lowerId) && id < lowerId) {
+                    reachedLower = true;
+                    break;
+                }
+                ids.add(id);
+            }
+            List<ProductEntity> rows = ids.isEmpty() ? new ArrayList<>() : productMapper.selectByIdsWithFilters(ids,
+                    query.getCategoryId(), query.getBrandId(), query.getProductGroupId());
+            for (ProductEntity row : rows) {
+                if (containsIgnoreCase(row.getName(), query.getName())
+                        && containsIgnoreCase(row.getModel(), query.getModel())) {
+                    result.add(row);
+                    if (result.size() >= limit) {
+                        break;
+                    }
+                }
+            }
+
+            if (reachedLower || candidates.length < batchSize) {
+                break;
+            }
+            beforeId = candidates[candidates.length - 1];
+        }
+        return result;
+    }
+
+    /**
+     * 有上限的计数：语义等同 countWithLimit（is_del = 0，name/model 子串匹配，最多数到 limit）
+     * <p>
+     * 只有关键词条件时直接在索引中计数；带分类/品牌/商品组条件时逐批回表过滤；访问的候选过多时放弃
+     *
+     * @param query 查询条件（name/model 至少一个非空）
+     * @param limit 最多计数的行数
+     * @return 计数结果（不超过 limit）；索引不可用或候选过多时返回 null
+     */
+    public Long countWithLimit(ProductQueryDTO query, long limit) {
+        if (!canServe(query.getName(), query.getModel())) {
+            return null;
+        }
+        int cap = (int) Math.min(limit, Integer.MAX_VALUE);
+        NgramIndex.ScanBudget budget = new NgramIndex.ScanBudget(productSearchConfig.getMaxScanCandidates());
+        if (Objects.isNull(query.getCategoryId()) && Objects.isNull(query.getBrandId())
+                && Objects.isNull(query.getProductGroupId())) {
+            long[] ids = searchIds(query.getName(), query.getModel(), Long.MAX_VALUE, cap, budget);
+            if (Objects.isNull(ids)) {
+                logBudgetExhausted(query, budget);
+                return null;
+            }
+            return (long) ids.length;
+        }
+
+        int batchSize = Math.max(1, productSearchConfig.getCandidateBatchSize());
+        long beforeId = Long.MAX_VALUE;
+        long count = 0;
+        while (count < limit) {
+            long[] candidates = searchIds(query.getName(), query.getModel(), beforeId, batchSize, budget);
+            if (Objects.isNull(candidates)) {
+                logBudgetExhausted(query, budget);
+                return null;
+            }
+            if (candidates.length == 0) {
+                break;
+            }
+
+            List<Long> ids = new ArrayList<>(candidates.length);
+            for (long id : candidates) {
+                ids.add(id);
+            }
+            count += productMapper.selectByIdsWithFilters(ids,
+                    query.getCategoryId(), query.getBrandId(), query.getProductGroupId()).size();
+
+            if (candidates.length < batchSize) {
+                break;
+            }
+            beforeId = candidates[candidates.length - 1];
+        }
+        return Math.min(count, limit);
+    }
+
+    /**
+     * 按商品ID增量更新索引（本实例写操作提交后调用）
+     *
+     * @param productIds 商品ID集合
+     */
+    public void onProductsChanged(Collection<Long> productIds) {
+        if (!productSearchConfig.isEnabled() || Objects.isNull(nameIndex) || CollectionUtils.isEmpty(productIds)) {
+            return;
+        }
+        List<Long> ids = productIds.stream().filter(Objects::nonNull).distinct().collect(Collectors.toList());
+        if (ids.isEmpty()) {
+            return;
+        }
+        ProductEntityExample example = new ProductEntityExample();
+        example.createCriteria().andIdIn(ids);
+        List<ProductEntity> products = productMapper.selectByExample(example);
+
+        lock.writeLock().lock();
+        try {
+            if (Objects.isNull(nameIndex)) {
+                return;
+            }
+            // 查不到的商品（物理删除）也需要从索引中移除
+            ids.forEach(id -> {
+                nameIndex.remove(id);
+                modelIndex.remove(id);
+            });
+            products.forEach(this::apply);
+            enforceCapacity();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * 应用启动后异步全量加载
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        if (!productSearchConfig.isEnabled()) {
+            return;
+        }
+        if (!loading.compareAndSet(false, true)) {
+            return;
+        }
+        commonTaskExecutor.execute(() -> {
+            try {
+                fullLoad();
+            } catch (Exception e) {
+                log.error("[Product-Search] Full load failed, search falls back to LIKE", e);
+            } finally {
+                loading.set(false);
+            }
+        });
+    }
+
+    /**
+     * 定时增量刷新（未加载完成则跳过）
+     */
+    @Scheduled(fixedDelayString = "${mall.mgt.product-search.refresh-interval-ms:30000}")
+    public void scheduledRefresh() {
+        if (!productSearchConfig.isEnabled() || Objects.isNull(nameIndex)) {
+            return;
+        }
+        try {
+            refreshIncrementally();
+        } catch (Exception e) {
+            log.warn("[Product-Search] Scheduled refresh failed", e);
+        }
+    }
+
+    /**
+     * 索引统计（商品数、词项数与估算内存占用）
+     */
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("enabled", productSearchConfig.isEnabled());
+        stats.put("maxIndexedProducts", productSearchConfig.getMaxIndexedProducts());
+        lock.readLock().lock();
+        try {
+            stats.put("loaded", Objects.nonNull(nameIndex));
+            if (Objects.nonNull(nameIndex)) {
+                long bytes = nameIndex.estimatedBytes() + modelIndex.estimatedBytes();
+                stats.put("products", nameIndex.size());
+                stats.put("nameTerms", nameIndex.termCount());
+                stats.put("modelTerms", modelIndex.termCount());
+                stats.put("estimatedBytes", bytes);
+                stats.put("estimatedMb", String.format("%.2f", bytes / 1024.0 / 1024.0));
+                stats.put("watermark", watermark);
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        return stats;
+    }
+
+    /**
+     * @return 匹配的商品ID（倒序），索引不可用或访问预算耗尽时返回 null
+     */
+    private long[] searchIds(String name, String model, long beforeId, int limit, NgramIndex.ScanBudget budget) {
+        lock.readLock().lock();
+        try {
+            if (Objects.isNull(nameIndex)) {
+                // 索引已被丢弃
+                return null;
+            }
+            if (StringUtils.isNotBlank(name)) {
+                LongPredicate modelFilter = StringUtils.isNotBlank(model) ? id -> modelIndex.matches(id, model) : null;
+                return nameIndex.search(name, beforeId, limit, modelFilter, budget);
+            }
+            return modelIndex.search(model, beforeId, limit, null, budget);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * 全量加载：按 ID 游标分批读取未删除商品，构建完成后一次性发布
+     * 水位线取加载开始时间，加载期间发生的修改由后续增量刷新补齐
+     */
+    private void fullLoad() {
+        long startTime = System.currentTimeMillis();
+        LocalDateTime loadStartTime = LocalDateTime.now();
+        int batchSize = Math.max(1, productSearchConfig.getLoadBatchSize());
+
+        NgramIndex.Builder nameBuilder = new NgramIndex.Builder(batchSize);
+        NgramIndex.Builder modelBuilder = new NgramIndex.Builder(batchSize);
+        long total = 0;
+        Long cursorId = null;
+        while (true) {
+            List<ProductEntity> batch = productMapper.selectByCursorWithLimit(
+                    null, null, null, null, null, cursorId, batchSize);
+            if (CollectionUtils.isEmpty(batch)) {
+                break;
+            }
+            total += batch.size();
+            if (total > productSearchConfig.getMaxIndexedProducts()) {
+                log.warn("[Product-Search] Products exceed maxIndexedProducts={}, index disabled, search falls back to LIKE",
+                        productSearchConfig.getMaxIndexedProducts());
+                return;
+            }
+            for (ProductEntity product : batch) {
+                nameBuilder.add(product.getId(), product.getName());
+                modelBuilder.add(product.getId(), product.getModel());
+            }
+            cursorId = batch.get(batch.size() - 1).getId();
+            if (batch.size() < batchSize) {
+                break;
+            }
+        }
+
+        NgramIndex builtName = nameBuilder.build();
+        NgramIndex builtModel = modelBuilder.build();
+        lock.writeLock().lock();
+        try {
+            modelIndex = builtModel;
+            nameIndex = builtName;
+            watermark = loadStartTime;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        log.info("[Product-Search] Full load finished, products={}, nameTerms={}, modelTerms={}, cost={}ms",
+                total, builtName.termCount(), builtModel.termCount(), System.currentTimeMillis() - startTime);
+    }
+
+    /**
+     * 基于 update_time 水位线拉取变更（含软删除）
+     */
+    private void refreshIncrementally() {
+        LocalDateTime since = watermark.minusSeconds(productSearchConfig.getWatermarkOverlapSeconds());
+        ProductEntityExample example = new ProductEntityExample();
+        example.createCriteria().andUpdateTimeGreaterThanOrEqualTo(since);
+        List<ProductEntity> changed = productMapper.selectByExample(example);
+        if (changed.isEmpty()) {
+            return;
+        }
+
+        LocalDateTime max = watermark;
+        lock.writeLock().lock();
+        try {
+            if (Objects.isNull(nameIndex)) {
+                return;
+            }
+            for (ProductEntity product : changed) {
+                apply(product);
+                if (Objects.nonNull(product.getUpdateTime()) && product.getUpdateTime().isAfter(max)) {
+                    max = product.getUpdateTime();
+                }
+            }
+            watermark = max;
+            enforceCapacity();
+        } finally {
+            lock.writeLock().unlock();
+        }
+        log.debug("[Product-Search] Incremental refresh: products={}", changed.size());
+    }
+
+    /**
+     * 增量更新后商品数超过上限时丢弃索引（查询回退到 LIKE），调用方需持有写锁
+     */
+    private void enforceCapacity() {
+        if (Objects.nonNull(nameIndex) && nameIndex.size() > productSearchConfig.getMaxIndexedProducts()) {
+            log.warn("[Product-Search] Indexed products {} exceed maxIndexedProducts={}, index dropped, search falls back to LIKE",
+                    nameIndex.size(), productSearchConfig.getMaxIndexedProducts());
+            nameIndex = null;
+            modelIndex = null;
+        }
+    }
+
+    /**
+     * 调用方需持有写锁
+     */
+    private void apply(ProductEntity product) {
+        if (Boolean.TRUE.equals(product.getIsDel())) {
+            nameIndex.remove(product.getId());
+            modelIndex.remove(product.getId());
+        } else {
+            nameIndex.put(product.getId(), product.getName());
+            modelIndex.put(product.getId(), product.getModel());
+        }
+    }
+
+    private static void logBudgetExhausted(ProductQueryDTO query, NgramIndex.ScanBudget budget) {
+        if (budget.isExhausted()) {
+            log.info("[Product-Search] Too many candidates, fallback to LIKE, name={}, model={}",
+                    query.getName(), query.getModel());
+        }
+    }
+
+    /**
+     * 关键词为空，或不含 LIKE 通配符/转义符且无首尾空白（此时字面子串匹配与 LIKE '%keyword%' 结果一致）
+     */
+    private static boolean isLiteral(String keyword) {
+        return StringUtils.isEmpty(keyword)
+                || (keyword.equals(keyword.trim()) && StringUtils.containsNone(keyword, '%', '_', '\\'));
+    }
+
+    private static boolean containsIgnoreCase(String text, String keyword) {
+        if (StringUtils.isBlank(keyword)) {
+            return true;
+        }
+        return Objects.nonNull(text)
+                && text.toLowerCase(Locale.ROOT).contains(keyword.trim().toLowerCase(Locale.ROOT));
+    }
+}
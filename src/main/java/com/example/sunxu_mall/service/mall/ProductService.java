@@ -1,20 +1,44 @@
 package com.example.sunxu_mall.service.mall;
 
+import cn.hutool.core.util.IdUtil;
 import cn.hutool.crypto.digest.DigestUtil;
+import com.example.sunxu_mall.config.props.ProductDetailConfig;
+import com.example.sunxu_mall.config.props.ProductReadConfig;
+import com.example.sunxu_mall.context.AuditUser;
+import com.example.sunxu_mall.context.AuditUserProvider;
 import com.example.sunxu_mall.dto.mall.*;
 import com.example.sunxu_mall.entity.mall.*;
+import com.example.sunxu_mall.event.ProductChangedEvent;
 import com.example.sunxu_mall.exception.BusinessException;
 import com.example.sunxu_mall.mapper.mall.*;
+import com.example.sunxu_mall.model.IdRange;
+import com.example.sunxu_mall.model.KeysetSeek;
+import com.example.sunxu_mall.model.SortableField;
 import com.example.sunxu_mall.service.BaseService;
+import com.example.sunxu_mall.service.common.TotalCountService;
 import com.example.sunxu_mall.util.BeanCopyUtils;
+import com.example.sunxu_mall.util.ProductDetailCodec;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.collections4.CollectionUtils;
 import org.apache.commons.lang3.StringUtils;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DuplicateKeyException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
-import java.nio.charset.StandardCharsets;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
 import java.util.*;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.Function;
 import java.util.stream.Collectors;
 
@@ -41,48 +65,199 @@ public class ProductService extends BaseService<ProductEntity, ProductQueryDTO>
      */
     private static final int INITIAL_SORT = 1;
 
+    /**
+     * 批量查询商品详情的最大数量
+     */
+    public static final int MAX_BATCH_QUERY_SIZE = 200;
+
+    /**
+     * 列表支持的排序字段（对应列需有 (列, id) 索引，见 db/index_optimization.sql）
+     */
+    private static final Map<String, SortableField<ProductEntity>> SORTABLE_FIELDS = Map.of(
+            "price", SortableField.of("price", "price", BigDecimal.class, ProductEntity::getPrice),
+            "createTime", SortableField.of("createTime", "create_time", LocalDateTime.class, ProductEntity::getCreateTime),
+            "name", SortableField.of("name", "name", String.class, ProductEntity::getName)
+    );
+
     /**
      * 轮播图类型标识
      */
     private static final boolean SWIPER_PHOTO_TYPE = false;
 
+    /**
+     * 支持字段级合并的字段（与 mergeUpdateFields 的白名单一致），用于定位冲突字段
+     */
+    private static final Map<String, Function<ProductEntity, Object>> MERGEABLE_FIELDS = new LinkedHashMap<>();
+
+    static {
+        MERGEABLE_FIELDS.put("categoryId", ProductEntity::getCategoryId);
+        MERGEABLE_FIELDS.put("brandId", ProductEntity::getBrandId);
+        MERGEABLE_FIELDS.put("unitId", ProductEntity::getUnitId);
+        MERGEABLE_FIELDS.put("productGroupId", ProductEntity::getProductGroupId);
+        MERGEABLE_FIELDS.put("name", ProductEntity::getName);
+        MERGEABLE_FIELDS.put("model", ProductEntity::getModel);
+        MERGEABLE_FIELDS.put("quantity", ProductEntity::getQuantity);
+        MERGEABLE_FIELDS.put("remainQuantity", ProductEntity::getRemainQuantity);
+        MERGEABLE_FIELDS.put("price", ProductEntity::getPrice);
+        MERGEABLE_FIELDS.put("coverUrl", ProductEntity::getCoverUrl);
+    }
+
     private final ProductEntityMapper productMapper;
     private final ProductGroupAttributeEntityMapper productGroupAttributeMapper;
     private final ProductAttributeEntityMapper productAttributeMapper;
-    private final AttributeValueEntityMapper attributeValueMapper;
+    private final AttributeDictionaryService attributeDictionaryService;
     private final CommonPhotoEntityMapper commonPhotoMapper;
     private final MallProductGroupEntityMapper productGroupMapper;
     private final MallProductDetailEntityMapper productDetailMapper;
     private final MallProductPhotoEntityMapper productPhotoMapper;
+    private final ProductDetailCacheService productDetailCacheService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ProductReadConfig productReadConfig;
+    private final ProductDetailConfig productDetailConfig;
+    private final Executor productReadExecutor;
+    private final ProductSearchService productSearchService;
+    private final ProductGroupCacheService productGroupCacheService;
+    private final StockService stockService;
 
     public ProductService(
             ProductEntityMapper productMapper,
             ProductGroupAttributeEntityMapper productGroupAttributeMapper,
             ProductAttributeEntityMapper productAttributeMapper,
-            AttributeValueEntityMapper attributeValueMapper,
+            AttributeDictionaryService attributeDictionaryService,
             CommonPhotoEntityMapper commonPhotoMapper,
             MallProductGroupEntityMapper productGroupMapper,
             MallProductDetailEntityMapper productDetailMapper,
-            MallProductPhotoEntityMapper productPhotoMapper
+            MallProductPhotoEntityMapper productPhotoMapper,
+            ProductDetailCacheService productDetailCacheService,
+            ApplicationEventPublisher eventPublisher,
+            ProductReadConfig productReadConfig,
+            ProductDetailConfig productDetailConfig,
+            @Qualifier("productReadExecutor") Executor productReadExecutor,
+            ProductSearchService productSearchService,
+            ProductGroupCacheService productGroupCacheService,
+            StockService stockService
     ) {
         this.productMapper = productMapper;
         this.productGroupAttributeMapper = productGroupAttributeMapper;
         this.productAttributeMapper = productAttributeMapper;
-        this.attributeValueMapper = attributeValueMapper;
+        this.attributeDictionaryService = attributeDictionaryService;
         this.commonPhotoMapper = commonPhotoMapper;
         this.productGroupMapper = productGroupMapper;
         this.productDetailMapper = productDetailMapper;
         this.productPhotoMapper = productPhotoMapper;
+        this.productDetailCacheService = productDetailCacheService;
+        this.eventPublisher = eventPublisher;
+        this.productReadConfig = productReadConfig;
+        this.productDetailConfig = productDetailConfig;
+        this.productReadExecutor = productReadExecutor;
+        this.productSearchService = productSearchService;
+        this.productGroupCacheService = productGroupCacheService;
+        this.stockService = stockService;
     }
 
     /**
      * 根据商品ID查询商品详情
      * 包含商品基本信息、SPU属性、SKU属性、图片和详情描述
+     * 优先读取多级缓存（Caffeine + Redis），未命中再回源组装
      *
      * @param id 商品ID
      * @return 商品详情DTO，如果商品不存在则返回null
      */
     public ProductDetailDTO findById(Long id) {
+        return findById(id, true);
+    }
+
+    /**
+     * 根据商品ID查询商品详情，可选择是否返回详情描述（富文本）
+     * <p>
+     * 缓存开启时缓存完整数据，不需要详情时仅在返回前裁剪（不修改缓存对象）；
+     * 缓存关闭且不需要详情时，直接跳过 BLOB 查询
+     *
+     * @param id            商品ID
+     * @param includeDetail 是否返回详情描述
+     * @return 商品详情DTO，如果商品不存在则返回null
+     */
+    public ProductDetailDTO findById(Long id, boolean includeDetail) {
+        if (!includeDetail && !productDetailCacheService.isEnabled()) {
+            return withLiveStock(loadProductDetail(id, false));
+        }
+        ProductDetailDTO productDetailDTO = productDetailCacheService.get(id, this::loadProductDetail);
+        return withLiveStock(includeDetail ? productDetailDTO : withoutDetail(productDetailDTO));
+    }
+
+    /**
+     * 用 Redis 中的实时剩余库存（分段商品为各分段之和）覆盖返回值
+     * <p>
+     * 缓存中的商品详情与 MySQL 的剩余库存都滞后于 Redis 预扣，不一致时复制一份再替换（不修改缓存对象）；
+     * Redis 不可用或商品尚未加载时返回原值
+     *
+     * @param source 商品详情DTO
+     * @return 带实时剩余库存的商品详情，source 为 null 返回 null
+     */
+    ProductDetailDTO withLiveStock(ProductDetailDTO source) {
+        if (Objects.isNull(source) || !stockService.isEnabled()) {
+            return source;
+        }
+        Integer remain;
+        try {
+            remain = stockService.peekRemain(source.getId());
+        } catch (Exception e) {
+            log.warn("[Product-Read] Failed to read live stock, productId={}", source.getId(), e);
+            return source;
+        }
+        return withRemain(source, remain);
+    }
+
+    /**
+     * 批量版本的 {@link #withLiveStock(ProductDetailDTO)}：一次批量读取 Redis 库存
+     *
+     * @param sources 商品详情DTO列表
+     * @return 带实时剩余库存的商品详情列表（顺序不变）
+     */
+    List<ProductDetailDTO> withLiveStock(List<ProductDetailDTO> sources) {
+        if (CollectionUtils.isEmpty(sources) || !stockService.isEnabled()) {
+            return sources;
+        }
+        Map<Long, Integer> remains;
+        try {
+            remains = stockService.peekRemains(sources.stream().map(ProductDetailDTO::getId).collect(Collectors.toList()));
+        } catch (Exception e) {
+            log.warn("[Product-Read] Failed to read live stock, size={}", sources.size(), e);
+            return sources;
+        }
+        return sources.stream()
+                .map(source -> withRemain(source, remains.get(source.getId())))
+                .collect(Collectors.toList());
+    }
+
+    private static ProductDetailDTO withRemain(ProductDetailDTO source, Integer remain) {
+        if (Objects.isNull(remain) || Objects.equals(remain, source.getRemainQuantity())) {
+            return source;
+        }
+        ProductDetailDTO copy = new ProductDetailDTO();
+        BeanCopyUtils.copyNonNullProperties(source, copy);
+        copy.setRemainQuantity(remain);
+        return copy;
+    }
+
+    /**
+     * 从 DB 组装商品详情（缓存未命中时回源）
+     *
+     * @param id 商品ID
+     * @return 商品详情DTO，如果商品不存在则返回null
+     */
+    private ProductDetailDTO loadProductDetail(Long id) {
+        return loadProductDetail(id, true);
+    }
+
+    /**
+     * 从 DB 组装商品详情
+     *
+     * @param id            商品ID
+     * @param includeDetail 是否加载详情描述（false 时跳过 BLOB 查询）
+     * @return 商品详情DTO，如果商品不存在则返回null
+     */
+    private ProductDetailDTO loadProductDetail(Long id, boolean includeDetail) {
         ProductEntity productEntity = productMapper.selectByPrimaryKey(id);
         if (Objects.isNull(productEntity)) {
             return null;
@@ -91,14 +266,307 @@ public class ProductService extends BaseService<ProductEntity, ProductQueryDTO>
         ProductDetailDTO productDetailDTO = new ProductDetailDTO();
         BeanCopyUtils.copyNonNullProperties(productEntity, productDetailDTO);
 
-        fillSpuAttributeValue(productDetailDTO);
-        fillSkuAttributeValue(productDetailDTO);
-        fillPhoto(productDetailDTO);
-        fillDetail(productDetailDTO);
+        if (productReadConfig.isParallelEnabled()) {
+            fillDetailInParallel(productDetailDTO, includeDetail);
+        } else {
+            fillSpuAttributeValue(productDetailDTO);
+            fillSkuAttributeValue(productDetailDTO);
+            fillPhoto(productDetailDTO);
+            if (includeDetail) {
+                fillDetail(productDetailDTO);
+            }
+        }
 
         return productDetailDTO;
     }
 
+    /**
+     * 复制一份不含详情描述的商品详情（避免修改缓存中的共享对象）
+     *
+     * @param source 商品详情DTO
+     * @return 不含详情描述的副本，source 为 null 返回 null
+     */
+    private ProductDetailDTO withoutDetail(ProductDetailDTO source) {
+        if (Objects.isNull(source) || Objects.isNull(source.getDetail())) {
+            return source;
+        }
+        ProductDetailDTO copy = new ProductDetailDTO();
+        BeanCopyUtils.copyNonNullProperties(source, copy);
+        copy.setDetail(null);
+        return copy;
+    }
+
+    /**
+     * 并行填充商品详情的各个子部分
+     * 各步骤只依赖商品主记录且写入不同字段，可在 productReadExecutor 上并发执行，
+     * 整体耗时约等于最慢的一个子查询；任一步骤超时或失败则取消其余步骤并整体失败（不缓存残缺数据）
+     *
+     * @param productDetailDTO 商品详情DTO
+     * @param includeDetail    是否加载详情描述
+     * @throws BusinessException 当任一步骤超时时抛出服务不可用异常
+     */
+    private void fillDetailInParallel(ProductDetailDTO productDetailDTO, boolean includeDetail) {
+        Long productId = productDetailDTO.getId();
+        List<CompletableFuture<Void>> steps = new ArrayList<>(4);
+        steps.add(runFillStep("spu", productId,
+                () -> fillSpuAttributeValue(productDetailDTO), productReadConfig.getSpuTimeoutMillis()));
+        steps.add(runFillStep("sku", productId,
+                () -> fillSkuAttributeValue(productDetailDTO), productReadConfig.getSkuTimeoutMillis()));
+        steps.add(runFillStep("photo", productId,
+                () -> fillPhoto(productDetailDTO), productReadConfig.getPhotoTimeoutMillis()));
+        if (includeDetail) {
+            steps.add(runFillStep("detail", productId,
+                    () -> fillDetail(productDetailDTO), productReadConfig.getDetailTimeoutMillis()));
+        }
+
+        // 记录第一个失败原因，并取消其余步骤（不再等待，也不再占用线程与 DB 连接）
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        for (CompletableFuture<Void> step : steps) {
+            step.whenComplete((r, ex) -> {
+                if (Objects.nonNull(ex) && !(ex instanceof CancellationException) && failure.compareAndSet(null, ex)) {
+                    steps.forEach(other -> other.cancel(false));
+                }
+            });
+        }
+
+        try {
+            CompletableFuture.allOf(steps.toArray(new CompletableFuture[0])).join();
+        } catch (CompletionException | CancellationException e) {
+            Throwable cause = Objects.nonNull(failure.get()) ? failure.get()
+                    : Objects.nonNull(e.getCause()) ? e.getCause() : e;
+            if (cause instanceof TimeoutException) {
+                throw new BusinessException(SERVICE_UNAVAILABLE.getCode(), "商品详情加载超时，请稍后重试");
+            }
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new BusinessException(INTERNAL_SERVER_ERROR.getCode(), cause.getMessage());
+        }
+    }
+
+    /**
+     * 在商品读取线程池上执行单个填充步骤，并设置独立超时
+     * <p>
+     * 步骤超时或被取消时同时取消底层任务：排队中的不再执行，执行中的被中断（orTimeout 只结束 Future，不会停止任务）。
+     * 线程池拒绝（如关闭中）时在调用线程上执行
+     *
+     * @param step          步骤名称（用于日志）
+     * @param productId     商品ID
+     * @param task          填充任务
+     * @param timeoutMillis 超时时间（毫秒）
+     * @return 步骤 Future
+     */
+    private CompletableFuture<Void> runFillStep(String step, Long productId, Runnable task, long timeoutMillis) {
+        CompletableFuture<Void> future = new CompletableFuture<>();
+        Runnable body = () -> {
+            try {
+                task.run();
+                future.complete(null);
+            } catch (Throwable e) {
+                future.completeExceptionally(e);
+            }
+        };
+        FutureTask<Void> fillTask = new FutureTask<>(body, null);
+        future.orTimeout(timeoutMillis, TimeUnit.MILLISECONDS)
+                .whenComplete((r, ex) -> {
+                    if (Objects.isNull(ex)) {
+                        return;
+                    }
+                    fillTask.cancel(true);
+                    if (ex instanceof TimeoutException) {
+                        log.warn("[Product-Read] Step timeout, step={}, productId={}, timeoutMillis={}",
+                                step, productId, timeoutMillis);
+                    } else if (ex instanceof CancellationException) {
+                        log.debug("[Product-Read] Step cancelled, step={}, productId={}", step, productId);
+                    } else {
+                        log.warn("[Product-Read] Step failed, step={}, productId={}", step, productId, ex);
+                    }
+                });
+        try {
+            productReadExecutor.execute(fillTask);
+        } catch (RejectedExecutionException e) {
+            log.warn("[Product-Read] Step rejected, running in caller thread, step={}, productId={}", step, productId);
+            // 直接执行 body 而非 fillTask：超时取消时不会中断调用线程
+            body.run();
+        }
+        return future;
+    }
+
+    /**
+     * 根据商品ID列表批量查询商品详情
+     * 每张关联表只执行一次 IN 查询，结果在内存中拼装，查询次数与商品数量无关
+     *
+     * @param ids 商品ID列表
+     * @return 商品详情列表，按入参顺序返回，不存在的商品会被忽略
+     * @throws BusinessException 当ID数量超过上限时抛出参数校验异常
+     */
+    public List<ProductDetailDTO> findByIds(List<Long> ids) {
+        return findByIds(ids, true);
+    }
+
+    /**
+     * 根据商品ID列表批量查询商品详情，可选择是否返回详情描述（富文本）
+     *
+     * @param ids           商品ID列表
+     * @param includeDetail 是否返回详情描述
+     * @return 商品详情列表，按入参顺序返回，不存在的商品会被忽略
+     * @throws BusinessException 当ID数量超过上限时抛出参数校验异常
+     */
+    public List<ProductDetailDTO> findByIds(List<Long> ids, boolean includeDetail) {
+        if (CollectionUtils.isEmpty(ids)) {
+            return Collections.emptyList();
+        }
+
+        List<Long> distinctIds = ids.stream()
+                .filter(Objects::nonNull)
+                .distinct()
+                .collect(Collectors.toList());
+        if (distinctIds.size() > MAX_BATCH_QUERY_SIZE) {
+            throw new BusinessException(PARAMETER_VALIDATION_ERROR.getCode(),
+                    "批量查询商品数量不能超过" + MAX_BATCH_QUERY_SIZE);
+        }
+
+        Map<Long, ProductDetailDTO> detailMap = !includeDetail && !productDetailCacheService.isEnabled()
+                ? loadProductDetails(distinctIds, false)
+                : productDetailCacheService.getAll(distinctIds, this::loadProductDetails);
+        return withLiveStock(distinctIds.stream()
+                .map(detailMap::get)
+                .filter(Objects::nonNull)
+                .map(dto -> includeDetail ? dto : withoutDetail(dto))
+                .collect(Collectors.toList()));
+    }
+
+    /**
+     * 从 DB 批量组装商品详情（缓存未命中时回源）
+     * 共 5 次查询：商品、SPU 属性、SKU 属性、图片、详情（属性值读取内存字典）
+     *
+     * @param ids 商品ID列表
+     * @return 商品ID -> 商品详情DTO，不存在的商品不出现在结果中
+     */
+    private Map<Long, ProductDetailDTO> loadProductDetails(List<Long> ids) {
+        return loadProductDetails(ids, true);
+    }
+
+    /**
+     * 绕过缓存直接从源表组装商品详情（供读模型投影使用，包含已软删商品）
+     *
+     * @param ids 商品ID列表
+     * @return 商品ID -> 商品详情DTO，不存在的商品不出现在结果中
+     */
+    public Map<Long, ProductDetailDTO> loadFromSource(List<Long> ids) {
+        if (CollectionUtils.isEmpty(ids)) {
+            return Collections.emptyMap();
+        }
+        return loadProductDetails(ids, true);
+    }
+
+    /**
+     * 从 DB 批量组装商品详情
+     *
+     * @param ids           商品ID列表
+     * @param includeDetail 是否加载详情描述（false 时跳过 BLOB 查询）
+     * @return 商品ID -> 商品详情DTO，不存在的商品不出现在结果中
+     */
+    private Map<Long, ProductDetailDTO> loadProductDetails(List<Long> ids, boolean includeDetail) {
+        ProductEntityExample productExample = new ProductEntityExample();
+        productExample.createCriteria().andIdIn(ids);
+        List<ProductEntity> products = productMapper.selectByExample(productExample);
+        if (CollectionUtils.isEmpty(products)) {
+            return Collections.emptyMap();
+        }
+
+        Map<Long, ProductDetailDTO> result = new LinkedHashMap<>(products.size() * 2);
+        for (ProductEntity productEntity : products) {
+            ProductDetailDTO productDetailDTO = new ProductDetailDTO();
+            BeanCopyUtils.copyNonNullProperties(productEntity, productDetailDTO);
+            result.put(productEntity.getId(), productDetailDTO);
+        }
+        List<Long> productIds = new ArrayList<>(result.keySet());
+
+        // 1. SPU / SKU 属性关联
+        List<Long> groupIds = products.stream()
+                .map(ProductEntity::getProductGroupId)
+                .filter(Objects::nonNull)
+                .distinct()
+                .collect(Collectors.toList());
+        Map<Long, List<Long>> spuValueIdsByGroup = Collections.emptyMap();
+        if (CollectionUtils.isNotEmpty(groupIds)) {
+            ProductGroupAttributeEntityExample groupAttrExample = new ProductGroupAttributeEntityExample();
+            groupAttrExample.createCriteria().andProductGroupIdIn(groupIds);
+            spuValueIdsByGroup = productGroupAttributeMapper.selectByExample(groupAttrExample).stream()
+                    .collect(Collectors.groupingBy(ProductGroupAttributeEntity::getProductGroupId,
+                            Collectors.mapping(ProductGroupAttributeEntity::getAttributeValueId, Collectors.toList())));
+        }
+
+        ProductAttributeEntityExample productAttrExample = new ProductAttributeEntityExample();
+        productAttrExample.createCriteria().andProductIdIn(productIds);
+        Map<Long, List<Long>> skuValueIdsByProduct = productAttributeMapper.selectByExample(productAttrExample).stream()
+                .collect(Collectors.groupingBy(ProductAttributeEntity::getProductId,
+                        Collectors.mapping(ProductAttributeEntity::getAttributeValueId, Collectors.toList())));
+
+        // 2. 属性值（SPU + SKU 合并为一次字典查找）
+        List<Long> allValueIds = new ArrayList<>();
+        spuValueIdsByGroup.values().forEach(allValueIds::addAll);
+        skuValueIdsByProduct.values().forEach(allValueIds::addAll);
+        Map<Long, AttributeValueEntity> valueMap = getAttributeValues(allValueIds.stream().distinct().collect(Collectors.toList()))
+                .stream()
+                .collect(Collectors.toMap(AttributeValueEntity::getId, Function.identity(), (a, b) -> a));
+
+        // 3. 图片
+        CommonPhotoEntityExample photoExample = new CommonPhotoEntityExample();
+        photoExample.createCriteria().andPhotoGroupIdIn(productIds);
+        Map<Long, List<String>> photoUrlsByProduct = commonPhotoMapper.selectByExample(photoExample).stream()
+                .collect(Collectors.groupingBy(CommonPhotoEntity::getPhotoGroupId,
+                        Collectors.mapping(CommonPhotoEntity::getUrl, Collectors.toList())));
+
+        // 4. 详情
+        Map<Long, byte[]> detailByProduct = new HashMap<>();
+        if (includeDetail) {
+            MallProductDetailEntityExample detailExample = new MallProductDetailEntityExample();
+            detailExample.createCriteria().andProductIdIn(productIds).andIsDelEqualTo(false);
+            for (MallProductDetailEntity detail : productDetailMapper.selectByExampleWithBLOBs(detailExample)) {
+                detailByProduct.putIfAbsent(detail.getProductId(), detail.getDetail());
+            }
+        }
+
+        // 5. 内存拼装
+        for (ProductDetailDTO productDetailDTO : result.values()) {
+            List<Long> spuValueIds = spuValueIdsByGroup.get(productDetailDTO.getProductGroupId());
+            if (CollectionUtils.isNotEmpty(spuValueIds)) {
+                productDetailDTO.setSpuAttributeEntityList(pickAttributeValues(spuValueIds, valueMap));
+            }
+            List<Long> skuValueIds = skuValueIdsByProduct.get(productDetailDTO.getId());
+            if (CollectionUtils.isNotEmpty(skuValueIds)) {
+                productDetailDTO.setSkuAttributeEntityList(pickAttributeValues(skuValueIds, valueMap));
+            }
+            List<String> photoUrls = photoUrlsByProduct.get(productDetailDTO.getId());
+            if (CollectionUtils.isNotEmpty(photoUrls)) {
+                applyPhotoUrls(productDetailDTO, photoUrls);
+            }
+            byte[] content = detailByProduct.get(productDetailDTO.getId());
+            if (content != null) {
+                productDetailDTO.setDetail(ProductDetailCodec.decode(content));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * 从属性值字典中按ID挑选属性值（去重，忽略不存在的ID）
+     *
+     * @param attributeValueIds 属性值ID列表
+     * @param valueMap          属性值ID -> 属性值实体
+     * @return 属性值实体列表
+     */
+    private List<AttributeValueEntity> pickAttributeValues(List<Long> attributeValueIds,
+                                                           Map<Long, AttributeValueEntity> valueMap) {
+        return attributeValueIds.stream()
+                .distinct()
+                .map(valueMap::get)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toList());
+    }
+
     /**
      * 填充商品详情描述信息
      *
@@ -111,7 +579,7 @@ public class ProductService extends BaseService<ProductEntity, ProductQueryDTO>
         if (CollectionUtils.isNotEmpty(details)) {
             byte[] content = details.get(0).getDetail();
             if (content != null) {
-                productDetailDTO.setDetail(new String(content, StandardCharsets.UTF_8));
+                productDetailDTO.setDetail(ProductDetailCodec.decode(content));
             }
         }
     }
@@ -139,20 +607,30 @@ public class ProductService extends BaseService<ProductEntity, ProductQueryDTO>
         saveSkuAttributes(productId, dto.getSkuAttributes());
         saveProductPhotos(productId, dto.getPhotos());
 
+        eventPublisher.publishEvent(new ProductChangedEvent(this, productId, ProductChangedEvent.Action.CREATE));
         return product;
     }
 
     /**
      * 查找或创建商品组
      * 根据分类、单位和SPU属性查找已存在的商品组，如不存在则创建新商品组
+     * <p>
+     * 解析顺序：商品组缓存（Caffeine + Redis）-> 查库 -> upsert。
+     * (category_id, unit_id, hash, del_id) 有唯一索引，并发创建同一商品组时只有一方插入成功，
+     * 另一方在唯一键冲突后拿到已有ID，且只有真正插入的一方写入 SPU 属性。
      *
      * @param dto 创建商品请求DTO
      * @return 商品组ID
      */
     private Long findOrCreateProductGroup(CreateProductDTO dto) {
         String groupHash = generateGroupHash(dto.getCategoryId(), dto.getUnitId(), dto.getSpuAttributes());
+        String cacheKey = ProductGroupCacheService.key(dto.getCategoryId(), dto.getUnitId(), groupHash);
+        Long cachedId = productGroupCacheService.get(cacheKey);
+        if (Objects.nonNull(cachedId)) {
+            return cachedId;
+        }
 
-        // 查询是否已存在相同的商品组
+        // 查询是否已存在相同的商品组（只读，避免已存在时也去抢行锁）
         MallProductGroupEntityExample groupExample = new MallProductGroupEntityExample();
         groupExample.createCriteria()
                 .andCategoryIdEqualTo(dto.getCategoryId())
@@ -161,28 +639,32 @@ public class ProductService extends BaseService<ProductEntity, ProductQueryDTO>
                 .andIsDelEqualTo(false);
         List<MallProductGroupEntity> groups = productGroupMapper.selectByExample(groupExample);
 
+        Long productGroupId;
         if (CollectionUtils.isNotEmpty(groups)) {
-            return groups.get(0).getId();
+            productGroupId = groups.get(0).getId();
+        } else {
+            productGroupId = upsertProductGroup(dto, groupHash);
         }
-
-        // 创建新商品组
-        MallProductGroupEntity group = MallProductGroupEntity.builder()
-                .categoryId(dto.getCategoryId())
-                .unitId(dto.getUnitId())
-                .name(dto.getName())
-                .model(dto.getModel())
-                .hash(groupHash)
-                .isDel(false)
-                .build();
-        productGroupMapper.insertSelective(group);
-        Long productGroupId = group.getId();
-
-        // 保存 SPU 属性
-        saveSpuAttributes(productGroupId, dto.getSpuAttributes());
-
+        productGroupCacheService.putAfterCommit(cacheKey, productGroupId);
         return productGroupId;
     }
 
+    /**
+     * 插入商品组（唯一键冲突时返回已有ID），仅在本次插入成功时保存 SPU 属性
+     *
+     * @param dto       创建商品请求DTO
+     * @param groupHash 商品组哈希
+     * @return 商品组ID
+     */
+    private Long upsertProductGroup(CreateProductDTO dto, String groupHash) {
+        MallProductGroupEntity group = buildProductGroupEntity(dto, groupHash);
+        boolean inserted = productGroupMapper.upsertReturningId(group) == 1;
+        if (inserted) {
+            saveSpuAttributes(group.getId(), dto.getSpuAttributes());
+        }
+        return group.getId();
+    }
+
     /**
      * 保存SPU属性
      *
@@ -193,21 +675,13 @@ public class ProductService extends BaseService<ProductEntity, ProductQueryDTO>
         if (CollectionUtils.isEmpty(spuAttributes)) {
             return;
         }
-
-        for (CreateProductAttributeDTO attr : spuAttributes) {
-            ProductGroupAttributeEntity pga = ProductGroupAttributeEntity.builder()
-                    .productGroupId(productGroupId)
-                    .attributeId(attr.getAttributeId())
-                    .attributeValueId(attr.getAttributeValueId())
-                    .isDel(false)
-                    .build();
-            productGroupAttributeMapper.insertSelective(pga);
-        }
+        // 多行 VALUES 一次写入，审计字段由 AuditInterceptor 逐行填充
+        productGroupAttributeMapper.batchInsert(buildSpuAttributeRows(productGroupId, spuAttributes));
     }
 
     /**
      * 创建商品实体
-     * 验证商品是否已存在，然后创建新商品记录
+     * 规格唯一性由 (product_group_id, brand_id, hash, del_id) 唯一索引保证，不再先 COUNT 再插入
      *
      * @param dto            创建商品请求DTO
      * @param productGroupId 商品组ID
@@ -217,48 +691,14 @@ public class ProductService extends BaseService<ProductEntity, ProductQueryDTO>
     private ProductEntity createProductEntity(CreateProductDTO dto, Long productGroupId) {
         String productHash = generateProductHash(productGroupId, dto.getBrandId(), dto.getSkuAttributes());
 
-        // 验证商品是否已存在
-        checkProductNotExists(productGroupId, dto.getBrandId(), productHash);
-
-        // 创建商品实体
-        ProductEntity product = ProductEntity.builder()
-                .categoryId(dto.getCategoryId())
-                .productGroupId(productGroupId)
-                .brandId(dto.getBrandId())
-                .unitId(dto.getUnitId())
-                .name(dto.getName())
-                .model(dto.getModel())
-                .quantity(dto.getQuantity())
-                .remainQuantity(dto.getQuantity())
-                .price(dto.getPrice())
-                .coverUrl(dto.getCoverUrl())
-                .hash(productHash)
-                .isDel(false)
-                .build();
-        productMapper.insertSelective(product);
-
-        return product;
-    }
-
-    /**
-     * 检查商品是否已存在
-     *
-     * @param productGroupId 商品组ID
-     * @param brandId        品牌ID
-     * @param productHash    商品哈希值
-     * @throws BusinessException 当商品已存在时抛出异常
-     */
-    private void checkProductNotExists(Long productGroupId, Long brandId, String productHash) {
-        ProductEntityExample productExample = new ProductEntityExample();
-        productExample.createCriteria()
-                .andProductGroupIdEqualTo(productGroupId)
-                .andBrandIdEqualTo(brandId)
-                .andHashEqualTo(productHash)
-                .andIsDelEqualTo(false);
-
-        if (productMapper.countByExample(productExample) > 0) {
+        ProductEntity product = buildProductEntity(dto, productGroupId, productHash);
+        try {
+            productMapper.insertSelective(product);
+        } catch (DuplicateKeyException e) {
             throw new BusinessException(RESOURCE_CONFLICT.getCode(), "该规格商品已存在");
         }
+
+        return product;
     }
 
     /**
@@ -272,12 +712,7 @@ public class ProductService extends BaseService<ProductEntity, ProductQueryDTO>
             return;
         }
 
-        MallProductDetailEntity detailEntity = MallProductDetailEntity.builder()
-                .productId(productId)
-                .detail(detail.getBytes(StandardCharsets.UTF_8))
-                .isDel(false)
-                .build();
-        productDetailMapper.insertSelective(detailEntity);
+        productDetailMapper.insertSelective(buildDetailEntity(productId, detail));
     }
 
     /**
@@ -290,16 +725,7 @@ public class ProductService extends BaseService<ProductEntity, ProductQueryDTO>
         if (CollectionUtils.isEmpty(skuAttributes)) {
             return;
         }
-
-        for (CreateProductAttributeDTO attr : skuAttributes) {
-            ProductAttributeEntity pa = ProductAttributeEntity.builder()
-                    .productId(productId)
-                    .attributeId(attr.getAttributeId())
-                    .attributeValueId(attr.getAttributeValueId())
-                    .isDel(false)
-                    .build();
-            productAttributeMapper.insertSelective(pa);
-        }
+        productAttributeMapper.batchInsert(buildSkuAttributeRows(productId, skuAttributes));
     }
 
     /**
@@ -312,20 +738,255 @@ public class ProductService extends BaseService<ProductEntity, ProductQueryDTO>
         if (CollectionUtils.isEmpty(photos)) {
             return;
         }
+        productPhotoMapper.batchInsert(buildPhotoRows(productId, photos));
+    }
+
+    /**
+     * 批量创建商品（批量导入使用，调用方按块调用，每块一个事务）
+     * <p>
+     * 商品组按 (分类, 单位, SPU 哈希) 一次查询解析，缺失的商品组逐个创建、SPU 属性合并为一次批量写入；
+     * 商品、详情、SKU 属性、图片均为多行批量插入。已存在或块内重复的规格记为行错误，不影响其他行。
+     *
+     * @param rows 行号 -> 创建请求（已通过字段校验），按行号顺序
+     * @return 行号 -> 错误信息（未出现在结果中的行均已创建）
+     */
+    @Transactional(rollbackFor = Exception.class)
+    public Map<Integer, String> batchCreateProducts(Map<Integer, CreateProductDTO> rows) {
+        Map<Integer, String> errors = new LinkedHashMap<>();
+        if (Objects.isNull(rows) || rows.isEmpty()) {
+            return errors;
+        }
+
+        // 1. 批量解析商品组
+        Map<Integer, Long> groupIds = resolveProductGroups(rows);
+
+        // 2. 过滤已存在及块内重复的规格
+        Map<Integer, String> productHashes = new HashMap<>(rows.size() * 2);
+        rows.forEach((rowNum, dto) -> productHashes.put(rowNum,
+                generateProductHash(groupIds.get(rowNum), dto.getBrandId(), dto.getSkuAttributes())));
+        Set<String> existingKeys = selectExistingProductKeys(new HashSet<>(productHashes.values()));
+
+        Map<String, Integer> firstRowByKey = new HashMap<>(rows.size() * 2);
+        List<CreateProductDTO> accepted = new ArrayList<>(rows.size());
+        List<ProductEntity> products = new ArrayList<>(rows.size());
+        for (Map.Entry<Integer, CreateProductDTO> entry : rows.entrySet()) {
+            Integer rowNum = entry.getKey();
+            CreateProductDTO dto = entry.getValue();
+            Long groupId = groupIds.get(rowNum);
+            String hash = productHashes.get(rowNum);
+            String key = productKey(groupId, dto.getBrandId(), hash);
+            if (existingKeys.contains(key)) {
+                errors.put(rowNum, "该规格商品已存在");
+                continue;
+            }
+            Integer firstRow = firstRowByKey.putIfAbsent(key, rowNum);
+            if (Objects.nonNull(firstRow)) {
+                errors.put(rowNum, "与第" + firstRow + "行商品规格重复");
+                continue;
+            }
+            accepted.add(dto);
+            products.add(buildProductEntity(dto, groupId, hash));
+        }
+        if (products.isEmpty()) {
+            return errors;
+        }
+
+        // 3. 批量写入商品（回填自增ID）及关联数据
+        productMapper.batchInsert(products);
+        List<MallProductDetailEntity> details = new ArrayList<>();
+        List<ProductAttributeEntity> skuRows = new ArrayList<>();
+        List<MallProductPhotoEntity> photoRows = new ArrayList<>();
+        List<Long> productIds = new ArrayList<>(products.size());
+        for (int i = 0; i < products.size(); i++) {
+            CreateProductDTO dto = accepted.get(i);
+            Long productId = products.get(i).getId();
+            productIds.add(productId);
+            if (StringUtils.isNotBlank(dto.getDetail())) {
+                details.add(buildDetailEntity(productId, dto.getDetail()));
+            }
+            if (CollectionUtils.isNotEmpty(dto.getSkuAttributes())) {
+                skuRows.addAll(buildSkuAttributeRows(productId, dto.getSkuAttributes()));
+            }
+            if (CollectionUtils.isNotEmpty(dto.getPhotos())) {
+                photoRows.addAll(buildPhotoRows(productId, dto.getPhotos()));
+            }
+        }
+        if (!details.isEmpty()) {
+            productDetailMapper.batchInsert(details);
+        }
+        if (!skuRows.isEmpty()) {
+            productAttributeMapper.batchInsert(skuRows);
+        }
+        if (!photoRows.isEmpty()) {
+            productPhotoMapper.batchInsert(photoRows);
+        }
+
+        eventPublisher.publishEvent(new ProductChangedEvent(this, productIds, ProductChangedEvent.Action.CREATE));
+        return errors;
+    }
+
+    /**
+     * 批量解析商品组：先批量读缓存，未命中的一次查询，仍缺失的按 (分类, 单位, SPU 哈希) 去重后 upsert
+     *
+     * @param rows 行号 -> 创建请求
+     * @return 行号 -> 商品组ID
+     */
+    private Map<Integer, Long> resolveProductGroups(Map<Integer, CreateProductDTO> rows) {
+        Map<Integer, String> groupKeyByRow = new HashMap<>(rows.size() * 2);
+        Map<Integer, String> groupHashByRow = new HashMap<>(rows.size() * 2);
+        rows.forEach((rowNum, dto) -> {
+            String hash = generateGroupHash(dto.getCategoryId(), dto.getUnitId(), dto.getSpuAttributes());
+            groupHashByRow.put(rowNum, hash);
+            groupKeyByRow.put(rowNum, ProductGroupCacheService.key(dto.getCategoryId(), dto.getUnitId(), hash));
+        });
+
+        // 1. 缓存
+        Map<String, Long> groupIdByKey = new HashMap<>(
+                productGroupCacheService.getAll(new HashSet<>(groupKeyByRow.values())));
+
+        // 2. 查库（仅缓存未命中的哈希）
+        Map<String, Long> toCache = new HashMap<>();
+        Set<String> missedHashes = new HashSet<>();
+        groupKeyByRow.forEach((rowNum, key) -> {
+            if (!groupIdByKey.containsKey(key)) {
+                missedHashes.add(groupHashByRow.get(rowNum));
+            }
+        });
+        if (!missedHashes.isEmpty()) {
+            MallProductGroupEntityExample example = new MallProductGroupEntityExample();
+            example.createCriteria()
+                    .andHashIn(new ArrayList<>(missedHashes))
+                    .andIsDelEqualTo(false);
+            for (MallProductGroupEntity group : productGroupMapper.selectByExample(example)) {
+                String key = ProductGroupCacheService.key(group.getCategoryId(), group.getUnitId(), group.getHash());
+                if (Objects.isNull(groupIdByKey.putIfAbsent(key, group.getId()))) {
+                    toCache.put(key, group.getId());
+                }
+            }
+        }
+
+        // 3. 仍缺失的 upsert，只有真正插入的商品组写入 SPU 属性
+        Map<Integer, Long> result = new HashMap<>(rows.size() * 2);
+        List<ProductGroupAttributeEntity> spuRows = new ArrayList<>();
+        rows.forEach((rowNum, dto) -> {
+            String key = groupKeyByRow.get(rowNum);
+            Long groupId = groupIdByKey.get(key);
+            if (Objects.isNull(groupId)) {
+                MallProductGroupEntity group = buildProductGroupEntity(dto, groupHashByRow.get(rowNum));
+                boolean inserted = productGroupMapper.upsertReturningId(group) == 1;
+                groupId = group.getId();
+                groupIdByKey.put(key, groupId);
+                toCache.put(key, groupId);
+                if (inserted && CollectionUtils.isNotEmpty(dto.getSpuAttributes())) {
+                    spuRows.addAll(buildSpuAttributeRows(groupId, dto.getSpuAttributes()));
+                }
+            }
+            result.put(rowNum, groupId);
+        });
+        if (!spuRows.isEmpty()) {
+            productGroupAttributeMapper.batchInsert(spuRows);
+        }
+        productGroupCacheService.putAllAfterCommit(toCache);
+        return result;
+    }
+
+    /**
+     * 查询已存在的商品规格键（商品组:品牌:哈希）
+     */
+    private Set<String> selectExistingProductKeys(Set<String> productHashes) {
+        ProductEntityExample example = new ProductEntityExample();
+        example.createCriteria()
+                .andHashIn(new ArrayList<>(productHashes))
+                .andIsDelEqualTo(false);
+        return productMapper.selectByExample(example).stream()
+                .map(p -> productKey(p.getProductGroupId(), p.getBrandId(), p.getHash()))
+                .collect(Collectors.toSet());
+    }
+
+    private static String productKey(Long productGroupId, Long brandId, String hash) {
+        return productGroupId + ":" + brandId + ":" + hash;
+    }
+
+    private MallProductGroupEntity buildProductGroupEntity(CreateProductDTO dto, String groupHash) {
+        return MallProductGroupEntity.builder()
+                .categoryId(dto.getCategoryId())
+                .unitId(dto.getUnitId())
+                .name(dto.getName())
+                .model(dto.getModel())
+                .hash(groupHash)
+                .isDel(false)
+                .build();
+    }
+
+    private ProductEntity buildProductEntity(CreateProductDTO dto, Long productGroupId, String productHash) {
+        return ProductEntity.builder()
+                .categoryId(dto.getCategoryId())
+                .productGroupId(productGroupId)
+                .brandId(dto.getBrandId())
+                .unitId(dto.getUnitId())
+                .name(dto.getName())
+                .model(dto.getModel())
+                .quantity(dto.getQuantity())
+                .remainQuantity(dto.getQuantity())
+                .price(dto.getPrice())
+                .coverUrl(dto.getCoverUrl())
+                .hash(productHash)
+                .isDel(false)
+                .build();
+    }
+
+    private MallProductDetailEntity buildDetailEntity(Long productId, String detail) {
+        return MallProductDetailEntity.builder()
+                .productId(productId)
+                .detail(ProductDetailCodec.encode(detail,
+                        productDetailConfig.isCompressEnabled(), productDetailConfig.getCompressMinBytes()))
+                .isDel(false)
+                .build();
+    }
+
+    private List<ProductGroupAttributeEntity> buildSpuAttributeRows(Long productGroupId,
+                                                                    List<CreateProductAttributeDTO> spuAttributes) {
+        List<ProductGroupAttributeEntity> rows = new ArrayList<>(spuAttributes.size());
+        for (CreateProductAttributeDTO attr : spuAttributes) {
+            rows.add(ProductGroupAttributeEntity.builder()
+                    .productGroupId(productGroupId)
+                    .attributeId(attr.getAttributeId())
+                    .attributeValueId(attr.getAttributeValueId())
+                    .isDel(false)
+                    .build());
+        }
+        return rows;
+    }
+
+    private List<ProductAttributeEntity> buildSkuAttributeRows(Long productId,
+                                                               List<CreateProductAttributeDTO> skuAttributes) {
+        List<ProductAttributeEntity> rows = new ArrayList<>(skuAttributes.size());
+        for (CreateProductAttributeDTO attr : skuAttributes) {
+            rows.add(ProductAttributeEntity.builder()
+                    .productId(productId)
+                    .attributeId(attr.getAttributeId())
+                    .attributeValueId(attr.getAttributeValueId())
+                    .isDel(false)
+                    .build());
+        }
+        return rows;
+    }
 
+    private List<MallProductPhotoEntity> buildPhotoRows(Long productId, List<String> photos) {
+        List<MallProductPhotoEntity> rows = new ArrayList<>(photos.size());
         int sort = INITIAL_SORT;
         for (String url : photos) {
             String name = url.substring(url.lastIndexOf('/') + 1);
-            MallProductPhotoEntity photo = MallProductPhotoEntity.builder()
+            rows.add(MallProductPhotoEntity.builder()
                     .productId(productId)
                     .name(name)
                     .url(url)
                     .sort(sort++)
                     .type(SWIPER_PHOTO_TYPE)
                     .isDel(false)
-                    .build();
-            productPhotoMapper.insertSelective(photo);
+                    .build());
         }
+        return rows;
     }
 
     /**
@@ -376,6 +1037,10 @@ public class ProductService extends BaseService<ProductEntity, ProductQueryDTO>
 
     @Override
     protected List<ProductEntity> selectListWithLimit(ProductQueryDTO queryDTO, int limit) {
+        List<ProductEntity> hits = productSearchService.searchByCursor(queryDTO, null, limit);
+        if (Objects.nonNull(hits)) {
+            return hits;
+        }
         return productMapper.selectListWithLimit(
                 queryDTO.getName(),
                 queryDTO.getModel(),
@@ -386,19 +1051,73 @@ public class ProductService extends BaseService<ProductEntity, ProductQueryDTO>
         );
     }
 
+    /**
+     * 默认按 id 倒序且包含 name/model 条件时优先走内存倒排索引（索引不可用时回退到 LIKE 查询）；
+     * 指定排序字段时按 (排序列, id) 键集分页
+     */
     @Override
-    protected List<ProductEntity> selectListByCursorWithLimit(ProductQueryDTO queryDTO, Long cursorId, int limit) {
-        return productMapper.selectByCursorWithLimit(
+    protected List<ProductEntity> selectListByCursorWithLimit(ProductQueryDTO queryDTO, KeysetSeek seek, int limit) {
+        if (seek.isIdOnly()) {
+            List<ProductEntity> hits = productSearchService.searchByCursor(queryDTO, seek.getLastId(),
+                    seek.getLowerId(), limit);
+            if (Objects.nonNull(hits)) {
+                return hits;
+            }
+        }
+        return productMapper.selectBySeekWithLimit(
                 queryDTO.getName(),
                 queryDTO.getModel(),
                 queryDTO.getCategoryId(),
                 queryDTO.getBrandId(),
                 queryDTO.getProductGroupId(),
-                cursorId,
+                seek,
+                limit
+        );
+    }
+
+    @Override
+    protected Map<String, SortableField<ProductEntity>> sortableFields() {
+        return SORTABLE_FIELDS;
+    }
+
+    /**
+     * 包含 name/model 关键词时只通过内存倒排索引计数（索引不可用时只返回估算值），不执行 LIKE '%kw%' 计数
+     */
+    @Override
+    protected TotalCountService.BoundedCounter totalCounter(ProductQueryDTO queryDTO) {
+        if (StringUtils.isNotBlank(queryDTO.getName()) || StringUtils.isNotBlank(queryDTO.getModel())) {
+            return limit -> productSearchService.countWithLimit(queryDTO, limit);
+        }
+        return limit -> productMapper.countWithLimit(
+                null,
+                null,
+                queryDTO.getCategoryId(),
+                queryDTO.getBrandId(),
+                queryDTO.getProductGroupId(),
                 limit
         );
     }
 
+    @Override
+    protected Long estimateCount(ProductQueryDTO queryDTO) {
+        return TotalCountService.estimateFromExplain(productMapper.explainList(
+                queryDTO.getName(),
+                queryDTO.getModel(),
+                queryDTO.getCategoryId(),
+                queryDTO.getBrandId(),
+                queryDTO.getProductGroupId()
+        ));
+    }
+
+    @Override
+    protected IdRange selectIdRange(ProductQueryDTO queryDTO) {
+        return productMapper.selectIdRange(
+                queryDTO.getCategoryId(),
+                queryDTO.getBrandId(),
+                queryDTO.getProductGroupId()
+        );
+    }
+
     @Override
     protected Long extractEntityId(ProductEntity entity) {
         return Objects.isNull(entity) ? null : entity.getId();
@@ -455,9 +1174,11 @@ public class ProductService extends BaseService<ProductEntity, ProductQueryDTO>
 
     /**
      * 更新商品（业界标准：字段白名单 + CAS 乐观锁 + 差量更新属性）
+     * <p>
+     * 请求携带 original 时走字段级合并（{@link #mergeUpdateProduct}），否则按 version 整行比较
      *
      * @param productId 商品ID
-     * @param request   更新请求（包含 version 用于并发控制）
+     * @param request   更新请求（包含 version 或 original 用于并发控制）
      * @return 更新后的商品实体
      */
     @Transactional(rollbackFor = Exception.class)
@@ -465,6 +1186,12 @@ public class ProductService extends BaseService<ProductEntity, ProductQueryDTO>
         if (Objects.isNull(productId)) {
             throw new BusinessException(PARAMETER_MISSING.getCode(), "商品ID不能为空");
         }
+        if (Objects.nonNull(request.getOriginal())) {
+            return mergeUpdateProduct(productId, request);
+        }
+        if (Objects.isNull(request.getVersion())) {
+            throw new BusinessException(PARAMETER_MISSING.getCode(), "版本号不能为空");
+        }
 
         // 1. 查询当前商品
         ProductEntity current = productMapper.selectByPrimaryKey(productId);
@@ -480,12 +1207,27 @@ public class ProductService extends BaseService<ProductEntity, ProductQueryDTO>
                     "商品数据已被其他用户修改，请刷新后重试");
         }
 
-        // 3. 领域规则校验
+        // 3. 领域规则校验（启用库存预扣时以 Redis 中的剩余库存为准）
+        Integer cachedRemain = stockService.peekRemain(productId);
+        if (Objects.nonNull(cachedRemain)) {
+            current.setRemainQuantity(cachedRemain);
+        }
         validateDomainRules(current, request);
 
         // 4. 字段白名单合并（仅允许更新指定字段）
         applyWhitelistFields(current, request);
 
+        // 剩余库存由 Redis 维护：不在此处写库（避免覆盖回写任务的增量），提交后覆盖 Redis 并记流水
+        if (stockService.isEnabled()) {
+            current.setRemainQuantity(null);
+            if (Objects.nonNull(request.getRemainQuantity())) {
+                stockService.overwriteAfterCommit(productId, request.getRemainQuantity());
+            }
+        } else {
+            // 只在请求显式携带时写入，避免用读到的旧值覆盖增量接口的修改
+            current.setRemainQuantity(request.getRemainQuantity());
+        }
+
         // 5. 设置更新信息
 
         // 6. CAS 更新（SQL 层保证 version 匹配后自增）
@@ -501,10 +1243,127 @@ public class ProductService extends BaseService<ProductEntity, ProductQueryDTO>
             updateProductAttributesDiff(productId, request.getSkuAttributes());
         }
 
+        eventPublisher.publishEvent(new ProductChangedEvent(this, productId, ProductChangedEvent.Action.UPDATE));
+
         // 8. 重新查询并返回更新后的数据
         return productMapper.selectByPrimaryKey(productId);
     }
 
+    /**
+     * 字段级合并更新：只比较本次修改的字段，其他人并发修改的不同字段不会导致冲突
+     * <p>
+     * 单条 UPDATE 同时完成比较与写入（每个修改字段要求当前值等于原值或新值），无需先读后写；
+     * 仅在更新失败时回查一次，区分商品不存在、字段冲突与数量约束。
+     * 剩余库存由 Redis 维护时，剩余数量沿用整行更新的处理：提交后覆盖 Redis，不参与字段比较。
+     *
+     * @param productId 商品ID
+     * @param request   更新请求（original 为所修改字段的原值）
+     * @return 更新后的商品实体
+     */
+    private ProductEntity mergeUpdateProduct(Long productId, UpdateProductDTO request) {
+        ProductEntity changes = ProductEntity.builder().id(productId).build();
+        applyWhitelistFields(changes, request);
+        ProductEntity original = new ProductEntity();
+        BeanCopyUtils.copyNonNullProperties(request.getOriginal(), original);
+
+        boolean stockInRedis = stockService.isEnabled();
+        if (stockInRedis) {
+            changes.setRemainQuantity(null);
+        }
+        // 缺少原值时 "<=> NULL" 只会匹配当前为 NULL 的行，更新必然失败并被误报为冲突
+        List<String> missing = missingOriginalFields(original, changes);
+        if (!missing.isEmpty()) {
+            throw new BusinessException(PARAMETER_VALIDATION_ERROR.getCode(),
+                    String.format("original缺少修改字段%s的原值", missing));
+        }
+
+        if (stockInRedis) {
+            validateRemainAgainstRedis(productId, request);
+            if (Objects.nonNull(request.getRemainQuantity())) {
+                stockService.overwriteAfterCommit(productId, request.getRemainQuantity());
+            }
+        }
+
+        int rows = productMapper.mergeUpdateFields(changes, original, !stockInRedis);
+        if (rows == 0) {
+            ProductEntity current = productMapper.selectByPrimaryKey(productId);
+            if (Objects.isNull(current) || Boolean.TRUE.equals(current.getIsDel())) {
+                throw new BusinessException(PRODUCT_NOT_EXIST.getCode(), "商品不存在");
+            }
+            List<String> conflicts = conflictingFields(current, original, changes);
+            if (!conflicts.isEmpty()) {
+                log.warn("字段合并冲突，productId={}, fields={}", productId, conflicts);
+                throw new BusinessException(RESOURCE_CONFLICT.getCode(),
+                        String.format("字段%s已被其他用户修改，请刷新后重试", conflicts));
+            }
+            throw new BusinessException(PARAMETER_VALIDATION_ERROR.getCode(), "剩余数量不能大于总数量");
+        }
+
+        if (Objects.nonNull(request.getSkuAttributes())) {
+            updateProductAttributesDiff(productId, request.getSkuAttributes());
+        }
+
+        eventPublisher.publishEvent(new ProductChangedEvent(this, productId, ProductChangedEvent.Action.UPDATE));
+
+        return productMapper.selectByPrimaryKey(productId);
+    }
+
+    /**
+     * 剩余库存由 Redis 维护时，在服务层校验剩余数量不大于总数量
+     */
+    private void validateRemainAgainstRedis(Long productId, UpdateProductDTO request) {
+        if (Objects.isNull(request.getQuantity()) && Objects.isNull(request.getRemainQuantity())) {
+            return;
+        }
+        ProductEntity current = productMapper.selectByPrimaryKey(productId);
+        if (Objects.isNull(current) || Boolean.TRUE.equals(current.getIsDel())) {
+            throw new BusinessException(PRODUCT_NOT_EXIST.getCode(), "商品不存在");
+        }
+        Integer cachedRemain = stockService.peekRemain(productId);
+        if (Objects.nonNull(cachedRemain)) {
+            current.setRemainQuantity(cachedRemain);
+        }
+        validateDomainRules(current, request);
+    }
+
+    /**
+     * 计算缺少原值的修改字段
+     */
+    static List<String> missingOriginalFields(ProductEntity original, ProductEntity changes) {
+        List<String> missing = new ArrayList<>();
+        MERGEABLE_FIELDS.forEach((field, getter) -> {
+            if (Objects.nonNull(getter.apply(changes)) && Objects.isNull(getter.apply(original))) {
+                missing.add(field);
+            }
+        });
+        return missing;
+    }
+
+    /**
+     * 计算冲突字段：当前值既不等于原值也不等于新值
+     */
+    static List<String> conflictingFields(ProductEntity current, ProductEntity original, ProductEntity changes) {
+        List<String> conflicts = new ArrayList<>();
+        MERGEABLE_FIELDS.forEach((field, getter) -> {
+            Object target = getter.apply(changes);
+            if (Objects.isNull(target)) {
+                return;
+            }
+            Object actual = getter.apply(current);
+            if (!sameValue(actual, getter.apply(original)) && !sameValue(actual, target)) {
+                conflicts.add(field);
+            }
+        });
+        return conflicts;
+    }
+
+    private static boolean sameValue(Object a, Object b) {
+        if (a instanceof BigDecimal && b instanceof BigDecimal) {
+            return ((BigDecimal) a).compareTo((BigDecimal) b) == 0;
+        }
+        return Objects.equals(a, b);
+    }
+
     /**
      * 领域规则校验
      * 校验业务规则，如剩余数量不能大于总数量
@@ -573,6 +1432,9 @@ public class ProductService extends BaseService<ProductEntity, ProductQueryDTO>
      * - 有 id 且 deleted=true：软删除该属性
      * - 有 id 且 deleted!=true：更新属性值
      * - 无 id：新增属性
+     * <p>
+     * 先在内存中把请求归并为三个集合，再分别用一条批量语句执行（软删 WHERE id IN、多行 INSERT、CASE 批量更新），
+     * 语句数固定为 1 次查询 + 至多 3 次写入，与属性数量无关；值未变化的属性不参与更新。
      *
      * @param productId    商品ID
      * @param attrRequests 属性更新请求列表
@@ -580,52 +1442,68 @@ public class ProductService extends BaseService<ProductEntity, ProductQueryDTO>
     private void updateProductAttributesDiff(Long productId,
                                              List<UpdateProductAttributeDTO> attrRequests) {
         // 查询当前商品所有未删除的属性
-        ProductAttributeEntityExample example = new ProductAttributeEntityExample();
-        example.createCriteria()
-                .andProductIdEqualTo(productId)
-                .andIsDelEqualTo(false);
-        List<ProductAttributeEntity> existingAttrs = productAttributeMapper.selectByExample(example);
+        List<ProductAttributeEntity> existingAttrs = productAttributeMapper.selectByProductId(productId);
 
         // 构建 id -> entity 映射
         Map<Long, ProductAttributeEntity> existingMap = existingAttrs.stream()
                 .filter(e -> Objects.nonNull(e.getId()))
                 .collect(Collectors.toMap(ProductAttributeEntity::getId, Function.identity()));
 
+        // 同一 id 出现多次时以最后一次为准；删除优先于更新
+        Set<Long> deleteIds = new LinkedHashSet<>();
+        Map<Long, ProductAttributeEntity> updates = new LinkedHashMap<>();
+        List<ProductAttributeEntity> inserts = new ArrayList<>();
         for (UpdateProductAttributeDTO attrReq : attrRequests) {
-            if (Objects.nonNull(attrReq.getId())) {
-                // 更新或删除
-                ProductAttributeEntity existing = existingMap.get(attrReq.getId());
-                if (Objects.isNull(existing)) {
-                    log.warn("商品属性不存在，attributeId={}, productId={}, 跳过处理",
-                            attrReq.getId(), productId);
-                    continue;
-                }
-
-                if (Boolean.TRUE.equals(attrReq.getDeleted())) {
-                    // 软删除
-                    existing.setIsDel(true);
-                } else {
-                    // 更新属性值
-                    existing.setAttributeId(attrReq.getAttributeId());
-                    existing.setAttributeValueId(attrReq.getAttributeValueId());
-                }
-                productAttributeMapper.updateByPrimaryKeySelective(existing);
-            } else {
-                // 新增
-                ProductAttributeEntity newAttr = ProductAttributeEntity.builder()
+            if (Objects.isNull(attrReq.getId())) {
+                inserts.add(ProductAttributeEntity.builder()
                         .productId(productId)
                         .attributeId(attrReq.getAttributeId())
                         .attributeValueId(attrReq.getAttributeValueId())
                         .isDel(false)
-                        .build();
-                productAttributeMapper.insertSelective(newAttr);
+                        .build());
+                continue;
+            }
+
+            ProductAttributeEntity existing = existingMap.get(attrReq.getId());
+            if (Objects.isNull(existing)) {
+                log.warn("商品属性不存在，attributeId={}, productId={}, 跳过处理",
+                        attrReq.getId(), productId);
+                continue;
+            }
+            if (Boolean.TRUE.equals(attrReq.getDeleted())) {
+                deleteIds.add(existing.getId());
+                updates.remove(existing.getId());
+                continue;
+            }
+            if (deleteIds.contains(existing.getId())
+                    || (Objects.equals(existing.getAttributeId(), attrReq.getAttributeId())
+                    && Objects.equals(existing.getAttributeValueId(), attrReq.getAttributeValueId()))) {
+                continue;
             }
+            updates.put(existing.getId(), ProductAttributeEntity.builder()
+                    .id(existing.getId())
+                    .attributeId(attrReq.getAttributeId())
+                    .attributeValueId(attrReq.getAttributeValueId())
+                    .build());
+        }
+
+        AuditUser auditUser = AuditUserProvider.getCurrentUserOrSystem();
+        if (!deleteIds.isEmpty()) {
+            productAttributeMapper.batchSoftDeleteByIds(new ArrayList<>(deleteIds),
+                    auditUser.getUserId(), auditUser.getUserName());
+        }
+        if (!updates.isEmpty()) {
+            productAttributeMapper.batchUpdateValues(productId, new ArrayList<>(updates.values()),
+                    auditUser.getUserId(), auditUser.getUserName());
+        }
+        if (!inserts.isEmpty()) {
+            productAttributeMapper.batchInsert(inserts);
         }
     }
 
     /**
-     * 批量删除商品（软删除）
-     * 仅删除商品本身，不处理关联数据
+     * 批量删除商品（软删除）并级联软删相关数据，单个事务
+     * 适用于少量ID；大批量请使用 ProductBatchDeleteService 提交异步任务分块执行
      *
      * @param ids 商品ID列表
      * @return 删除的记录数
@@ -635,14 +1513,92 @@ public class ProductService extends BaseService<ProductEntity, ProductQueryDTO>
         if (CollectionUtils.isEmpty(ids)) {
             return 0;
         }
-        ProductEntityExample example = new ProductEntityExample();
-        example.createCriteria().andIdIn(ids);
+        List<Long> distinctIds = ids.stream().filter(Objects::nonNull).distinct().collect(Collectors.toList());
+        if (distinctIds.isEmpty()) {
+            return 0;
+        }
+        return cascadeSoftDelete(distinctIds);
+    }
 
-        ProductEntity update = ProductEntity.builder()
-                .isDel(true)
-                .build();
+    /**
+     * 分块级联删除：一块一个短事务（批量删除任务逐块调用）
+     *
+     * @param ids 商品ID（同一块，建议按ID升序，降低并发删除间的死锁概率）
+     * @return 本块实际删除的商品数（已删除的商品不计入）
+     */
+    @Transactional(rollbackFor = Exception.class)
+    public int cascadeDeleteChunk(List<Long> ids) {
+        if (CollectionUtils.isEmpty(ids)) {
+            return 0;
+        }
+        return cascadeSoftDelete(ids);
+    }
+
+    /**
+     * 按增量调整剩余库存（单条语句，不读不改写整行，不受乐观锁版本影响）
+     * <p>
+     * 启用库存预扣时交给 {@link StockService}（Redis 为准，只保证不小于 0）；
+     * 否则由 SQL 条件保证调整后的库存落在 [0, 总库存] 内
+     *
+     * @param productId 商品ID
+     * @param delta     库存增量（负数扣减，正数回补）
+     * @param bizKey    业务键（为空时生成，仅用于 Redis 预扣的幂等与流水追溯）
+     */
+    @Transactional(rollbackFor = Exception.class)
+    public void adjustRemainQuantity(Long productId, Integer delta, String bizKey) {
+        if (Objects.isNull(productId)) {
+            throw new BusinessException(PARAMETER_MISSING.getCode(), "商品ID不能为空");
+        }
+        if (Objects.isNull(delta) || delta == 0) {
+            throw new BusinessException(PARAMETER_VALIDATION_ERROR.getCode(), "库存增量不能为0");
+        }
+
+        if (stockService.isEnabled()) {
+            String key = StringUtils.isBlank(bizKey) ? IdUtil.getSnowflakeNextIdStr() : bizKey;
+            if (delta < 0) {
+                stockService.deduct(productId, -delta, key);
+            } else {
+                stockService.release(productId, delta, key);
+            }
+            return;
+        }
 
-        return productMapper.updateByExampleSelective(update, example);
+        if (productMapper.addRemainQuantityWithinBounds(productId, delta) == 0) {
+            List<ProductEntity> rows = productMapper.selectRemainQuantityByIds(Collections.singletonList(productId));
+            if (rows.isEmpty() || Boolean.TRUE.equals(rows.get(0).getIsDel())) {
+                throw new BusinessException(PRODUCT_NOT_EXIST.getCode(), "商品不存在");
+            }
+            throw new BusinessException(STOCK_INSUFFICIENT.getCode(), "调整后的库存超出范围（0 ~ 总库存）");
+        }
+
+        eventPublisher.publishEvent(new ProductChangedEvent(this, productId, ProductChangedEvent.Action.UPDATE));
+    }
+
+    /**
+     * 按增量调整价格（单条语句，version 自增，基于旧版本的整体更新会返回409）
+     *
+     * @param productId 商品ID
+     * @param delta     价格增量（可为负，调整后不能小于0）
+     */
+    @Transactional(rollbackFor = Exception.class)
+    public void adjustPrice(Long productId, BigDecimal delta) {
+        if (Objects.isNull(productId)) {
+            throw new BusinessException(PARAMETER_MISSING.getCode(), "商品ID不能为空");
+        }
+        if (Objects.isNull(delta) || delta.signum() == 0) {
+            throw new BusinessException(PARAMETER_VALIDATION_ERROR.getCode(), "价格增量不能为0");
+        }
+
+        AuditUser auditUser = AuditUserProvider.getCurrentUserOrSystem();
+        if (productMapper.addPrice(productId, delta, auditUser.getUserId(), auditUser.getUserName()) == 0) {
+            ProductEntity current = productMapper.selectByPrimaryKey(productId);
+            if (Objects.isNull(current) || Boolean.TRUE.equals(current.getIsDel())) {
+                throw new BusinessException(PRODUCT_NOT_EXIST.getCode(), "商品不存在");
+            }
+            throw new BusinessException(PARAMETER_VALIDATION_ERROR.getCode(), "调整后的价格不能为负数");
+        }
+
+        eventPublisher.publishEvent(new ProductChangedEvent(this, productId, ProductChangedEvent.Action.UPDATE));
     }
 
     /**
@@ -659,17 +1615,24 @@ public class ProductService extends BaseService<ProductEntity, ProductQueryDTO>
             throw new BusinessException(PRODUCT_NOT_EXIST.getCode(), "商品不存在");
         }
 
-        // 1) 软删商品本身
-        ProductEntity updateProduct = ProductEntity.builder()
-                .id(productId)
-                .isDel(true)
-                .delId(productId)
-                .build();
-        productMapper.updateByPrimaryKeySelective(updateProduct);
+        cascadeSoftDelete(Collections.singletonList(productId));
+    }
+
+    /**
+     * 软删商品并级联软删关联数据，每张表一条批量语句（语句数与ID数量无关）
+     *
+     * @param ids 商品ID（非空）
+     * @return 删除的商品数
+     */
+    private int cascadeSoftDelete(List<Long> ids) {
+        AuditUser auditUser = AuditUserProvider.getCurrentUserOrSystem();
+
+        // 1) 软删商品本身（del_id 置为自身ID，释放规格唯一键）
+        int rows = productMapper.batchSoftDeleteByIds(ids, auditUser.getUserId(), auditUser.getUserName());
 
         // 2) 级联软删 SKU 属性（mall_product_attribute）
         ProductAttributeEntityExample paExample = new ProductAttributeEntityExample();
-        paExample.createCriteria().andProductIdEqualTo(productId).andIsDelEqualTo(false);
+        paExample.createCriteria().andProductIdIn(ids).andIsDelEqualTo(false);
         ProductAttributeEntity paUpdate = ProductAttributeEntity.builder()
                 .isDel(true)
                 .build();
@@ -677,7 +1640,7 @@ public class ProductService extends BaseService<ProductEntity, ProductQueryDTO>
 
         // 3) 级联软删详情（mall_product_detail）
         MallProductDetailEntityExample detailExample = new MallProductDetailEntityExample();
-        detailExample.createCriteria().andProductIdEqualTo(productId).andIsDelEqualTo(false);
+        detailExample.createCriteria().andProductIdIn(ids).andIsDelEqualTo(false);
         MallProductDetailEntity detailUpdate = MallProductDetailEntity.builder()
                 .isDel(true)
                 .build();
@@ -685,7 +1648,7 @@ public class ProductService extends BaseService<ProductEntity, ProductQueryDTO>
 
         // 4) 级联软删图片（mall_product_photo）
         MallProductPhotoEntityExample photoExample = new MallProductPhotoEntityExample();
-        photoExample.createCriteria().andProductIdEqualTo(productId).andIsDelEqualTo(false);
+        photoExample.createCriteria().andProductIdIn(ids).andIsDelEqualTo(false);
         MallProductPhotoEntity photoUpdate = MallProductPhotoEntity.builder()
                 .isDel(true)
                 .build();
@@ -693,11 +1656,19 @@ public class ProductService extends BaseService<ProductEntity, ProductQueryDTO>
 
         // 5) 兼容旧图片表（common_photo），按 photo_group_id = productId 软删
         CommonPhotoEntityExample commonPhotoExample = new CommonPhotoEntityExample();
-        commonPhotoExample.createCriteria().andPhotoGroupIdEqualTo(productId).andIsDelEqualTo(false);
+        commonPhotoExample.createCriteria().andPhotoGroupIdIn(ids).andIsDelEqualTo(false);
         CommonPhotoEntity commonPhotoUpdate = CommonPhotoEntity.builder()
                 .isDel(true)
                 .build();
         commonPhotoMapper.updateByExampleSelective(commonPhotoUpdate, commonPhotoExample);
+
+        // 6) 提交后移除 Redis 库存（含分段），避免已删除商品继续被扣减
+        if (stockService.isEnabled()) {
+            stockService.removeAfterCommit(ids);
+        }
+
+        eventPublisher.publishEvent(new ProductChangedEvent(this, new ArrayList<>(ids), ProductChangedEvent.Action.DELETE));
+        return rows;
     }
 
     /**
@@ -751,20 +1722,13 @@ public class ProductService extends BaseService<ProductEntity, ProductQueryDTO>
     }
 
     /**
-     * 根据属性值ID列表查询属性值实体
+     * 根据属性值ID列表查询属性值实体（读取内存字典，不访问 DB）
      *
      * @param attributeValueIds 属性值ID列表
      * @return 属性值实体列表，如果ID列表为空则返回空列表
      */
     private List<AttributeValueEntity> getAttributeValues(List<Long> attributeValueIds) {
-        if (CollectionUtils.isEmpty(attributeValueIds)) {
-            return Collections.emptyList();
-        }
-
-        AttributeValueEntityExample example = new AttributeValueEntityExample();
-        example.createCriteria().andIdIn(attributeValueIds);
-
-        return attributeValueMapper.selectByExample(example);
+        return attributeDictionaryService.getAttributeValues(attributeValueIds);
     }
 
     /**
@@ -788,6 +1752,16 @@ public class ProductService extends BaseService<ProductEntity, ProductQueryDTO>
                 .map(CommonPhotoEntity::getUrl)
                 .collect(Collectors.toList());
 
+        applyPhotoUrls(productDetailDTO, photoUrls);
+    }
+
+    /**
+     * 设置轮播图与封面图
+     *
+     * @param productDetailDTO 商品详情DTO
+     * @param photoUrls        图片URL列表
+     */
+    private void applyPhotoUrls(ProductDetailDTO productDetailDTO, List<String> photoUrls) {
         productDetailDTO.setSwiper(photoUrls);
 
         // 设置封面图：优先使用已设置的coverUrl，否则使用第一张图片
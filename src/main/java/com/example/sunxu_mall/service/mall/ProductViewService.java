@@ -0,0 +1,274 @@
+package com.example.sunxu_mall.service.mall;
+
+import com.example.sunxu_mall.config.props.ProductDetailConfig;
+import com.example.sunxu_mall.config.props.ProductViewConfig;
+import com.example.sunxu_mall.dto.mall.ProductDetailDTO;
+import com.example.sunxu_mall.entity.mall.AttributeValueEntity;
+import com.example.sunxu_mall.entity.mall.MallProductViewEntity;
+import com.example.sunxu_mall.entity.mall.ProductEntity;
+import com.example.sunxu_mall.errorcode.ErrorCode;
+import com.example.sunxu_mall.exception.BusinessException;
+import com.example.sunxu_mall.mapper.mall.MallProductViewEntityMapper;
+import com.example.sunxu_mall.mapper.mall.ProductEntityMapper;
+import com.example.sunxu_mall.util.JsonUtil;
+import com.example.sunxu_mall.util.ProductDetailCodec;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.collections4.CollectionUtils;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * 商品读模型服务（mall_product_view）
+ * <p>
+ * 写入：由商品变更消息驱动 {@link #project(List)}，回源组装最新商品详情后整行覆盖；
+ * 行上记录商品 version，旧版本不会覆盖新版本，因此消息重复/乱序是安全的。
+ * <p>
+ * 读取：一次主键查询返回完整商品详情，无需多表拼装；剩余库存与 {@link ProductService} 一致，以 Redis 实时库存覆盖。
+ * 库存回写、库存调整同样发布商品变更事件，读模型中的库存随之投影更新。
+ * <p>
+ * 重建：{@link #startRebuild()} 按 ID 游标分批全量投影，并清理源数据已删除的行，用于首次上线或修复漂移。
+ *
+ * @author sunxu
+ */
+@Slf4j
+@Service
+public class ProductViewService {
+
+    private final MallProductViewEntityMapper productViewMapper;
+    private final ProductEntityMapper productMapper;
+    private final ProductService productService;
+    private final ProductViewConfig productViewConfig;
+    private final ProductDetailConfig productDetailConfig;
+    private final Executor commonTaskExecutor;
+
+    /**
+     * 重建进行中标记（单实例内防止重复触发）
+     */
+    private final AtomicBoolean rebuilding = new AtomicBoolean(false);
+
+    public ProductViewService(MallProductViewEntityMapper productViewMapper,
+                              ProductEntityMapper productMapper,
+                              ProductService productService,
+                              ProductViewConfig productViewConfig,
+                              ProductDetailConfig productDetailConfig,
+                              @Qualifier("commonTaskExecutor") Executor commonTaskExecutor) {
+        this.productViewMapper = productViewMapper;
+        this.productMapper = productMapper;
+        this.productService = productService;
+        this.productViewConfig = productViewConfig;
+        this.productDetailConfig = productDetailConfig;
+        this.commonTaskExecutor = commonTaskExecutor;
+    }
+
+    /**
+     * 读模型查询是否开启
+     */
+    public boolean isReadEnabled() {
+        return productViewConfig.isEnabled() && productViewConfig.isReadEnabled();
+    }
+
+    /**
+     * 投影指定商品到读模型：源数据不存在或已删除的商品从读模型中删除，其余整行覆盖
+     *
+     * @param productIds 商品ID列表
+     */
+    public void project(List<Long> productIds) {
+        if (CollectionUtils.isEmpty(productIds)) {
+            return;
+        }
+        List<Long> distinctIds = productIds.stream()
+                .filter(Objects::nonNull)
+                .distinct()
+                .collect(Collectors.toList());
+        if (distinctIds.isEmpty()) {
+            return;
+        }
+
+        Map<Long, ProductDetailDTO> sourceMap = productService.loadFromSource(distinctIds);
+        List<MallProductViewEntity> upserts = new ArrayList<>();
+        List<Long> deletes = new ArrayList<>();
+        for (Long productId : distinctIds) {
+            ProductDetailDTO source = sourceMap.get(productId);
+            if (Objects.isNull(source) || Boolean.TRUE.equals(source.getIsDel())) {
+                deletes.add(productId);
+            } else {
+                upserts.add(toViewEntity(source));
+            }
+        }
+
+        if (!upserts.isEmpty()) {
+            productViewMapper.batchUpsert(upserts);
+        }
+        if (!deletes.isEmpty()) {
+            productViewMapper.deleteByProductIds(deletes);
+        }
+        log.debug("[Product-View] Projected upserts={}, deletes={}", upserts.size(), deletes.size());
+    }
+
+    /**
+     * 异步全量重建读模型
+     *
+     * @return true=已开始重建，false=已有重建任务在执行
+     */
+    public boolean startRebuild() {
+        if (!productViewConfig.isEnabled()) {
+            throw new BusinessException(ErrorCode.CONFIG_ERROR.getCode(), "商品读模型未启用");
+        }
+        if (!rebuilding.compareAndSet(false, true)) {
+            return false;
+        }
+        try {
+            commonTaskExecutor.execute(() -> {
+                try {
+                    rebuild();
+                } catch (Exception e) {
+                    log.error("[Product-View] Rebuild failed", e);
+                } finally {
+                    rebuilding.set(false);
+                }
+            });
+        } catch (Exception e) {
+            rebuilding.set(false);
+            throw e;
+        }
+        return true;
+    }
+
+    /**
+     * 全量重建：按 ID 倒序游标分批投影，最后清理孤儿行
+     *
+     * @return 投影的商品数量
+     */
+    public long rebuild() {
+        int batchSize = Math.max(1, productViewConfig.getRebuildBatchSize());
+        long startTime = System.currentTimeMillis();
+        long total = 0;
+        Long cursorId = null;
+        while (true) {
+            List<ProductEntity> batch = productMapper.selectByCursorWithLimit(
+                    null, null, null, null, null, cursorId, batchSize);
+            if (CollectionUtils.isEmpty(batch)) {
+                break;
+            }
+            project(batch.stream().map(ProductEntity::getId).collect(Collectors.toList()));
+            total += batch.size();
+            cursorId = batch.get(batch.size() - 1).getId();
+            if (batch.size() < batchSize) {
+                break;
+            }
+        }
+        int orphans = productViewMapper.deleteOrphans();
+        log.info("[Product-View] Rebuild finished, projected={}, orphansRemoved={}, cost={}ms",
+                total, orphans, System.currentTimeMillis() - startTime);
+        return total;
+    }
+
+    /**
+     * 从读模型查询商品详情
+     *
+     * @param id            商品ID
+     * @param includeDetail 是否返回详情描述
+     * @return 商品详情，不存在返回 null
+     */
+    public ProductDetailDTO findById(Long id, boolean includeDetail) {
+        if (Objects.isNull(id)) {
+            return null;
+        }
+        MallProductViewEntity view = productViewMapper.selectByProductId(id, includeDetail);
+        return Objects.isNull(view) ? null : productService.withLiveStock(toDetailDTO(view));
+    }
+
+    /**
+     * 从读模型批量查询商品详情（一次查询）
+     *
+     * @param ids           商品ID列表
+     * @param includeDetail 是否返回详情描述
+     * @return 商品详情列表（按入参顺序，不存在的商品会被忽略）
+     */
+    public List<ProductDetailDTO> findByIds(List<Long> ids, boolean includeDetail) {
+        if (CollectionUtils.isEmpty(ids)) {
+            return Collections.emptyList();
+        }
+        List<Long> distinctIds = ids.stream().filter(Objects::nonNull).distinct().collect(Collectors.toList());
+        if (distinctIds.size() > ProductService.MAX_BATCH_QUERY_SIZE) {
+            throw new BusinessException(ErrorCode.PARAMETER_VALIDATION_ERROR.getCode(),
+                    "批量查询商品数量不能超过" + ProductService.MAX_BATCH_QUERY_SIZE);
+        }
+        if (distinctIds.isEmpty()) {
+            return Collections.emptyList();
+        }
+        Map<Long, MallProductViewEntity> viewMap = productViewMapper.selectByProductIds(distinctIds, includeDetail)
+                .stream()
+                .collect(Collectors.toMap(MallProductViewEntity::getProductId, Function.identity(), (a, b) -> a));
+        return productService.withLiveStock(distinctIds.stream()
+                .map(viewMap::get)
+                .filter(Objects::nonNull)
+                .map(this::toDetailDTO)
+                .collect(Collectors.toList()));
+    }
+
+    private MallProductViewEntity toViewEntity(ProductDetailDTO source) {
+        byte[] detail = Objects.isNull(source.getDetail())
+                ? null
+                : ProductDetailCodec.encode(source.getDetail(),
+                productDetailConfig.isCompressEnabled(), productDetailConfig.getCompressMinBytes());
+        return MallProductViewEntity.builder()
+                .productId(source.getId())
+                .categoryId(source.getCategoryId())
+                .productGroupId(source.getProductGroupId())
+                .brandId(source.getBrandId())
+                .unitId(source.getUnitId())
+                .name(source.getName())
+                .model(source.getModel())
+                .quantity(source.getQuantity())
+                .remainQuantity(source.getRemainQuantity())
+                .price(source.getPrice())
+                .coverUrl(source.getCoverUrl())
+                .spuAttributesJson(JsonUtil.toJsonStr(source.getSpuAttributeEntityList()))
+                .skuAttributesJson(JsonUtil.toJsonStr(source.getSkuAttributeEntityList()))
+                .coverJson(JsonUtil.toJsonStr(source.getCover()))
+                .swiperJson(JsonUtil.toJsonStr(source.getSwiper()))
+                .detail(detail)
+                .productVersion(Objects.isNull(source.getVersion()) ? 0 : source.getVersion())
+                .productCreateTime(source.getCreateTime())
+                .productUpdateTime(source.getUpdateTime())
+                .build();
+    }
+
+    private ProductDetailDTO toDetailDTO(MallProductViewEntity view) {
+        ProductDetailDTO dto = new ProductDetailDTO();
+        dto.setId(view.getProductId());
+        dto.setCategoryId(view.getCategoryId());
+        dto.setProductGroupId(view.getProductGroupId());
+        dto.setBrandId(view.getBrandId());
+        dto.setUnitId(view.getUnitId());
+        dto.setName(view.getName());
+        dto.setModel(view.getModel());
+        dto.setQuantity(view.getQuantity());
+        dto.setRemainQuantity(view.getRemainQuantity());
+        dto.setPrice(view.getPrice());
+        dto.setCoverUrl(view.getCoverUrl());
+        dto.setVersion(view.getProductVersion());
+        dto.setCreateTime(view.getProductCreateTime());
+        dto.setUpdateTime(view.getProductUpdateTime());
+        dto.setIsDel(false);
+        dto.setSpuAttributeEntityList(JsonUtil.parseArray(view.getSpuAttributesJson(), AttributeValueEntity.class));
+        dto.setSkuAttributeEntityList(JsonUtil.parseArray(view.getSkuAttributesJson(), AttributeValueEntity.class));
+        dto.setCover(JsonUtil.parseArray(view.getCoverJson(), String.class));
+        dto.setSwiper(JsonUtil.parseArray(view.getSwiperJson(), String.class));
+        if (Objects.nonNull(view.getDetail())) {
+            dto.setDetail(ProductDetailCodec.decode(view.getDetail()));
+        }
+        return dto;
+    }
+}
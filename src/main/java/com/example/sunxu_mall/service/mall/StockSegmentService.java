@@ -0,0 +1,421 @@
+package com.example.sunxu_mall.service.mall;
+
+import com.example.sunxu_mall.config.beans.CacheConfig;
+import com.example.sunxu_mall.config.props.StockConfig;
+import com.example.sunxu_mall.mapper.mall.StockJournalMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.lang3.StringUtils;
+import org.redisson.api.RScript;
+import org.redisson.api.RedissonClient;
+import org.redisson.client.codec.StringCodec;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 热点商品分段库存
+ * <p>
+ * 开启分段后，商品主键库存（{stock}:remain:商品ID）清零，库存平均分配到 N 个分段桶。
+ * 分段桶分布在不同分片（{stock:分片号}:remain:商品ID），每个分片有自己的流水与序号，
+ * 集群模式下落在不同节点，扣减互不串行。
+ * <p>
+ * 扣减按业务键哈希选择分段（回补与重试落在同一分段）；幂等键与主键模式共用 {stock} 槽位的同一个键，
+ * 分段桶在其他槽位，无法与幂等键在一个脚本内完成，因此先占用幂等键再扣减，库存不足时释放占用。
+ * 占用后、扣减前宕机时重试会被视为重复（少扣不超卖）。
+ * 分段不足时从余量最多的分段转入（至少补足缺口，富余时转入对方一半），再平衡后重试。
+ * 转出、转入分别记流水，合计不影响 MySQL 总量；两步之间宕机会使转出的库存不可售（不会超卖），需后台覆盖库存修复。
+ * <p>
+ * 分段数保存在 Redis 哈希 {stock}:segments，各实例本地缓存 mall.mgt.stock.segment-mode-cache-millis。
+ * 开启分段立即生效（主键脚本对分段商品返回 -4）；关闭分段先归集一次，等待本地缓存过期后再归集一次。
+ *
+ * @author sunxu
+ */
+@Slf4j
+@Service
+public class StockSegmentService {
+
+    private static final String SEGMENT_JOURNAL_PREFIX = "segment-";
+    private static final String ENABLE_BIZ_KEY = "segment:enable";
+    private static final String DRAIN_BIZ_KEY = "segment:drain";
+    private static final String REBALANCE_BIZ_KEY = "segment:rebalance";
+    private static final int MAX_STATS_PRODUCTS = 100;
+
+    /**
+     * 分段扣减/回补（调用前已占用幂等键）：KEYS = [remain, journal, seq]，ARGV = [delta, productId, bizKey]
+     * 分段桶不存在视为 0；返回变更后的分段库存，-1 库存不足
+     */
+    static final String SEGMENT_CHANGE_SCRIPT =
+            "local remain = tonumber(redis.call('get', KEYS[1]) or '0') "
+                    + "local delta = tonumber(ARGV[1]) "
+                    + "if remain + delta < 0 then return -1 end "
+                    + "local after = redis.call('incrby', KEYS[1], delta) "
+                    + "local seq = redis.call('incr', KEYS[3]) "
+                    + "redis.call('rpush', KEYS[2], seq .. ':' .. ARGV[2] .. ':' .. delta .. ':' .. ARGV[3]) "
+                    + "return after";
+
+    /**
+     * 开启分段（主键槽位）：KEYS = [remain, journal, seq, segments]，ARGV = [productId, segments, bizKey]
+     * 登记分段数并清空主键库存，返回需要分配的库存；-2 未加载，-5 已是分段商品
+     */
+    private static final String ENABLE_SCRIPT =
+            "if redis.call('hexists', KEYS[4], ARGV[1]) == 1 then return -5 end "
+                    + "local remain = redis.call('get', KEYS[1]) "
+                    + "if not remain then return -2 end "
+                    + "remain = tonumber(remain) "
+                    + "redis.call('hset', KEYS[4], ARGV[1], ARGV[2]) "
+                    + "if remain > 0 then "
+                    + "redis.call('decrby', KEYS[1], remain) "
+                    + "local seq = redis.call('incr', KEYS[3]) "
+                    + "redis.call('rpush', KEYS[2], seq .. ':' .. ARGV[1] .. ':' .. (-remain) .. ':' .. ARGV[3]) "
+                    + "end "
+                    + "return remain";
+
+    /**
+     * 关闭分段（主键槽位）：KEYS = [segments]，ARGV = [productId]，返回原分段数，未分段返回 0
+     */
+    private static final String DISABLE_SCRIPT =
+            "local segments = redis.call('hget', KEYS[1], ARGV[1]) "
+                    + "if not segments then return 0 end "
+                    + "redis.call('hdel', KEYS[1], ARGV[1]) "
+                    + "return tonumber(segments)";
+
+    private final RedissonClient redissonClient;
+    private final CacheManager cacheManager;
+    private final StockJournalMapper stockJournalMapper;
+    private final StockConfig stockConfig;
+
+    private final LongAdder changeCount = new LongAdder();
+    private final LongAdder insufficientCount = new LongAdder();
+    private final LongAdder rebalanceCount = new LongAdder();
+    private final LongAdder rebalancedQuantity = new LongAdder();
+
+    public StockSegmentService(RedissonClient redissonClient,
+                               CacheManager cacheManager,
+                               StockJournalMapper stockJournalMapper,
+                               StockConfig stockConfig) {
+        this.redissonClient = redissonClient;
+        this.cacheManager = cacheManager;
+        this.stockJournalMapper = stockJournalMapper;
+        this.stockConfig = stockConfig;
+    }
+
+    /**
+     * 是否为分段商品（读取本地缓存，未命中查 Redis）
+     */
+    public boolean isSegmented(Long productId) {
+        return segmentCount(productId) > 1;
+    }
+
+    /**
+     * 商品分段数，未分段返回 0
+     */
+    public int segmentCount(Long productId) {
+        Cache cache = cacheManager.getCache(CacheConfig.STOCK_SEGMENT_CACHE);
+        Integer cached = Objects.isNull(cache) ? null : cache.get(productId, Integer.class);
+        if (Objects.nonNull(cached)) {
+            return cached;
+        }
+        String value = redissonClient.<String, String>getMap(StockService.SEGMENTS_KEY, StringCodec.INSTANCE)
+                .get(String.valueOf(productId));
+        int count = StringUtils.isEmpty(value) ? 0 : Integer.parseInt(value);
+        if (Objects.nonNull(cache)) {
+            cache.put(productId, count);
+        }
+        return count;
+    }
+
+    /**
+     * 清除本地分段数缓存
+     */
+    public void evict(Long productId) {
+        Cache cache = cacheManager.getCache(CacheConfig.STOCK_SEGMENT_CACHE);
+        if (Objects.nonNull(cache)) {
+            cache.evict(productId);
+        }
+    }
+
+    /**
+     * 分段扣减/回补
+     *
+     * @param productId     商品ID
+     * @param delta         库存增量（扣减为负）
+     * @param requestPrefix 幂等键前缀
+     * @param bizKey        业务键
+     * @return 变更后的商品总库存；-1 库存不足，{@link StockService#NOT_SEGMENTED} 商品已不是分段模式
+     */
+    public long change(Long productId, int delta, String requestPrefix, String bizKey) {
+        int segments = segmentCount(productId);
+        if (segments <= 1) {
+            return StockService.NOT_SEGMENTED;
+        }
+        String requestKey = StockService.requestKey(requestPrefix, productId, bizKey);
+        Long claimed = eval(StockService.CLAIM_SCRIPT, Arrays.asList(requestKey),
+                String.valueOf(stockConfig.getRequestTtlSeconds()));
+        if (claimed == 0) {
+            log.info("[Stock-Segment] Duplicate request ignored, productId={}, bizKey={}", productId, bizKey);
+            return total(productId, segments);
+        }
+
+        int home = shard(productId, Math.floorMod(bizKey.hashCode(), segments));
+        List<Object> keys = Arrays.asList(remainKey(home, productId), journalKey(home), seqKey(home));
+        int attempts = Math.max(0, stockConfig.getSegmentRebalanceAttempts());
+        for (int attempt = 0; attempt <= attempts; attempt++) {
+            Long result = eval(SEGMENT_CHANGE_SCRIPT, keys, String.valueOf(delta), String.valueOf(productId), bizKey);
+            if (result >= 0) {
+                changeCount.increment();
+                return total(productId, segments);
+            }
+            if (attempt == attempts || rebalance(productId, segments, home, -delta) <= 0) {
+                break;
+            }
+        }
+
+        // 未扣减：释放幂等键，补货后或切回主键模式时同一业务键可以重试
+        redissonClient.getKeys().delete(requestKey);
+        insufficientCount.increment();
+        // 可能正在关闭分段（库存已归集回主键）
+        evict(productId);
+        return isSegmented(productId) ? StockService.INSUFFICIENT : StockService.NOT_SEGMENTED;
+    }
+
+    /**
+     * 各分段库存之和（不含主键）
+     */
+    public int sum(Long productId) {
+        int segments = segmentCount(productId);
+        return segments <= 1 ? 0 : segmentValues(productId, segments).values().stream().mapToInt(Integer::intValue).sum();
+    }
+
+    /**
+     * 开启分段：主键库存清零后平均分配到各分段（调用前主键必须已加载）
+     *
+     * @param productId 商品ID
+     * @param segments  分段数
+     */
+    public void enable(Long productId, int segments) {
+        for (int i = 0; i < segments; i++) {
+            int shard = shard(productId, i);
+            Long flushedSeq = stockJournalMapper.selectMaxEntrySeq(journalName(shard));
+            if (Objects.nonNull(flushedSeq)) {
+                eval(StockService.SEQ_FLOOR_SCRIPT, Arrays.asList(seqKey(shard)), String.valueOf(flushedSeq));
+            }
+        }
+
+        Long remain = eval(ENABLE_SCRIPT, Arrays.asList(StockService.remainKey(productId), StockService.JOURNAL_KEY,
+                        StockService.SEQ_KEY, StockService.SEGMENTS_KEY),
+                String.valueOf(productId), String.valueOf(segments), ENABLE_BIZ_KEY);
+        evict(productId);
+        if (remain < 0) {
+            log.warn("[Stock-Segment] Enable skipped, productId={}, result={}", productId, remain);
+            return;
+        }
+
+        long base = remain / segments;
+        long extra = remain % segments;
+        for (int i = 0; i < segments; i++) {
+            long amount = base + (i < extra ? 1 : 0);
+            if (amount > 0) {
+                give(shard(productId, i), productId, amount, ENABLE_BIZ_KEY);
+            }
+        }
+        log.info("[Stock-Segment] Enabled, productId={}, segments={}, remain={}", productId, segments, remain);
+    }
+
+    /**
+     * 关闭分段：注销分段数并把各分段库存归集回主键
+     *
+     * @param productId 商品ID
+     * @param waitStale 是否等待其他实例的本地缓存过期后再归集一次
+     * @return 原分段数，未分段返回 0
+     */
+    public int disable(Long productId, boolean waitStale) {
+        Long segments = eval(DISABLE_SCRIPT, Arrays.asList(StockService.SEGMENTS_KEY), String.valueOf(productId));
+        evict(productId);
+        if (segments <= 1) {
+            return 0;
+        }
+        long drained = drain(productId, segments.intValue());
+        if (waitStale) {
+            try {
+                Thread.sleep(stockConfig.getSegmentModeCacheMillis());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            drained += drain(productId, segments.intValue());
+        }
+        log.info("[Stock-Segment] Disabled, productId={}, segments={}, drained={}", productId, segments, drained);
+        return segments.intValue();
+    }
+
+    /**
+     * 分段统计（监控端点使用）
+     */
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("changeCount", changeCount.sum());
+        stats.put("insufficientCount", insufficientCount.sum());
+        stats.put("rebalanceCount", rebalanceCount.sum());
+        stats.put("rebalancedQuantity", rebalancedQuantity.sum());
+
+        Map<String, String> configured = redissonClient.<String, String>getMap(StockService.SEGMENTS_KEY,
+                StringCodec.INSTANCE).readAllMap();
+        stats.put("segmentedProductCount", configured.size());
+        Map<String, Object> products = new LinkedHashMap<>();
+        configured.entrySet().stream()
+                .limit(MAX_STATS_PRODUCTS)
+                .forEach(entry -> {
+                    Long productId = Long.valueOf(entry.getKey());
+                    int segments = Integer.parseInt(entry.getValue());
+                    List<Integer> values = new ArrayList<>(segmentValues(productId, segments).values());
+                    Map<String, Object> product = new HashMap<>();
+                    product.put("segments", segments);
+                    product.put("values", values);
+                    product.put("total", values.stream().mapToInt(Integer::intValue).sum());
+                    products.put(entry.getKey(), product);
+                });
+        stats.put("products", products);
+        return stats;
+    }
+
+    /**
+     * 从余量最多的分段向 home 分段转入库存
+     *
+     * @return 转入数量
+     */
+    private int rebalance(Long productId, int segments, int home, int quantity) {
+        Map<Integer, Integer> values = segmentValues(productId, segments);
+        int need = quantity - values.getOrDefault(home, 0);
+        if (need <= 0) {
+            // 其他请求已补足，直接重试
+            return quantity;
+        }
+        List<Map.Entry<Integer, Integer>> donors = new ArrayList<>(values.entrySet());
+        donors.removeIf(entry -> entry.getKey() == home || entry.getValue() <= 0);
+        donors.sort(Map.Entry.<Integer, Integer>comparingByValue(Comparator.reverseOrder()));
+
+        int moved = 0;
+        for (Map.Entry<Integer, Integer> donor : donors) {
+            int want = Math.max(need - moved, donor.getValue() / 2);
+            long taken = eval(StockService.TAKE_SCRIPT,
+                    Arrays.asList(remainKey(donor.getKey(), productId), journalKey(donor.getKey()), seqKey(donor.getKey())),
+                    String.valueOf(want), String.valueOf(productId), REBALANCE_BIZ_KEY);
+            if (taken > 0) {
+                give(home, productId, taken, REBALANCE_BIZ_KEY);
+                moved += (int) taken;
+            }
+            if (moved >= need) {
+                break;
+            }
+        }
+        rebalanceCount.increment();
+        rebalancedQuantity.add(moved);
+        log.debug("[Stock-Segment] Rebalanced, productId={}, home={}, need={}, moved={}", productId, home, need, moved);
+        return moved;
+    }
+
+    private long drain(Long productId, int segments) {
+        long drained = 0;
+        for (int i = 0; i < segments; i++) {
+            int shard = shard(productId, i);
+            long taken = eval(StockService.TAKE_SCRIPT,
+                    Arrays.asList(remainKey(shard, productId), journalKey(shard), seqKey(shard)),
+                    String.valueOf(Integer.MAX_VALUE), String.valueOf(productId), DRAIN_BIZ_KEY);
+            if (taken > 0) {
+                eval(StockService.GIVE_SCRIPT, Arrays.asList(StockService.remainKey(productId),
+                                StockService.JOURNAL_KEY, StockService.SEQ_KEY),
+                        String.valueOf(taken), String.valueOf(productId), DRAIN_BIZ_KEY);
+                drained += taken;
+            }
+        }
+        return drained;
+    }
+
+    private void give(int shard, Long productId, long amount, String bizKey) {
+        eval(StockService.GIVE_SCRIPT, Arrays.asList(remainKey(shard, productId), journalKey(shard), seqKey(shard)),
+                String.valueOf(amount), String.valueOf(productId), bizKey);
+    }
+
+    private long total(Long productId, int segments) {
+        String main = redissonClient.<String>getBucket(StockService.remainKey(productId), StringCodec.INSTANCE).get();
+        long total = StringUtils.isEmpty(main) ? 0L : Long.parseLong(main);
+        return total + segmentValues(productId, segments).values().stream().mapToInt(Integer::intValue).sum();
+    }
+
+    /**
+     * 移除商品的分段登记与各分段库存（删除商品时使用，不归集回主键）
+     */
+    public void remove(Long productId) {
+        int segments = eval(DISABLE_SCRIPT, Arrays.asList(StockService.SEGMENTS_KEY),
+                String.valueOf(productId)).intValue();
+        evict(productId);
+        if (segments <= 0) {
+            return;
+        }
+        String[] keys = new String[segments];
+        for (int i = 0; i < segments; i++) {
+            keys[i] = remainKey(shard(productId, i), productId);
+        }
+        redissonClient.getKeys().delete(keys);
+    }
+
+    /**
+     * 读取各分段库存（按分片号，缺失视为 0）
+     */
+    private Map<Integer, Integer> segmentValues(Long productId, int segments) {
+        Map<String, Integer> keyToShard = new LinkedHashMap<>();
+        for (int i = 0; i < segments; i++) {
+            int shard = shard(productId, i);
+            keyToShard.put(remainKey(shard, productId), shard);
+        }
+        Map<String, String> values = redissonClient.getBuckets(StringCodec.INSTANCE)
+                .get(keyToShard.keySet().toArray(new String[0]));
+        Map<Integer, Integer> result = new LinkedHashMap<>();
+        keyToShard.forEach((key, shard) -> {
+            String value = values.get(key);
+            result.put(shard, StringUtils.isEmpty(value) ? 0 : Integer.parseInt(value));
+        });
+        return result;
+    }
+
+    private Long eval(String script, List<Object> keys, Object... values) {
+        return redissonClient.getScript(StringCodec.INSTANCE)
+                .eval(RScript.Mode.READ_WRITE, script, RScript.ReturnType.INTEGER, keys, values);
+    }
+
+    /**
+     * 商品第 index 个分段所在分片（相邻商品错开起始分片）
+     */
+    int shard(Long productId, int index) {
+        return (int) Math.floorMod(productId + index, (long) stockConfig.getSegmentShards());
+    }
+
+    static String shardPrefix(int shard) {
+        return "{stock:" + shard + "}:";
+    }
+
+    static String remainKey(int shard, Long productId) {
+        return shardPrefix(shard) + "remain:" + productId;
+    }
+
+    static String journalKey(int shard) {
+        return shardPrefix(shard) + "journal";
+    }
+
+    static String seqKey(int shard) {
+        return shardPrefix(shard) + "journal:seq";
+    }
+
+    static String journalName(int shard) {
+        return SEGMENT_JOURNAL_PREFIX + shard;
+    }
+}
@@ -0,0 +1,561 @@
+package com.example.sunxu_mall.service.mall;
+
+import com.example.sunxu_mall.config.props.StockConfig;
+import com.example.sunxu_mall.entity.mall.ProductEntity;
+import com.example.sunxu_mall.entity.mall.StockJournalEntity;
+import com.example.sunxu_mall.exception.BusinessException;
+import com.example.sunxu_mall.mapper.mall.ProductEntityMapper;
+import com.example.sunxu_mall.mapper.mall.StockJournalMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.lang3.StringUtils;
+import org.redisson.api.RScript;
+import org.redisson.api.RedissonClient;
+import org.redisson.client.codec.StringCodec;
+import org.springframework.stereotype.Service;
+import org.springframework.util.CollectionUtils;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+import static com.example.sunxu_mall.errorcode.ErrorCode.*;
+
+/**
+ * 商品库存预扣服务（Redis 为准，MySQL 异步回写）
+ * <p>
+ * 剩余库存保存在 Redis（{stock}:remain:商品ID），扣减/回补/覆盖由 Lua 脚本原子完成：
+ * 校验库存、修改数值、分配流水序号并追加到流水列表（{stock}:journal）在同一脚本内执行，不会超卖。
+ * 流水由 {@link StockSyncService} 按商品聚合后批量回写 mall_product.remain_quantity，并定时对账。
+ * <p>
+ * 主键、流水、序号、幂等键使用同一个 hash tag {stock}，集群模式下多键脚本落在同一槽位；
+ * 分段桶及其流水使用各自的 hash tag {stock:分片号}，分散到不同节点。
+ * 幂等键按商品与业务键区分（{stock}:req:deduct:商品ID:业务键），主键模式与分段模式共用，
+ * 请求前后商品切换模式时重试仍能识别为重复。
+ * 商品首次访问时从 MySQL 懒加载（SETNX，不覆盖已有值）。
+ * <p>
+ * 关闭 mall.mgt.stock.enabled 时退化为 MySQL 条件扣减（remain_quantity &gt;= quantity），不做业务键幂等。
+ * <p>
+ * 热点商品可开启分段模式（{@link StockSegmentService}）：主键库存置 0，库存分散到多个分段桶，
+ * 主键脚本遇到分段商品返回 -4，由分段服务处理。
+ *
+ * @author sunxu
+ */
+@Slf4j
+@Service
+public class StockService {
+
+    static final String KEY_PREFIX = "{stock}:";
+    static final String REMAIN_KEY_PREFIX = KEY_PREFIX + "remain:";
+    static final String JOURNAL_KEY = KEY_PREFIX + "journal";
+    static final String SEQ_KEY = KEY_PREFIX + "journal:seq";
+    static final String PRODUCTS_KEY = KEY_PREFIX + "products";
+    static final String SEGMENTS_KEY = KEY_PREFIX + "segments";
+    static final String MAIN_JOURNAL = "main";
+    static final String SYNC_LOCK_KEY = KEY_PREFIX + "sync:lock";
+    static final String DEDUCT_REQUEST_PREFIX = "req:deduct:";
+    static final String RELEASE_REQUEST_PREFIX = "req:release:";
+    private static final String OVERWRITE_BIZ_KEY = "overwrite";
+
+    static final long INSUFFICIENT = -1L;
+    static final long NOT_LOADED = -2L;
+    static final long DUPLICATE = -3L;
+    static final long SEGMENTED = -4L;
+    static final long NOT_SEGMENTED = -5L;
+
+    /**
+     * 扣减/回补：KEYS = [remain, journal, seq, request, segments]，ARGV = [delta, productId, bizKey, requestTtl, total]
+     * total 可选（回补时传商品总库存），回补后的库存截断到 total，截断后增量为 0 时只记录幂等键不记流水。
+     * 返回变更后的剩余库存；-1 库存不足，-2 未加载，-3 业务键重复，-4 分段商品
+     */
+    static final String CHANGE_SCRIPT =
+            "if redis.call('hexists', KEYS[5], ARGV[2]) == 1 then return -4 end "
+                    + "if redis.call('exists', KEYS[4]) == 1 then return -3 end "
+                    + "local remain = redis.call('get', KEYS[1]) "
+                    + "if not remain then return -2 end "
+                    + "remain = tonumber(remain) "
+                    + "local delta = tonumber(ARGV[1]) "
+                    + "if ARGV[5] then delta = math.min(delta, math.max(0, tonumber(ARGV[5]) - remain)) end "
+                    + "if remain + delta < 0 then return -1 end "
+                    + "local after = remain "
+                    + "if delta ~= 0 then "
+                    + "after = redis.call('incrby', KEYS[1], delta) "
+                    + "local seq = redis.call('incr', KEYS[3]) "
+                    + "redis.call('rpush', KEYS[2], seq .. ':' .. ARGV[2] .. ':' .. delta .. ':' .. ARGV[3]) "
+                    + "end "
+                    + "redis.call('set', KEYS[4], after, 'EX', ARGV[4]) "
+                    + "return after";
+
+    /**
+     * 覆盖：KEYS = [remain, journal, seq, segments]，ARGV = [value, productId, bizKey]
+     * 以差值记流水；返回覆盖后的库存，-2 未加载，-4 分段商品
+     */
+    private static final String OVERWRITE_SCRIPT =
+            "if redis.call('hexists', KEYS[4], ARGV[2]) == 1 then return -4 end "
+                    + "local old = redis.call('get', KEYS[1]) "
+                    + "if not old then return -2 end "
+                    + "local delta = tonumber(ARGV[1]) - tonumber(old) "
+                    + "if delta ~= 0 then "
+                    + "redis.call('set', KEYS[1], ARGV[1]) "
+                    + "local seq = redis.call('incr', KEYS[3]) "
+                    + "redis.call('rpush', KEYS[2], seq .. ':' .. ARGV[2] .. ':' .. delta .. ':' .. ARGV[3]) "
+                    + "end "
+                    + "return tonumber(ARGV[1])";
+
+    /**
+     * 加载：KEYS = [remain, products, seq]，ARGV = [value, productId, flushedSeq]
+     * 流水序号不低于已回写的最大序号（Redis 数据丢失后恢复），返回当前库存
+     */
+    private static final String LOAD_SCRIPT =
+            "local current = tonumber(redis.call('get', KEYS[3]) or '0') "
+                    + "if current < tonumber(ARGV[3]) then redis.call('set', KEYS[3], ARGV[3]) end "
+                    + "if redis.call('setnx', KEYS[1], ARGV[1]) == 1 then redis.call('sadd', KEYS[2], ARGV[2]) end "
+                    + "return tonumber(redis.call('get', KEYS[1]))";
+
+    /**
+     * 移除：KEYS = [remain, products, segments]，ARGV = [productId]
+     */
+    private static final String REMOVE_SCRIPT =
+            "redis.call('del', KEYS[1]) "
+                    + "redis.call('srem', KEYS[2], ARGV[1]) "
+                    + "redis.call('hdel', KEYS[3], ARGV[1]) "
+                    + "return 1";
+
+    /**
+     * 占用幂等键（分段模式扣减前）：KEYS = [request]，ARGV = [requestTtl]，返回 1 占用成功，0 业务键重复
+     */
+    static final String CLAIM_SCRIPT =
+            "if redis.call('set', KEYS[1], 'segment', 'NX', 'EX', ARGV[1]) then return 1 end "
+                    + "return 0";
+
+    /**
+     * 流水序号下限：KEYS = [seq]，ARGV = [flushedSeq]
+     */
+    static final String SEQ_FLOOR_SCRIPT =
+            "local current = tonumber(redis.call('get', KEYS[1]) or '0') "
+                    + "if current < tonumber(ARGV[1]) then redis.call('set', KEYS[1], ARGV[1]) end "
+                    + "return 1";
+
+    /**
+     * 转入：KEYS = [remain, journal, seq]，ARGV = [amount, productId, bizKey]，返回转入后的库存
+     */
+    static final String GIVE_SCRIPT =
+            "local after = redis.call('incrby', KEYS[1], ARGV[1]) "
+                    + "local seq = redis.call('incr', KEYS[3]) "
+                    + "redis.call('rpush', KEYS[2], seq .. ':' .. ARGV[2] .. ':' .. ARGV[1] .. ':' .. ARGV[3]) "
+                    + "return after";
+
+    /**
+     * 转出：KEYS = [remain, journal, seq]，ARGV = [maxAmount, productId, bizKey]
+     * 最多转出当前库存，返回实际转出数量
+     */
+    static final String TAKE_SCRIPT =
+            "local current = tonumber(redis.call('get', KEYS[1]) or '0') "
+                    + "local take = math.min(current, tonumber(ARGV[1])) "
+                    + "if take <= 0 then return 0 end "
+                    + "redis.call('decrby', KEYS[1], take) "
+                    + "local seq = redis.call('incr', KEYS[3]) "
+                    + "redis.call('rpush', KEYS[2], seq .. ':' .. ARGV[2] .. ':' .. (-take) .. ':' .. ARGV[3]) "
+                    + "return take";
+
+    private final RedissonClient redissonClient;
+    private final ProductEntityMapper productMapper;
+    private final StockJournalMapper stockJournalMapper;
+    private final StockSegmentService stockSegmentService;
+    private final StockConfig stockConfig;
+
+    public StockService(RedissonClient redissonClient,
+                        ProductEntityMapper productMapper,
+                        StockJournalMapper stockJournalMapper,
+                        StockSegmentService stockSegmentService,
+                        StockConfig stockConfig) {
+        this.redissonClient = redissonClient;
+        this.productMapper = productMapper;
+        this.stockJournalMapper = stockJournalMapper;
+        this.stockSegmentService = stockSegmentService;
+        this.stockConfig = stockConfig;
+    }
+
+    public boolean isEnabled() {
+        return stockConfig.isEnabled();
+    }
+
+    /**
+     * 扣减库存（同一 bizKey 在幂等期内只扣一次）
+     *
+     * @param productId 商品ID
+     * @param quantity  扣减数量
+     * @param bizKey    业务键（订单号等）
+     * @return 扣减后的剩余库存
+     */
+    public int deduct(Long productId, Integer quantity, String bizKey) {
+        validate(productId, quantity, bizKey);
+        if (!stockConfig.isEnabled()) {
+            if (productMapper.deductRemainQuantity(productId, quantity) == 0) {
+                loadFromDb(productId);
+                throw new BusinessException(STOCK_INSUFFICIENT.getCode(), "库存不足");
+            }
+            return loadFromDb(productId);
+        }
+        long result = route(productId, -quantity, DEDUCT_REQUEST_PREFIX, bizKey);
+        if (result == INSUFFICIENT) {
+            throw new BusinessException(STOCK_INSUFFICIENT.getCode(), "库存不足");
+        }
+        return (int) result;
+    }
+
+    /**
+     * 回补库存（取消订单等，同一 bizKey 在幂等期内只回补一次）
+     * <p>
+     * 回补后的库存不超过商品总库存：未启用预扣时超出范围抛出异常；启用时在脚本内截断到总库存，
+     * 分段商品按回补前读取的各分段之和截断（与并发回补之间不是原子的）。
+     *
+     * @param productId 商品ID
+     * @param quantity  回补数量
+     * @param bizKey    业务键
+     * @return 回补后的剩余库存
+     */
+    public int release(Long productId, Integer quantity, String bizKey) {
+        validate(productId, quantity, bizKey);
+        if (!stockConfig.isEnabled()) {
+            if (productMapper.addRemainQuantityWithinBounds(productId, quantity) == 0) {
+                loadFromDb(productId);
+                throw new BusinessException(STOCK_INSUFFICIENT.getCode(), "回补后的库存超出总库存");
+            }
+            return loadFromDb(productId);
+        }
+        Integer total = loadRowFromDb(productId).getQuantity();
+        if (stockSegmentService.isSegmented(productId)) {
+            Integer current = peekRemain(productId);
+            int capped = Objects.isNull(current) || Objects.isNull(total)
+                    ? quantity : Math.min(quantity, Math.max(0, total - current));
+            if (capped == 0) {
+                log.info("[Stock] Release skipped, already at total, productId={}, bizKey={}", productId, bizKey);
+                return current;
+            }
+            long result = stockSegmentService.change(productId, capped, RELEASE_REQUEST_PREFIX, bizKey);
+            if (result != NOT_SEGMENTED) {
+                return (int) result;
+            }
+        }
+        return (int) change(productId, quantity, RELEASE_REQUEST_PREFIX, bizKey, total);
+    }
+
+    /**
+     * 查询剩余库存（分段商品为各分段之和，未加载时从 MySQL 加载）
+     *
+     * @param productId 商品ID
+     * @return 剩余库存
+     */
+    public int getRemain(Long productId) {
+        if (Objects.isNull(productId)) {
+            throw new BusinessException(PARAMETER_MISSING.getCode(), "商品ID不能为空");
+        }
+        if (!stockConfig.isEnabled()) {
+            return loadFromDb(productId);
+        }
+        Integer cached = peekRemain(productId);
+        return Objects.nonNull(cached) ? cached : load(productId);
+    }
+
+    /**
+     * 读取 Redis 中的剩余库存（分段商品为各分段之和），不触发加载
+     *
+     * @param productId 商品ID
+     * @return 剩余库存，未启用或未加载返回 null
+     */
+    public Integer peekRemain(Long productId) {
+        if (!stockConfig.isEnabled() || Objects.isNull(productId)) {
+            return null;
+        }
+        String value = redissonClient.<String>getBucket(remainKey(productId), StringCodec.INSTANCE).get();
+        if (StringUtils.isEmpty(value)) {
+            return null;
+        }
+        int remain = Integer.parseInt(value);
+        return stockSegmentService.isSegmented(productId) ? remain + stockSegmentService.sum(productId) : remain;
+    }
+
+    /**
+     * 批量读取 Redis 中的剩余库存（一次批量 GET，分段商品再加各分段之和），不触发加载
+     *
+     * @param productIds 商品ID
+     * @return 商品ID -> 剩余库存，未启用或未加载的商品不出现在结果中
+     */
+    public Map<Long, Integer> peekRemains(Collection<Long> productIds) {
+        if (!stockConfig.isEnabled() || CollectionUtils.isEmpty(productIds)) {
+            return Collections.emptyMap();
+        }
+        Map<String, Long> keyToId = new LinkedHashMap<>();
+        for (Long productId : productIds) {
+            if (Objects.nonNull(productId)) {
+                keyToId.put(remainKey(productId), productId);
+            }
+        }
+        if (keyToId.isEmpty()) {
+            return Collections.emptyMap();
+        }
+        Map<String, String> values = redissonClient.getBuckets(StringCodec.INSTANCE)
+                .get(keyToId.keySet().toArray(new String[0]));
+        Map<Long, Integer> result = new HashMap<>(values.size() * 2);
+        values.forEach((key, value) -> {
+            if (StringUtils.isEmpty(value)) {
+                return;
+            }
+            Long productId = keyToId.get(key);
+            int remain = Integer.parseInt(value);
+            result.put(productId, stockSegmentService.isSegmented(productId)
+                    ? remain + stockSegmentService.sum(productId) : remain);
+        });
+        return result;
+    }
+
+    /**
+     * 设置商品分段数（分段数 &lt;= 1 时关闭分段，库存归集回主键）
+     *
+     * @param productId 商品ID
+     * @param segments  分段数
+     * @return 调整后的剩余库存
+     */
+    public int configureSegments(Long productId, Integer segments) {
+        if (Objects.isNull(productId)) {
+            throw new BusinessException(PARAMETER_MISSING.getCode(), "商品ID不能为空");
+        }
+        if (!stockConfig.isEnabled()) {
+            throw new BusinessException(OPERATION_FAILED.getCode(), "未启用库存预扣，无法开启分段");
+        }
+        int count = Objects.isNull(segments) ? 0 : segments;
+        if (count > stockConfig.getSegmentShards()) {
+            throw new BusinessException(PARAMETER_VALIDATION_ERROR.getCode(),
+                    String.format("分段数不能超过%d", stockConfig.getSegmentShards()));
+        }
+        load(productId);
+        if (stockSegmentService.isSegmented(productId)) {
+            stockSegmentService.disable(productId, true);
+        }
+        if (count > 1) {
+            stockSegmentService.enable(productId, count);
+        }
+        return getRemain(productId);
+    }
+
+    /**
+     * 事务提交后覆盖剩余库存（后台编辑商品时使用，差值记入流水并由回写任务落库）
+     *
+     * @param productId      商品ID
+     * @param remainQuantity 新的剩余库存
+     */
+    public void overwriteAfterCommit(Long productId, Integer remainQuantity) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    overwriteQuietly(productId, remainQuantity);
+                }
+            });
+            return;
+        }
+        overwriteQuietly(productId, remainQuantity);
+    }
+
+    /**
+     * 事务提交后移除商品的 Redis 库存（删除商品时使用），否则已删除商品仍可在 Redis 中扣减
+     * <p>
+     * 尚未回写的流水照常落库；移除后再扣减会因商品已删除而加载失败。
+     *
+     * @param productIds 商品ID
+     */
+    public void removeAfterCommit(Collection<Long> productIds) {
+        if (CollectionUtils.isEmpty(productIds)) {
+            return;
+        }
+        List<Long> ids = new ArrayList<>(productIds);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    removeQuietly(ids);
+                }
+            });
+            return;
+        }
+        removeQuietly(ids);
+    }
+
+    private void removeQuietly(List<Long> productIds) {
+        for (Long productId : productIds) {
+            try {
+                stockSegmentService.remove(productId);
+                eval(REMOVE_SCRIPT, Arrays.asList(remainKey(productId), PRODUCTS_KEY, SEGMENTS_KEY),
+                        String.valueOf(productId));
+            } catch (Exception e) {
+                log.error("[Stock] Failed to remove remain quantity, productId={}", productId, e);
+            }
+        }
+    }
+
+    private void overwriteQuietly(Long productId, Integer remainQuantity) {
+        try {
+            overwrite(productId, remainQuantity);
+        } catch (Exception e) {
+            log.error("[Stock] Failed to overwrite remain quantity, productId={}, value={}",
+                    productId, remainQuantity, e);
+        }
+    }
+
+    private void overwrite(Long productId, Integer remainQuantity) {
+        List<Object> keys = Arrays.asList(remainKey(productId), JOURNAL_KEY, SEQ_KEY, SEGMENTS_KEY);
+        for (int attempt = 0; attempt < 2; attempt++) {
+            Long result = eval(OVERWRITE_SCRIPT, keys,
+                    String.valueOf(remainQuantity), String.valueOf(productId), OVERWRITE_BIZ_KEY);
+            if (result == SEGMENTED) {
+                // 分段商品：先归集回主键，覆盖后按原分段数重新分配
+                int segments = stockSegmentService.disable(productId, false);
+                overwrite(productId, remainQuantity);
+                stockSegmentService.enable(productId, segments);
+                return;
+            }
+            if (result != NOT_LOADED) {
+                return;
+            }
+            load(productId);
+        }
+        throw new BusinessException(OPERATION_FAILED.getCode(), "库存加载失败");
+    }
+
+    /**
+     * 按商品模式选择主键或分段桶
+     */
+    private long route(Long productId, int delta, String requestPrefix, String bizKey) {
+        if (stockSegmentService.isSegmented(productId)) {
+            long result = stockSegmentService.change(productId, delta, requestPrefix, bizKey);
+            if (result != NOT_SEGMENTED) {
+                return result;
+            }
+        }
+        return change(productId, delta, requestPrefix, bizKey, null);
+    }
+
+    /**
+     * @param total 回补上限（商品总库存），为 null 时不限
+     */
+    private long change(Long productId, int delta, String requestPrefix, String bizKey, Integer total) {
+        List<Object> keys = Arrays.asList(remainKey(productId), JOURNAL_KEY, SEQ_KEY,
+                requestKey(requestPrefix, productId, bizKey), SEGMENTS_KEY);
+        List<Object> values = new ArrayList<>(Arrays.asList(String.valueOf(delta), String.valueOf(productId), bizKey,
+                String.valueOf(stockConfig.getRequestTtlSeconds())));
+        if (Objects.nonNull(total)) {
+            values.add(String.valueOf(total));
+        }
+        for (int attempt = 0; attempt < 2; attempt++) {
+            Long result = eval(CHANGE_SCRIPT, keys, values.toArray());
+            if (result == DUPLICATE) {
+                log.info("[Stock] Duplicate request ignored, productId={}, bizKey={}", productId, bizKey);
+                return getRemain(productId);
+            }
+            if (result == SEGMENTED) {
+                // 本地分段标记过期：刷新后交给分段服务
+                stockSegmentService.evict(productId);
+                long segmented = stockSegmentService.change(productId, delta, requestPrefix, bizKey);
+                if (segmented == NOT_SEGMENTED) {
+                    throw new BusinessException(OPERATION_FAILED.getCode(), "库存模式切换中，请稍后重试");
+                }
+                return segmented;
+            }
+            if (result != NOT_LOADED) {
+                return result;
+            }
+            load(productId);
+        }
+        throw new BusinessException(OPERATION_FAILED.getCode(), "库存加载失败");
+    }
+
+    /**
+     * 从 MySQL 加载剩余库存到 Redis（已存在则不覆盖）
+     */
+    private int load(Long productId) {
+        int remain = loadFromDb(productId);
+        Long flushedSeq = stockJournalMapper.selectMaxEntrySeq(MAIN_JOURNAL);
+        Long result = eval(LOAD_SCRIPT, Arrays.asList(remainKey(productId), PRODUCTS_KEY, SEQ_KEY),
+                String.valueOf(remain), String.valueOf(productId),
+                String.valueOf(Objects.isNull(flushedSeq) ? 0L : flushedSeq));
+        return result.intValue();
+    }
+
+    private int loadFromDb(Long productId) {
+        Integer remain = loadRowFromDb(productId).getRemainQuantity();
+        return Objects.isNull(remain) ? 0 : remain;
+    }
+
+    /**
+     * 读取商品库存行（总库存、剩余库存），商品不存在或已删除时抛出异常
+     */
+    private ProductEntity loadRowFromDb(Long productId) {
+        List<ProductEntity> rows = productMapper.selectRemainQuantityByIds(Collections.singletonList(productId));
+        if (rows.isEmpty() || Boolean.TRUE.equals(rows.get(0).getIsDel())) {
+            throw new BusinessException(PRODUCT_NOT_EXIST.getCode(), "商品不存在");
+        }
+        return rows.get(0);
+    }
+
+    private Long eval(String script, List<Object> keys, Object... values) {
+        return redissonClient.getScript(StringCodec.INSTANCE)
+                .eval(RScript.Mode.READ_WRITE, script, RScript.ReturnType.INTEGER, keys, values);
+    }
+
+    private static void validate(Long productId, Integer quantity, String bizKey) {
+        if (Objects.isNull(productId)) {
+            throw new BusinessException(PARAMETER_MISSING.getCode(), "商品ID不能为空");
+        }
+        if (Objects.isNull(quantity) || quantity <= 0) {
+            throw new BusinessException(PARAMETER_VALIDATION_ERROR.getCode(), "数量必须大于0");
+        }
+        if (StringUtils.isBlank(bizKey)) {
+            throw new BusinessException(PARAMETER_MISSING.getCode(), "业务键不能为空");
+        }
+    }
+
+    static String remainKey(Long productId) {
+        return REMAIN_KEY_PREFIX + productId;
+    }
+
+    /**
+     * 幂等键（主键模式与分段模式共用，同一订单扣减多个商品互不影响）
+     */
+    static String requestKey(String requestPrefix, Long productId, String bizKey) {
+        return KEY_PREFIX + requestPrefix + productId + ":" + bizKey;
+    }
+
+    /**
+     * 解析流水：序号:商品ID:增量:业务键（业务键可包含冒号）
+     *
+     * @param entry 流水文本
+     * @return 流水实体，格式错误返回 null
+     */
+    static StockJournalEntity parseEntry(String entry) {
+        if (StringUtils.isEmpty(entry)) {
+            return null;
+        }
+        String[] parts = entry.split(":", 4);
+        if (parts.length < 3) {
+            return null;
+        }
+        try {
+            return StockJournalEntity.builder()
+                    .entrySeq(Long.valueOf(parts[0]))
+                    .productId(Long.valueOf(parts[1]))
+                    .delta(Integer.valueOf(parts[2]))
+                    .bizKey(parts.length > 3 ? parts[3] : null)
+                    .build();
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+}
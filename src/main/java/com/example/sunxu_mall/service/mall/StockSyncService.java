@@ -0,0 +1,386 @@
+package com.example.sunxu_mall.service.mall;
+
+import com.example.sunxu_mall.config.props.StockConfig;
+import com.example.sunxu_mall.entity.mall.ProductEntity;
+import com.example.sunxu_mall.entity.mall.StockJournalEntity;
+import com.example.sunxu_mall.event.ProductChangedEvent;
+import com.example.sunxu_mall.mapper.mall.ProductEntityMapper;
+import com.example.sunxu_mall.mapper.mall.StockJournalMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.redisson.api.RList;
+import org.redisson.api.RLock;
+import org.redisson.api.RScript;
+import org.redisson.api.RedissonClient;
+import org.redisson.client.codec.StringCodec;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+/**
+ * 库存流水回写与对账
+ * <p>
+ * 回写：从 Redis 流水列表头部读取一批流水，按商品聚合增量后在一个事务内
+ * 写入 mall_stock_journal 并用一条 CASE 语句调整 remain_quantity，提交后再 LTRIM 已处理的流水。
+ * 提交后、LTRIM 前宕机会导致流水被重读，序号不大于已回写最大序号的流水会被跳过。
+ * <p>
+ * 对账：以 Redis 为准。在回写锁内对一批商品原子快照 Redis 库存与流水长度，
+ * 期望的 MySQL 值 = Redis 值 - 尚未回写的流水增量，不一致时修复 MySQL 并告警。
+ * <p>
+ * 回写与对账共用一把分布式锁，多实例部署时同一时刻只有一个实例消费流水。
+ * 主键流水与各分段分片流水分别回写，序号水位按流水名称区分；分段商品的期望值为主键与各分段之和。
+ * <p>
+ * 清理：mall_stock_journal 只需保留各流水的最大序号作为水位，超过保留期的旧记录分批删除。
+ *
+ * @author sunxu
+ */
+@Slf4j
+@Service
+public class StockSyncService {
+
+    /**
+     * 快照：KEYS = [journal, remain...]，返回 [流水长度, 库存...]，未加载的商品为 -1
+     */
+    private static final String SNAPSHOT_SCRIPT =
+            "local result = { redis.call('llen', KEYS[1]) } "
+                    + "for i = 2, #KEYS do "
+                    + "local value = redis.call('get', KEYS[i]) "
+                    + "if value then result[i] = tonumber(value) else result[i] = -1 end "
+                    + "end "
+                    + "return result";
+
+    private final RedissonClient redissonClient;
+    private final ProductEntityMapper productMapper;
+    private final StockJournalMapper stockJournalMapper;
+    private final StockSegmentService stockSegmentService;
+    private final TransactionTemplate transactionTemplate;
+    private final StockConfig stockConfig;
+    private final ApplicationEventPublisher eventPublisher;
+
+    public StockSyncService(RedissonClient redissonClient,
+                            ProductEntityMapper productMapper,
+                            StockJournalMapper stockJournalMapper,
+                            StockSegmentService stockSegmentService,
+                            TransactionTemplate transactionTemplate,
+                            StockConfig stockConfig,
+                            ApplicationEventPublisher eventPublisher) {
+        this.redissonClient = redissonClient;
+        this.productMapper = productMapper;
+        this.stockJournalMapper = stockJournalMapper;
+        this.stockSegmentService = stockSegmentService;
+        this.transactionTemplate = transactionTemplate;
+        this.stockConfig = stockConfig;
+        this.eventPublisher = eventPublisher;
+    }
+
+    /**
+     * 回写流水（未抢到锁时直接返回）
+     *
+     * @return 处理的流水条数
+     */
+    public int flush() {
+        Integer flushed = withLock(this::flushAll);
+        return Objects.isNull(flushed) ? 0 : flushed;
+    }
+
+    /**
+     * 对账并修复 MySQL（未抢到锁时直接返回）
+     *
+     * @return 修复的商品数
+     */
+    public int reconcile() {
+        Integer repaired = withLock(() -> {
+            flushAll();
+            Map<String, PendingJournal> pending = new HashMap<>();
+            for (Journal journal : journals()) {
+                Long flushedSeq = stockJournalMapper.selectMaxEntrySeq(journal.name);
+                if (Objects.nonNull(flushedSeq)) {
+                    redissonClient.getScript(StringCodec.INSTANCE).eval(RScript.Mode.READ_WRITE,
+                            StockService.SEQ_FLOOR_SCRIPT, RScript.ReturnType.INTEGER,
+                            Collections.singletonList(journal.seqKey), String.valueOf(flushedSeq));
+                }
+                pending.put(journal.name, new PendingJournal(journal.key,
+                        Objects.isNull(flushedSeq) ? 0L : flushedSeq));
+            }
+
+            int total = 0;
+            int count = 0;
+            List<Long> batch = new ArrayList<>();
+            for (String member : redissonClient.<String>getSet(StockService.PRODUCTS_KEY, StringCodec.INSTANCE)) {
+                batch.add(Long.valueOf(member));
+                if (batch.size() >= Math.max(1, stockConfig.getReconcileBatchSize())) {
+                    total += reconcileBatch(batch, pending);
+                    count += batch.size();
+                    batch.clear();
+                }
+            }
+            if (!batch.isEmpty()) {
+                total += reconcileBatch(batch, pending);
+                count += batch.size();
+            }
+            log.info("[Stock-Sync] Reconcile finished, products={}, repaired={}", count, total);
+            return total;
+        });
+        return Objects.isNull(repaired) ? 0 : repaired;
+    }
+
+    /**
+     * 清理超过保留期的已回写流水（每个流水保留最大序号所在行作为回写水位）
+     * <p>
+     * 不持有回写锁：回写只会插入更大的序号，删除范围不会与之重叠。
+     *
+     * @return 删除的记录数
+     */
+    public long purgeJournal() {
+        if (stockConfig.getJournalRetentionDays() <= 0) {
+            return 0L;
+        }
+        LocalDateTime before = LocalDateTime.now().minusDays(stockConfig.getJournalRetentionDays());
+        int batchSize = Math.max(1, stockConfig.getJournalPurgeBatchSize());
+        long total = 0;
+        for (Journal journal : journals()) {
+            Long maxSeq = stockJournalMapper.selectMaxEntrySeq(journal.name);
+            if (Objects.isNull(maxSeq)) {
+                continue;
+            }
+            int deleted;
+            do {
+                deleted = stockJournalMapper.deleteFlushedBefore(journal.name, maxSeq, before, batchSize);
+                total += deleted;
+            } while (deleted >= batchSize);
+        }
+        if (total > 0) {
+            log.info("[Stock-Sync] Journal purged, deleted={}, before={}", total, before);
+        }
+        return total;
+    }
+
+    private <T> T withLock(Supplier<T> action) {
+        // 不指定租期，由看门狗续期，避免对账耗时超过租期后其他实例并发回写
+        RLock lock = redissonClient.getLock(StockService.SYNC_LOCK_KEY);
+        if (!lock.tryLock()) {
+            return null;
+        }
+        try {
+            return action.get();
+        } finally {
+            if (lock.isHeldByCurrentThread()) {
+                lock.unlock();
+            }
+        }
+    }
+
+    /**
+     * 主键流水 + 各分段分片流水
+     */
+    private List<Journal> journals() {
+        List<Journal> journals = new ArrayList<>(stockConfig.getSegmentShards() + 1);
+        journals.add(new Journal(StockService.MAIN_JOURNAL, StockService.JOURNAL_KEY, StockService.SEQ_KEY));
+        for (int shard = 0; shard < stockConfig.getSegmentShards(); shard++) {
+            journals.add(new Journal(StockSegmentService.journalName(shard), StockSegmentService.journalKey(shard),
+                    StockSegmentService.seqKey(shard)));
+        }
+        return journals;
+    }
+
+    private int flushAll() {
+        int total = 0;
+        for (Journal journal : journals()) {
+            total += flushRounds(journal);
+        }
+        return total;
+    }
+
+    private int flushRounds(Journal journal) {
+        int batchSize = Math.max(1, stockConfig.getFlushBatchSize());
+        int total = 0;
+        for (int round = 0; round < stockConfig.getFlushMaxRounds(); round++) {
+            int processed = flushOnce(journal, batchSize);
+            total += processed;
+            if (processed < batchSize) {
+                break;
+            }
+        }
+        return total;
+    }
+
+    private int flushOnce(Journal journal, int batchSize) {
+        RList<String> list = redissonClient.getList(journal.key, StringCodec.INSTANCE);
+        List<String> raw = list.range(0, batchSize - 1);
+        if (raw.isEmpty()) {
+            return 0;
+        }
+
+        Long flushedSeq = stockJournalMapper.selectMaxEntrySeq(journal.name);
+        long floor = Objects.isNull(flushedSeq) ? 0L : flushedSeq;
+        List<StockJournalEntity> entries = new ArrayList<>(raw.size());
+        for (String item : raw) {
+            StockJournalEntity entry = StockService.parseEntry(item);
+            if (Objects.isNull(entry)) {
+                log.error("[Stock-Sync] Malformed journal entry skipped, journal={}, entry={}", journal.name, item);
+            } else if (entry.getEntrySeq() > floor) {
+                entry.setJournal(journal.name);
+                entries.add(entry);
+            }
+        }
+
+        if (!entries.isEmpty()) {
+            // 按商品ID排序加锁，避免与其他批量更新交叉死锁
+            Map<Long, Integer> deltas = entries.stream()
+                    .collect(Collectors.groupingBy(StockJournalEntity::getProductId, TreeMap::new,
+                            Collectors.summingInt(StockJournalEntity::getDelta)));
+            deltas.values().removeIf(delta -> delta == 0);
+            transactionTemplate.executeWithoutResult(status -> {
+                stockJournalMapper.batchInsert(entries);
+                if (!deltas.isEmpty()) {
+                    productMapper.batchAddRemainQuantity(deltas);
+                    // 事务提交后再淘汰详情缓存、投影读模型，避免缓存回填到回写前的库存
+                    eventPublisher.publishEvent(new ProductChangedEvent(
+                            this, new ArrayList<>(deltas.keySet()), ProductChangedEvent.Action.UPDATE));
+                }
+            });
+        }
+
+        list.trim(raw.size(), -1);
+        log.debug("[Stock-Sync] Flushed {} journal entries, journal={}, applied={}",
+                raw.size(), journal.name, entries.size());
+        return raw.size();
+    }
+
+    private int reconcileBatch(List<Long> productIds, Map<String, PendingJournal> pending) {
+        // 期望的 MySQL 值 = Σ(各槽位 Redis 值 - 该槽位未回写增量)；每个槽位的库存与流水长度原子快照
+        Map<Long, Long> redisValues = new LinkedHashMap<>();
+        Map<Long, Long> expected = new HashMap<>();
+        List<Long> mainValues = snapshot(StockService.JOURNAL_KEY, productIds.stream()
+                .map(StockService::remainKey).collect(Collectors.toList()), pending.get(StockService.MAIN_JOURNAL));
+        PendingJournal mainPending = pending.get(StockService.MAIN_JOURNAL);
+        for (int i = 0; i < productIds.size(); i++) {
+            Long productId = productIds.get(i);
+            long value = mainValues.get(i);
+            if (value >= 0) {
+                redisValues.put(productId, value);
+                expected.put(productId, value - mainPending.deltaOf(productId));
+            }
+        }
+
+        Map<Integer, List<Long>> byShard = new TreeMap<>();
+        Map<String, String> segmentCounts = redissonClient.<String, String>getMap(StockService.SEGMENTS_KEY,
+                StringCodec.INSTANCE).getAll(redisValues.keySet().stream().map(String::valueOf).collect(Collectors.toSet()));
+        segmentCounts.forEach((member, count) -> {
+            Long productId = Long.valueOf(member);
+            for (int i = 0; i < Integer.parseInt(count); i++) {
+                byShard.computeIfAbsent(stockSegmentService.shard(productId, i), k -> new ArrayList<>()).add(productId);
+            }
+        });
+        byShard.forEach((shard, ids) -> {
+            PendingJournal shardPending = pending.get(StockSegmentService.journalName(shard));
+            List<Long> values = snapshot(StockSegmentService.journalKey(shard), ids.stream()
+                    .map(id -> StockSegmentService.remainKey(shard, id)).collect(Collectors.toList()), shardPending);
+            for (int i = 0; i < ids.size(); i++) {
+                Long productId = ids.get(i);
+                long value = Math.max(0L, values.get(i));
+                redisValues.merge(productId, value, Long::sum);
+                expected.merge(productId, value - shardPending.deltaOf(productId), Long::sum);
+            }
+        });
+
+        Map<Long, ProductEntity> rows = productMapper.selectRemainQuantityByIds(productIds).stream()
+                .collect(Collectors.toMap(ProductEntity::getId, row -> row));
+        int repaired = 0;
+        for (Map.Entry<Long, Long> entry : expected.entrySet()) {
+            Long productId = entry.getKey();
+            ProductEntity row = rows.get(productId);
+            int expectedValue = entry.getValue().intValue();
+            if (Objects.isNull(row) || Objects.equals(row.getRemainQuantity(), expectedValue)) {
+                continue;
+            }
+            log.warn("[Stock-Sync] Remain quantity drift repaired, productId={}, db={}, redis={}, expected={}",
+                    productId, row.getRemainQuantity(), redisValues.get(productId), expectedValue);
+            try {
+                productMapper.updateRemainQuantity(productId, expectedValue);
+                eventPublisher.publishEvent(new ProductChangedEvent(
+                        this, productId, ProductChangedEvent.Action.UPDATE));
+                repaired++;
+            } catch (Exception e) {
+                log.error("[Stock-Sync] Failed to repair remain quantity, productId={}", productId, e);
+            }
+        }
+        return repaired;
+    }
+
+    /**
+     * 原子快照一个槽位的流水长度与库存，并把该流水的未回写增量读到快照长度
+     *
+     * @return 各键库存，未加载为 -1
+     */
+    private List<Long> snapshot(String journalKey, List<String> remainKeys, PendingJournal pending) {
+        List<Object> keys = new ArrayList<>(remainKeys.size() + 1);
+        keys.add(journalKey);
+        keys.addAll(remainKeys);
+        List<Object> snapshot = redissonClient.getScript(StringCodec.INSTANCE)
+                .eval(RScript.Mode.READ_ONLY, SNAPSHOT_SCRIPT, RScript.ReturnType.MULTI, keys);
+
+        // 持有回写锁期间流水只会追加，增量读取到快照时的长度即可
+        pending.readUpTo(((Number) snapshot.get(0)).longValue());
+        return snapshot.stream().skip(1).map(value -> ((Number) value).longValue()).collect(Collectors.toList());
+    }
+
+    private static final class Journal {
+
+        private final String name;
+        private final String key;
+        private final String seqKey;
+
+        Journal(String name, String key, String seqKey) {
+            this.name = name;
+            this.key = key;
+            this.seqKey = seqKey;
+        }
+    }
+
+    /**
+     * 尚未回写的流水增量（按商品累计，增量读取）
+     */
+    private final class PendingJournal {
+
+        private final Map<Long, Long> deltas = new HashMap<>();
+        private final String journalKey;
+        private final long flushedSeq;
+        private long offset;
+
+        PendingJournal(String journalKey, long flushedSeq) {
+            this.journalKey = journalKey;
+            this.flushedSeq = flushedSeq;
+        }
+
+        void readUpTo(long length) {
+            int pageSize = Math.max(1, stockConfig.getFlushBatchSize());
+            RList<String> journal = redissonClient.getList(journalKey, StringCodec.INSTANCE);
+            while (offset < length) {
+                long to = Math.min(length, offset + pageSize) - 1;
+                for (String item : journal.range((int) offset, (int) to)) {
+                    StockJournalEntity entry = StockService.parseEntry(item);
+                    if (Objects.nonNull(entry) && entry.getEntrySeq() > flushedSeq) {
+                        deltas.merge(entry.getProductId(), (long) entry.getDelta(), Long::sum);
+                    }
+                }
+                offset = to + 1;
+            }
+        }
+
+        long deltaOf(Long productId) {
+            return deltas.getOrDefault(productId, 0L);
+        }
+    }
+}
@@ -12,7 +12,10 @@ import com.example.sunxu_mall.event.UserLoginEvent;
 import com.example.sunxu_mall.exception.BusinessException;
 import com.example.sunxu_mall.helper.TokenHelper;
 import com.example.sunxu_mall.mapper.sys.UserWebEntityMapper;
+import com.example.sunxu_mall.model.KeysetSeek;
+import com.example.sunxu_mall.model.SortableField;
 import com.example.sunxu_mall.service.BaseService;
+import com.example.sunxu_mall.service.common.TotalCountService;
 import com.example.sunxu_mall.util.*;
 import com.wf.captcha.SpecCaptcha;
 import lombok.extern.slf4j.Slf4j;
@@ -36,6 +39,7 @@ import org.springframework.web.context.request.ServletRequestAttributes;
 import javax.servlet.http.HttpServletRequest;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
@@ -50,6 +54,15 @@ import static com.example.sunxu_mall.util.CaptchaKeyUtil.getCaptchaKey;
 @Slf4j
 @Service
 public class UserService extends BaseService<UserWebEntity, UserQueryDTO> {
+
+    /**
+     * 列表支持的排序字段（对应列需有 (列, id) 索引，见 db/index_optimization.sql）
+     */
+    private static final Map<String, SortableField<UserWebEntity>> SORTABLE_FIELDS = Map.of(
+            "createTime", SortableField.of("createTime", "create_time", LocalDateTime.class, UserWebEntity::getCreateTime),
+            "userName", SortableField.of("userName", "user_name", String.class, UserWebEntity::getUserName)
+    );
+
     private final UserWebEntityMapper userMapper;
     private final RedisUtil redisUtil;
     private final PasswordUtil passwordUtil;
@@ -263,18 +276,53 @@ public class UserService extends BaseService<UserWebEntity, UserQueryDTO> {
     }
 
     @Override
-    protected List<UserWebEntity> selectListByCursorWithLimit(UserQueryDTO queryDTO, Long cursorId, int limit) {
-        return userMapper.selectByCursorWithLimit(
+    protected List<UserWebEntity> selectListByCursorWithLimit(UserQueryDTO queryDTO, KeysetSeek seek, int limit) {
+        return userMapper.selectBySeekWithLimit(
                 queryDTO.getUserName(),
                 queryDTO.getPhone(),
                 queryDTO.getEmail(),
                 queryDTO.getValidStatus(),
                 queryDTO.getDeptId(),
-                cursorId,
+                seek,
+                limit
+        );
+    }
+
+    @Override
+    protected Map<String, SortableField<UserWebEntity>> sortableFields() {
+        return SORTABLE_FIELDS;
+    }
+
+    /**
+     * 包含用户名/手机号/邮箱关键词时 LIKE '%kw%' 无法走索引，只返回估算值
+     */
+    @Override
+    protected TotalCountService.BoundedCounter totalCounter(UserQueryDTO queryDTO) {
+        if (StringUtils.isNotBlank(queryDTO.getUserName()) || StringUtils.isNotBlank(queryDTO.getPhone())
+                || StringUtils.isNotBlank(queryDTO.getEmail())) {
+            return limit -> null;
+        }
+        return limit -> userMapper.countWithLimit(
+                null,
+                null,
+                null,
+                queryDTO.getValidStatus(),
+                queryDTO.getDeptId(),
                 limit
         );
     }
 
+    @Override
+    protected Long estimateCount(UserQueryDTO queryDTO) {
+        return TotalCountService.estimateFromExplain(userMapper.explainList(
+                queryDTO.getUserName(),
+                queryDTO.getPhone(),
+                queryDTO.getEmail(),
+                queryDTO.getValidStatus(),
+                queryDTO.getDeptId()
+        ));
+    }
+
     @Override
     protected Long extractEntityId(UserWebEntity entity) {
         return Objects.isNull(entity) ? null : entity.getId();
@@ -13,10 +13,12 @@ import com.example.sunxu_mall.enums.TaskStatusEnum;
 import com.example.sunxu_mall.enums.TaskTypeEnum;
 import com.example.sunxu_mall.errorcode.ErrorCode;
 import com.example.sunxu_mall.exception.BusinessException;
+import com.example.sunxu_mall.model.ExportCheckpoint;
 import com.example.sunxu_mall.mq.producer.MessageProducer;
 import com.example.sunxu_mall.service.BaseService;
 import com.example.sunxu_mall.service.common.CommonNotifyService;
 import com.example.sunxu_mall.service.common.CommonTaskService;
+import com.example.sunxu_mall.service.export.ExcelExportService;
 import com.example.sunxu_mall.service.task.IAsyncTask;
 import com.example.sunxu_mall.util.DateFormatUtil;
 import com.example.sunxu_mall.util.FillUserUtil;
@@ -43,17 +45,20 @@ public class ExcelExportTask implements IAsyncTask {
     private final MessageProducer messageProducer;
     private final CommonNotifyService commonNotifyService;
     private final TransactionTemplate transactionTemplate;
+    private final ExcelExportService excelExportService;
 
     public ExcelExportTask(
             CommonTaskService commonTaskService,
             MessageProducer messageProducer,
             CommonNotifyService commonNotifyService,
-            TransactionTemplate transactionTemplate
+            TransactionTemplate transactionTemplate,
+            ExcelExportService excelExportService
     ) {
         this.commonTaskService = commonTaskService;
         this.messageProducer = messageProducer;
         this.commonNotifyService = commonNotifyService;
         this.transactionTemplate = transactionTemplate;
+        this.excelExportService = excelExportService;
     }
 
     @Async("exportExecutor")
@@ -79,7 +84,10 @@ public class ExcelExportTask implements IAsyncTask {
             handleExportError(commonTaskEntity, e);
         }
 
-        // 5. 完成任务（更新状态、发送通知）
+        // 5. 不再重试时清除检查点（最终失败时丢弃未完成的文件）
+        releaseCheckpoint(commonTaskEntity);
+
+        // 6. 完成任务（更新状态、发送通知）
         transactionTemplate.executeWithoutResult(status -> finalizeTask(commonTaskEntity));
     }
 
@@ -118,7 +126,11 @@ public class ExcelExportTask implements IAsyncTask {
         }
 
         String fileName = getFileName(excelBizTypeEnum.getDesc());
-        return baseService.export((BasePageQuery) toBean, fileName, exportClassName);
+        // 上次失败时保存的检查点：csv / csv.gz 从检查点续传，不再从第一行重新拉取
+        Long taskId = commonTaskEntity.getId();
+        ExportCheckpoint checkpoint = commonTaskService.getExportCheckpoint(taskId);
+        return baseService.export((BasePageQuery) toBean, fileName, exportClassName, checkpoint,
+                next -> commonTaskService.saveExportCheckpoint(taskId, next));
     }
 
     private void handleExportError(CommonTaskEntity commonTaskEntity, Exception e) {
@@ -128,6 +140,23 @@ public class ExcelExportTask implements IAsyncTask {
         // 如果失败次数超过最大重试次数，则将状态改成失败，后面不再执行
         if (commonTaskEntity.getFailureCount() >= ExportConstant.MAX_FAILURE_COUNT) {
             commonTaskEntity.setStatus(TaskStatusEnum.FAIL.getCode());
+        } else {
+            // 恢复为待执行，由 CommonTaskJob 重新执行（保留检查点续传）
+            commonTaskEntity.setStatus(TaskStatusEnum.WAITING.getCode());
+        }
+    }
+
+    private void releaseCheckpoint(CommonTaskEntity commonTaskEntity) {
+        if (TaskStatusEnum.WAITING.getCode().equals(commonTaskEntity.getStatus())) {
+            return;
+        }
+        try {
+            if (TaskStatusEnum.FAIL.getCode().equals(commonTaskEntity.getStatus())) {
+                excelExportService.discardCheckpoint(commonTaskService.getExportCheckpoint(commonTaskEntity.getId()));
+            }
+            commonTaskService.clearExportCheckpoint(commonTaskEntity.getId());
+        } catch (Exception e) {
+            log.warn("Release export checkpoint failed, taskId={}", commonTaskEntity.getId(), e);
         }
     }
 
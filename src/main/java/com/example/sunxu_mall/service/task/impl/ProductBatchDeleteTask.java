@@ -0,0 +1,117 @@
+package com.example.sunxu_mall.service.task.impl;
+
+import cn.hutool.core.util.IdUtil;
+import com.example.sunxu_mall.constant.ExportConstant;
+import com.example.sunxu_mall.constant.MQConstant;
+import com.example.sunxu_mall.dto.mq.MqMessage;
+import com.example.sunxu_mall.dto.mall.ProductBatchDeleteResultDTO;
+import com.example.sunxu_mall.entity.common.CommonNotifyEntity;
+import com.example.sunxu_mall.entity.common.CommonTaskEntity;
+import com.example.sunxu_mall.enums.TaskStatusEnum;
+import com.example.sunxu_mall.enums.TaskTypeEnum;
+import com.example.sunxu_mall.mq.producer.MessageProducer;
+import com.example.sunxu_mall.service.common.CommonNotifyService;
+import com.example.sunxu_mall.service.common.CommonTaskService;
+import com.example.sunxu_mall.service.mall.ProductBatchDeleteService;
+import com.example.sunxu_mall.service.task.IAsyncTask;
+import com.example.sunxu_mall.util.FillUserUtil;
+import com.example.sunxu_mall.util.JsonUtil;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Objects;
+
+/**
+ * 商品批量级联删除任务
+ * <p>
+ * 按块提交，存在失败块时任务标记为失败，结果中列出失败的商品ID（删除幂等，可重新提交这些ID）。
+ *
+ * @author sunxu
+ */
+@Slf4j
+@Service
+public class ProductBatchDeleteTask implements IAsyncTask {
+
+    private final CommonTaskService commonTaskService;
+    private final ProductBatchDeleteService productBatchDeleteService;
+    private final MessageProducer messageProducer;
+    private final CommonNotifyService commonNotifyService;
+    private final TransactionTemplate transactionTemplate;
+
+    public ProductBatchDeleteTask(
+            CommonTaskService commonTaskService,
+            ProductBatchDeleteService productBatchDeleteService,
+            MessageProducer messageProducer,
+            CommonNotifyService commonNotifyService,
+            TransactionTemplate transactionTemplate
+    ) {
+        this.commonTaskService = commonTaskService;
+        this.productBatchDeleteService = productBatchDeleteService;
+        this.messageProducer = messageProducer;
+        this.commonNotifyService = commonNotifyService;
+        this.transactionTemplate = transactionTemplate;
+    }
+
+    @Async("importExecutor")
+    @Override
+    public void doTask(CommonTaskEntity commonTaskEntity) {
+        // 1. 初始化任务状态
+        commonTaskEntity.setStatus(TaskStatusEnum.RUNNING.getCode());
+        FillUserUtil.fillUpdateUserInfoFromCreate(commonTaskEntity);
+        commonTaskService.update(commonTaskEntity);
+
+        ProductBatchDeleteResultDTO result = null;
+        try {
+            // 2. 分块执行删除（块失败不抛出，记录在结果中）
+            result = productBatchDeleteService.runDelete(commonTaskEntity);
+            commonTaskEntity.setStatus(result.getFailedIds().isEmpty()
+                    ? TaskStatusEnum.SUCCESS.getCode()
+                    : TaskStatusEnum.FAIL.getCode());
+        } catch (Exception e) {
+            log.warn("Product batch delete exception, reason: ", e);
+            commonTaskEntity.setFailureCount((byte) (commonTaskEntity.getFailureCount() + 1));
+            commonTaskEntity.setStatus(TaskStatusEnum.FAIL.getCode());
+        }
+
+        // 3. 完成任务（更新状态、发送通知）
+        ProductBatchDeleteResultDTO finalResult = result;
+        transactionTemplate.executeWithoutResult(status -> finalizeTask(commonTaskEntity, finalResult));
+    }
+
+    private void finalizeTask(CommonTaskEntity commonTaskEntity, ProductBatchDeleteResultDTO result) {
+        commonTaskService.update(commonTaskEntity);
+
+        String taskResultJson = JsonUtil.toJsonStr(
+                Objects.nonNull(result) ? result : ProductBatchDeleteResultDTO.builder()
+                        .taskId(commonTaskEntity.getId())
+                        .build());
+
+        CommonNotifyEntity commonNotifyEntity = CommonNotifyEntity.builder()
+                .bizKey(IdUtil.getSnowflakeNextIdStr())
+                .title(TaskTypeEnum.DELETE_PRODUCT.getDesc())
+                .content(taskResultJson)
+                .toUserId(commonTaskEntity.getCreateUserId())
+                .isPush(Boolean.FALSE)
+                .type(ExportConstant.NOTIFY_TYPE_SYSTEM)
+                .readStatus(ExportConstant.READ_STATUS_UNREAD)
+                .build();
+        commonNotifyService.insert(commonNotifyEntity);
+
+        if (!TaskStatusEnum.SUCCESS.getCode().equals(commonTaskEntity.getStatus())) {
+            return;
+        }
+
+        messageProducer.send(
+                MQConstant.MALL_NOTIFICATION_TOPIC,
+                MQConstant.TAG_NOTIFICATION,
+                commonNotifyEntity.getBizKey(),
+                JsonUtil.toJsonStr(MqMessage.builder()
+                        .eventType(TaskTypeEnum.DELETE_PRODUCT.getDesc())
+                        .businessKey(commonNotifyEntity.getBizKey())
+                        .content(taskResultJson)
+                        .build())
+        );
+    }
+}
@@ -0,0 +1,118 @@
+package com.example.sunxu_mall.service.task.impl;
+
+import cn.hutool.core.util.IdUtil;
+import com.example.sunxu_mall.constant.ExportConstant;
+import com.example.sunxu_mall.constant.MQConstant;
+import com.example.sunxu_mall.dto.mq.MqMessage;
+import com.example.sunxu_mall.dto.websocket.ProductImportProgressDTO;
+import com.example.sunxu_mall.entity.common.CommonNotifyEntity;
+import com.example.sunxu_mall.entity.common.CommonTaskEntity;
+import com.example.sunxu_mall.enums.TaskStatusEnum;
+import com.example.sunxu_mall.enums.TaskTypeEnum;
+import com.example.sunxu_mall.mq.producer.MessageProducer;
+import com.example.sunxu_mall.service.common.CommonNotifyService;
+import com.example.sunxu_mall.service.common.CommonTaskService;
+import com.example.sunxu_mall.service.mall.ProductImportService;
+import com.example.sunxu_mall.service.task.IAsyncTask;
+import com.example.sunxu_mall.util.FillUserUtil;
+import com.example.sunxu_mall.util.JsonUtil;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Objects;
+
+/**
+ * 商品批量导入任务
+ * <p>
+ * 与导出任务不同，导入按块提交，执行中途失败时已提交的块不会回滚；
+ * 重跑会把这些行报告为“已存在”，因此整体失败时直接标记为失败，不自动重试。
+ *
+ * @author sunxu
+ */
+@Slf4j
+@Service
+public class ProductImportTask implements IAsyncTask {
+
+    private final CommonTaskService commonTaskService;
+    private final ProductImportService productImportService;
+    private final MessageProducer messageProducer;
+    private final CommonNotifyService commonNotifyService;
+    private final TransactionTemplate transactionTemplate;
+
+    public ProductImportTask(
+            CommonTaskService commonTaskService,
+            ProductImportService productImportService,
+            MessageProducer messageProducer,
+            CommonNotifyService commonNotifyService,
+            TransactionTemplate transactionTemplate
+    ) {
+        this.commonTaskService = commonTaskService;
+        this.productImportService = productImportService;
+        this.messageProducer = messageProducer;
+        this.commonNotifyService = commonNotifyService;
+        this.transactionTemplate = transactionTemplate;
+    }
+
+    @Async("importExecutor")
+    @Override
+    public void doTask(CommonTaskEntity commonTaskEntity) {
+        // 1. 初始化任务状态
+        commonTaskEntity.setStatus(TaskStatusEnum.RUNNING.getCode());
+        FillUserUtil.fillUpdateUserInfoFromCreate(commonTaskEntity);
+        commonTaskService.update(commonTaskEntity);
+
+        ProductImportProgressDTO result = null;
+        try {
+            // 2. 执行导入（行级错误不会抛出，记录在错误报告中）
+            result = productImportService.runImport(commonTaskEntity);
+            commonTaskEntity.setFileUrl(result.getErrorFileUrl());
+            commonTaskEntity.setStatus(TaskStatusEnum.SUCCESS.getCode());
+        } catch (Exception e) {
+            log.warn("Product import exception, reason: ", e);
+            commonTaskEntity.setFailureCount((byte) (commonTaskEntity.getFailureCount() + 1));
+            commonTaskEntity.setStatus(TaskStatusEnum.FAIL.getCode());
+        }
+
+        // 3. 完成任务（更新状态、发送通知）
+        ProductImportProgressDTO finalResult = result;
+        transactionTemplate.executeWithoutResult(status -> finalizeTask(commonTaskEntity, finalResult));
+    }
+
+    private void finalizeTask(CommonTaskEntity commonTaskEntity, ProductImportProgressDTO result) {
+        commonTaskService.update(commonTaskEntity);
+
+        String taskResultJson = JsonUtil.toJsonStr(
+                Objects.nonNull(result) ? result : ProductImportProgressDTO.builder()
+                        .taskId(commonTaskEntity.getId())
+                        .finished(Boolean.TRUE)
+                        .build());
+
+        CommonNotifyEntity commonNotifyEntity = CommonNotifyEntity.builder()
+                .bizKey(IdUtil.getSnowflakeNextIdStr())
+                .title(TaskTypeEnum.IMPORT_PRODUCT.getDesc())
+                .content(taskResultJson)
+                .toUserId(commonTaskEntity.getCreateUserId())
+                .isPush(Boolean.FALSE)
+                .type(ExportConstant.NOTIFY_TYPE_SYSTEM)
+                .readStatus(ExportConstant.READ_STATUS_UNREAD)
+                .build();
+        commonNotifyService.insert(commonNotifyEntity);
+
+        if (!TaskStatusEnum.SUCCESS.getCode().equals(commonTaskEntity.getStatus())) {
+            return;
+        }
+
+        messageProducer.send(
+                MQConstant.MALL_NOTIFICATION_TOPIC,
+                MQConstant.TAG_NOTIFICATION,
+                commonNotifyEntity.getBizKey(),
+                JsonUtil.toJsonStr(MqMessage.builder()
+                        .eventType(TaskTypeEnum.IMPORT_PRODUCT.getDesc())
+                        .businessKey(commonNotifyEntity.getBizKey())
+                        .content(taskResultJson)
+                        .build())
+        );
+    }
+}
@@ -0,0 +1,132 @@
+package com.example.sunxu_mall.service.upload;
+
+import com.example.sunxu_mall.model.UploadCheckpoint;
+import com.example.sunxu_mall.service.ResumableOutputStream;
+
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.Objects;
+
+/**
+ * 写入本地文件的可续传输出流
+ * <p>
+ * 检查点时刷出缓冲并 force 到磁盘，记录已持久化的长度；续传时把文件截断到检查点长度后追加写入。
+ *
+ * @author sunxu
+ */
+class LocalResumableOutputStream extends ResumableOutputStream {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final File file;
+    private final FileChannel channel;
+    private final OutputStream out;
+    private final long checkpointBytes;
+    private final UploadCheckpoint resumedFrom;
+
+    private long bytesWritten;
+    private long committedBytes;
+
+    private LocalResumableOutputStream(File file, FileChannel channel, long checkpointBytes,
+                                       UploadCheckpoint resumedFrom) {
+        this.file = file;
+        this.channel = channel;
+        this.out = new BufferedOutputStream(Channels.newOutputStream(channel), BUFFER_SIZE);
+        this.checkpointBytes = checkpointBytes;
+        this.resumedFrom = resumedFrom;
+        this.bytesWritten = Objects.isNull(resumedFrom) ? 0 : resumedFrom.getBytes();
+        this.committedBytes = bytesWritten;
+    }
+
+    /**
+     * 从头写入（文件已存在时清空）
+     */
+    static LocalResumableOutputStream create(File file, long checkpointBytes) throws IOException {
+        FileChannel channel = FileChannel.open(file.toPath(),
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+        return new LocalResumableOutputStream(file, channel, checkpointBytes, null);
+    }
+
+    /**
+     * 从检查点继续写入：丢弃检查点之后的内容
+     */
+    static LocalResumableOutputStream resume(File file, long checkpointBytes, UploadCheckpoint checkpoint)
+            throws IOException {
+        FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.WRITE);
+        try {
+            if (channel.size() < checkpoint.getBytes()) {
+                throw new IOException("File is shorter than checkpoint: " + file.getPath());
+            }
+            channel.truncate(checkpoint.getBytes());
+            channel.position(checkpoint.getBytes());
+        } catch (IOException e) {
+            channel.close();
+            throw e;
+        }
+        return new LocalResumableOutputStream(file, channel, checkpointBytes, checkpoint);
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+        out.write(b);
+        bytesWritten++;
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+        out.write(b, off, len);
+        bytesWritten += len;
+    }
+
+    @Override
+    public void flush() throws IOException {
+        out.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        out.close();
+    }
+
+    @Override
+    public UploadCheckpoint getResumedFrom() {
+        return resumedFrom;
+    }
+
+    @Override
+    public long getPendingBytes() {
+        return bytesWritten - committedBytes;
+    }
+
+    @Override
+    public long getCheckpointBytes() {
+        return checkpointBytes;
+    }
+
+    @Override
+    public UploadCheckpoint checkpoint() throws IOException {
+        out.flush();
+        channel.force(false);
+        committedBytes = bytesWritten;
+        return UploadCheckpoint.builder()
+                .path(file.getPath())
+                .bytes(committedBytes)
+                .build();
+    }
+
+    /**
+     * 是否已有持久化的检查点（续传或已产生检查点），失败时据此决定保留还是删除文件
+     */
+    boolean hasCheckpoint() {
+        return committedBytes > 0;
+    }
+
+    long getBytesWritten() {
+        return bytesWritten;
+    }
+}
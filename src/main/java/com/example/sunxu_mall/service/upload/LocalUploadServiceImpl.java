@@ -6,6 +6,8 @@ import cn.hutool.core.util.IdUtil;
 import com.example.sunxu_mall.config.props.UploadConfig;
 import com.example.sunxu_mall.dto.file.FileDTO;
 import com.example.sunxu_mall.exception.BusinessException;
+import com.example.sunxu_mall.model.UploadCheckpoint;
+import com.example.sunxu_mall.service.ResumableUploadService;
 import com.example.sunxu_mall.service.UploadService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -13,9 +15,13 @@ import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
 
+import java.io.BufferedOutputStream;
 import java.io.File;
 import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
 import java.util.Date;
+import java.util.Objects;
 
 /**
  * @author sunxu
@@ -25,7 +31,7 @@ import java.util.Date;
 @Service
 @RequiredArgsConstructor
 @ConditionalOnProperty(name = "upload.mode", havingValue = "local", matchIfMissing = true)
-public class LocalUploadServiceImpl implements UploadService {
+public class LocalUploadServiceImpl implements UploadService, ResumableUploadService {
 
     private final UploadConfig properties;
 
@@ -42,31 +48,16 @@ public class LocalUploadServiceImpl implements UploadService {
 
             // 按日期生成子目录: yyyyMMdd
             String datePath = DateUtil.format(new Date(), "yyyyMMdd");
-
-            // 基础路径
-            String basePath = properties.getLocal().getPath();
-
-            // 确保基础路径以分隔符结尾，避免路径拼接错误
-            if (!basePath.endsWith(File.separator)) {
-                basePath += File.separator;
-            }
-
-            // 完整保存路径
-            String fullPath = basePath + datePath + File.separator + fileName;
+            String fullPath = buildFullPath(datePath, fileName);
             File dest = new File(fullPath);
             FileUtil.touch(dest);
             file.transferTo(dest);
 
-            // 生成访问URL
-            String domain = properties.getLocal().getDomain();
-            
-            String downloadUrl = domain + "/" + datePath + "/" + fileName;
-
             return FileDTO.builder()
                     .originalName(originalFilename)
                     .fileName(fileName)
                     .path(fullPath)
-                    .downloadUrl(downloadUrl)
+                    .downloadUrl(buildDownloadUrl(datePath, fileName))
                     .type(suffix)
                     .size(file.getSize())
                     .build();
@@ -76,4 +67,124 @@ public class LocalUploadServiceImpl implements UploadService {
             throw new BusinessException("upload file failed: " + e.getMessage());
         }
     }
+
+    /**
+     * 流式上传：直接写入存储目录下的目标文件，失败时删除
+     */
+    @Override
+    public FileDTO uploadStream(String originalName, String bizType, String fileType, ContentWriter writer) {
+        String suffix = FileUtil.getSuffix(originalName);
+        String fileName = IdUtil.simpleUUID() + "." + suffix;
+        String datePath = DateUtil.format(new Date(), "yyyyMMdd");
+        String fullPath = buildFullPath(datePath, fileName);
+        File dest = FileUtil.touch(fullPath);
+
+        try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(dest.toPath()))) {
+            writer.write(out);
+        } catch (Exception e) {
+            FileUtil.del(dest);
+            log.warn("stream upload file failed", e);
+            throw new BusinessException("stream upload file failed: " + e.getMessage());
+        }
+
+        return FileDTO.builder()
+                .originalName(originalName)
+                .fileName(fileName)
+                .path(fullPath)
+                .downloadUrl(buildDownloadUrl(datePath, fileName))
+                .type(suffix)
+                .size(dest.length())
+                .build();
+    }
+
+    /**
+     * 可续传的流式上传：检查点时刷盘，失败后保留检查点之前的内容，续传时截断到检查点后追加
+     */
+    @Override
+    public FileDTO uploadResumable(String originalName, String bizType, String fileType,
+                                   UploadCheckpoint resumeFrom, ResumableContentWriter writer) {
+        String suffix = FileUtil.getSuffix(originalName);
+        LocalResumableOutputStream out = Objects.isNull(resumeFrom) ? null : tryResume(resumeFrom);
+        File dest;
+        if (Objects.nonNull(out)) {
+            dest = new File(resumeFrom.getPath());
+        } else {
+            String datePath = DateUtil.format(new Date(), "yyyyMMdd");
+            dest = FileUtil.touch(buildFullPath(datePath, IdUtil.simpleUUID() + "." + suffix));
+            try {
+                out = LocalResumableOutputStream.create(dest, checkpointBytes());
+            } catch (IOException e) {
+                FileUtil.del(dest);
+                log.warn("stream upload file failed", e);
+                throw new BusinessException("stream upload file failed: " + e.getMessage());
+            }
+        }
+
+        try (LocalResumableOutputStream stream = out) {
+            writer.write(stream);
+        } catch (Exception e) {
+            if (out.hasCheckpoint()) {
+                log.warn("resumable upload interrupted, keep file for resume: {}", dest.getPath(), e);
+            } else {
+                FileUtil.del(dest);
+                log.warn("stream upload file failed", e);
+            }
+            throw new BusinessException("stream upload file failed: " + e.getMessage());
+        }
+
+        // 路径结构为 {basePath}/{datePath}/{fileName}
+        return FileDTO.builder()
+                .originalName(originalName)
+                .fileName(dest.getName())
+                .path(dest.getPath())
+                .downloadUrl(buildDownloadUrl(dest.getParentFile().getName(), dest.getName()))
+                .type(suffix)
+                .size(out.getBytesWritten())
+                .build();
+    }
+
+    @Override
+    public void discard(UploadCheckpoint checkpoint) {
+        if (Objects.nonNull(checkpoint) && Objects.nonNull(checkpoint.getPath())) {
+            FileUtil.del(checkpoint.getPath());
+        }
+    }
+
+    /**
+     * 检查点对应的文件仍然存在且不短于检查点长度时才续传
+     */
+    private LocalResumableOutputStream tryResume(UploadCheckpoint checkpoint) {
+        File file = new File(checkpoint.getPath());
+        if (!file.isFile()) {
+            log.warn("Checkpoint file not found, restart: {}", checkpoint.getPath());
+            return null;
+        }
+        try {
+            LocalResumableOutputStream out = LocalResumableOutputStream.resume(file, checkpointBytes(), checkpoint);
+            log.info("Resume local upload, path={}, bytes={}", checkpoint.getPath(), checkpoint.getBytes());
+            return out;
+        } catch (IOException e) {
+            log.warn("Cannot resume local upload, restart: {}", checkpoint.getPath(), e);
+            return null;
+        }
+    }
+
+    private long checkpointBytes() {
+        return properties.getLocal().getCheckpointKb() * 1024L;
+    }
+
+    private String buildFullPath(String datePath, String fileName) {
+        // 基础路径
+        String basePath = properties.getLocal().getPath();
+
+        // 确保基础路径以分隔符结尾，避免路径拼接错误
+        if (!basePath.endsWith(File.separator)) {
+            basePath += File.separator;
+        }
+        return basePath + datePath + File.separator + fileName;
+    }
+
+    private String buildDownloadUrl(String datePath, String fileName) {
+        return properties.getLocal().getDomain() + "/" + datePath + "/" + fileName;
+    }
 }
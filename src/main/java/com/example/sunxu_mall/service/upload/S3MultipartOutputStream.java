@@ -0,0 +1,253 @@
+package com.example.sunxu_mall.service.upload;
+
+import com.amazonaws.services.s3.AmazonS3;
+import com.amazonaws.services.s3.model.AbortMultipartUploadRequest;
+import com.amazonaws.services.s3.model.CompleteMultipartUploadRequest;
+import com.amazonaws.services.s3.model.InitiateMultipartUploadRequest;
+import com.amazonaws.services.s3.model.ObjectMetadata;
+import com.amazonaws.services.s3.model.PartETag;
+import com.amazonaws.services.s3.model.PutObjectRequest;
+import com.amazonaws.services.s3.model.UploadPartRequest;
+import com.example.sunxu_mall.model.UploadCheckpoint;
+import com.example.sunxu_mall.service.ResumableOutputStream;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.stream.Collectors;
+
+/**
+ * 写入 S3 / MinIO 分片上传的输出流
+ * <p>
+ * 只持有一个分片大小的缓冲区：写满即作为一个分片同步上传，内存占用固定为 partSize。
+ * 内容不足一个分片时，关闭时退化为一次普通 PutObject，不创建分片上传。
+ * 调用方成功写完后 {@link #close()} 完成上传；失败时调用 {@link #abort()} 中止，已上传的分片由 S3 丢弃。
+ * <p>
+ * 可续传模式下不按固定大小切分片，只在 {@link #checkpoint()} 时把缓冲区作为一个分片上传（缓冲区写满时扩容），
+ * 保证每个分片都结束在调用方的内容边界上；续传时沿用原 uploadId 和已上传分片，从下一个分片号继续。
+ *
+ * @author sunxu
+ */
+@Slf4j
+class S3MultipartOutputStream extends ResumableOutputStream {
+
+    private final AmazonS3 amazonS3;
+    private final String bucket;
+    private final String key;
+    private final String contentType;
+    private final int partSize;
+    private final boolean resumable;
+    private final UploadCheckpoint resumedFrom;
+    private final List<PartETag> partETags = new ArrayList<>();
+
+    private byte[] buffer;
+    private int position;
+    private long bytesWritten;
+    private String uploadId;
+    private boolean closed;
+
+    S3MultipartOutputStream(AmazonS3 amazonS3, String bucket, String key, String contentType, int partSize) {
+        this(amazonS3, bucket, key, contentType, partSize, false, null);
+    }
+
+    private S3MultipartOutputStream(AmazonS3 amazonS3, String bucket, String key, String contentType, int partSize,
+                                    boolean resumable, UploadCheckpoint resumedFrom) {
+        this.amazonS3 = amazonS3;
+        this.bucket = bucket;
+        this.key = key;
+        this.contentType = contentType;
+        this.partSize = partSize;
+        this.resumable = resumable;
+        this.resumedFrom = resumedFrom;
+        this.buffer = new byte[partSize];
+        if (Objects.nonNull(resumedFrom)) {
+            this.uploadId = resumedFrom.getUploadId();
+            this.bytesWritten = resumedFrom.getBytes();
+            resumedFrom.getParts().forEach(part -> partETags.add(new PartETag(part.getPartNumber(), part.getEtag())));
+        }
+    }
+
+    /**
+     * 可续传模式，从头写入
+     */
+    static S3MultipartOutputStream resumable(AmazonS3 amazonS3, String bucket, String key, String contentType,
+                                             int partSize) {
+        return new S3MultipartOutputStream(amazonS3, bucket, key, contentType, partSize, true, null);
+    }
+
+    /**
+     * 可续传模式，从检查点继续写入（检查点须来自可续传模式的 {@link #checkpoint()}）
+     */
+    static S3MultipartOutputStream resume(AmazonS3 amazonS3, String bucket, String contentType, int partSize,
+                                          UploadCheckpoint checkpoint) {
+        return new S3MultipartOutputStream(amazonS3, bucket, checkpoint.getPath(), contentType, partSize,
+                true, checkpoint);
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+        ensureOpen();
+        if (position == buffer.length) {
+            makeRoom();
+        }
+        buffer[position++] = (byte) b;
+        bytesWritten++;
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+        ensureOpen();
+        Objects.checkFromIndexSize(off, len, b.length);
+        while (len > 0) {
+            if (position == buffer.length) {
+                makeRoom();
+            }
+            int n = Math.min(len, buffer.length - position);
+            System.arraycopy(b, off, buffer, position, n);
+            position += n;
+            off += n;
+            len -= n;
+            bytesWritten += n;
+        }
+    }
+
+    /**
+     * 完成上传（最后一个分片可以小于分片大小）
+     */
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        if (Objects.isNull(uploadId)) {
+            ObjectMetadata metadata = metadata();
+            metadata.setContentLength(position);
+            amazonS3.putObject(new PutObjectRequest(bucket, key, new ByteArrayInputStream(buffer, 0, position), metadata));
+            return;
+        }
+        try {
+            if (position > 0) {
+                uploadPart();
+            }
+            amazonS3.completeMultipartUpload(new CompleteMultipartUploadRequest(bucket, key, uploadId, partETags));
+        } catch (RuntimeException e) {
+            // 可续传模式下保留已上传的分片，由调用方决定续传或丢弃
+            if (!resumable) {
+                abort();
+            }
+            throw e;
+        }
+    }
+
+    @Override
+    public UploadCheckpoint getResumedFrom() {
+        return resumedFrom;
+    }
+
+    @Override
+    public long getPendingBytes() {
+        return position;
+    }
+
+    @Override
+    public long getCheckpointBytes() {
+        return partSize;
+    }
+
+    /**
+     * 把缓冲区作为一个分片上传（除最后一个分片外，须不小于 S3 的最小分片大小）
+     */
+    @Override
+    public UploadCheckpoint checkpoint() throws IOException {
+        ensureOpen();
+        if (!resumable) {
+            throw new IllegalStateException("Checkpoint is only supported in resumable mode");
+        }
+        if (position > 0) {
+            uploadPart();
+        }
+        return UploadCheckpoint.builder()
+                .path(key)
+                .uploadId(uploadId)
+                .parts(partETags.stream()
+                        .map(tag -> new UploadCheckpoint.Part(tag.getPartNumber(), tag.getETag()))
+                        .collect(Collectors.toList()))
+                .bytes(bytesWritten)
+                .build();
+    }
+
+    /**
+     * 是否已有分片上传（续传或已产生检查点），失败时据此决定保留还是中止
+     */
+    boolean hasCheckpoint() {
+        return Objects.nonNull(uploadId);
+    }
+
+    /**
+     * 中止上传，丢弃已上传的分片
+     */
+    void abort() {
+        closed = true;
+        if (Objects.isNull(uploadId)) {
+            return;
+        }
+        try {
+            amazonS3.abortMultipartUpload(new AbortMultipartUploadRequest(bucket, key, uploadId));
+        } catch (Exception e) {
+            log.warn("Abort S3 multipart upload failed, key={}, uploadId={}", key, uploadId, e);
+        }
+        uploadId = null;
+    }
+
+    String getKey() {
+        return key;
+    }
+
+    long getBytesWritten() {
+        return bytesWritten;
+    }
+
+    /**
+     * 缓冲区已满：普通模式上传一个分片，可续传模式扩容（分片只在检查点处切分）
+     */
+    private void makeRoom() {
+        if (resumable) {
+            buffer = Arrays.copyOf(buffer, buffer.length + (buffer.length >> 1));
+        } else {
+            uploadPart();
+        }
+    }
+
+    private void uploadPart() {
+        if (Objects.isNull(uploadId)) {
+            uploadId = amazonS3.initiateMultipartUpload(
+                    new InitiateMultipartUploadRequest(bucket, key, metadata())).getUploadId();
+        }
+        UploadPartRequest request = new UploadPartRequest()
+                .withBucketName(bucket)
+                .withKey(key)
+                .withUploadId(uploadId)
+                .withPartNumber(partETags.size() + 1)
+                .withInputStream(new ByteArrayInputStream(buffer, 0, position))
+                .withPartSize(position);
+        partETags.add(amazonS3.uploadPart(request).getPartETag());
+        position = 0;
+    }
+
+    private ObjectMetadata metadata() {
+        ObjectMetadata metadata = new ObjectMetadata();
+        metadata.setContentType(contentType);
+        return metadata;
+    }
+
+    private void ensureOpen() throws IOException {
+        if (closed) {
+            throw new IOException("Stream closed");
+        }
+    }
+}
@@ -9,11 +9,15 @@ import com.amazonaws.auth.BasicAWSCredentials;
 import com.amazonaws.client.builder.AwsClientBuilder;
 import com.amazonaws.services.s3.AmazonS3;
 import com.amazonaws.services.s3.AmazonS3ClientBuilder;
+import com.amazonaws.services.s3.model.AbortMultipartUploadRequest;
+import com.amazonaws.services.s3.model.ListPartsRequest;
 import com.amazonaws.services.s3.model.ObjectMetadata;
 import com.amazonaws.services.s3.model.PutObjectRequest;
 import com.example.sunxu_mall.config.props.UploadConfig;
 import com.example.sunxu_mall.dto.file.FileDTO;
 import com.example.sunxu_mall.exception.BusinessException;
+import com.example.sunxu_mall.model.UploadCheckpoint;
+import com.example.sunxu_mall.service.ResumableUploadService;
 import com.example.sunxu_mall.service.UploadService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -25,6 +29,7 @@ import javax.annotation.PostConstruct;
 import java.io.IOException;
 import java.net.URL;
 import java.util.Date;
+import java.util.Objects;
 
 /**
  * @author sunxu
@@ -34,7 +39,12 @@ import java.util.Date;
 @Service
 @RequiredArgsConstructor
 @ConditionalOnProperty(name = "upload.mode", havingValue = "s3")
-public class S3UploadServiceImpl implements UploadService {
+public class S3UploadServiceImpl implements UploadService, ResumableUploadService {
+
+    /**
+     * S3 分片上传的最小分片（最后一片除外）
+     */
+    private static final int MIN_PART_SIZE = 5 * 1024 * 1024;
 
     private final UploadConfig properties;
     private AmazonS3 amazonS3;
@@ -69,10 +79,7 @@ public class S3UploadServiceImpl implements UploadService {
             String originalFilename = file.getOriginalFilename();
             String suffix = FileUtil.getSuffix(originalFilename);
             String fileName = IdUtil.simpleUUID() + "." + suffix;
-
-            // 按日期生成子目录
-            String datePath = DateUtil.format(new Date(), "yyyyMMdd");
-            String key = datePath + "/" + fileName;
+            String key = buildKey(fileName);
 
             ObjectMetadata metadata = new ObjectMetadata();
             metadata.setContentType(file.getContentType());
@@ -87,24 +94,11 @@ public class S3UploadServiceImpl implements UploadService {
 
             amazonS3.putObject(putObjectRequest);
 
-            // 生成访问URL
-            String downloadUrl;
-            if (StrUtil.isNotBlank(properties.getS3().getEndpoint())) {
-                // 如果是 MinIO，拼接 Endpoint + Bucket + Key
-                String endpoint = properties.getS3().getEndpoint();
-                if (!endpoint.endsWith("/")) endpoint += "/";
-                downloadUrl = endpoint + properties.getS3().getBucket() + "/" + key;
-            } else {
-                // 标准 S3 URL
-                URL url = amazonS3.getUrl(properties.getS3().getBucket(), key);
-                downloadUrl = url.toString();
-            }
-
             return FileDTO.builder()
                     .originalName(originalFilename)
                     .fileName(fileName)
                     .path(key)
-                    .downloadUrl(downloadUrl)
+                    .downloadUrl(buildDownloadUrl(key))
                     .type(suffix)
                     .size(file.getSize())
                     .build();
@@ -117,4 +111,131 @@ public class S3UploadServiceImpl implements UploadService {
             throw new BusinessException("S3上传异常: " + e.getMessage());
         }
     }
+
+    /**
+     * 流式上传：内容经固定大小的缓冲区直接写入分片上传，不落盘
+     */
+    @Override
+    public FileDTO uploadStream(String originalName, String bizType, String fileType, ContentWriter writer) {
+        String suffix = FileUtil.getSuffix(originalName);
+        String fileName = IdUtil.simpleUUID() + "." + suffix;
+        String key = buildKey(fileName);
+        int partSize = Math.max(MIN_PART_SIZE, properties.getS3().getPartSizeMb() * 1024 * 1024);
+
+        S3MultipartOutputStream out = new S3MultipartOutputStream(
+                amazonS3, properties.getS3().getBucket(), key, fileType, partSize);
+        try {
+            writer.write(out);
+            out.close();
+        } catch (Exception e) {
+            out.abort();
+            log.error("S3流式上传失败, key={}", key, e);
+            throw new BusinessException("S3流式上传失败: " + e.getMessage());
+        }
+
+        return FileDTO.builder()
+                .originalName(originalName)
+                .fileName(fileName)
+                .path(key)
+                .downloadUrl(buildDownloadUrl(key))
+                .type(suffix)
+                .size(out.getBytesWritten())
+                .build();
+    }
+
+    /**
+     * 可续传的流式上传：分片只在检查点处切分，失败后保留已上传的分片，续传时沿用原 uploadId
+     */
+    @Override
+    public FileDTO uploadResumable(String originalName, String bizType, String fileType,
+                                   UploadCheckpoint resumeFrom, ResumableContentWriter writer) {
+        int partSize = Math.max(MIN_PART_SIZE, properties.getS3().getPartSizeMb() * 1024 * 1024);
+        String bucket = properties.getS3().getBucket();
+
+        S3MultipartOutputStream out;
+        if (isResumable(resumeFrom)) {
+            out = S3MultipartOutputStream.resume(amazonS3, bucket, fileType, partSize, resumeFrom);
+            log.info("Resume S3 multipart upload, key={}, parts={}, bytes={}",
+                    resumeFrom.getPath(), resumeFrom.getParts().size(), resumeFrom.getBytes());
+        } else {
+            String suffix = FileUtil.getSuffix(originalName);
+            out = S3MultipartOutputStream.resumable(amazonS3, bucket,
+                    buildKey(IdUtil.simpleUUID() + "." + suffix), fileType, partSize);
+        }
+        String key = out.getKey();
+        try {
+            writer.write(out);
+            out.close();
+        } catch (Exception e) {
+            if (out.hasCheckpoint()) {
+                log.warn("S3续传上传中断，保留已上传分片, key={}", key, e);
+            } else {
+                out.abort();
+                log.error("S3流式上传失败, key={}", key, e);
+            }
+            throw new BusinessException("S3流式上传失败: " + e.getMessage());
+        }
+
+        return FileDTO.builder()
+                .originalName(originalName)
+                .fileName(key.substring(key.lastIndexOf('/') + 1))
+                .path(key)
+                .downloadUrl(buildDownloadUrl(key))
+                .type(FileUtil.getSuffix(originalName))
+                .size(out.getBytesWritten())
+                .build();
+    }
+
+    @Override
+    public void discard(UploadCheckpoint checkpoint) {
+        if (Objects.isNull(checkpoint) || StrUtil.isBlank(checkpoint.getUploadId())) {
+            return;
+        }
+        try {
+            amazonS3.abortMultipartUpload(new AbortMultipartUploadRequest(
+                    properties.getS3().getBucket(), checkpoint.getPath(), checkpoint.getUploadId()));
+        } catch (Exception e) {
+            log.warn("Abort S3 multipart upload failed, key={}, uploadId={}",
+                    checkpoint.getPath(), checkpoint.getUploadId(), e);
+        }
+    }
+
+    /**
+     * 检查点对应的分片上传仍然存在时才续传（可能已被中止或被存储桶生命周期规则清理）
+     */
+    private boolean isResumable(UploadCheckpoint checkpoint) {
+        if (Objects.isNull(checkpoint) || StrUtil.isBlank(checkpoint.getUploadId())
+                || Objects.isNull(checkpoint.getParts()) || checkpoint.getParts().isEmpty()) {
+            return false;
+        }
+        try {
+            amazonS3.listParts(new ListPartsRequest(
+                    properties.getS3().getBucket(), checkpoint.getPath(), checkpoint.getUploadId()));
+            return true;
+        } catch (Exception e) {
+            log.warn("S3 multipart upload is no longer available, restart, key={}, uploadId={}",
+                    checkpoint.getPath(), checkpoint.getUploadId(), e);
+            return false;
+        }
+    }
+
+    /**
+     * 按日期生成子目录
+     */
+    private String buildKey(String fileName) {
+        String datePath = DateUtil.format(new Date(), "yyyyMMdd");
+        return datePath + "/" + fileName;
+    }
+
+    private String buildDownloadUrl(String key) {
+        if (StrUtil.isNotBlank(properties.getS3().getEndpoint())) {
+            // 如果是 MinIO，拼接 Endpoint + Bucket + Key
+            String endpoint = properties.getS3().getEndpoint();
+            if (!endpoint.endsWith("/")) endpoint += "/";
+            return endpoint + properties.getS3().getBucket() + "/" + key;
+        }
+        // 标准 S3 URL
+        URL url = amazonS3.getUrl(properties.getS3().getBucket(), key);
+        return url.toString();
+    }
 }
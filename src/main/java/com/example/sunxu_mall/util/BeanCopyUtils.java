@@ -1,28 +1,42 @@
 package com.example.sunxu_mall.util;
 
-import org.springframework.beans.BeanUtils;
-import org.springframework.beans.BeanWrapper;
-import org.springframework.beans.BeanWrapperImpl;
-
-import java.util.HashSet;
-import java.util.Set;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
 
+/**
+ * Bean 属性复制工具
+ * <p>
+ * 每对（源类型, 目标类型）只内省一次，生成的 {@link NonNullPropertyCopier} 缓存后复用，
+ * 复制时不再创建 BeanWrapper、不再反射读取全部属性
+ *
+ * @author sunxu
+ */
 public class BeanCopyUtils {
 
+    private static final Map<Class<?>, Map<Class<?>, NonNullPropertyCopier>> COPIERS = new ConcurrentHashMap<>();
+
+    /**
+     * 复制源对象中值不为 null 的属性到目标对象（属性配对规则同 Spring BeanUtils.copyProperties）
+     *
+     * @param src    源对象
+     * @param target 目标对象
+     */
     public static void copyNonNullProperties(Object src, Object target) {
-        BeanUtils.copyProperties(src, target, getNullPropertyNames(src));
+        Objects.requireNonNull(src, "Source must not be null");
+        Objects.requireNonNull(target, "Target must not be null");
+        copierFor(src.getClass(), target.getClass()).copy(src, target);
     }
 
-    private static String[] getNullPropertyNames(Object source) {
-        final BeanWrapper src = new BeanWrapperImpl(source);
-        java.beans.PropertyDescriptor[] pds = src.getPropertyDescriptors();
-
-        Set<String> emptyNames = new HashSet<>();
-        for (java.beans.PropertyDescriptor pd : pds) {
-            Object srcValue = src.getPropertyValue(pd.getName());
-            if (srcValue == null) emptyNames.add(pd.getName());
+    private static NonNullPropertyCopier copierFor(Class<?> sourceClass, Class<?> targetClass) {
+        Map<Class<?>, NonNullPropertyCopier> byTarget = COPIERS.get(sourceClass);
+        if (byTarget == null) {
+            byTarget = COPIERS.computeIfAbsent(sourceClass, k -> new ConcurrentHashMap<>());
+        }
+        NonNullPropertyCopier copier = byTarget.get(targetClass);
+        if (copier == null) {
+            copier = byTarget.computeIfAbsent(targetClass, k -> NonNullPropertyCopier.build(sourceClass, targetClass));
         }
-        String[] result = new String[emptyNames.size()];
-        return emptyNames.toArray(result);
+        return copier;
     }
 }
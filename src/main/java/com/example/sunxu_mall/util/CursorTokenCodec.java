@@ -0,0 +1,338 @@
+package com.example.sunxu_mall.util;
+
+import com.example.sunxu_mall.dto.CursorState;
+import lombok.extern.slf4j.Slf4j;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * 游标令牌编解码（紧凑二进制 + HMAC 签名 + 有界页窗口）
+ * <p>
+ * 格式（Base64Url 无填充）：
+ * <pre>
+ * version(1B) | varint pageNum | varint pageSize | flags(1B) | [zigzag lastId] | [sortBy]
+ * | varint 页数 | 按页号升序：varint 页号增量, zigzag ID, [排序值] | HMAC-SHA256 前 12 字节
+ * </pre>
+ * 字符串为 varint 长度 + UTF-8；排序值长度写 len + 1，0 表示 null。
+ * <p>
+ * 只保留距当前页最近的 windowSize 个页游标，令牌大小不再随翻页深度增长；窗口外的页不能直接跳转（需从第一页重新翻页）。
+ * <p>
+ * 兼容：解码时遇到旧版 Base64 JSON 令牌（首字节为 '{'）仍可解析（未签名，仅用于迁移期）。
+ * <p>
+ * 线程安全。
+ *
+ * @author sunxu
+ */
+@Slf4j
+public class CursorTokenCodec {
+
+    private static final byte VERSION = 1;
+    private static final String HMAC_ALGORITHM = "HmacSHA256";
+    private static final int TAG_LENGTH = 12;
+
+    private static final int FLAG_HAS_LAST_ID = 1;
+    private static final int FLAG_HAS_SORT_BY = 1 << 1;
+    private static final int FLAG_HAS_DIRECTION = 1 << 2;
+    private static final int FLAG_ASCENDING = 1 << 3;
+
+    private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+    private static final Base64.Decoder DECODER = Base64.getUrlDecoder();
+
+    private final SecretKeySpec key;
+    private final int windowSize;
+    private final boolean acceptLegacyJson;
+    private final ThreadLocal<Mac> macHolder;
+
+    /**
+     * @param secret           签名密钥
+     * @param windowSize       保留的页游标数量（至少 1）
+     * @param acceptLegacyJson 是否接受旧版 JSON 令牌
+     */
+    public CursorTokenCodec(byte[] secret, int windowSize, boolean acceptLegacyJson) {
+        if (Objects.isNull(secret) || secret.length == 0) {
+            throw new IllegalArgumentException("cursor token secret must not be empty");
+        }
+        this.key = new SecretKeySpec(secret.clone(), HMAC_ALGORITHM);
+        this.windowSize = Math.max(1, windowSize);
+        this.acceptLegacyJson = acceptLegacyJson;
+        this.macHolder = ThreadLocal.withInitial(this::newMac);
+    }
+
+    /**
+     * 编码游标状态
+     *
+     * @param state 游标状态
+     * @return 令牌，state 为 null 返回 null
+     */
+    public String encode(CursorState state) {
+        if (Objects.isNull(state)) {
+            return null;
+        }
+        ByteArrayOutputStream out = new ByteArrayOutputStream(64);
+        out.write(VERSION);
+        writeVarLong(out, toUnsigned(state.getPageNum()));
+        writeVarLong(out, toUnsigned(state.getPageSize()));
+
+        boolean hasSortBy = Objects.nonNull(state.getSortBy());
+        int flags = 0;
+        if (Objects.nonNull(state.getLastId())) {
+            flags |= FLAG_HAS_LAST_ID;
+        }
+        if (hasSortBy) {
+            flags |= FLAG_HAS_SORT_BY;
+        }
+        if (Objects.nonNull(state.getSortDirection())) {
+            flags |= FLAG_HAS_DIRECTION;
+            if ("ASC".equalsIgnoreCase(state.getSortDirection())) {
+                flags |= FLAG_ASCENDING;
+            }
+        }
+        out.write(flags);
+        if (Objects.nonNull(state.getLastId())) {
+            writeVarLong(out, zigZag(state.getLastId()));
+        }
+        if (hasSortBy) {
+            writeString(out, state.getSortBy());
+        }
+
+        List<Integer> pages = windowPages(state);
+        writeVarLong(out, pages.size());
+        int previous = 0;
+        for (Integer page : pages) {
+            writeVarLong(out, page - previous);
+            writeVarLong(out, zigZag(state.getCursorForPage(page)));
+            if (hasSortBy) {
+                writeNullableString(out, state.getSortValueForPage(page));
+            }
+            previous = page;
+        }
+
+        byte[] payload = out.toByteArray();
+        byte[] token = Arrays.copyOf(payload, payload.length + TAG_LENGTH);
+        System.arraycopy(sign(payload), 0, token, payload.length, TAG_LENGTH);
+        return ENCODER.encodeToString(token);
+    }
+
+    /**
+     * 解码令牌
+     *
+     * @param token 令牌
+     * @return 游标状态；令牌为空、格式错误或签名不匹配时返回 null
+     */
+    public CursorState decode(String token) {
+        if (Objects.isNull(token) || token.trim().isEmpty()) {
+            return null;
+        }
+        byte[] bytes;
+        try {
+            bytes = DECODER.decode(token.trim());
+        } catch (IllegalArgumentException e) {
+            log.warn("Invalid cursor token encoding");
+            return null;
+        }
+        if (bytes.length > 0 && bytes[0] == '{') {
+            return acceptLegacyJson ? CursorTokenUtil.decode(token.trim()) : null;
+        }
+        if (bytes.length <= TAG_LENGTH || bytes[0] != VERSION) {
+            log.warn("Unsupported cursor token version");
+            return null;
+        }
+
+        int payloadLength = bytes.length - TAG_LENGTH;
+        byte[] expected = Arrays.copyOf(sign(Arrays.copyOf(bytes, payloadLength)), TAG_LENGTH);
+        byte[] actual = Arrays.copyOfRange(bytes, payloadLength, bytes.length);
+        if (!MessageDigest.isEqual(expected, actual)) {
+            log.warn("Cursor token signature mismatch");
+            return null;
+        }
+
+        try {
+            return readState(new Reader(bytes, 1, payloadLength));
+        } catch (RuntimeException e) {
+            log.warn("Malformed cursor token", e);
+            return null;
+        }
+    }
+
+    private CursorState readState(Reader reader) {
+        CursorState state = new CursorState();
+        state.setPageNum(toNullableInt(reader.readVarLong()));
+        state.setPageSize(toNullableInt(reader.readVarLong()));
+        int flags = reader.readByte();
+        if ((flags & FLAG_HAS_LAST_ID) != 0) {
+            state.setLastId(unZigZag(reader.readVarLong()));
+        }
+        boolean hasSortBy = (flags & FLAG_HAS_SORT_BY) != 0;
+        if (hasSortBy) {
+            state.setSortBy(reader.readString());
+        }
+        if ((flags & FLAG_HAS_DIRECTION) != 0) {
+            state.setSortDirection((flags & FLAG_ASCENDING) != 0 ? "ASC" : "DESC");
+        }
+
+        long count = reader.readVarLong();
+        if (count > windowSize) {
+            throw new IllegalStateException("too many page cursors: " + count);
+        }
+        int page = 0;
+        for (int i = 0; i < count; i++) {
+            page = Math.toIntExact(page + reader.readVarLong());
+            state.setCursorForPage(page, unZigZag(reader.readVarLong()));
+            if (hasSortBy) {
+                state.setSortValueForPage(page, reader.readNullableString());
+            }
+        }
+        if (!reader.isFinished()) {
+            throw new IllegalStateException("trailing bytes in cursor token");
+        }
+        return state;
+    }
+
+    /**
+     * 选出距当前页最近的 windowSize 个页（按页号升序返回）
+     */
+    private List<Integer> windowPages(CursorState state) {
+        Map<Integer, Long> cursorMap = state.getPageCursorMap();
+        if (Objects.isNull(cursorMap) || cursorMap.isEmpty()) {
+            return new ArrayList<>();
+        }
+        int current = Objects.isNull(state.getPageNum()) ? 0 : state.getPageNum();
+        List<Integer> pages = new ArrayList<>();
+        cursorMap.forEach((page, id) -> {
+            if (Objects.nonNull(page) && page >= 0 && Objects.nonNull(id)) {
+                pages.add(page);
+            }
+        });
+        if (pages.size() > windowSize) {
+            pages.sort(Comparator.<Integer>comparingInt(page -> Math.abs(page - current))
+                    .thenComparing(Comparator.reverseOrder()));
+            pages.subList(windowSize, pages.size()).clear();
+        }
+        pages.sort(Comparator.naturalOrder());
+        return pages;
+    }
+
+    private byte[] sign(byte[] payload) {
+        Mac mac = macHolder.get();
+        mac.reset();
+        return mac.doFinal(payload);
+    }
+
+    private Mac newMac() {
+        try {
+            Mac mac = Mac.getInstance(HMAC_ALGORITHM);
+            mac.init(key);
+            return mac;
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("HmacSHA256 not available", e);
+        }
+    }
+
+    private static long toUnsigned(Integer value) {
+        return Objects.isNull(value) || value < 0 ? 0 : value;
+    }
+
+    private static Integer toNullableInt(long value) {
+        return value == 0 ? null : Math.toIntExact(value);
+    }
+
+    private static long zigZag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    private static long unZigZag(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    private static void writeVarLong(ByteArrayOutputStream out, long value) {
+        while ((value & ~0x7FL) != 0) {
+            out.write((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.write((int) value);
+    }
+
+    private static void writeString(ByteArrayOutputStream out, String value) {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        writeVarLong(out, bytes.length);
+        out.write(bytes, 0, bytes.length);
+    }
+
+    private static void writeNullableString(ByteArrayOutputStream out, String value) {
+        if (Objects.isNull(value)) {
+            writeVarLong(out, 0);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        writeVarLong(out, bytes.length + 1L);
+        out.write(bytes, 0, bytes.length);
+    }
+
+    /**
+     * 字节读取器（越界抛出 IllegalStateException）
+     */
+    private static final class Reader {
+        private final byte[] bytes;
+        private final int end;
+        private int position;
+
+        private Reader(byte[] bytes, int position, int end) {
+            this.bytes = bytes;
+            this.position = position;
+            this.end = end;
+        }
+
+        int readByte() {
+            if (position >= end) {
+                throw new IllegalStateException("unexpected end of cursor token");
+            }
+            return bytes[position++] & 0xFF;
+        }
+
+        long readVarLong() {
+            long result = 0;
+            for (int shift = 0; shift < 64; shift += 7) {
+                int b = readByte();
+                result |= (long) (b & 0x7F) << shift;
+                if ((b & 0x80) == 0) {
+                    return result;
+                }
+            }
+            throw new IllegalStateException("varint too long");
+        }
+
+        String readString() {
+            return readBytes(Math.toIntExact(readVarLong()));
+        }
+
+        String readNullableString() {
+            long length = readVarLong();
+            return length == 0 ? null : readBytes(Math.toIntExact(length - 1));
+        }
+
+        private String readBytes(int length) {
+            if (length < 0 || length > end - position) {
+                throw new IllegalStateException("invalid string length: " + length);
+            }
+            String value = new String(bytes, position, length, StandardCharsets.UTF_8);
+            position += length;
+            return value;
+        }
+
+        boolean isFinished() {
+            return position == end;
+        }
+    }
+}
@@ -8,6 +8,10 @@ import java.util.Base64;
 import java.util.Objects;
 
 /**
+ * 旧版游标令牌（Base64 JSON）工具
+ * <p>
+ * 分页令牌已改由 {@link CursorTokenCodec} 生成，这里仅保留旧令牌解码（迁移期兼容）与初始状态创建。
+ *
  * @author sunxu
  */
 @Slf4j
@@ -24,7 +28,9 @@ public class CursorTokenUtil {
      * Encode cursor state to Base64 token
      * @param state cursor state
      * @return Base64 encoded token or null if state is null
+     * @deprecated use {@link CursorTokenCodec#encode(CursorState)}
      */
+    @Deprecated
     public static String encode(CursorState state) {
         if (Objects.isNull(state)) {
             return null;
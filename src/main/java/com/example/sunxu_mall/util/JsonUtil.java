@@ -3,6 +3,8 @@ package com.example.sunxu_mall.util;
 import com.alibaba.fastjson2.JSON;
 import lombok.extern.slf4j.Slf4j;
 
+import java.util.List;
+
 /**
  * JSON 序列化/反序列化工具（Fastjson2）
  *
@@ -63,6 +65,26 @@ public final class JsonUtil {
         }
     }
 
+    /**
+     * JSON 数组字符串转列表
+     *
+     * @param json  JSON 数组字符串
+     * @param clazz 元素类型
+     * @param <T>   类型
+     * @return 反序列化结果，失败返回null
+     */
+    public static <T> List<T> parseArray(String json, Class<T> clazz) {
+        if (json == null || json.trim().isEmpty()) {
+            return null;
+        }
+        try {
+            return JSON.parseArray(json, clazz);
+        } catch (Exception e) {
+            log.warn("Failed to parse JSON to list, class={}", clazz, e);
+            return null;
+        }
+    }
+
     /**
      * JSON 字符串转对象（兼容旧方法名）
      *
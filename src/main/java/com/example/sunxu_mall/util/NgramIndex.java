@@ -0,0 +1,429 @@
+package com.example.sunxu_mall.util;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.LongPredicate;
+
+/**
+ * 单字段 n-gram 倒排索引（用于替代 LIKE '%keyword%' 的子串匹配）
+ * <p>
+ * 索引词：文本归一化（小写）后的所有单字 + 相邻二字（bigram）；倒排表为升序 long[]，无装箱。
+ * 查询：关键词长度为 1 时查单字倒排表，否则取所有 bigram 倒排表求交集，
+ * 再用原文做一次 contains 校验消除 bigram 拼接产生的误命中，因此结果与 LIKE 子串语义一致（不区分大小写）。
+ * <p>
+ * 非线程安全：并发场景需由调用方加读写锁。大批量初始化请使用 {@link Builder}，
+ * 避免逐条插入时倒排表反复移动元素。
+ *
+ * @author sunxu
+ */
+public class NgramIndex {
+
+    /**
+     * 内存估算常量（64 位 JVM，开启压缩指针）：HashMap 条目 + 桶槽位、PostingList 对象 + 数组头、
+     * LongObjectMap 每个文档的槽位（含空槽摊销）、String 对象 + 数组头
+     */
+    private static final long TERM_ENTRY_BYTES = 36;
+    private static final long POSTING_LIST_BYTES = 40;
+    private static final long DOCUMENT_SLOT_BYTES = 24;
+    private static final long STRING_BYTES = 40;
+
+    /**
+     * 词项 -> 倒排表
+     */
+    private final Map<String, PostingList> postings;
+
+    /**
+     * 文档ID -> 归一化后的原文（用于更新时删除旧词项、查询时校验子串）
+     */
+    private final LongObjectMap<String> documents;
+
+    public NgramIndex() {
+        this(new HashMap<>(), new LongObjectMap<>());
+    }
+
+    private NgramIndex(Map<String, PostingList> postings, LongObjectMap<String> documents) {
+        this.postings = postings;
+        this.documents = documents;
+    }
+
+    /**
+     * 写入或覆盖文档
+     *
+     * @param id   文档ID
+     * @param text 文本，null 视为空串
+     */
+    public void put(long id, String text) {
+        String normalized = normalize(text);
+        String old = documents.get(id);
+        if (normalized.equals(old)) {
+            return;
+        }
+        if (Objects.nonNull(old)) {
+            removeTerms(id, old);
+        }
+        documents.put(id, normalized);
+        for (String term : terms(normalized)) {
+            postings.computeIfAbsent(term, k -> new PostingList()).insert(id);
+        }
+    }
+
+    /**
+     * 删除文档
+     *
+     * @param id 文档ID
+     * @return 文档是否存在
+     */
+    public boolean remove(long id) {
+        String old = documents.remove(id);
+        if (Objects.isNull(old)) {
+            return false;
+        }
+        removeTerms(id, old);
+        return true;
+    }
+
+    public boolean contains(long id) {
+        return documents.containsKey(id);
+    }
+
+    /**
+     * 文档文本是否包含关键词（不区分大小写）
+     *
+     * @param id      文档ID
+     * @param keyword 关键词，为空视为匹配
+     * @return 文档不存在返回 false
+     */
+    public boolean matches(long id, String keyword) {
+        String text = documents.get(id);
+        if (Objects.isNull(text)) {
+            return false;
+        }
+        String normalized = normalize(keyword);
+        return normalized.isEmpty() || text.contains(normalized);
+    }
+
+    /**
+     * 按ID倒序查询包含关键词的文档
+     *
+     * @param keyword  关键词（非空）
+     * @param beforeId 只返回小于该值的ID（游标），不限制时传 Long.MAX_VALUE
+     * @param limit    最多返回条数
+     * @param filter   额外过滤条件，可为 null
+     * @return 匹配的文档ID（倒序）
+     */
+    public long[] search(String keyword, long beforeId, int limit, LongPredicate filter) {
+        return search(keyword, beforeId, limit, filter, null);
+    }
+
+    /**
+     * 按ID倒序查询包含关键词的文档，限制访问的候选ID数
+     * <p>
+     * 驱动倒排表中访问到的每个ID都消耗预算（不论最终是否匹配），
+     * 关键词的 bigram 都很常见但组合很少匹配时，避免扫描整张倒排表
+     *
+     * @param keyword  关键词（非空）
+     * @param beforeId 只返回小于该值的ID（游标），不限制时传 Long.MAX_VALUE
+     * @param limit    最多返回条数
+     * @param filter   额外过滤条件，可为 null
+     * @param budget   访问预算（可跨多次调用共享），为 null 时不限制
+     * @return 匹配的文档ID（倒序）；预算耗尽时仍未查完返回 null
+     */
+    public long[] search(String keyword, long beforeId, int limit, LongPredicate filter, ScanBudget budget) {
+        String normalized = normalize(keyword);
+        if (normalized.isEmpty() || limit <= 0) {
+            return new long[0];
+        }
+
+        List<PostingList> lists = new ArrayList<>();
+        for (String term : queryTerms(normalized)) {
+            PostingList list = postings.get(term);
+            if (Objects.isNull(list)) {
+                return new long[0];
+            }
+            lists.add(list);
+        }
+        // 以最短的倒排表驱动，其余表二分判断是否包含
+        lists.sort(Comparator.comparingInt(PostingList::size));
+        PostingList driver = lists.get(0);
+
+        long[] result = new long[Math.min(limit, driver.size())];
+        int count = 0;
+        for (int i = driver.lowerBound(beforeId) - 1; i >= 0 && count < result.length; i--) {
+            if (Objects.nonNull(budget) && !budget.tryVisit()) {
+                return null;
+            }
+            long id = driver.get(i);
+            if (!containsAll(lists, id)) {
+                continue;
+            }
+            String text = documents.get(id);
+            if (Objects.isNull(text) || !text.contains(normalized)) {
+                continue;
+            }
+            if (Objects.nonNull(filter) && !filter.test(id)) {
+                continue;
+            }
+            result[count++] = id;
+        }
+        return count == result.length ? result : Arrays.copyOf(result, count);
+    }
+
+    /**
+     * 文档数
+     */
+    public int size() {
+        return documents.size();
+    }
+
+    /**
+     * 词项数
+     */
+    public int termCount() {
+        return postings.size();
+    }
+
+    /**
+     * 粗略估算堆内存占用（字节）：倒排表数组、词项与原文字符串、哈希表条目，字符按 2 字节计
+     */
+    public long estimatedBytes() {
+        long bytes = 0;
+        for (Map.Entry<String, PostingList> entry : postings.entrySet()) {
+            bytes += TERM_ENTRY_BYTES + STRING_BYTES + 2L * entry.getKey().length()
+                    + POSTING_LIST_BYTES + 8L * entry.getValue().capacity();
+        }
+        long[] documentBytes = {0};
+        documents.forEach((id, text) -> documentBytes[0] += DOCUMENT_SLOT_BYTES + STRING_BYTES + 2L * text.length());
+        return bytes + documentBytes[0];
+    }
+
+    /**
+     * 文本归一化：去除首尾空白并转小写（与 MySQL 默认不区分大小写的排序规则保持一致）
+     */
+    static String normalize(String text) {
+        return Objects.isNull(text) ? "" : text.trim().toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * 文档的索引词：所有单字 + 所有 bigram
+     */
+    static Set<String> terms(String normalized) {
+        Set<String> terms = new LinkedHashSet<>();
+        for (int i = 0; i < normalized.length(); i++) {
+            terms.add(normalized.substring(i, i + 1));
+            if (i + 1 < normalized.length()) {
+                terms.add(normalized.substring(i, i + 2));
+            }
+        }
+        return terms;
+    }
+
+    /**
+     * 关键词的查询词：长度为 1 时为单字，否则为所有 bigram
+     */
+    static Set<String> queryTerms(String normalized) {
+        Set<String> terms = new LinkedHashSet<>();
+        if (normalized.length() == 1) {
+            terms.add(normalized);
+            return terms;
+        }
+        for (int i = 0; i + 1 < normalized.length(); i++) {
+            terms.add(normalized.substring(i, i + 2));
+        }
+        return terms;
+    }
+
+    private void removeTerms(long id, String text) {
+        for (String term : terms(text)) {
+            PostingList list = postings.get(term);
+            if (Objects.nonNull(list)) {
+                list.delete(id);
+                if (list.size() == 0) {
+                    postings.remove(term);
+                }
+            }
+        }
+    }
+
+    private static boolean containsAll(List<PostingList> lists, long id) {
+        for (int i = 1; i < lists.size(); i++) {
+            if (!lists.get(i).contains(id)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 候选ID访问预算（非线程安全，每次查询新建一个）
+     */
+    public static final class ScanBudget {
+
+        private long remaining;
+
+        public ScanBudget(long maxVisit) {
+            this.remaining = maxVisit;
+        }
+
+        public boolean isExhausted() {
+            return remaining <= 0;
+        }
+
+        boolean tryVisit() {
+            if (remaining <= 0) {
+                return false;
+            }
+            remaining--;
+            return true;
+        }
+    }
+
+    /**
+     * 批量构建器：先追加、最后统一排序，适用于全量加载
+     */
+    public static class Builder {
+
+        private final Map<String, PostingList> postings = new HashMap<>();
+        private final LongObjectMap<String> documents;
+
+        public Builder(int expectedSize) {
+            this.documents = new LongObjectMap<>(expectedSize);
+        }
+
+        /**
+         * 追加文档（同一ID重复追加时以最后一次为准）
+         */
+        public Builder add(long id, String text) {
+            String normalized = normalize(text);
+            String old = documents.put(id, normalized);
+            if (Objects.nonNull(old)) {
+                for (String term : terms(old)) {
+                    PostingList list = postings.get(term);
+                    if (Objects.nonNull(list)) {
+                        list.sortAndDistinct();
+                        list.delete(id);
+                    }
+                }
+            }
+            for (String term : terms(normalized)) {
+                postings.computeIfAbsent(term, k -> new PostingList()).append(id);
+            }
+            return this;
+        }
+
+        public NgramIndex build() {
+            postings.values().removeIf(list -> {
+                list.sortAndDistinct();
+                return list.size() == 0;
+            });
+            return new NgramIndex(postings, documents);
+        }
+    }
+
+    /**
+     * 升序 long 倒排表
+     */
+    static final class PostingList {
+
+        private long[] ids = new long[4];
+        private int size;
+
+        int size() {
+            return size;
+        }
+
+        int capacity() {
+            return ids.length;
+        }
+
+        long get(int index) {
+            return ids[index];
+        }
+
+        boolean contains(long id) {
+            return Arrays.binarySearch(ids, 0, size, id) >= 0;
+        }
+
+        /**
+         * 第一个 >= id 的位置
+         */
+        int lowerBound(long id) {
+            int low = 0;
+            int high = size;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (ids[mid] < id) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return low;
+        }
+
+        /**
+         * 有序插入（新商品ID通常最大，走尾部追加）
+         */
+        void insert(long id) {
+            if (size == 0 || ids[size - 1] < id) {
+                append(id);
+                return;
+            }
+            int pos = lowerBound(id);
+            if (pos < size && ids[pos] == id) {
+                return;
+            }
+            ensureCapacity(size + 1);
+            System.arraycopy(ids, pos, ids, pos + 1, size - pos);
+            ids[pos] = id;
+            size++;
+        }
+
+        void delete(long id) {
+            int pos = Arrays.binarySearch(ids, 0, size, id);
+            if (pos < 0) {
+                return;
+            }
+            System.arraycopy(ids, pos + 1, ids, pos, size - pos - 1);
+            size--;
+        }
+
+        /**
+         * 仅追加，不保证有序（构建阶段使用，结束前需调用 {@link #sortAndDistinct()}）
+         */
+        void append(long id) {
+            ensureCapacity(size + 1);
+            ids[size++] = id;
+        }
+
+        void sortAndDistinct() {
+            if (size == 0) {
+                return;
+            }
+            Arrays.sort(ids, 0, size);
+            int write = 1;
+            for (int read = 1; read < size; read++) {
+                if (ids[read] != ids[write - 1]) {
+                    ids[write++] = ids[read];
+                }
+            }
+            size = write;
+            if (ids.length > size + (size >> 2) + 4) {
+                ids = Arrays.copyOf(ids, size);
+            }
+        }
+
+        private void ensureCapacity(int required) {
+            if (required > ids.length) {
+                ids = Arrays.copyOf(ids, Math.max(required, ids.length + (ids.length >> 1)));
+            }
+        }
+    }
+}
@@ -0,0 +1,140 @@
+package com.example.sunxu_mall.util;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.BeanUtils;
+import org.springframework.core.ResolvableType;
+import org.springframework.util.ClassUtils;
+import org.springframework.util.ReflectionUtils;
+
+import java.beans.PropertyDescriptor;
+import java.lang.invoke.CallSite;
+import java.lang.invoke.LambdaMetafactory;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+
+/**
+ * 某一对（源类型, 目标类型）的非空属性复制器，构建一次后可复用
+ * <p>
+ * 构建时按 Spring {@link BeanUtils#copyProperties(Object, Object)} 的规则配对属性（同名、源可读、目标可写、类型可赋值），
+ * 并用 {@link LambdaMetafactory} 把 getter/setter 生成为 {@link Function}/{@link BiConsumer}；
+ * 复制时只剩接口调用与判空，没有内省、BeanWrapper 和反射调用。
+ * 无法生成 lambda 的访问器（如非 public 类中的方法）退回到反射调用。
+ * <p>
+ * 线程安全：构建后不可变。
+ *
+ * @author sunxu
+ */
+@Slf4j
+final class NonNullPropertyCopier {
+
+    private final Function<Object, Object>[] getters;
+    private final BiConsumer<Object, Object>[] setters;
+
+    @SuppressWarnings("unchecked")
+    private NonNullPropertyCopier(List<Function<Object, Object>> getters, List<BiConsumer<Object, Object>> setters) {
+        this.getters = getters.toArray(new Function[0]);
+        this.setters = setters.toArray(new BiConsumer[0]);
+    }
+
+    /**
+     * 复制源对象中值不为 null 的属性到目标对象
+     */
+    void copy(Object source, Object target) {
+        for (int i = 0; i < getters.length; i++) {
+            Object value = getters[i].apply(source);
+            if (value != null) {
+                setters[i].accept(target, value);
+            }
+        }
+    }
+
+    /**
+     * 为（源类型, 目标类型）构建复制器
+     */
+    static NonNullPropertyCopier build(Class<?> sourceClass, Class<?> targetClass) {
+        List<Function<Object, Object>> getters = new ArrayList<>();
+        List<BiConsumer<Object, Object>> setters = new ArrayList<>();
+        for (PropertyDescriptor targetPd : BeanUtils.getPropertyDescriptors(targetClass)) {
+            Method writeMethod = targetPd.getWriteMethod();
+            if (writeMethod == null) {
+                continue;
+            }
+            PropertyDescriptor sourcePd = BeanUtils.getPropertyDescriptor(sourceClass, targetPd.getName());
+            Method readMethod = sourcePd == null ? null : sourcePd.getReadMethod();
+            if (readMethod == null || !isAssignable(readMethod, writeMethod)) {
+                continue;
+            }
+            getters.add(getter(sourceClass, readMethod));
+            setters.add(setter(targetClass, writeMethod));
+        }
+        return new NonNullPropertyCopier(getters, setters);
+    }
+
+    /**
+     * 与 Spring BeanUtils.copyProperties 相同的类型判断：泛型可解析时按泛型判断，否则按原始类型判断
+     */
+    private static boolean isAssignable(Method readMethod, Method writeMethod) {
+        ResolvableType sourceType = ResolvableType.forMethodReturnType(readMethod);
+        ResolvableType targetType = ResolvableType.forMethodParameter(writeMethod, 0);
+        if (sourceType.hasUnresolvableGenerics() || targetType.hasUnresolvableGenerics()) {
+            return ClassUtils.isAssignable(writeMethod.getParameterTypes()[0], readMethod.getReturnType());
+        }
+        return targetType.isAssignableFrom(sourceType);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Function<Object, Object> getter(Class<?> beanClass, Method readMethod) {
+        try {
+            MethodHandles.Lookup lookup = lookupFor(readMethod);
+            MethodHandle handle = lookup.unreflect(readMethod);
+            CallSite site = LambdaMetafactory.metafactory(lookup, "apply",
+                    MethodType.methodType(Function.class),
+                    MethodType.methodType(Object.class, Object.class),
+                    handle,
+                    MethodType.methodType(ClassUtils.resolvePrimitiveIfNecessary(readMethod.getReturnType()),
+                            readMethod.getDeclaringClass()));
+            return (Function<Object, Object>) site.getTarget().invoke();
+        } catch (Throwable e) {
+            log.debug("Fallback to reflective getter: {}.{}", beanClass.getName(), readMethod.getName(), e);
+            ReflectionUtils.makeAccessible(readMethod);
+            return bean -> ReflectionUtils.invokeMethod(readMethod, bean);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static BiConsumer<Object, Object> setter(Class<?> beanClass, Method writeMethod) {
+        try {
+            MethodHandles.Lookup lookup = lookupFor(writeMethod);
+            MethodHandle handle = lookup.unreflect(writeMethod);
+            CallSite site = LambdaMetafactory.metafactory(lookup, "accept",
+                    MethodType.methodType(BiConsumer.class),
+                    MethodType.methodType(void.class, Object.class, Object.class),
+                    handle,
+                    MethodType.methodType(void.class, writeMethod.getDeclaringClass(),
+                            ClassUtils.resolvePrimitiveIfNecessary(writeMethod.getParameterTypes()[0])));
+            return (BiConsumer<Object, Object>) site.getTarget().invoke();
+        } catch (Throwable e) {
+            log.debug("Fallback to reflective setter: {}.{}", beanClass.getName(), writeMethod.getName(), e);
+            ReflectionUtils.makeAccessible(writeMethod);
+            return (bean, value) -> ReflectionUtils.invokeMethod(writeMethod, bean, value);
+        }
+    }
+
+    /**
+     * 在方法声明类中定义 lambda 类，保证类加载器可见且无需额外访问权限
+     */
+    private static MethodHandles.Lookup lookupFor(Method method) throws IllegalAccessException {
+        Class<?> declaringClass = method.getDeclaringClass();
+        if (!Modifier.isPublic(declaringClass.getModifiers()) || !Modifier.isPublic(method.getModifiers())) {
+            throw new IllegalAccessException("Non-public accessor " + declaringClass.getName() + "." + method.getName());
+        }
+        return MethodHandles.privateLookupIn(declaringClass, MethodHandles.lookup());
+    }
+}
@@ -0,0 +1,95 @@
+package com.example.sunxu_mall.util;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * 商品详情（富文本）存储编解码
+ * <p>
+ * 存储格式：
+ * - 压缩格式：[0x00, 'P', 'D', 版本号] + gzip(UTF-8 文本)
+ * - 原始格式：UTF-8 文本（历史数据，无格式标记）
+ * <p>
+ * 格式标记以 0x00 开头，正常富文本不会出现 NUL 字符，因此可与历史原始数据安全区分
+ *
+ * @author sunxu
+ */
+public final class ProductDetailCodec {
+
+    private static final byte[] GZIP_MARKER = {0x00, 'P', 'D', 0x01};
+
+    private ProductDetailCodec() {
+    }
+
+    /**
+     * 编码详情文本
+     *
+     * @param detail           详情文本
+     * @param compress         是否启用压缩
+     * @param minCompressBytes 启用压缩的最小原文字节数（过短的文本压缩收益为负）
+     * @return 存储字节，detail 为 null 返回 null
+     */
+    public static byte[] encode(String detail, boolean compress, int minCompressBytes) {
+        if (detail == null) {
+            return null;
+        }
+        byte[] raw = detail.getBytes(StandardCharsets.UTF_8);
+        if (!compress || raw.length < minCompressBytes) {
+            return raw;
+        }
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream(raw.length / 4 + GZIP_MARKER.length);
+        out.write(GZIP_MARKER, 0, GZIP_MARKER.length);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(raw);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to compress product detail", e);
+        }
+        byte[] compressed = out.toByteArray();
+        // 压缩后反而更大（如已压缩内容），保留原文
+        return compressed.length < raw.length ? compressed : raw;
+    }
+
+    /**
+     * 解码详情字节（兼容历史原始 UTF-8 数据）
+     *
+     * @param content 存储字节
+     * @return 详情文本，content 为 null 返回 null
+     */
+    public static String decode(byte[] content) {
+        if (content == null) {
+            return null;
+        }
+        if (!isCompressed(content)) {
+            return new String(content, StandardCharsets.UTF_8);
+        }
+
+        try (InputStream in = new GZIPInputStream(new ByteArrayInputStream(
+                content, GZIP_MARKER.length, content.length - GZIP_MARKER.length))) {
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to decompress product detail", e);
+        }
+    }
+
+    /**
+     * 是否为压缩格式
+     */
+    public static boolean isCompressed(byte[] content) {
+        if (content == null || content.length < GZIP_MARKER.length) {
+            return false;
+        }
+        for (int i = 0; i < GZIP_MARKER.length; i++) {
+            if (content[i] != GZIP_MARKER[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
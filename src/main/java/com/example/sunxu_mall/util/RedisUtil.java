@@ -7,6 +7,9 @@ import org.redisson.api.RedissonClient;
 import org.springframework.stereotype.Component;
 
 import java.time.Duration;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Map;
 import java.util.concurrent.TimeUnit;
 
 /**
@@ -43,6 +46,19 @@ public class RedisUtil {
         return bucket.get();
     }
 
+    /**
+     * 批量获取字符串值（单次 MGET 往返）
+     *
+     * @param keys 键集合
+     * @return 键 -> 值，不存在的键不会出现在结果中
+     */
+    public Map<String, String> multiGet(Collection<String> keys) {
+        if (keys == null || keys.isEmpty()) {
+            return Collections.emptyMap();
+        }
+        return redissonClient.getBuckets().get(keys.toArray(new String[0]));
+    }
+
     /**
      * 设置带过期时间的字符串值
      *
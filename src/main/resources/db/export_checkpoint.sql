@@ -0,0 +1,7 @@
+-- ============================================================
+-- 导出断点续传：common_task 保存导出检查点
+-- ============================================================
+-- JSON：{format, cursorId, rows, upload: {path, uploadId, parts: [{partNumber, etag}], bytes}}
+-- 导出中按分片持久化时写入，成功或最终失败时清空。
+ALTER TABLE `common_task`
+    ADD COLUMN `export_checkpoint` TEXT NULL COMMENT '导出检查点（JSON，失败重试时据此续传）' AFTER `request_param`;
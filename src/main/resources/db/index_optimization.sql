@@ -54,6 +54,30 @@ CREATE INDEX IF NOT EXISTS idx_notify_to_user_read
 ON common_notify(to_user_id, read_status, id DESC);
 
 
+-- 5. 多列键集分页（sortBy）索引
+-- 查询形如：(col < ? or (col = ? and id < ?)) order by col desc, id desc limit N
+-- InnoDB 二级索引叶子节点自带主键，(is_del, col) 即等价于 (is_del, col, id)，任意深度的翻页都只扫描 N 行
+CREATE INDEX IF NOT EXISTS idx_product_is_del_price
+ON mall_product(is_del, price);
+
+CREATE INDEX IF NOT EXISTS idx_product_is_del_create_time
+ON mall_product(is_del, create_time);
+
+CREATE INDEX IF NOT EXISTS idx_product_is_del_name
+ON mall_product(is_del, name);
+
+CREATE INDEX IF NOT EXISTS idx_user_is_del_create_time
+ON sys_user(is_del, create_time);
+
+CREATE INDEX IF NOT EXISTS idx_user_is_del_user_name
+ON sys_user(is_del, user_name);
+
+
+-- 6. 商品搜索索引增量刷新：where update_time >= ?（按水位线拉取变更，含软删除）
+CREATE INDEX IF NOT EXISTS idx_product_update_time
+ON mall_product(update_time);
+
+
 -- ============================================
 -- 验证索引使用情况
 -- 使用 EXPLAIN 分析慢查询，确认索引是否被正确使用
@@ -61,3 +85,4 @@ ON common_notify(to_user_id, read_status, id DESC);
 -- 示例:
 -- EXPLAIN SELECT * FROM sys_user WHERE is_del = 0 AND id < 100 ORDER BY id DESC LIMIT 10;
 -- EXPLAIN SELECT * FROM mall_product WHERE is_del = 0 AND category_id = 1 ORDER BY id DESC LIMIT 10;
+-- EXPLAIN SELECT * FROM mall_product WHERE is_del = 0 AND (price < 99.00 OR (price = 99.00 AND id < 100)) ORDER BY price DESC, id DESC LIMIT 10;
@@ -0,0 +1,35 @@
+-- ============================================================
+-- 商品组 / 商品规格唯一约束迁移
+-- 目标：并发创建同一 SPU / SKU 时由数据库保证唯一，
+--      应用侧以 INSERT ... ON DUPLICATE KEY UPDATE 解析商品组ID，不再“先查后插”
+-- 软删除时 del_id 置为自身ID，因此 (…, del_id) 唯一键不阻止删除后重新创建
+-- ============================================================
+
+-- 1) del_id 为 NULL 时唯一索引不生效，先回填并设为 NOT NULL DEFAULT 0
+UPDATE `mall_product_group` SET `del_id` = 0 WHERE `del_id` IS NULL AND `is_del` = 0;
+UPDATE `mall_product_group` SET `del_id` = `id` WHERE `del_id` IS NULL AND `is_del` = 1;
+ALTER TABLE `mall_product_group`
+    MODIFY COLUMN `del_id` BIGINT NOT NULL DEFAULT 0 COMMENT '删除标识（未删除为0，删除后为自身ID）';
+
+UPDATE `mall_product` SET `del_id` = 0 WHERE `del_id` IS NULL AND `is_del` = 0;
+UPDATE `mall_product` SET `del_id` = `id` WHERE `del_id` IS NULL AND `is_del` = 1;
+ALTER TABLE `mall_product`
+    MODIFY COLUMN `del_id` BIGINT NOT NULL DEFAULT 0 COMMENT '删除标识（未删除为0，删除后为自身ID）';
+
+-- 2) 建索引前检查历史重复数据（应返回空；否则需人工合并商品组/商品后再执行第 3 步）
+SELECT `category_id`, `unit_id`, `hash`, `del_id`, COUNT(*) AS cnt, GROUP_CONCAT(`id`) AS ids
+FROM `mall_product_group`
+GROUP BY `category_id`, `unit_id`, `hash`, `del_id`
+HAVING COUNT(*) > 1;
+
+SELECT `product_group_id`, `brand_id`, `hash`, `del_id`, COUNT(*) AS cnt, GROUP_CONCAT(`id`) AS ids
+FROM `mall_product`
+GROUP BY `product_group_id`, `brand_id`, `hash`, `del_id`
+HAVING COUNT(*) > 1;
+
+-- 3) 唯一索引
+ALTER TABLE `mall_product_group`
+    ADD UNIQUE INDEX `uk_product_group_category_unit_hash` (`category_id`, `unit_id`, `hash`, `del_id`);
+
+ALTER TABLE `mall_product`
+    ADD UNIQUE INDEX `uk_product_group_brand_hash` (`product_group_id`, `brand_id`, `hash`, `del_id`);
@@ -0,0 +1,30 @@
+-- ============================================================
+-- 商品读模型（反范式投影）
+-- 一行一个商品，属性/图片预序列化为 JSON，详情沿用 mall_product_detail 的存储格式
+-- 由商品变更事件（Outbox/Local）驱动投影器维护，可通过重建接口全量重建
+-- ============================================================
+CREATE TABLE IF NOT EXISTS `mall_product_view` (
+    `product_id` BIGINT NOT NULL COMMENT '商品ID',
+    `category_id` BIGINT DEFAULT NULL COMMENT '分类ID',
+    `product_group_id` BIGINT DEFAULT NULL COMMENT '商品组ID',
+    `brand_id` BIGINT DEFAULT NULL COMMENT '品牌ID',
+    `unit_id` BIGINT DEFAULT NULL COMMENT '单位ID',
+    `name` VARCHAR(255) DEFAULT NULL COMMENT '商品名称',
+    `model` VARCHAR(255) DEFAULT NULL COMMENT '商品型号',
+    `quantity` INT DEFAULT NULL COMMENT '库存',
+    `remain_quantity` INT DEFAULT NULL COMMENT '剩余库存',
+    `price` DECIMAL(10, 2) DEFAULT NULL COMMENT '价格',
+    `cover_url` VARCHAR(512) DEFAULT NULL COMMENT '封面图',
+    `spu_attributes_json` TEXT COMMENT 'SPU 属性值列表 JSON',
+    `sku_attributes_json` TEXT COMMENT 'SKU 属性值列表 JSON',
+    `cover_json` TEXT COMMENT '封面图列表 JSON',
+    `swiper_json` TEXT COMMENT '轮播图列表 JSON',
+    `detail` MEDIUMBLOB COMMENT '商品详情（与 mall_product_detail.detail 相同编码）',
+    `product_version` INT NOT NULL DEFAULT 0 COMMENT '投影时的商品版本号（防止乱序覆盖）',
+    `product_create_time` DATETIME DEFAULT NULL COMMENT '商品创建时间',
+    `product_update_time` DATETIME DEFAULT NULL COMMENT '商品更新时间',
+    `sync_time` DATETIME NOT NULL DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP COMMENT '投影同步时间',
+    PRIMARY KEY (`product_id`),
+    INDEX `idx_category_id` (`category_id`),
+    INDEX `idx_brand_id` (`brand_id`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COMMENT='商品读模型（反范式投影）';
@@ -0,0 +1,16 @@
+-- ============================================================
+-- 库存流水表（Redis 预扣流水回写 MySQL 的幂等记录）
+-- ============================================================
+-- entry_seq 为 Redis 中单调递增的流水序号，唯一索引保证同一条流水只回写一次；
+-- 回写时跳过 entry_seq <= MAX(entry_seq) 的流水，Redis 序号丢失时以此为下限恢复。
+CREATE TABLE IF NOT EXISTS `mall_stock_journal` (
+    `id` BIGINT NOT NULL AUTO_INCREMENT COMMENT '主键ID',
+    `entry_seq` BIGINT NOT NULL COMMENT 'Redis 流水序号',
+    `product_id` BIGINT NOT NULL COMMENT '商品ID',
+    `delta` INT NOT NULL COMMENT '库存变化量（扣减为负，回补为正）',
+    `biz_key` VARCHAR(128) DEFAULT NULL COMMENT '业务键（订单号等，用于追溯）',
+    `create_time` DATETIME NOT NULL DEFAULT CURRENT_TIMESTAMP COMMENT '回写时间',
+    PRIMARY KEY (`id`),
+    UNIQUE INDEX `uk_stock_journal_entry_seq` (`entry_seq`),
+    INDEX `idx_stock_journal_product` (`product_id`, `entry_seq`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COMMENT='库存流水表';
@@ -0,0 +1,10 @@
+-- ============================================================
+-- 库存流水表扩展（分段库存：每个分段分片有独立的 Redis 流水与序号）
+-- ============================================================
+-- journal 取值：main（主键流水）或 segment-分片号；序号只在同一流水内唯一。
+ALTER TABLE `mall_stock_journal`
+    ADD COLUMN `journal` VARCHAR(32) NOT NULL DEFAULT 'main' COMMENT '流水名称（main 或 segment-分片号）' AFTER `id`;
+
+ALTER TABLE `mall_stock_journal`
+    DROP INDEX `uk_stock_journal_entry_seq`,
+    ADD UNIQUE INDEX `uk_stock_journal_seq` (`journal`, `entry_seq`);
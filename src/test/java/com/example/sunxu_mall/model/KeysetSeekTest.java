@@ -0,0 +1,187 @@
+package com.example.sunxu_mall.model;
+
+import com.example.sunxu_mall.entity.mall.ProductEntity;
+import org.apache.ibatis.builder.xml.XMLMapperBuilder;
+import org.apache.ibatis.mapping.BoundSql;
+import org.apache.ibatis.session.Configuration;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * KeysetSeek 谓词与 Mapper 渲染出的 seek SQL 测试
+ *
+ * @author sunxu
+ */
+public class KeysetSeekTest {
+
+    private static final String MAPPER = "com/example/sunxu_mall/mapper/mall/ProductEntityMapper.xml";
+    private static final String STATEMENT = "com.example.sunxu_mall.mapper.mall.ProductEntityMapper.selectBySeekWithLimit";
+
+    private static final SortableField<ProductEntity> PRICE =
+            SortableField.of("price", "price", BigDecimal.class, ProductEntity::getPrice);
+
+    private static Configuration configuration;
+
+    @BeforeAll
+    public static void loadMapper() throws Exception {
+        configuration = new Configuration();
+        try (InputStream in = KeysetSeekTest.class.getClassLoader().getResourceAsStream(MAPPER)) {
+            assertNotNull(in, MAPPER);
+            new XMLMapperBuilder(in, configuration, MAPPER, configuration.getSqlFragments()).parse();
+        }
+    }
+
+    @Test
+    public void testAfterId() {
+        KeysetSeek first = KeysetSeek.afterId(null);
+        assertTrue(first.isIdOnly());
+        assertFalse(first.isHasCursor());
+        assertFalse(first.isLastValueNull());
+        assertEquals("id desc", first.getOrderBy());
+        assertEquals("<", first.getComparator());
+
+        assertTrue(KeysetSeek.afterId(10L).isHasCursor());
+    }
+
+    @Test
+    public void testCompositeSeek() {
+        KeysetSeek desc = KeysetSeek.of(PRICE, true, new BigDecimal("9.90"), 10L);
+        assertFalse(desc.isIdOnly());
+        assertFalse(desc.isLastValueNull());
+        assertEquals("price desc, id desc", desc.getOrderBy());
+        assertEquals("<", desc.getComparator());
+
+        KeysetSeek asc = KeysetSeek.of(PRICE, false, null, 10L);
+        assertTrue(asc.isLastValueNull());
+        assertEquals("price asc, id asc", asc.getOrderBy());
+        assertEquals(">", asc.getComparator());
+    }
+
+    @Test
+    public void testSortFieldFormatAndParse() {
+        ProductEntity product = ProductEntity.builder().price(new BigDecimal("1E+2")).build();
+        assertEquals("100", PRICE.format(product));
+        assertEquals(new BigDecimal("100"), PRICE.parse("100"));
+        assertNull(PRICE.format(ProductEntity.builder().build()));
+        assertNull(PRICE.parse(null));
+
+        SortableField<ProductEntity> createTime =
+                SortableField.of("createTime", "create_time", LocalDateTime.class, ProductEntity::getCreateTime);
+        LocalDateTime time = LocalDateTime.of(2026, 1, 2, 3, 4, 5);
+        assertEquals(time, createTime.parse(createTime.format(ProductEntity.builder().createTime(time).build())));
+        assertThrows(IllegalArgumentException.class, () -> createTime.parse("not-a-time"));
+    }
+
+    @Test
+    public void testFirstPageSql() {
+        BoundSql sql = render(KeysetSeek.of(PRICE, true, null, null));
+
+        assertEquals("select ... from mall_product where is_del = 0 order by price desc, id desc limit ?",
+                normalize(sql.getSql()));
+    }
+
+    @Test
+    public void testIdOnlySql() {
+        BoundSql sql = render(KeysetSeek.afterId(10L));
+
+        assertTrue(normalize(sql.getSql()).endsWith("where is_del = 0 and id < ? order by id desc limit ?"));
+        assertEquals(List.of("seek.lastId", "limit"), properties(sql));
+    }
+
+    @Test
+    public void testDescendingSeekIncludesNullTail() {
+        BoundSql sql = render(KeysetSeek.of(PRICE, true, new BigDecimal("9.90"), 10L));
+
+        assertTrue(normalize(sql.getSql()).endsWith("and (price < ? or (price = ? and id < ?) or price is null ) "
+                + "order by price desc, id desc limit ?"));
+        assertEquals(List.of("seek.lastValue", "seek.lastValue", "seek.lastId", "limit"), properties(sql));
+    }
+
+    @Test
+    public void testAscendingSeekExcludesNullHead() {
+        BoundSql sql = render(KeysetSeek.of(PRICE, false, new BigDecimal("9.90"), 10L));
+
+        assertTrue(normalize(sql.getSql()).endsWith("and (price > ? or (price = ? and id > ?) ) "
+                + "order by price asc, id asc limit ?"));
+    }
+
+    @Test
+    public void testSeekFromNullValue() {
+        assertTrue(normalize(render(KeysetSeek.of(PRICE, true, null, 10L)).getSql())
+                .endsWith("and ((price is null and id < ?) ) order by price desc, id desc limit ?"));
+        assertTrue(normalize(render(KeysetSeek.of(PRICE, false, null, 10L)).getSql())
+                .endsWith("and ((price is null and id > ?) or price is not null ) order by price asc, id asc limit ?"));
+    }
+
+    @Test
+    public void testFiltersFollowSeek() {
+        Map<String, Object> params = params(KeysetSeek.afterId(10L));
+        params.put("categoryId", 3L);
+        String sql = normalize(configuration.getMappedStatement(STATEMENT).getBoundSql(params).getSql());
+
+        assertTrue(sql.contains("and id < ? and category_id = ? order by id desc"));
+    }
+
+    @Test
+    public void testLowerIdPushedDown() {
+        KeysetSeek seek = KeysetSeek.afterId(100L, 51L);
+        assertEquals(51L, seek.getLowerId());
+        assertNull(KeysetSeek.afterId(100L).getLowerId());
+
+        BoundSql sql = render(seek);
+        assertTrue(normalize(sql.getSql()).endsWith("where is_del = 0 and id < ? and id >= ? order by id desc limit ?"));
+        assertEquals(List.of("seek.lastId", "seek.lowerId", "limit"), properties(sql));
+
+        // 分区首页：只有下界
+        assertTrue(normalize(render(KeysetSeek.afterId(null, 51L)).getSql())
+                .endsWith("where is_del = 0 and id >= ? order by id desc limit ?"));
+    }
+
+    @Test
+    public void testIdRangeAppliesFilters() {
+        String statement = "com.example.sunxu_mall.mapper.mall.ProductEntityMapper.selectIdRange";
+        Map<String, Object> params = new HashMap<>();
+        assertEquals("select min(id) as minId, max(id) as maxId from mall_product where is_del = 0",
+                configuration.getMappedStatement(statement).getBoundSql(params).getSql().replaceAll("\\s+", " ").trim());
+
+        params.put("categoryId", 3L);
+        params.put("brandId", 4L);
+        assertEquals("select min(id) as minId, max(id) as maxId from mall_product where is_del = 0 "
+                        + "and category_id = ? and brand_id = ?",
+                configuration.getMappedStatement(statement).getBoundSql(params).getSql().replaceAll("\\s+", " ").trim());
+    }
+
+    private static BoundSql render(KeysetSeek seek) {
+        return configuration.getMappedStatement(STATEMENT).getBoundSql(params(seek));
+    }
+
+    private static Map<String, Object> params(KeysetSeek seek) {
+        Map<String, Object> params = new HashMap<>();
+        params.put("seek", seek);
+        params.put("limit", 11);
+        return params;
+    }
+
+    private static List<String> properties(BoundSql sql) {
+        return sql.getParameterMappings().stream().map(m -> m.getProperty()).collect(Collectors.toList());
+    }
+
+    /**
+     * 合并空白，并把 select 列表折叠为 "..."
+     */
+    private static String normalize(String sql) {
+        String compact = sql.replaceAll("\\s+", " ").trim();
+        int from = compact.indexOf(" from ");
+        return "select ..." + compact.substring(from);
+    }
+}
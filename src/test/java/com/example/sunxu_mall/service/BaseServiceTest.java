@@ -0,0 +1,74 @@
+package com.example.sunxu_mall.service;
+
+import com.example.sunxu_mall.dto.mall.ProductQueryDTO;
+import com.example.sunxu_mall.entity.mall.ProductEntity;
+import com.example.sunxu_mall.exception.BusinessException;
+import com.example.sunxu_mall.model.KeysetSeek;
+import com.example.sunxu_mall.model.SortableField;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import static com.example.sunxu_mall.errorcode.ErrorCode.PARAMETER_VALIDATION_ERROR;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * BaseService 排序参数校验测试
+ *
+ * @author sunxu
+ */
+public class BaseServiceTest {
+
+    private final BaseService<ProductEntity, ProductQueryDTO> service = new BaseService<>() {
+        @Override
+        protected List<ProductEntity> selectListWithLimit(ProductQueryDTO query, int limit) {
+            return Collections.emptyList();
+        }
+
+        @Override
+        protected List<ProductEntity> selectListByCursorWithLimit(ProductQueryDTO query, KeysetSeek seek, int limit) {
+            return Collections.emptyList();
+        }
+
+        @Override
+        protected Long extractEntityId(ProductEntity entity) {
+            return entity.getId();
+        }
+
+        @Override
+        protected Map<String, SortableField<ProductEntity>> sortableFields() {
+            return Map.of("price", SortableField.of("price", "price", BigDecimal.class, ProductEntity::getPrice));
+        }
+    };
+
+    @Test
+    public void testInvalidSortDirectionRejected() {
+        ProductQueryDTO query = new ProductQueryDTO();
+        query.setSortBy("price");
+        query.setSortDirection("DESC; drop table mall_product");
+
+        BusinessException e = assertThrows(BusinessException.class, () -> service.searchByBidirectionalCursor(query));
+        assertEquals(PARAMETER_VALIDATION_ERROR.getCode(), e.getCode());
+    }
+
+    @Test
+    public void testInvalidSortDirectionRejectedWithoutSortBy() {
+        ProductQueryDTO query = new ProductQueryDTO();
+        query.setSortDirection("up");
+
+        BusinessException e = assertThrows(BusinessException.class, () -> service.searchByBidirectionalCursor(query));
+        assertEquals(PARAMETER_VALIDATION_ERROR.getCode(), e.getCode());
+    }
+
+    @Test
+    public void testUnknownSortFieldRejected() {
+        ProductQueryDTO query = new ProductQueryDTO();
+        query.setSortBy("remainQuantity");
+
+        BusinessException e = assertThrows(BusinessException.class, () -> service.searchByBidirectionalCursor(query));
+        assertEquals(PARAMETER_VALIDATION_ERROR.getCode(), e.getCode());
+    }
+}
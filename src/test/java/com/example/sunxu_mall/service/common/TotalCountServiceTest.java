@@ -0,0 +1,127 @@
+package com.example.sunxu_mall.service.common;
+
+import com.example.sunxu_mall.config.props.TotalCountConfig;
+import com.example.sunxu_mall.dto.mall.ProductQueryDTO;
+import com.example.sunxu_mall.model.TotalCount;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * TotalCountService 指纹、EXPLAIN 估算与计数策略测试
+ *
+ * @author sunxu
+ */
+public class TotalCountServiceTest {
+
+    private TotalCountService service;
+
+    @BeforeEach
+    public void setUp() {
+        service = new TotalCountService(new ConcurrentMapCacheManager(), new TotalCountConfig());
+        ReflectionTestUtils.setField(service, "maxOffsetForTotal", 100L);
+    }
+
+    @Test
+    public void testFingerprintIgnoresPagingSortAndCursor() {
+        ProductQueryDTO first = query("phone", 1L);
+        ProductQueryDTO other = query("phone", 1L);
+        other.setPageNum(5);
+        other.setPageSize(50);
+        other.setNeedTotal(true);
+        other.setSortBy("price");
+        other.setSortDirection("ASC");
+        other.setCursorToken("token");
+        other.setExportFormat("csv");
+
+        assertEquals(TotalCountService.fingerprint(first), TotalCountService.fingerprint(other));
+    }
+
+    @Test
+    public void testFingerprintDiffersByFilter() {
+        assertNotEquals(TotalCountService.fingerprint(query("phone", 1L)),
+                TotalCountService.fingerprint(query("phone", 2L)));
+        assertNotEquals(TotalCountService.fingerprint(query("phone", 1L)),
+                TotalCountService.fingerprint(query("pad", 1L)));
+        assertEquals("{}", TotalCountService.fingerprint(null));
+    }
+
+    @Test
+    public void testEstimateFromExplainAppliesFiltered() {
+        Map<String, Object> row = new HashMap<>();
+        row.put("ROWS", 2000L);
+        row.put("filtered", new BigDecimal("12.50"));
+
+        assertEquals(250L, TotalCountService.estimateFromExplain(List.of(row)));
+    }
+
+    @Test
+    public void testEstimateFromExplainWithoutFilteredOrRows() {
+        Map<String, Object> rowsOnly = new HashMap<>();
+        rowsOnly.put("rows", "321");
+        assertEquals(321L, TotalCountService.estimateFromExplain(List.of(rowsOnly)));
+
+        Map<String, Object> invalid = new HashMap<>();
+        invalid.put("rows", "n/a");
+        assertNull(TotalCountService.estimateFromExplain(List.of(invalid)));
+        assertNull(TotalCountService.estimateFromExplain(Collections.emptyList()));
+    }
+
+    @Test
+    public void testExactBelowThreshold() {
+        TotalCount total = service.compute(limit -> 42L, () -> fail("estimate should not be used"));
+
+        assertTrue(total.isExact());
+        assertEquals(42L, total.getTotal());
+    }
+
+    @Test
+    public void testEstimateAboveThresholdIsFloored() {
+        TotalCount low = service.compute(limit -> limit, () -> 10L);
+        assertFalse(low.isExact());
+        assertEquals(101L, low.getTotal());
+
+        TotalCount high = service.compute(limit -> limit, () -> 5000L);
+        assertEquals(5000L, high.getTotal());
+    }
+
+    @Test
+    public void testEstimateOnlyWhenCounterDeclines() {
+        TotalCount total = service.compute(limit -> null, () -> 7L);
+        assertFalse(total.isExact());
+        assertEquals(7L, total.getTotal());
+
+        assertNull(service.compute(limit -> null, () -> null));
+    }
+
+    @Test
+    public void testCountIsCachedPerFingerprint() {
+        AtomicInteger calls = new AtomicInteger();
+        TotalCountService.BoundedCounter counter = limit -> (long) calls.incrementAndGet();
+
+        ProductQueryDTO page1 = query("phone", 1L);
+        ProductQueryDTO page2 = query("phone", 1L);
+        page2.setPageNum(2);
+        service.count("scope", page1, counter, () -> null);
+        service.count("scope", page2, counter, () -> null);
+
+        assertEquals(1, calls.get());
+    }
+
+    private static ProductQueryDTO query(String name, Long categoryId) {
+        ProductQueryDTO query = new ProductQueryDTO();
+        query.setName(name);
+        query.setCategoryId(categoryId);
+        return query;
+    }
+}
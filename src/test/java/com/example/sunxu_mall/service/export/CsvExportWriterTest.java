@@ -0,0 +1,219 @@
+package com.example.sunxu_mall.service.export;
+
+import com.alibaba.excel.annotation.ExcelIgnore;
+import com.alibaba.excel.annotation.ExcelIgnoreUnannotated;
+import com.alibaba.excel.annotation.ExcelProperty;
+import com.alibaba.excel.annotation.format.DateTimeFormat;
+import com.alibaba.excel.annotation.format.NumberFormat;
+import com.alibaba.excel.converters.Converter;
+import com.alibaba.excel.converters.WriteConverterContext;
+import com.alibaba.excel.metadata.GlobalConfiguration;
+import com.alibaba.excel.metadata.data.WriteCellData;
+import com.alibaba.excel.metadata.property.ExcelContentProperty;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * CsvExportWriter 转义、公式注入防护、表头顺序与格式化测试
+ *
+ * @author sunxu
+ */
+public class CsvExportWriterTest {
+
+    @Test
+    public void testEscaping() throws Exception {
+        TextRow row = new TextRow();
+        row.name = "a,b";
+        row.remark = "say \"hi\"\r\nnext";
+
+        assertEquals("名称,备注\r\n\"a,b\",\"say \"\"hi\"\"\r\nnext\"\r\n", write(TextRow.class, List.of(row)));
+    }
+
+    @Test
+    public void testNullWrittenAsEmpty() throws Exception {
+        assertEquals("名称,备注\r\n,\r\n", write(TextRow.class, List.of(new TextRow())));
+    }
+
+    @Test
+    public void testFormulaNeutralized() throws Exception {
+        TextRow formula = new TextRow();
+        formula.name = "=HYPERLINK(\"http://x\",\"click\")";
+        formula.remark = "@SUM(A1)";
+        TextRow minus = new TextRow();
+        minus.name = "-1+2";
+        minus.remark = "\tcmd";
+
+        assertEquals("名称,备注\r\n"
+                        + "\"'=HYPERLINK(\"\"http://x\"\",\"\"click\"\")\",'@SUM(A1)\r\n"
+                        + "'-1+2,'\tcmd\r\n",
+                write(TextRow.class, List.of(formula, minus)));
+    }
+
+    @Test
+    public void testNeutralizeFormula() {
+        assertEquals("'=1", CsvExportWriter.neutralizeFormula("=1"));
+        assertEquals("'+1", CsvExportWriter.neutralizeFormula("+1"));
+        assertEquals("'\rx", CsvExportWriter.neutralizeFormula("\rx"));
+        assertEquals("a=1", CsvExportWriter.neutralizeFormula("a=1"));
+        assertEquals("", CsvExportWriter.neutralizeFormula(""));
+        assertNull(CsvExportWriter.neutralizeFormula(null));
+    }
+
+    @Test
+    public void testNumbersNotNeutralized() throws Exception {
+        NumberRow row = new NumberRow();
+        row.count = -3;
+        row.amount = new BigDecimal("-1E+2");
+        row.rate = new BigDecimal("0.12345");
+        row.cents = 1999L;
+        row.enabled = true;
+
+        assertEquals("数量,金额,比例,价格,启用\r\n-3,-100,12.35%,19.99,是\r\n",
+                write(NumberRow.class, List.of(row)));
+    }
+
+    @Test
+    public void testHeaderOrder() throws Exception {
+        assertEquals("第一,第二,第三,child,parent\r\n", write(OrderedRow.class, Collections.emptyList()));
+        assertEquals("保留\r\n", write(AnnotatedOnlyRow.class, Collections.emptyList()));
+    }
+
+    @Test
+    public void testDates() throws Exception {
+        DateRow row = new DateRow();
+        row.createTime = LocalDateTime.of(2026, 1, 2, 3, 4, 5);
+        row.day = LocalDate.of(2026, 1, 2);
+        row.custom = LocalDateTime.of(2026, 1, 2, 3, 4, 5);
+        row.legacy = Date.from(LocalDateTime.of(2026, 1, 2, 3, 4, 5).atZone(ZoneId.systemDefault()).toInstant());
+
+        assertEquals("创建时间,日期,自定义,旧日期\r\n2026-01-02 03:04:05,2026-01-02,2026/01/02,2026-01-02 03:04:05\r\n",
+                write(DateRow.class, List.of(row)));
+    }
+
+    @Test
+    public void testBomAndContinuing() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        CsvExportWriter writer = new CsvExportWriter(out, TextRow.class, true);
+        writer.finish();
+        assertEquals("\uFEFF名称,备注\r\n", out.toString(StandardCharsets.UTF_8));
+
+        TextRow row = new TextRow();
+        row.name = "x";
+        ByteArrayOutputStream tail = new ByteArrayOutputStream();
+        CsvExportWriter continuing = CsvExportWriter.continuing(tail, TextRow.class);
+        continuing.write(List.of(row));
+        continuing.finish();
+        assertEquals("x,\r\n", tail.toString(StandardCharsets.UTF_8));
+    }
+
+    private static String write(Class<?> headType, List<?> rows) throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        CsvExportWriter writer = new CsvExportWriter(out, headType, false);
+        writer.write(rows);
+        writer.finish();
+        return out.toString(StandardCharsets.UTF_8);
+    }
+
+    public static class TextRow {
+        @ExcelProperty("名称")
+        private String name;
+
+        @ExcelProperty("备注")
+        private String remark;
+    }
+
+    public static class NumberRow {
+        @ExcelProperty("数量")
+        private Integer count;
+
+        @ExcelProperty("金额")
+        private BigDecimal amount;
+
+        @ExcelProperty("比例")
+        @NumberFormat(value = "#.##%", roundingMode = RoundingMode.HALF_UP)
+        private BigDecimal rate;
+
+        @ExcelProperty(value = "价格", converter = CentsConverter.class)
+        private Long cents;
+
+        @ExcelProperty(value = "启用", converter = YesNoConverter.class)
+        private Boolean enabled;
+    }
+
+    public static class ParentRow {
+        private String parent;
+
+        @ExcelProperty(value = "第一", index = 0)
+        private String first;
+    }
+
+    public static class OrderedRow extends ParentRow {
+        private static final String CONSTANT = "ignored";
+
+        private String child;
+
+        @ExcelProperty(value = {"分组", "第三"}, order = 2)
+        private String third;
+
+        @ExcelProperty(value = "第二", order = 1)
+        private String second;
+
+        @ExcelIgnore
+        private String hidden;
+
+        private transient String cache;
+    }
+
+    @ExcelIgnoreUnannotated
+    public static class AnnotatedOnlyRow {
+        private String skipped;
+
+        @ExcelProperty("保留")
+        private String kept;
+    }
+
+    public static class DateRow {
+        @ExcelProperty("创建时间")
+        private LocalDateTime createTime;
+
+        @ExcelProperty("日期")
+        private LocalDate day;
+
+        @ExcelProperty("自定义")
+        @DateTimeFormat("yyyy/MM/dd")
+        private LocalDateTime custom;
+
+        @ExcelProperty("旧日期")
+        private Date legacy;
+    }
+
+    /**
+     * 只实现上下文版本的转换器（分 → 元）
+     */
+    public static class CentsConverter implements Converter<Long> {
+        @Override
+        public WriteCellData<?> convertToExcelData(WriteConverterContext<Long> context) {
+            return new WriteCellData<>(BigDecimal.valueOf(context.getValue(), 2));
+        }
+    }
+
+    public static class YesNoConverter implements Converter<Boolean> {
+        @Override
+        public WriteCellData<?> convertToExcelData(Boolean value, ExcelContentProperty contentProperty,
+                                                   GlobalConfiguration globalConfiguration) {
+            return new WriteCellData<>(Boolean.TRUE.equals(value) ? "是" : "否");
+        }
+    }
+}
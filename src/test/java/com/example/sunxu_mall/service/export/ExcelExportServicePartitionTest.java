@@ -0,0 +1,160 @@
+package com.example.sunxu_mall.service.export;
+
+import com.alibaba.excel.annotation.ExcelProperty;
+import com.example.sunxu_mall.config.props.MallMgtExportProperties;
+import com.example.sunxu_mall.config.props.UploadConfig;
+import com.example.sunxu_mall.dto.BasePageQuery;
+import com.example.sunxu_mall.model.IdRange;
+import com.example.sunxu_mall.service.upload.LocalUploadServiceImpl;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 分区并行导出测试：分区边界（lower / upper）处不重复、不遗漏，输出顺序与顺序导出一致，下界下推到拉取条件
+ *
+ * @author sunxu
+ */
+public class ExcelExportServicePartitionTest {
+
+    private static final int PAGE_SIZE = 7;
+
+    @TempDir
+    Path tempDir;
+
+    private final ExecutorService pool = Executors.newFixedThreadPool(4);
+    private final MallMgtExportProperties exportProperties = new MallMgtExportProperties();
+
+    /**
+     * 表中的 id（含间隙，以及主键范围查询之后新增、范围以外的 id）
+     */
+    private final TreeSet<Long> table = new TreeSet<>();
+
+    /**
+     * 每次拉取收到的下界（null 表示不设下界）
+     */
+    private final Set<Long> lowerIds = Collections.synchronizedSet(new HashSet<>());
+
+    private ExcelExportService service;
+
+    @BeforeEach
+    public void setUp() {
+        for (long id = 1; id <= 103; id++) {
+            if (id % 10 != 3) {
+                table.add(id);
+            }
+        }
+        UploadConfig uploadConfig = new UploadConfig();
+        uploadConfig.getLocal().setPath(tempDir.toString());
+        uploadConfig.getLocal().setDomain("");
+
+        exportProperties.setExportPageSize(PAGE_SIZE);
+        exportProperties.setExportParallelism(4);
+        exportProperties.setPartitionMinIdSpan(1);
+        service = new ExcelExportService(new LocalUploadServiceImpl(uploadConfig), exportProperties, pool);
+    }
+
+    @AfterEach
+    public void shutdown() {
+        pool.shutdownNow();
+    }
+
+    @Test
+    public void testPartitionsCoverAllIdsOnce() throws Exception {
+        // 范围 [5, 95]：span 91，4 个分区大小 23，边界为 95..73 / 72..50 / 49..27 / 26..5
+        List<Long> exported = export(new IdRange(5L, 95L), true);
+
+        assertEquals(descending(table), exported);
+        assertEquals(Set.of(73L, 50L, 27L), lowerIds.stream().filter(id -> id != null).collect(Collectors.toSet()));
+        // 末分区不设下界，范围以外的小 id 仍然导出
+        assertTrue(lowerIds.contains(null));
+    }
+
+    @Test
+    public void testBoundaryIdsPresentOnlyOnce() throws Exception {
+        // 边界两侧的 id 都存在（72/73、49/50、26/27）
+        table.addAll(List.of(72L, 73L, 49L, 50L, 26L, 27L));
+
+        List<Long> exported = export(new IdRange(5L, 95L), true);
+
+        assertEquals(descending(table), exported);
+        assertEquals(exported.size(), new TreeSet<>(exported).size());
+    }
+
+    @Test
+    public void testLowerBoundTrimmedWhenFetcherIgnoresIt() throws Exception {
+        // 拉取器未下推下界时按内存截断兜底，结果不变
+        assertEquals(descending(table), export(new IdRange(5L, 95L), false));
+    }
+
+    @Test
+    public void testSmallRangeFallsBackToSequential() throws Exception {
+        exportProperties.setPartitionMinIdSpan(1000);
+
+        assertEquals(descending(table), export(new IdRange(1L, 103L), true));
+        assertEquals(Collections.singleton(null), lowerIds);
+    }
+
+    /**
+     * 导出为 CSV 并解析出 id 列
+     *
+     * @param respectLower 拉取器是否按下界过滤（模拟 SQL 中的 id &gt;= lowerId）
+     */
+    private List<Long> export(IdRange range, boolean respectLower) throws Exception {
+        BasePageQuery query = new BasePageQuery();
+        query.setExportFormat("csv");
+        CursorPageFetcher<Row, BasePageQuery> fetcher = (q, cursorId, lowerId, limit) -> {
+            lowerIds.add(lowerId);
+            List<Row> page = new ArrayList<>();
+            Set<Long> candidates = cursorId == null ? table.descendingSet() : table.headSet(cursorId, false).descendingSet();
+            for (Long id : candidates) {
+                if (page.size() >= limit || (respectLower && lowerId != null && id < lowerId)) {
+                    break;
+                }
+                page.add(new Row(id));
+            }
+            return page;
+        };
+        String url = service.export(query, "partition", Row.class.getName(), fetcher, row -> row.id, () -> range);
+
+        List<String> lines = Files.readAllLines(Path.of(tempDir.toString() + url.replace('/', File.separatorChar)),
+                StandardCharsets.UTF_8);
+        return lines.subList(1, lines.size()).stream()
+                .map(line -> Long.valueOf(line.substring(0, line.indexOf(','))))
+                .collect(Collectors.toList());
+    }
+
+    private static List<Long> descending(TreeSet<Long> ids) {
+        return new ArrayList<>(ids.descendingSet());
+    }
+
+    public static class Row {
+        @ExcelProperty("编号")
+        private Long id;
+
+        @ExcelProperty("名称")
+        private String name;
+
+        Row(long id) {
+            this.id = id;
+            this.name = "商品" + id;
+        }
+    }
+}
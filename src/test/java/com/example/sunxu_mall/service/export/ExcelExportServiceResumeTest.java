@@ -0,0 +1,198 @@
+package com.example.sunxu_mall.service.export;
+
+import com.alibaba.excel.annotation.ExcelProperty;
+import com.example.sunxu_mall.config.props.MallMgtExportProperties;
+import com.example.sunxu_mall.config.props.UploadConfig;
+import com.example.sunxu_mall.dto.BasePageQuery;
+import com.example.sunxu_mall.exception.BusinessException;
+import com.example.sunxu_mall.model.ExportCheckpoint;
+import com.example.sunxu_mall.model.UploadCheckpoint;
+import com.example.sunxu_mall.service.upload.LocalUploadServiceImpl;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.Inflater;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 可续传导出往返测试（本地存储）：写入、检查点、失败、续传，最终文件与一次性导出逐字节一致
+ *
+ * @author sunxu
+ */
+public class ExcelExportServiceResumeTest {
+
+    private static final int TOTAL_ROWS = 5000;
+    private static final int FAIL_AT_FETCH = 30;
+
+    @TempDir
+    Path tempDir;
+
+    private ExcelExportService service;
+
+    /**
+     * 每次拉取的游标（null 表示从头）
+     */
+    private final List<Long> cursors = new ArrayList<>();
+    private final List<ExportCheckpoint> checkpoints = new ArrayList<>();
+    private final AtomicInteger fetches = new AtomicInteger();
+    private int failAtFetch;
+
+    @BeforeEach
+    public void setUp() {
+        UploadConfig uploadConfig = new UploadConfig();
+        uploadConfig.getLocal().setPath(tempDir.toString());
+        uploadConfig.getLocal().setDomain("");
+        uploadConfig.getLocal().setCheckpointKb(16);
+
+        MallMgtExportProperties exportProperties = new MallMgtExportProperties();
+        exportProperties.setExportPrefetchEnabled(false);
+
+        service = new ExcelExportService(new LocalUploadServiceImpl(uploadConfig), exportProperties, Runnable::run);
+    }
+
+    @Test
+    public void testCsvResumeEqualsSingleRun() throws Exception {
+        assertResumeEqualsSingleRun("csv");
+    }
+
+    @Test
+    public void testGzipResumeEqualsSingleRun() throws Exception {
+        byte[] resumed = assertResumeEqualsSingleRun("csv.gz");
+
+        // 每个检查点结束一个 gzip member，整体仍可按一个文件解压
+        assertTrue(gzipMembers(resumed) > 1);
+        try (InputStream in = new GZIPInputStream(new ByteArrayInputStream(resumed))) {
+            String csv = new String(in.readAllBytes(), StandardCharsets.UTF_8);
+            assertTrue(csv.startsWith("\uFEFF编号,名称\r\n" + TOTAL_ROWS + ","));
+            assertEquals(TOTAL_ROWS + 1, csv.split("\r\n").length);
+        }
+    }
+
+    @Test
+    public void testRestartWhenCheckpointFileMissing() throws Exception {
+        byte[] expected = Files.readAllBytes(file(export("csv", null)));
+
+        failAtFetch = FAIL_AT_FETCH;
+        assertThrows(BusinessException.class, () -> export("csv", null));
+        ExportCheckpoint checkpoint = checkpoints.get(checkpoints.size() - 1);
+        Files.delete(Path.of(checkpoint.getUpload().getPath()));
+
+        failAtFetch = 0;
+        cursors.clear();
+        byte[] restarted = Files.readAllBytes(file(export("csv", checkpoint)));
+
+        // 存储端检查点失效：从头导出（含 BOM 与表头）
+        assertNull(cursors.get(0));
+        assertArrayEquals(expected, restarted);
+    }
+
+    /**
+     * 一次性导出与“失败 + 续传”导出的结果逐字节比较，返回续传后的文件内容
+     */
+    private byte[] assertResumeEqualsSingleRun(String format) throws Exception {
+        byte[] expected = Files.readAllBytes(file(export(format, null)));
+
+        checkpoints.clear();
+        failAtFetch = FAIL_AT_FETCH;
+        assertThrows(BusinessException.class, () -> export(format, null));
+        assertFalse(checkpoints.isEmpty(), "should checkpoint before failure");
+        ExportCheckpoint checkpoint = checkpoints.get(checkpoints.size() - 1);
+        UploadCheckpoint upload = checkpoint.getUpload();
+        assertEquals(format, checkpoint.getFormat());
+        assertTrue(checkpoint.getRows() > 0 && checkpoint.getRows() < TOTAL_ROWS);
+        assertEquals(TOTAL_ROWS - checkpoint.getRows() + 1, checkpoint.getCursorId());
+
+        // 检查点之后写到一半的内容，续传时应被截断
+        Path partial = Path.of(upload.getPath());
+        assertTrue(Files.size(partial) >= upload.getBytes());
+        Files.write(partial, "half-written,\"".getBytes(StandardCharsets.UTF_8), StandardOpenOption.APPEND);
+
+        failAtFetch = 0;
+        cursors.clear();
+        String url = export(format, checkpoint);
+
+        // 从检查点游标继续拉取，续写同一个文件
+        assertEquals(checkpoint.getCursorId(), cursors.get(0));
+        assertEquals(partial.toFile(), file(url).toFile());
+        byte[] resumed = Files.readAllBytes(file(url));
+        assertArrayEquals(expected, resumed);
+        return resumed;
+    }
+
+    private String export(String format, ExportCheckpoint resumeFrom) {
+        BasePageQuery query = new BasePageQuery();
+        query.setExportFormat(format);
+        fetches.set(0);
+        CursorPageFetcher<Row, BasePageQuery> fetcher = (q, cursorId, lowerId, limit) -> {
+            cursors.add(cursorId);
+            if (fetches.incrementAndGet() == failAtFetch) {
+                throw new IllegalStateException("db down");
+            }
+            List<Row> page = new ArrayList<>();
+            long start = cursorId == null ? TOTAL_ROWS : cursorId - 1;
+            for (long id = start; id >= 1 && page.size() < limit; id--) {
+                page.add(new Row(id));
+            }
+            return page;
+        };
+        return service.export(query, "resume-" + format, Row.class.getName(), fetcher, row -> row.id,
+                null, resumeFrom, checkpoints::add);
+    }
+
+    private Path file(String downloadUrl) {
+        return Path.of(tempDir.toString() + downloadUrl.replace('/', File.separatorChar));
+    }
+
+    /**
+     * 逐个解析 gzip member（GZIPOutputStream 写出的头部固定 10 字节、尾部 8 字节）
+     */
+    private static int gzipMembers(byte[] data) throws Exception {
+        int members = 0;
+        int offset = 0;
+        while (offset < data.length) {
+            assertEquals(0x8b1f, ByteBuffer.wrap(data, offset, 2).order(ByteOrder.LITTLE_ENDIAN).getShort() & 0xffff);
+            Inflater inflater = new Inflater(true);
+            inflater.setInput(data, offset + 10, data.length - offset - 10);
+            byte[] buffer = new byte[8192];
+            while (!inflater.finished()) {
+                assertFalse(inflater.needsInput(), "truncated gzip member");
+                inflater.inflate(buffer);
+            }
+            offset = data.length - inflater.getRemaining() + 8;
+            inflater.end();
+            members++;
+        }
+        return members;
+    }
+
+    public static class Row {
+        @ExcelProperty("编号")
+        private Long id;
+
+        /**
+         * 不易压缩的内容（含需要转义的字符），使 gzip 输出按块产生、跨多个检查点
+         */
+        @ExcelProperty("名称")
+        private String name;
+
+        Row(long id) {
+            this.id = id;
+            this.name = "商品," + Long.toHexString(id * 0x9E3779B97F4A7C15L) + "\"" + Long.toHexString(id * 31 + 7);
+        }
+    }
+}
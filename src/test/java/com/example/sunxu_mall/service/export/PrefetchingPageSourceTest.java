@@ -0,0 +1,195 @@
+package com.example.sunxu_mall.service.export;
+
+import com.example.sunxu_mall.exception.BusinessException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * PrefetchingPageSource 分区顺序、拒绝/调用方执行、异常位置与取消测试
+ *
+ * @author sunxu
+ */
+public class PrefetchingPageSourceTest {
+
+    private final ExecutorService pool = Executors.newFixedThreadPool(4);
+
+    @AfterEach
+    public void shutdown() {
+        pool.shutdownNow();
+    }
+
+    @Test
+    public void testOrderPreservedAcrossPartitions() {
+        List<StubSource> sources = List.of(
+                new StubSource(List.of(9, 8), List.of(7)),
+                new StubSource(),
+                new StubSource(List.of(6, 5), List.of(4, 3), List.of(2)),
+                new StubSource(List.of(1)));
+
+        try (PrefetchingPageSource<Integer> source = new PrefetchingPageSource<>(sources, pool, 1)) {
+            assertEquals(List.of(9, 8, 7, 6, 5, 4, 3, 2, 1), drain(source));
+            assertEquals(Collections.emptyList(), source.nextPage());
+        }
+    }
+
+    @Test
+    public void testRejectedPartitionsReadByWriter() {
+        List<StubSource> sources = List.of(new StubSource(List.of(3, 2)), new StubSource(List.of(1)));
+
+        try (PrefetchingPageSource<Integer> source = new PrefetchingPageSource<>(sources, command -> {
+            throw new RejectedExecutionException("busy");
+        }, 1)) {
+            assertEquals(List.of(3, 2, 1), drain(source));
+        }
+        sources.forEach(stub -> assertEquals(Set.of(Thread.currentThread()), stub.threads));
+    }
+
+    @Test
+    public void testCallerRunsPartitionsReadByWriter() {
+        List<StubSource> sources = List.of(new StubSource(List.of(3), List.of(2)), new StubSource(List.of(1)));
+
+        // 调用方执行：任务在写入线程上运行，不能在构造时把分区拉取到阻塞
+        try (PrefetchingPageSource<Integer> source = new PrefetchingPageSource<>(sources, Runnable::run, 1)) {
+            assertEquals(List.of(3, 2, 1), drain(source));
+        }
+        sources.forEach(stub -> assertEquals(Set.of(Thread.currentThread()), stub.threads));
+    }
+
+    @Test
+    public void testMixedBackgroundAndRejectedPartitions() {
+        AtomicInteger submitted = new AtomicInteger();
+        List<StubSource> sources = List.of(
+                new StubSource(List.of(6, 5), List.of(4)),
+                new StubSource(List.of(3)),
+                new StubSource(List.of(2, 1)));
+
+        try (PrefetchingPageSource<Integer> source = new PrefetchingPageSource<>(sources, command -> {
+            // 只接受第一个分区，其余拒绝
+            if (submitted.getAndIncrement() > 0) {
+                throw new RejectedExecutionException("busy");
+            }
+            pool.execute(command);
+        }, 1)) {
+            assertEquals(List.of(6, 5, 4, 3, 2, 1), drain(source));
+        }
+        assertEquals(Set.of(Thread.currentThread()), sources.get(1).threads);
+        assertEquals(Set.of(Thread.currentThread()), sources.get(2).threads);
+    }
+
+    @Test
+    public void testProducerErrorSurfacesAtItsPosition() {
+        IllegalStateException failure = new IllegalStateException("db down");
+        StubSource failing = new StubSource(List.of(3));
+        failing.failure = failure;
+        List<StubSource> sources = List.of(new StubSource(List.of(5), List.of(4)), failing);
+
+        try (PrefetchingPageSource<Integer> source = new PrefetchingPageSource<>(sources, pool, 2)) {
+            // 后台已失败，之前的页仍按顺序返回
+            assertEquals(List.of(5), source.nextPage());
+            assertEquals(List.of(4), source.nextPage());
+            assertEquals(List.of(3), source.nextPage());
+            assertSame(failure, assertThrows(IllegalStateException.class, source::nextPage));
+        }
+    }
+
+    @Test
+    public void testProducerErrorWrapsNonRuntime() throws Exception {
+        StubSource failing = new StubSource();
+        failing.failure = new AssertionError("boom");
+
+        try (PrefetchingPageSource<Integer> source = new PrefetchingPageSource<>(List.of(failing), pool, 1)) {
+            // 确保由后台拉取（写入方先到达会直接同步读取）
+            waitUntil(() -> !failing.threads.isEmpty());
+            BusinessException e = assertThrows(BusinessException.class, source::nextPage);
+            assertTrue(e.getMessage().contains("boom"));
+        }
+    }
+
+    @Test
+    public void testCloseUnblocksProducerOnFullQueue() throws Exception {
+        CountDownLatch finished = new CountDownLatch(1);
+        AtomicInteger fetched = new AtomicInteger();
+        PageSource<Integer> endless = () -> Collections.singletonList(fetched.incrementAndGet());
+
+        PrefetchingPageSource<Integer> source = new PrefetchingPageSource<>(List.of(endless), command ->
+                pool.execute(() -> {
+                    command.run();
+                    finished.countDown();
+                }), 1);
+        waitUntil(() -> fetched.get() >= 1);
+        assertEquals(List.of(1), source.nextPage());
+        // 队列容量 1：生产者放入第 2 页后阻塞在第 3 页
+        waitUntil(() -> fetched.get() >= 3);
+        assertEquals(1, finished.getCount());
+
+        source.close();
+
+        assertTrue(finished.await(5, TimeUnit.SECONDS), "producer should stop after close");
+        int total = fetched.get();
+        Thread.sleep(300);
+        assertEquals(total, fetched.get());
+    }
+
+    private static List<Integer> drain(PageSource<Integer> source) {
+        List<Integer> rows = new ArrayList<>();
+        List<Integer> page;
+        while (!(page = source.nextPage()).isEmpty()) {
+            rows.addAll(page);
+        }
+        return rows;
+    }
+
+    private static void waitUntil(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.currentTimeMillis() < deadline, "condition not reached");
+            Thread.sleep(10);
+        }
+    }
+
+    /**
+     * 按给定页返回，页用完后返回空列表或抛出 failure；记录执行拉取的线程
+     */
+    private static final class StubSource implements PageSource<Integer> {
+
+        private final List<List<Integer>> pages;
+        private final Set<Thread> threads = ConcurrentHashMap.newKeySet();
+        private volatile Throwable failure;
+        private int index;
+
+        @SafeVarargs
+        StubSource(List<Integer>... pages) {
+            this.pages = List.of(pages);
+        }
+
+        @Override
+        public List<Integer> nextPage() {
+            threads.add(Thread.currentThread());
+            if (index < pages.size()) {
+                return pages.get(index++);
+            }
+            if (failure instanceof RuntimeException) {
+                throw (RuntimeException) failure;
+            }
+            if (failure instanceof Error) {
+                throw (Error) failure;
+            }
+            return Collections.emptyList();
+        }
+    }
+}
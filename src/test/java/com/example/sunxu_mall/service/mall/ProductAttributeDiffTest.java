@@ -0,0 +1,168 @@
+package com.example.sunxu_mall.service.mall;
+
+import com.example.sunxu_mall.config.props.ProductDetailConfig;
+import com.example.sunxu_mall.config.props.ProductReadConfig;
+import com.example.sunxu_mall.dto.mall.UpdateProductAttributeDTO;
+import com.example.sunxu_mall.dto.mall.UpdateProductDTO;
+import com.example.sunxu_mall.entity.mall.ProductAttributeEntity;
+import com.example.sunxu_mall.entity.mall.ProductEntity;
+import com.example.sunxu_mall.mapper.mall.*;
+import org.apache.ibatis.builder.xml.XMLMapperBuilder;
+import org.apache.ibatis.mapping.BoundSql;
+import org.apache.ibatis.session.Configuration;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.context.ApplicationEventPublisher;
+
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * SKU 属性差量更新测试：请求归并为删除、更新、新增三个集合，每个集合一条批量语句
+ *
+ * @author sunxu
+ */
+public class ProductAttributeDiffTest {
+
+    private static final String MAPPER = "com/example/sunxu_mall/mapper/mall/ProductAttributeEntityMapper.xml";
+    private static final String BATCH_UPDATE_VALUES =
+            "com.example.sunxu_mall.mapper.mall.ProductAttributeEntityMapper.batchUpdateValues";
+
+    private static final Long PRODUCT_ID = 1L;
+
+    private static Configuration configuration;
+
+    private final ProductEntityMapper productMapper = mock(ProductEntityMapper.class);
+    private final ProductAttributeEntityMapper productAttributeMapper = mock(ProductAttributeEntityMapper.class);
+
+    private ProductService service;
+
+    @BeforeAll
+    public static void loadMapper() throws Exception {
+        configuration = new Configuration();
+        try (InputStream in = ProductAttributeDiffTest.class.getClassLoader().getResourceAsStream(MAPPER)) {
+            assertNotNull(in, MAPPER);
+            new XMLMapperBuilder(in, configuration, MAPPER, configuration.getSqlFragments()).parse();
+        }
+    }
+
+    @BeforeEach
+    public void setUp() {
+        when(productMapper.selectByPrimaryKey(PRODUCT_ID)).thenReturn(
+                ProductEntity.builder().id(PRODUCT_ID).version(3).isDel(false).build());
+        when(productMapper.updateProductInfoWithVersion(any())).thenReturn(1);
+        // 现有属性：11、12、13
+        when(productAttributeMapper.selectByProductId(PRODUCT_ID)).thenReturn(new ArrayList<>(List.of(
+                attribute(11L, 100L, 1001L), attribute(12L, 100L, 1002L), attribute(13L, 200L, 2001L))));
+
+        service = new ProductService(productMapper, mock(ProductGroupAttributeEntityMapper.class), productAttributeMapper,
+                mock(AttributeDictionaryService.class), mock(CommonPhotoEntityMapper.class),
+                mock(MallProductGroupEntityMapper.class), mock(MallProductDetailEntityMapper.class),
+                mock(MallProductPhotoEntityMapper.class), mock(ProductDetailCacheService.class),
+                mock(ApplicationEventPublisher.class), new ProductReadConfig(), new ProductDetailConfig(),
+                Runnable::run, mock(ProductSearchService.class), mock(ProductGroupCacheService.class),
+                mock(StockService.class));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testDiffFoldedIntoOneStatementPerKind() {
+        service.updateProduct(PRODUCT_ID, request(
+                attributeRequest(11L, 100L, 1003L, null),
+                // 值未变化，不参与更新
+                attributeRequest(12L, 100L, 1002L, null),
+                attributeRequest(13L, 200L, 2002L, null),
+                // 删除优先于之前的更新
+                attributeRequest(13L, 200L, 2001L, true),
+                // 不存在的属性跳过
+                attributeRequest(99L, 100L, 1001L, null),
+                attributeRequest(null, 300L, 3001L, null),
+                attributeRequest(null, 300L, 3002L, null)));
+
+        verify(productAttributeMapper, times(1)).selectByProductId(PRODUCT_ID);
+        verify(productAttributeMapper).batchSoftDeleteByIds(eq(List.of(13L)), any(), any());
+
+        ArgumentCaptor<List<ProductAttributeEntity>> updates = ArgumentCaptor.forClass(List.class);
+        verify(productAttributeMapper).batchUpdateValues(eq(PRODUCT_ID), updates.capture(), any(), any());
+        assertEquals(1, updates.getValue().size());
+        assertEquals(11L, updates.getValue().get(0).getId());
+        assertEquals(1003L, updates.getValue().get(0).getAttributeValueId());
+
+        ArgumentCaptor<List<ProductAttributeEntity>> inserts = ArgumentCaptor.forClass(List.class);
+        verify(productAttributeMapper).batchInsert(inserts.capture());
+        assertEquals(List.of(3001L, 3002L), inserts.getValue().stream()
+                .map(ProductAttributeEntity::getAttributeValueId).collect(Collectors.toList()));
+        assertTrue(inserts.getValue().stream().allMatch(row -> PRODUCT_ID.equals(row.getProductId())));
+
+        // 不再逐条写入
+        verify(productAttributeMapper, never()).updateByPrimaryKeySelective(any());
+        verify(productAttributeMapper, never()).insertSelective(any());
+    }
+
+    @Test
+    public void testUnchangedAttributesIssueNoWrites() {
+        service.updateProduct(PRODUCT_ID, request(
+                attributeRequest(11L, 100L, 1001L, null),
+                attributeRequest(12L, 100L, 1002L, null)));
+
+        verify(productAttributeMapper).selectByProductId(PRODUCT_ID);
+        verify(productAttributeMapper, never()).batchSoftDeleteByIds(anyList(), any(), any());
+        verify(productAttributeMapper, never()).batchUpdateValues(any(), anyList(), any(), any());
+        verify(productAttributeMapper, never()).batchInsert(anyList());
+    }
+
+    @Test
+    public void testBatchUpdateValuesSql() {
+        Map<String, Object> params = new HashMap<>();
+        params.put("productId", PRODUCT_ID);
+        params.put("list", List.of(attribute(11L, 100L, 1003L), attribute(12L, 100L, 1004L)));
+        params.put("updateUserId", 7L);
+        params.put("updateUserName", "admin");
+
+        BoundSql boundSql = configuration.getMappedStatement(BATCH_UPDATE_VALUES).getBoundSql(params);
+
+        // 限定商品ID，不会改到其他商品的属性行
+        assertEquals("update mall_product_attribute set attribute_id = case id when ? then ? when ? then ? end, "
+                        + "attribute_value_id = case id when ? then ? when ? then ? end, "
+                        + "update_user_id = ?, update_user_name = ?, update_time = now() "
+                        + "where product_id = ? and id in ( ? , ? )",
+                boundSql.getSql().replaceAll("\\s+", " ").trim());
+        assertEquals(13, boundSql.getParameterMappings().size());
+    }
+
+    private static UpdateProductDTO request(UpdateProductAttributeDTO... attributes) {
+        UpdateProductDTO request = new UpdateProductDTO();
+        request.setVersion(3);
+        request.setSkuAttributes(List.of(attributes));
+        return request;
+    }
+
+    private static UpdateProductAttributeDTO attributeRequest(Long id, Long attributeId, Long attributeValueId, Boolean deleted) {
+        UpdateProductAttributeDTO attribute = new UpdateProductAttributeDTO();
+        attribute.setId(id);
+        attribute.setAttributeId(attributeId);
+        attribute.setAttributeValueId(attributeValueId);
+        attribute.setDeleted(deleted);
+        return attribute;
+    }
+
+    private static ProductAttributeEntity attribute(Long id, Long attributeId, Long attributeValueId) {
+        return ProductAttributeEntity.builder()
+                .id(id)
+                .productId(PRODUCT_ID)
+                .attributeId(attributeId)
+                .attributeValueId(attributeValueId)
+                .isDel(false)
+                .build();
+    }
+}
@@ -0,0 +1,118 @@
+package com.example.sunxu_mall.service.mall;
+
+import com.example.sunxu_mall.config.props.ProductBatchDeleteConfig;
+import com.example.sunxu_mall.dto.mall.ProductBatchDeleteParamDTO;
+import com.example.sunxu_mall.dto.mall.ProductBatchDeleteResultDTO;
+import com.example.sunxu_mall.entity.common.CommonTaskEntity;
+import com.example.sunxu_mall.exception.BusinessException;
+import com.example.sunxu_mall.service.common.CommonTaskService;
+import com.example.sunxu_mall.util.JsonUtil;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * ProductBatchDeleteService 分块删除、块失败隔离与业务时段判断测试
+ *
+ * @author sunxu
+ */
+public class ProductBatchDeleteServiceTest {
+
+    private final ProductService productService = mock(ProductService.class);
+    private final CommonTaskService commonTaskService = mock(CommonTaskService.class);
+    private final ProductBatchDeleteConfig config = new ProductBatchDeleteConfig();
+
+    /**
+     * 每次调用 cascadeDeleteChunk 收到的块
+     */
+    private final List<List<Long>> chunks = new ArrayList<>();
+
+    private ProductBatchDeleteService service;
+
+    @BeforeEach
+    public void setUp() {
+        config.setChunkSize(2);
+        config.setPauseMillis(0);
+        // 开始与结束相同：不区分业务时段
+        config.setBusinessHoursStart(LocalTime.MIDNIGHT);
+        config.setBusinessHoursEnd(LocalTime.MIDNIGHT);
+        when(productService.cascadeDeleteChunk(anyList())).thenAnswer(inv -> {
+            List<Long> chunk = inv.getArgument(0);
+            chunks.add(chunk);
+            if (chunk.contains(3L)) {
+                throw new IllegalStateException("lock wait timeout");
+            }
+            return chunk.size();
+        });
+        service = new ProductBatchDeleteService(productService, commonTaskService, config);
+    }
+
+    @Test
+    public void testSubmitSortsAndDeduplicatesIds() {
+        service.submit(Arrays.asList(5L, 1L, null, 3L, 1L));
+
+        ArgumentCaptor<CommonTaskEntity> task = ArgumentCaptor.forClass(CommonTaskEntity.class);
+        verify(commonTaskService).insert(task.capture());
+        assertEquals(List.of(1L, 3L, 5L),
+                JsonUtil.parseObject(task.getValue().getRequestParam(), ProductBatchDeleteParamDTO.class).getIds());
+    }
+
+    @Test
+    public void testSubmitRejectsTooManyIds() {
+        config.setMaxIds(2);
+
+        assertThrows(BusinessException.class, () -> service.submit(List.of(1L, 2L, 3L)));
+        verifyNoInteractions(commonTaskService);
+    }
+
+    @Test
+    public void testChunkFailureDoesNotStopLaterChunks() {
+        ProductBatchDeleteResultDTO result = service.runDelete(task("{\"ids\":[1,2,3,4,5]}"));
+
+        assertEquals(List.of(List.of(1L, 2L), List.of(3L, 4L), List.of(5L)), chunks);
+        assertEquals(5, result.getTotalCount());
+        assertEquals(3, result.getDeletedCount());
+        // 失败块的全部ID记入结果，可重新提交
+        assertEquals(List.of(3L, 4L), result.getFailedIds());
+    }
+
+    @Test
+    public void testBusinessHoursUseSmallerChunks() {
+        config.setBusinessHoursStart(LocalTime.MIN);
+        config.setBusinessHoursEnd(LocalTime.MAX);
+        config.setBusinessHoursChunkSize(1);
+        config.setBusinessHoursPauseMillis(0);
+
+        ProductBatchDeleteResultDTO result = service.runDelete(task("{\"ids\":[1,2]}"));
+
+        assertEquals(List.of(List.of(1L), List.of(2L)), chunks);
+        assertEquals(2, result.getDeletedCount());
+    }
+
+    @Test
+    public void testBusinessHoursAcrossMidnight() {
+        config.setBusinessHoursStart(LocalTime.of(20, 0));
+        config.setBusinessHoursEnd(LocalTime.of(2, 0));
+
+        assertTrue(service.isBusinessHours(LocalTime.of(20, 0)));
+        assertTrue(service.isBusinessHours(LocalTime.of(1, 59)));
+        assertFalse(service.isBusinessHours(LocalTime.of(2, 0)));
+        assertFalse(service.isBusinessHours(LocalTime.of(12, 0)));
+    }
+
+    private static CommonTaskEntity task(String requestParam) {
+        return CommonTaskEntity.builder()
+                .id(1L)
+                .requestParam(requestParam)
+                .build();
+    }
+}
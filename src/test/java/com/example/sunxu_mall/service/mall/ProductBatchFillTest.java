@@ -0,0 +1,143 @@
+package com.example.sunxu_mall.service.mall;
+
+import com.example.sunxu_mall.config.props.ProductDetailConfig;
+import com.example.sunxu_mall.config.props.ProductReadConfig;
+import com.example.sunxu_mall.dto.mall.ProductDetailDTO;
+import com.example.sunxu_mall.entity.mall.*;
+import com.example.sunxu_mall.exception.BusinessException;
+import com.example.sunxu_mall.mapper.mall.*;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ApplicationEventPublisher;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * 批量查询商品详情（findByIds）测试：每张关联表只查询一次、内存拼装结果与入参顺序
+ *
+ * @author sunxu
+ */
+public class ProductBatchFillTest {
+
+    private final ProductEntityMapper productMapper = mock(ProductEntityMapper.class);
+    private final ProductGroupAttributeEntityMapper productGroupAttributeMapper = mock(ProductGroupAttributeEntityMapper.class);
+    private final ProductAttributeEntityMapper productAttributeMapper = mock(ProductAttributeEntityMapper.class);
+    private final AttributeDictionaryService attributeDictionaryService = mock(AttributeDictionaryService.class);
+    private final CommonPhotoEntityMapper commonPhotoMapper = mock(CommonPhotoEntityMapper.class);
+    private final MallProductDetailEntityMapper productDetailMapper = mock(MallProductDetailEntityMapper.class);
+    private final ProductDetailCacheService productDetailCacheService = mock(ProductDetailCacheService.class);
+
+    private ProductService service;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    public void setUp() {
+        when(productMapper.selectByExample(any())).thenReturn(List.of(
+                ProductEntity.builder().id(1L).productGroupId(10L).name("手机 A").build(),
+                ProductEntity.builder().id(3L).productGroupId(10L).name("手机 B").coverUrl("cover.jpg").build()));
+        when(productGroupAttributeMapper.selectByExample(any())).thenReturn(List.of(
+                ProductGroupAttributeEntity.builder().productGroupId(10L).attributeValueId(101L).build()));
+        when(productAttributeMapper.selectByExample(any())).thenReturn(List.of(
+                ProductAttributeEntity.builder().productId(1L).attributeValueId(201L).build(),
+                ProductAttributeEntity.builder().productId(3L).attributeValueId(202L).build()));
+        when(attributeDictionaryService.getAttributeValues(anyList())).thenAnswer(inv -> ((List<Long>) inv.getArgument(0))
+                .stream().map(ProductBatchFillTest::value).collect(Collectors.toList()));
+        when(commonPhotoMapper.selectByExample(any())).thenReturn(List.of(
+                CommonPhotoEntity.builder().photoGroupId(1L).url("a.jpg").build(),
+                CommonPhotoEntity.builder().photoGroupId(1L).url("b.jpg").build(),
+                CommonPhotoEntity.builder().photoGroupId(3L).url("c.jpg").build()));
+        when(productDetailMapper.selectByExampleWithBLOBs(any())).thenReturn(List.of(
+                MallProductDetailEntity.builder().productId(3L).detail("详情".getBytes(StandardCharsets.UTF_8)).build()));
+        // 缓存全部未命中，直接批量回源
+        when(productDetailCacheService.getAll(anyCollection(), any())).thenAnswer(inv ->
+                inv.<Function<List<Long>, Map<Long, ProductDetailDTO>>>getArgument(1)
+                        .apply(new ArrayList<>(inv.<Collection<Long>>getArgument(0))));
+
+        service = new ProductService(productMapper, productGroupAttributeMapper, productAttributeMapper,
+                attributeDictionaryService, commonPhotoMapper, mock(MallProductGroupEntityMapper.class),
+                productDetailMapper, mock(MallProductPhotoEntityMapper.class), productDetailCacheService,
+                mock(ApplicationEventPublisher.class), new ProductReadConfig(), new ProductDetailConfig(),
+                Runnable::run, mock(ProductSearchService.class), mock(ProductGroupCacheService.class),
+                mock(StockService.class));
+    }
+
+    @Test
+    public void testBatchFillAssemblesInInputOrder() {
+        List<ProductDetailDTO> result = service.findByIds(Arrays.asList(3L, null, 1L, 99L, 3L));
+
+        // 去重、忽略 null 与不存在的商品，按入参顺序返回
+        assertEquals(List.of(3L, 1L), result.stream().map(ProductDetailDTO::getId).collect(Collectors.toList()));
+        ProductDetailDTO first = result.get(1);
+        ProductDetailDTO third = result.get(0);
+
+        // 同一商品组共享 SPU 属性，SKU 属性按商品区分
+        assertEquals(List.of(101L), valueIds(first.getSpuAttributeEntityList()));
+        assertEquals(List.of(101L), valueIds(third.getSpuAttributeEntityList()));
+        assertEquals(List.of(201L), valueIds(first.getSkuAttributeEntityList()));
+        assertEquals(List.of(202L), valueIds(third.getSkuAttributeEntityList()));
+
+        // 无封面时取第一张图片，有封面时使用封面
+        assertEquals(List.of("a.jpg", "b.jpg"), first.getSwiper());
+        assertEquals(List.of("a.jpg"), first.getCover());
+        assertEquals(List.of("cover.jpg"), third.getCover());
+
+        assertNull(first.getDetail());
+        assertEquals("详情", third.getDetail());
+    }
+
+    @Test
+    public void testBatchFillQueryCountIsConstant() {
+        service.findByIds(List.of(1L, 3L, 99L));
+
+        verify(productMapper, times(1)).selectByExample(any());
+        verify(productGroupAttributeMapper, times(1)).selectByExample(any());
+        verify(productAttributeMapper, times(1)).selectByExample(any());
+        verify(attributeDictionaryService, times(1)).getAttributeValues(argThat(ids -> ids.size() == 3));
+        verify(commonPhotoMapper, times(1)).selectByExample(any());
+        verify(productDetailMapper, times(1)).selectByExampleWithBLOBs(any());
+        // 不逐个走单商品查询
+        verify(productMapper, never()).selectByPrimaryKey(any());
+    }
+
+    @Test
+    public void testWithoutDetailSkipsBlobQueryWhenCacheDisabled() {
+        List<ProductDetailDTO> result = service.findByIds(List.of(3L), false);
+
+        verify(productDetailMapper, never()).selectByExampleWithBLOBs(any());
+        verify(productDetailCacheService, never()).getAll(anyCollection(), any());
+        assertTrue(result.stream().allMatch(dto -> dto.getDetail() == null));
+    }
+
+    @Test
+    public void testTooManyIdsRejected() {
+        List<Long> ids = LongStream.rangeClosed(1, ProductService.MAX_BATCH_QUERY_SIZE + 1)
+                .boxed()
+                .collect(Collectors.toList());
+
+        assertThrows(BusinessException.class, () -> service.findByIds(ids));
+        verifyNoInteractions(productMapper);
+    }
+
+    private static AttributeValueEntity value(Long id) {
+        AttributeValueEntity value = new AttributeValueEntity();
+        value.setId(id);
+        value.setValue("v" + id);
+        return value;
+    }
+
+    private static List<Long> valueIds(List<AttributeValueEntity> values) {
+        return values.stream().map(AttributeValueEntity::getId).collect(Collectors.toList());
+    }
+}
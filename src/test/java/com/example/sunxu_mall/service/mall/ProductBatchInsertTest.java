@@ -0,0 +1,129 @@
+package com.example.sunxu_mall.service.mall;
+
+import com.example.sunxu_mall.aspect.AuditInterceptor;
+import com.example.sunxu_mall.context.AuditUserProvider;
+import com.example.sunxu_mall.entity.mall.MallProductPhotoEntity;
+import com.example.sunxu_mall.entity.mall.ProductGroupAttributeEntity;
+import org.apache.ibatis.binding.MapperMethod;
+import org.apache.ibatis.builder.xml.XMLMapperBuilder;
+import org.apache.ibatis.executor.Executor;
+import org.apache.ibatis.mapping.BoundSql;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.plugin.Invocation;
+import org.apache.ibatis.session.Configuration;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.io.InputStream;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * 商品组属性、商品图片多行批量插入测试：一条 INSERT 写入多行，审计字段逐行填充
+ *
+ * @author sunxu
+ */
+public class ProductBatchInsertTest {
+
+    private static final String PHOTO_MAPPER = "com/example/sunxu_mall/mapper/mall/MallProductPhotoEntityMapper.xml";
+    private static final String GROUP_ATTRIBUTE_MAPPER = "com/example/sunxu_mall/mapper/mall/ProductGroupAttributeEntityMapper.xml";
+    private static final String PHOTO_BATCH_INSERT = "com.example.sunxu_mall.mapper.mall.MallProductPhotoEntityMapper.batchInsert";
+    private static final String GROUP_ATTRIBUTE_BATCH_INSERT =
+            "com.example.sunxu_mall.mapper.mall.ProductGroupAttributeEntityMapper.batchInsert";
+
+    private static Configuration configuration;
+
+    @BeforeAll
+    public static void loadMappers() throws Exception {
+        configuration = new Configuration();
+        for (String mapper : List.of(PHOTO_MAPPER, GROUP_ATTRIBUTE_MAPPER)) {
+            try (InputStream in = ProductBatchInsertTest.class.getClassLoader().getResourceAsStream(mapper)) {
+                assertNotNull(in, mapper);
+                new XMLMapperBuilder(in, configuration, mapper, configuration.getSqlFragments()).parse();
+            }
+        }
+    }
+
+    @Test
+    public void testGroupAttributesInsertedInOneStatement() {
+        List<ProductGroupAttributeEntity> rows = List.of(
+                groupAttribute(11L), groupAttribute(12L), groupAttribute(13L));
+
+        BoundSql boundSql = configuration.getMappedStatement(GROUP_ATTRIBUTE_BATCH_INSERT).getBoundSql(params(rows));
+        String sql = boundSql.getSql().replaceAll("\\s+", " ").trim();
+
+        assertTrue(sql.startsWith("insert into mall_product_group_attribute ("), sql);
+        assertEquals(1, count(sql, "insert into"));
+        assertEquals(3, count(sql, "( ?"));
+        assertEquals(3 * 10, boundSql.getParameterMappings().size());
+    }
+
+    @Test
+    public void testPhotosInsertedInOneStatement() {
+        List<MallProductPhotoEntity> rows = List.of(photo("a.jpg"), photo("b.jpg"));
+
+        BoundSql boundSql = configuration.getMappedStatement(PHOTO_BATCH_INSERT).getBoundSql(params(rows));
+        String sql = boundSql.getSql().replaceAll("\\s+", " ").trim();
+
+        assertTrue(sql.startsWith("insert into mall_product_photo ("), sql);
+        assertEquals(1, count(sql, "insert into"));
+        assertEquals(2, count(sql, "( ?"));
+        assertEquals(2 * 13, boundSql.getParameterMappings().size());
+    }
+
+    @Test
+    public void testAuditFieldsFilledForEveryRow() throws Throwable {
+        List<ProductGroupAttributeEntity> rows = List.of(groupAttribute(11L), groupAttribute(12L));
+        MappedStatement statement = configuration.getMappedStatement(GROUP_ATTRIBUTE_BATCH_INSERT);
+        Executor executor = mock(Executor.class);
+
+        new AuditInterceptor().intercept(new Invocation(executor,
+                Executor.class.getMethod("update", MappedStatement.class, Object.class),
+                new Object[]{statement, params(rows)}));
+
+        for (ProductGroupAttributeEntity row : rows) {
+            // 无登录用户时按系统用户填充
+            assertEquals(AuditUserProvider.SYSTEM_USER_ID, row.getCreateUserId());
+            assertEquals(AuditUserProvider.SYSTEM_USER_NAME, row.getCreateUserName());
+            assertNotNull(row.getCreateTime());
+            assertNotNull(row.getUpdateTime());
+            assertEquals(false, row.getIsDel());
+        }
+        verify(executor).update(same(statement), any());
+    }
+
+    /**
+     * 与 @Param("list") 单参数时 MyBatis 传入的参数结构一致
+     */
+    private static MapperMethod.ParamMap<Object> params(List<?> rows) {
+        MapperMethod.ParamMap<Object> params = new MapperMethod.ParamMap<>();
+        params.put("list", rows);
+        params.put("param1", rows);
+        return params;
+    }
+
+    private static int count(String text, String token) {
+        int count = 0;
+        for (int i = text.indexOf(token); i >= 0; i = text.indexOf(token, i + token.length())) {
+            count++;
+        }
+        return count;
+    }
+
+    private static ProductGroupAttributeEntity groupAttribute(Long attributeValueId) {
+        return ProductGroupAttributeEntity.builder()
+                .productGroupId(1L)
+                .attributeId(2L)
+                .attributeValueId(attributeValueId)
+                .build();
+    }
+
+    private static MallProductPhotoEntity photo(String url) {
+        return MallProductPhotoEntity.builder()
+                .productId(1L)
+                .url(url)
+                .build();
+    }
+}
@@ -0,0 +1,172 @@
+package com.example.sunxu_mall.service.mall;
+
+import com.example.sunxu_mall.config.props.ProductDetailConfig;
+import com.example.sunxu_mall.config.props.ProductReadConfig;
+import com.example.sunxu_mall.entity.mall.*;
+import com.example.sunxu_mall.event.ProductChangedEvent;
+import com.example.sunxu_mall.mapper.mall.*;
+import org.apache.ibatis.builder.xml.XMLMapperBuilder;
+import org.apache.ibatis.mapping.BoundSql;
+import org.apache.ibatis.session.Configuration;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.context.ApplicationEventPublisher;
+
+import java.io.InputStream;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * 商品级联软删除测试：每张表一条批量语句（与ID数量无关）、只作用于未删除行、释放规格唯一键
+ *
+ * @author sunxu
+ */
+public class ProductCascadeDeleteTest {
+
+    private static final String MAPPER = "com/example/sunxu_mall/mapper/mall/ProductEntityMapper.xml";
+    private static final String STATEMENT = "com.example.sunxu_mall.mapper.mall.ProductEntityMapper.batchSoftDeleteByIds";
+
+    private static Configuration configuration;
+
+    private final ProductEntityMapper productMapper = mock(ProductEntityMapper.class);
+    private final ProductAttributeEntityMapper productAttributeMapper = mock(ProductAttributeEntityMapper.class);
+    private final MallProductDetailEntityMapper productDetailMapper = mock(MallProductDetailEntityMapper.class);
+    private final MallProductPhotoEntityMapper productPhotoMapper = mock(MallProductPhotoEntityMapper.class);
+    private final CommonPhotoEntityMapper commonPhotoMapper = mock(CommonPhotoEntityMapper.class);
+    private final ApplicationEventPublisher eventPublisher = mock(ApplicationEventPublisher.class);
+    private final StockService stockService = mock(StockService.class);
+
+    private ProductService service;
+
+    @BeforeAll
+    public static void loadMapper() throws Exception {
+        configuration = new Configuration();
+        try (InputStream in = ProductCascadeDeleteTest.class.getClassLoader().getResourceAsStream(MAPPER)) {
+            assertNotNull(in, MAPPER);
+            new XMLMapperBuilder(in, configuration, MAPPER, configuration.getSqlFragments()).parse();
+        }
+    }
+
+    @BeforeEach
+    public void setUp() {
+        when(productMapper.batchSoftDeleteByIds(anyList(), any(), any())).thenAnswer(inv -> inv.<List<Long>>getArgument(0).size());
+        service = new ProductService(productMapper, mock(ProductGroupAttributeEntityMapper.class), productAttributeMapper,
+                mock(AttributeDictionaryService.class), commonPhotoMapper, mock(MallProductGroupEntityMapper.class),
+                productDetailMapper, productPhotoMapper, mock(ProductDetailCacheService.class), eventPublisher,
+                new ProductReadConfig(), new ProductDetailConfig(), Runnable::run,
+                mock(ProductSearchService.class), mock(ProductGroupCacheService.class), stockService);
+    }
+
+    @Test
+    public void testSoftDeleteSql() {
+        Map<String, Object> params = new HashMap<>();
+        params.put("ids", List.of(1L, 2L, 3L));
+        params.put("updateUserId", 7L);
+        params.put("updateUserName", "admin");
+
+        BoundSql boundSql = configuration.getMappedStatement(STATEMENT).getBoundSql(params);
+
+        // del_id 置为自身ID，(product_group_id, brand_id, hash, del_id) 唯一键不阻止重新创建同规格商品；
+        // 只更新未删除的行，重跑时不重复计数
+        assertEquals("update mall_product set is_del = 1, del_id = id, update_user_id = ?, update_user_name = ?, "
+                        + "update_time = now() where is_del = 0 and id in ( ? , ? , ? )",
+                boundSql.getSql().replaceAll("\\s+", " ").trim());
+        assertEquals(5, boundSql.getParameterMappings().size());
+    }
+
+    @Test
+    public void testDeleteByIdsCascadesWithOneStatementPerTable() {
+        assertEquals(3, service.deleteByIds(Arrays.asList(3L, 1L, null, 3L, 2L)));
+
+        List<Long> ids = List.of(3L, 1L, 2L);
+        verify(productMapper).batchSoftDeleteByIds(eq(ids), any(), any());
+
+        ArgumentCaptor<ProductAttributeEntityExample> attrExample = ArgumentCaptor.forClass(ProductAttributeEntityExample.class);
+        verify(productAttributeMapper).updateByExampleSelective(argThat(row -> Boolean.TRUE.equals(row.getIsDel())),
+                attrExample.capture());
+        assertEquals(Map.of("product_id in", ids, "is_del =", false),
+                conditions(attrExample.getValue().getOredCriteria().get(0).getCriteria()));
+
+        ArgumentCaptor<MallProductDetailEntityExample> detailExample = ArgumentCaptor.forClass(MallProductDetailEntityExample.class);
+        verify(productDetailMapper).updateByExampleSelective(argThat(row -> Boolean.TRUE.equals(row.getIsDel())),
+                detailExample.capture());
+        assertEquals(Map.of("product_id in", ids, "is_del =", false),
+                conditions(detailExample.getValue().getOredCriteria().get(0).getCriteria()));
+
+        ArgumentCaptor<MallProductPhotoEntityExample> photoExample = ArgumentCaptor.forClass(MallProductPhotoEntityExample.class);
+        verify(productPhotoMapper).updateByExampleSelective(argThat(row -> Boolean.TRUE.equals(row.getIsDel())),
+                photoExample.capture());
+        assertEquals(Map.of("product_id in", ids, "is_del =", false),
+                conditions(photoExample.getValue().getOredCriteria().get(0).getCriteria()));
+
+        ArgumentCaptor<CommonPhotoEntityExample> commonPhotoExample = ArgumentCaptor.forClass(CommonPhotoEntityExample.class);
+        verify(commonPhotoMapper).updateByExampleSelective(argThat(row -> Boolean.TRUE.equals(row.getIsDel())),
+                commonPhotoExample.capture());
+        assertEquals(Map.of("photo_group_id in", ids, "is_del =", false),
+                conditions(commonPhotoExample.getValue().getOredCriteria().get(0).getCriteria()));
+
+        ArgumentCaptor<ProductChangedEvent> event = ArgumentCaptor.forClass(ProductChangedEvent.class);
+        verify(eventPublisher).publishEvent(event.capture());
+        assertEquals(ProductChangedEvent.Action.DELETE, event.getValue().getAction());
+        assertEquals(ids, event.getValue().getProductIds());
+    }
+
+    @Test
+    public void testStatementCountIndependentOfIdCount() {
+        List<Long> ids = LongStream.rangeClosed(1, 1000).boxed().collect(Collectors.toList());
+
+        assertEquals(1000, service.cascadeDeleteChunk(ids));
+
+        verify(productMapper, times(1)).batchSoftDeleteByIds(anyList(), any(), any());
+        verify(productAttributeMapper, times(1)).updateByExampleSelective(any(), any());
+        verify(productDetailMapper, times(1)).updateByExampleSelective(any(), any());
+        verify(productPhotoMapper, times(1)).updateByExampleSelective(any(), any());
+        verify(commonPhotoMapper, times(1)).updateByExampleSelective(any(), any());
+        verify(productMapper, never()).selectByPrimaryKey(any());
+    }
+
+    @Test
+    public void testStockRemovedWhenEnabled() {
+        when(stockService.isEnabled()).thenReturn(true);
+
+        service.deleteByIds(List.of(1L, 2L));
+
+        verify(stockService).removeAfterCommit(List.of(1L, 2L));
+    }
+
+    @Test
+    public void testNothingToDelete() {
+        assertEquals(0, service.deleteByIds(Arrays.asList(null, null)));
+        assertEquals(0, service.cascadeDeleteChunk(List.of()));
+
+        verifyNoInteractions(productMapper, productAttributeMapper, eventPublisher);
+    }
+
+    /**
+     * 条件 -> 取值（单值或列表）
+     */
+    private static Map<String, Object> conditions(List<?> criteria) {
+        Map<String, Object> result = new LinkedHashMap<>();
+        for (Object criterion : criteria) {
+            try {
+                String condition = (String) criterion.getClass().getMethod("getCondition").invoke(criterion);
+                Object value = criterion.getClass().getMethod("getValue").invoke(criterion);
+                result.put(condition.trim(), value);
+            } catch (ReflectiveOperationException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+        return result;
+    }
+}
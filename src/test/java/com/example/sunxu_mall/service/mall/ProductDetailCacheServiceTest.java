@@ -0,0 +1,132 @@
+package com.example.sunxu_mall.service.mall;
+
+import com.example.sunxu_mall.config.beans.CacheConfig;
+import com.example.sunxu_mall.config.props.ProductCacheConfig;
+import com.example.sunxu_mall.dto.mall.ProductDetailDTO;
+import com.example.sunxu_mall.util.RedisUtil;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.redisson.api.RTopic;
+import org.redisson.api.RedissonClient;
+import org.redisson.api.listener.MessageListener;
+import org.redisson.client.codec.Codec;
+import org.springframework.cache.Cache;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * ProductDetailCacheService 失效广播、回填保护与延迟双删测试
+ *
+ * @author sunxu
+ */
+public class ProductDetailCacheServiceTest {
+
+    private final ConcurrentMapCacheManager cacheManager = new ConcurrentMapCacheManager(CacheConfig.PRODUCT_DETAIL_CACHE);
+    private final RedisUtil redisUtil = mock(RedisUtil.class);
+    private final RedissonClient redissonClient = mock(RedissonClient.class);
+    private final RTopic topic = mock(RTopic.class);
+    private final ProductCacheConfig config = new ProductCacheConfig();
+
+    private ProductDetailCacheService service;
+    private MessageListener<String> listener;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    public void setUp() {
+        when(redissonClient.getTopic(anyString(), any(Codec.class))).thenReturn(topic);
+        ArgumentCaptor<MessageListener<String>> captor = ArgumentCaptor.forClass(MessageListener.class);
+        when(topic.addListener(eq(String.class), captor.capture())).thenReturn(1);
+        config.setDelayedEvictMillis(0);
+        service = new ProductDetailCacheService(cacheManager, redisUtil, config, redissonClient);
+        service.subscribe();
+        listener = captor.getValue();
+    }
+
+    @AfterEach
+    public void tearDown() {
+        service.shutdown();
+    }
+
+    @Test
+    public void testEvictDeletesL2AndBroadcasts() {
+        service.get(1L, id -> product(id));
+        assertNotNull(l1().get(1L));
+
+        service.evict(List.of(1L, 2L));
+
+        assertNull(l1().get(1L));
+        verify(redisUtil).delete("product:detail:1");
+        verify(redisUtil).delete("product:detail:2");
+        verify(topic).publish("1,2");
+    }
+
+    @Test
+    public void testBroadcastEvictsLocalL1() {
+        service.get(1L, id -> product(id));
+        service.get(2L, id -> product(id));
+
+        // 其他实例发出的失效广播
+        listener.onMessage("product:detail:evict", "1");
+
+        assertNull(l1().get(1L));
+        assertNotNull(l1().get(2L));
+    }
+
+    @Test
+    public void testLoadOverlappingEvictIsNotCached() {
+        ProductDetailDTO loaded = service.get(1L, id -> {
+            // 回源期间商品被更新并失效
+            listener.onMessage("product:detail:evict", "1");
+            return product(id);
+        });
+
+        assertNotNull(loaded);
+        assertNull(l1().get(1L));
+        verify(redisUtil, never()).set(eq("product:detail:1"), anyString(), anyLong(), any(TimeUnit.class));
+
+        // 之后的回源正常回填
+        service.get(1L, id -> product(id));
+        assertNotNull(l1().get(1L));
+        verify(redisUtil).set(eq("product:detail:1"), anyString(), anyLong(), any(TimeUnit.class));
+    }
+
+    @Test
+    public void testBatchLoadOverlappingEvictIsNotCached() {
+        service.getAll(List.of(1L, 2L), ids -> {
+            listener.onMessage("product:detail:evict", "2");
+            return java.util.Map.of(1L, product(1L), 2L, product(2L));
+        });
+
+        assertNotNull(l1().get(1L));
+        assertNull(l1().get(2L));
+        verify(redisUtil, never()).set(eq("product:detail:2"), anyString(), anyLong(), any(TimeUnit.class));
+    }
+
+    @Test
+    public void testDelayedSecondEvict() {
+        config.setDelayedEvictMillis(50);
+
+        service.evict(List.of(1L));
+
+        verify(redisUtil, timeout(2000).times(2)).delete("product:detail:1");
+        verify(topic, timeout(2000).times(2)).publish("1");
+    }
+
+    private Cache l1() {
+        return cacheManager.getCache(CacheConfig.PRODUCT_DETAIL_CACHE);
+    }
+
+    private static ProductDetailDTO product(Long id) {
+        ProductDetailDTO dto = new ProductDetailDTO();
+        dto.setId(id);
+        return dto;
+    }
+}
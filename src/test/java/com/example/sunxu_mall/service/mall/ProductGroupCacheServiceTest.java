@@ -0,0 +1,105 @@
+package com.example.sunxu_mall.service.mall;
+
+import com.example.sunxu_mall.config.beans.CacheConfig;
+import com.example.sunxu_mall.config.props.ProductGroupCacheConfig;
+import com.example.sunxu_mall.util.RedisUtil;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.Cache;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * ProductGroupCacheService 两级读取、批量读取与事务提交后写入测试
+ *
+ * @author sunxu
+ */
+public class ProductGroupCacheServiceTest {
+
+    private final ConcurrentMapCacheManager cacheManager = new ConcurrentMapCacheManager(CacheConfig.PRODUCT_GROUP_CACHE);
+    private final RedisUtil redisUtil = mock(RedisUtil.class);
+    private final ProductGroupCacheConfig config = new ProductGroupCacheConfig();
+    private final ProductGroupCacheService service = new ProductGroupCacheService(cacheManager, redisUtil, config);
+
+    @AfterEach
+    public void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    public void testL2HitBackfillsL1() {
+        String key = ProductGroupCacheService.key(1L, 2L, "h");
+        when(redisUtil.get("product:group:" + key)).thenReturn("100");
+
+        assertEquals(100L, service.get(key));
+        assertEquals(100L, l1().get(key, Long.class));
+
+        // 再次读取命中 L1
+        assertEquals(100L, service.get(key));
+        verify(redisUtil, times(1)).get(anyString());
+    }
+
+    @Test
+    public void testGetAllReadsL1ThenMultiGet() {
+        l1().put("1:2:a", 101L);
+        when(redisUtil.multiGet(anyCollection())).thenReturn(Map.of("product:group:1:2:b", "102"));
+
+        Map<String, Long> result = service.getAll(List.of("1:2:a", "1:2:b", "1:2:c"));
+
+        assertEquals(Map.of("1:2:a", 101L, "1:2:b", 102L), result);
+        verify(redisUtil).multiGet(argThat(keys -> keys.size() == 2
+                && keys.contains("product:group:1:2:b") && keys.contains("product:group:1:2:c")));
+        assertEquals(102L, l1().get("1:2:b", Long.class));
+    }
+
+    @Test
+    public void testRedisErrorTreatedAsMiss() {
+        when(redisUtil.get(anyString())).thenThrow(new IllegalStateException("redis down"));
+
+        assertNull(service.get("1:2:a"));
+    }
+
+    @Test
+    public void testPutDeferredUntilCommit() {
+        TransactionSynchronizationManager.initSynchronization();
+
+        service.putAfterCommit("1:2:a", 100L);
+
+        // 提交前不可见，回滚时不会留下指向不存在商品组的缓存
+        assertNull(l1().get("1:2:a"));
+        verify(redisUtil, never()).set(anyString(), anyString(), anyLong(), any());
+
+        for (TransactionSynchronization synchronization : TransactionSynchronizationManager.getSynchronizations()) {
+            synchronization.afterCommit();
+        }
+        assertEquals(100L, l1().get("1:2:a", Long.class));
+        verify(redisUtil).set("product:group:1:2:a", "100", config.getRedisTtlSeconds(), TimeUnit.SECONDS);
+    }
+
+    @Test
+    public void testDisabledBypassesCache() {
+        config.setEnabled(false);
+        l1().put("1:2:a", 100L);
+
+        assertNull(service.get("1:2:a"));
+        assertTrue(service.getAll(List.of("1:2:a")).isEmpty());
+        service.putAfterCommit("1:2:b", 101L);
+        assertNull(l1().get("1:2:b"));
+        verifyNoInteractions(redisUtil);
+    }
+
+    private Cache l1() {
+        return cacheManager.getCache(CacheConfig.PRODUCT_GROUP_CACHE);
+    }
+}
@@ -0,0 +1,169 @@
+package com.example.sunxu_mall.service.mall;
+
+import com.example.sunxu_mall.config.props.ProductDetailConfig;
+import com.example.sunxu_mall.config.props.ProductReadConfig;
+import com.example.sunxu_mall.dto.mall.CreateProductAttributeDTO;
+import com.example.sunxu_mall.dto.mall.CreateProductDTO;
+import com.example.sunxu_mall.entity.mall.MallProductGroupEntity;
+import com.example.sunxu_mall.entity.mall.ProductEntity;
+import com.example.sunxu_mall.mapper.mall.*;
+import org.apache.ibatis.builder.xml.XMLMapperBuilder;
+import org.apache.ibatis.executor.keygen.Jdbc3KeyGenerator;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.session.Configuration;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ApplicationEventPublisher;
+
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * 商品组 upsert 幂等测试：upsertReturningId SQL 渲染，以及唯一键 (category_id, unit_id, hash, del_id)
+ * 冲突时单个创建与批量导入均复用已有商品组、只写一次 SPU 属性
+ *
+ * @author sunxu
+ */
+public class ProductGroupUpsertTest {
+
+    private static final String MAPPER = "com/example/sunxu_mall/mapper/mall/MallProductGroupEntityMapper.xml";
+    private static final String STATEMENT = "com.example.sunxu_mall.mapper.mall.MallProductGroupEntityMapper.upsertReturningId";
+
+    private static Configuration configuration;
+
+    private final MallProductGroupEntityMapper productGroupMapper = mock(MallProductGroupEntityMapper.class);
+    private final ProductGroupAttributeEntityMapper productGroupAttributeMapper = mock(ProductGroupAttributeEntityMapper.class);
+    private final ProductEntityMapper productMapper = mock(ProductEntityMapper.class);
+    private final ProductGroupCacheService productGroupCacheService = mock(ProductGroupCacheService.class);
+
+    /**
+     * 模拟 mall_product_group 唯一键：category_id:unit_id:hash:del_id -> id
+     */
+    private final Map<String, Long> groupTable = new HashMap<>();
+    private final AtomicLong groupIds = new AtomicLong(100);
+    private final AtomicLong productIds = new AtomicLong(1000);
+
+    private ProductService service;
+
+    @BeforeAll
+    public static void loadMapper() throws Exception {
+        configuration = new Configuration();
+        try (InputStream in = ProductGroupUpsertTest.class.getClassLoader().getResourceAsStream(MAPPER)) {
+            assertNotNull(in, MAPPER);
+            new XMLMapperBuilder(in, configuration, MAPPER, configuration.getSqlFragments()).parse();
+        }
+    }
+
+    @BeforeEach
+    public void setUp() {
+        // 插入语句不写 del_id（默认 0），未删除的同一商品组在唯一键上冲突；冲突时回填已有ID并返回 2
+        when(productGroupMapper.upsertReturningId(any())).thenAnswer(inv -> {
+            MallProductGroupEntity group = inv.getArgument(0);
+            String key = group.getCategoryId() + ":" + group.getUnitId() + ":" + group.getHash() + ":0";
+            Long existing = groupTable.get(key);
+            if (existing != null) {
+                group.setId(existing);
+                return 2;
+            }
+            group.setId(groupIds.incrementAndGet());
+            groupTable.put(key, group.getId());
+            return 1;
+        });
+        when(productMapper.insertSelective(any())).thenAnswer(inv -> {
+            inv.<ProductEntity>getArgument(0).setId(productIds.incrementAndGet());
+            return 1;
+        });
+        when(productMapper.batchInsert(anyList())).thenAnswer(inv -> {
+            List<ProductEntity> products = inv.getArgument(0);
+            products.forEach(p -> p.setId(productIds.incrementAndGet()));
+            return products.size();
+        });
+
+        service = new ProductService(productMapper, productGroupAttributeMapper, mock(ProductAttributeEntityMapper.class),
+                mock(AttributeDictionaryService.class), mock(CommonPhotoEntityMapper.class), productGroupMapper,
+                mock(MallProductDetailEntityMapper.class), mock(MallProductPhotoEntityMapper.class),
+                mock(ProductDetailCacheService.class), mock(ApplicationEventPublisher.class),
+                new ProductReadConfig(), new ProductDetailConfig(), Runnable::run,
+                mock(ProductSearchService.class), productGroupCacheService, mock(StockService.class));
+    }
+
+    @Test
+    public void testUpsertSql() {
+        MappedStatement statement = configuration.getMappedStatement(STATEMENT);
+        String sql = statement.getBoundSql(MallProductGroupEntity.builder().categoryId(1L).unitId(2L).hash("h").build())
+                .getSql().replaceAll("\\s+", " ").trim();
+
+        assertTrue(sql.endsWith("on duplicate key update id = LAST_INSERT_ID(id), version = IFNULL(version, 0) + 1"), sql);
+        // del_id 取默认值 0 参与唯一键
+        assertFalse(sql.contains("del_id"), sql);
+        assertTrue(statement.getKeyGenerator() instanceof Jdbc3KeyGenerator);
+        assertArrayEquals(new String[]{"id"}, statement.getKeyProperties());
+    }
+
+    @Test
+    public void testCreateProductReusesGroupOnDuplicateKey() {
+        // 两次创建都未在查询中看到商品组（并发），由唯一键冲突解析为同一商品组
+        ProductEntity first = service.createProduct(product(10L));
+        ProductEntity second = service.createProduct(product(11L));
+
+        assertEquals(first.getProductGroupId(), second.getProductGroupId());
+        assertEquals(1, groupTable.size());
+        verify(productGroupMapper, times(2)).upsertReturningId(any());
+        // 只有真正插入的一方写入 SPU 属性
+        verify(productGroupAttributeMapper, times(1)).batchInsert(anyList());
+        verify(productGroupCacheService, times(2)).putAfterCommit(anyString(), eq(first.getProductGroupId()));
+    }
+
+    @Test
+    public void testBatchCreateUpsertsEachGroupOnce() {
+        Map<Integer, CreateProductDTO> rows = new LinkedHashMap<>();
+        rows.put(1, product(10L));
+        rows.put(2, product(11L));
+        CreateProductDTO otherGroup = product(12L);
+        otherGroup.setUnitId(9L);
+        rows.put(3, otherGroup);
+
+        assertEquals(Map.of(), service.batchCreateProducts(rows));
+        assertEquals(2, groupTable.size());
+        // 块内相同商品组只 upsert 一次，SPU 属性合并为一次写入
+        verify(productGroupMapper, times(2)).upsertReturningId(any());
+        verify(productGroupAttributeMapper, times(1)).batchInsert(argThat(list -> list.size() == 4));
+
+        // 重复导入：商品组已存在（冲突），不再写 SPU 属性，也不新建商品组
+        Map<Integer, CreateProductDTO> again = new LinkedHashMap<>();
+        again.put(1, product(13L));
+        assertEquals(Map.of(), service.batchCreateProducts(again));
+        assertEquals(2, groupTable.size());
+        verify(productGroupMapper, times(3)).upsertReturningId(any());
+        verify(productGroupAttributeMapper, times(1)).batchInsert(anyList());
+    }
+
+    private static CreateProductDTO product(Long brandId) {
+        CreateProductDTO dto = new CreateProductDTO();
+        dto.setCategoryId(1L);
+        dto.setBrandId(brandId);
+        dto.setUnitId(2L);
+        dto.setName("手机");
+        dto.setPrice(new BigDecimal("99.00"));
+        dto.setQuantity(10);
+        dto.setSpuAttributes(List.of(attribute(1L, 11L), attribute(2L, 21L)));
+        return dto;
+    }
+
+    private static CreateProductAttributeDTO attribute(Long attributeId, Long valueId) {
+        CreateProductAttributeDTO attr = new CreateProductAttributeDTO();
+        attr.setAttributeId(attributeId);
+        attr.setAttributeValueId(valueId);
+        return attr;
+    }
+}
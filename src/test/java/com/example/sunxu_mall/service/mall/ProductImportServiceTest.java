@@ -0,0 +1,159 @@
+package com.example.sunxu_mall.service.mall;
+
+import com.alibaba.excel.EasyExcel;
+import com.example.sunxu_mall.config.props.MallMgtExportProperties;
+import com.example.sunxu_mall.config.props.ProductImportConfig;
+import com.example.sunxu_mall.dto.file.FileDTO;
+import com.example.sunxu_mall.dto.mall.ProductImportErrorDTO;
+import com.example.sunxu_mall.dto.mall.ProductImportParamDTO;
+import com.example.sunxu_mall.dto.websocket.ProductImportProgressDTO;
+import com.example.sunxu_mall.entity.common.CommonTaskEntity;
+import com.example.sunxu_mall.exception.BusinessException;
+import com.example.sunxu_mall.service.UploadService;
+import com.example.sunxu_mall.service.common.CommonTaskService;
+import com.example.sunxu_mall.util.JsonUtil;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.web.multipart.MultipartFile;
+
+import javax.validation.Validation;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static com.example.sunxu_mall.errorcode.ErrorCode.PARAMETER_VALIDATION_ERROR;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * ProductImportService 行级错误、块失败提示与错误报告测试
+ *
+ * @author sunxu
+ */
+public class ProductImportServiceTest {
+
+    private static final String HEADER = "分类ID,品牌ID,单位ID,商品名称,型号,价格,库存,封面URL,SPU属性,SKU属性,轮播图,详情";
+
+    private final ProductService productService = mock(ProductService.class);
+    private final UploadService uploadService = mock(UploadService.class);
+    private final ProductImportConfig importConfig = new ProductImportConfig();
+    private final MallMgtExportProperties exportProperties = new MallMgtExportProperties();
+
+    /**
+     * 上传时读出的错误报告内容（临时文件上传后即删除）
+     */
+    private final List<ProductImportErrorDTO> report = new ArrayList<>();
+
+    @TempDir
+    Path tempDir;
+
+    private ProductImportService service;
+
+    @BeforeEach
+    public void setUp() {
+        importConfig.setChunkSize(2);
+        exportProperties.setTempPath(tempDir.toString() + "/");
+        when(uploadService.upload(any(MultipartFile.class), anyString(), anyString())).thenAnswer(inv -> {
+            try (InputStream in = inv.<MultipartFile>getArgument(0).getInputStream()) {
+                report.addAll(EasyExcel.read(in).head(ProductImportErrorDTO.class).sheet().doReadSync());
+            }
+            return FileDTO.builder().downloadUrl("http://files/report.xlsx").build();
+        });
+        service = new ProductImportService(productService, mock(CommonTaskService.class), uploadService,
+                Validation.buildDefaultValidatorFactory().getValidator(), importConfig, exportProperties);
+    }
+
+    @Test
+    public void testChunkFailureMessageHidesRawCause() {
+        String raw = "Data truncation: Data too long for column 'name' at row 1; SQL [insert into mall_product ...]";
+
+        String message = ProductImportService.chunkFailureMessage(new DataIntegrityViolationException(raw));
+        assertEquals("写入失败：数据不符合约束（字段超长、必填项缺失或关联数据不存在）", message);
+        assertFalse(message.contains("mall_product"));
+
+        assertEquals("写入失败：商品数据重复，请检查是否已导入",
+                ProductImportService.chunkFailureMessage(new DuplicateKeyException(raw)));
+        assertEquals("写入失败：数据库暂时不可用，请稍后重试",
+                ProductImportService.chunkFailureMessage(new QueryTimeoutException(raw)));
+        assertEquals("写入失败：系统内部错误，请联系管理员",
+                ProductImportService.chunkFailureMessage(new IllegalStateException(raw)));
+        assertEquals("写入失败：商品组不存在", ProductImportService.chunkFailureMessage(
+                new BusinessException(PARAMETER_VALIDATION_ERROR.getCode(), "商品组不存在")));
+    }
+
+    @Test
+    public void testFailedChunkReportedWithBusinessMessage() throws Exception {
+        when(productService.batchCreateProducts(anyMap()))
+                .thenThrow(new DataIntegrityViolationException("Column 'cover_url' cannot be null"))
+                .thenAnswer(inv -> {
+                    Map<Integer, String> errors = new LinkedHashMap<>();
+                    errors.put(6, "该规格商品已存在");
+                    return errors;
+                });
+
+        ProductImportProgressDTO result = service.runImport(task(csv(
+                "1,1,1,手机A,A1,10.00,5,,,,,",
+                "1,1,1,手机B,B1,11.00,5,,,,,",
+                "1,1,1,,C1,12.00,5,,,,,",
+                "1,1,1,手机D,D1,13.00,5,,,,,",
+                "1,1,1,手机E,E1,14.00,5,,,,,")));
+
+        assertEquals(5L, result.getProcessedRows());
+        assertEquals(1L, result.getSuccessRows());
+        assertEquals(4L, result.getFailedRows());
+        assertEquals("http://files/report.xlsx", result.getErrorFileUrl());
+
+        String chunkMessage = "写入失败：数据不符合约束（字段超长、必填项缺失或关联数据不存在）";
+        assertEquals(List.of(2, 3, 4, 6), rowNums());
+        assertEquals(chunkMessage, report.get(0).getMessage());
+        assertEquals(chunkMessage, report.get(1).getMessage());
+        assertEquals("商品名称不能为空", report.get(2).getMessage());
+        assertEquals("该规格商品已存在", report.get(3).getMessage());
+        report.forEach(error -> assertFalse(error.getMessage().contains("cover_url")));
+    }
+
+    @Test
+    public void testCleanImportWritesNoReport() throws Exception {
+        when(productService.batchCreateProducts(anyMap())).thenReturn(new LinkedHashMap<>());
+
+        ProductImportProgressDTO result = service.runImport(task(csv("1,1,1,手机A,A1,10.00,5,,,,,")));
+
+        assertEquals(1L, result.getSuccessRows());
+        assertNull(result.getErrorFileUrl());
+        verifyNoInteractions(uploadService);
+    }
+
+    private List<Integer> rowNums() {
+        List<Integer> rows = new ArrayList<>();
+        report.forEach(error -> rows.add(error.getRowNum()));
+        return rows;
+    }
+
+    private Path csv(String... lines) throws Exception {
+        Path file = tempDir.resolve("import.csv");
+        List<String> content = new ArrayList<>();
+        content.add(HEADER);
+        content.addAll(List.of(lines));
+        Files.write(file, content, StandardCharsets.UTF_8);
+        return file;
+    }
+
+    private static CommonTaskEntity task(Path file) {
+        ProductImportParamDTO param = ProductImportParamDTO.builder()
+                .originalName("import.csv")
+                .fileType("csv")
+                .filePath(file.toString())
+                .build();
+        return CommonTaskEntity.builder().id(1L).requestParam(JsonUtil.toJsonStr(param)).build();
+    }
+}
@@ -0,0 +1,129 @@
+package com.example.sunxu_mall.service.mall;
+
+import com.example.sunxu_mall.entity.mall.ProductEntity;
+import org.apache.ibatis.builder.xml.XMLMapperBuilder;
+import org.apache.ibatis.mapping.BoundSql;
+import org.apache.ibatis.session.Configuration;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 字段级合并更新：缺失原值、冲突字段计算与 mergeUpdateFields SQL 渲染测试
+ *
+ * @author sunxu
+ */
+public class ProductMergeUpdateTest {
+
+    private static final String MAPPER = "com/example/sunxu_mall/mapper/mall/ProductEntityMapper.xml";
+    private static final String STATEMENT = "com.example.sunxu_mall.mapper.mall.ProductEntityMapper.mergeUpdateFields";
+
+    private static Configuration configuration;
+
+    @BeforeAll
+    public static void loadMapper() throws Exception {
+        configuration = new Configuration();
+        try (InputStream in = ProductMergeUpdateTest.class.getClassLoader().getResourceAsStream(MAPPER)) {
+            assertNotNull(in, MAPPER);
+            new XMLMapperBuilder(in, configuration, MAPPER, configuration.getSqlFragments()).parse();
+        }
+    }
+
+    @Test
+    public void testMissingOriginalFields() {
+        ProductEntity changes = ProductEntity.builder().name("新名称").price(new BigDecimal("9.90")).build();
+
+        assertEquals(List.of("name", "price"),
+                ProductService.missingOriginalFields(ProductEntity.builder().build(), changes));
+        assertEquals(List.of("price"),
+                ProductService.missingOriginalFields(ProductEntity.builder().name("旧名称").build(), changes));
+        assertEquals(List.of(), ProductService.missingOriginalFields(
+                ProductEntity.builder().name("旧名称").price(BigDecimal.ONE).coverUrl("unused").build(), changes));
+    }
+
+    @Test
+    public void testNoConflictWhenCurrentEqualsOriginalOrTarget() {
+        ProductEntity original = ProductEntity.builder().name("a").price(new BigDecimal("1.00")).build();
+        ProductEntity changes = ProductEntity.builder().name("b").price(new BigDecimal("2.00")).build();
+
+        // 当前值未被改动
+        assertEquals(List.of(), ProductService.conflictingFields(original, original, changes));
+        // 他人已改成相同的新值，BigDecimal 按数值比较
+        ProductEntity sameTarget = ProductEntity.builder().name("b").price(new BigDecimal("2")).build();
+        assertEquals(List.of(), ProductService.conflictingFields(sameTarget, original, changes));
+    }
+
+    @Test
+    public void testConflictOnlyForChangedFields() {
+        ProductEntity original = ProductEntity.builder().name("a").model("m1").quantity(10).build();
+        ProductEntity changes = ProductEntity.builder().name("b").build();
+        // 他人修改了 model，本次只修改 name，不算冲突
+        ProductEntity current = ProductEntity.builder().name("a").model("m2").quantity(20).build();
+        assertEquals(List.of(), ProductService.conflictingFields(current, original, changes));
+
+        ProductEntity renamed = ProductEntity.builder().name("c").model("m1").quantity(10).build();
+        assertEquals(List.of("name"), ProductService.conflictingFields(renamed, original, changes));
+    }
+
+    @Test
+    public void testSqlSetsOnlyChangedColumns() {
+        ProductEntity row = ProductEntity.builder().id(1L).name("b").price(new BigDecimal("2.00")).build();
+        ProductEntity original = ProductEntity.builder().name("a").price(new BigDecimal("1.00")).build();
+
+        BoundSql sql = render(row, original, false);
+
+        assertEquals("update mall_product SET name = ?, price = ?, version = version + 1 "
+                        + "where id = ? and is_del = 0 "
+                        + "and (name <=> ? or name <=> ?) "
+                        + "and (price <=> ? or price <=> ?)",
+                normalize(sql.getSql()));
+        assertEquals(List.of("row.name", "row.price", "row.id",
+                        "original.name", "row.name", "original.price", "row.price"),
+                properties(sql));
+    }
+
+    @Test
+    public void testSqlGuardRemainAgainstQuantity() {
+        ProductEntity row = ProductEntity.builder().id(1L).quantity(50).build();
+        ProductEntity original = ProductEntity.builder().quantity(100).build();
+
+        String sql = normalize(render(row, original, true).getSql());
+
+        assertTrue(sql.endsWith("and (quantity <=> ? or quantity <=> ?) and remain_quantity <= ?"), sql);
+    }
+
+    @Test
+    public void testSqlGuardRemainWithNewRemain() {
+        ProductEntity row = ProductEntity.builder().id(1L).remainQuantity(5).build();
+        ProductEntity original = ProductEntity.builder().remainQuantity(8).build();
+
+        String sql = normalize(render(row, original, true).getSql());
+
+        assertTrue(sql.endsWith("and (remain_quantity <=> ? or remain_quantity <=> ?) and ? <= quantity"), sql);
+        assertFalse(normalize(render(row, original, false).getSql()).contains("<= quantity"));
+    }
+
+    private static BoundSql render(ProductEntity row, ProductEntity original, boolean guardRemain) {
+        Map<String, Object> params = new HashMap<>();
+        params.put("row", row);
+        params.put("original", original);
+        params.put("guardRemain", guardRemain);
+        return configuration.getMappedStatement(STATEMENT).getBoundSql(params);
+    }
+
+    private static List<String> properties(BoundSql sql) {
+        return sql.getParameterMappings().stream().map(m -> m.getProperty()).collect(Collectors.toList());
+    }
+
+    private static String normalize(String sql) {
+        return sql.replaceAll("\\s+", " ").trim();
+    }
+}
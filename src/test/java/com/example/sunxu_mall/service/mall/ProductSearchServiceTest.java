@@ -0,0 +1,206 @@
+package com.example.sunxu_mall.service.mall;
+
+import com.example.sunxu_mall.config.props.ProductSearchConfig;
+import com.example.sunxu_mall.dto.mall.ProductQueryDTO;
+import com.example.sunxu_mall.entity.mall.ProductEntity;
+import com.example.sunxu_mall.entity.mall.ProductEntityExample;
+import com.example.sunxu_mall.mapper.mall.ProductEntityMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * ProductSearchService 全量加载、增量刷新、软删除与容量上限测试
+ *
+ * @author sunxu
+ */
+public class ProductSearchServiceTest {
+
+    private final ProductEntityMapper productMapper = mock(ProductEntityMapper.class);
+    private final ProductSearchConfig config = new ProductSearchConfig();
+
+    /**
+     * 模拟 mall_product 中未删除的商品
+     */
+    private final Map<Long, ProductEntity> table = new TreeMap<>();
+
+    private ProductSearchService service;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    public void setUp() {
+        table.put(1L, product(1L, "华为 Mate60 手机", "MATE60"));
+        table.put(2L, product(2L, "小米 14 手机", "XM14"));
+        table.put(3L, product(3L, "华为平板", "MATEPAD"));
+        when(productMapper.selectByCursorWithLimit(isNull(), isNull(), isNull(), isNull(), isNull(), isNull(), anyInt()))
+                .thenAnswer(inv -> table.values().stream()
+                        .sorted((a, b) -> Long.compare(b.getId(), a.getId()))
+                        .collect(Collectors.toList()));
+        when(productMapper.selectByIdsWithFilters(anyList(), any(), any(), any()))
+                .thenAnswer(inv -> ((List<Long>) inv.getArgument(0)).stream()
+                        .map(table::get)
+                        .filter(p -> p != null)
+                        .collect(Collectors.toList()));
+        service = new ProductSearchService(productMapper, config, Runnable::run);
+    }
+
+    @Test
+    public void testNotServingBeforeLoad() {
+        assertFalse(service.canServe("手机", null));
+        assertNull(service.searchByCursor(query("手机", null), null, 10));
+        assertNull(service.countWithLimit(query("手机", null), 100));
+    }
+
+    @Test
+    public void testFullLoadAndSearch() {
+        service.onApplicationReady();
+
+        assertTrue(service.canServe("手机", null));
+        assertEquals(List.of(2L, 1L), ids(service.searchByCursor(query("手机", null), null, 10)));
+        assertEquals(List.of(1L), ids(service.searchByCursor(query("手机", null), 2L, 10)));
+        assertEquals(List.of(3L), ids(service.searchByCursor(query("华为", "pad"), null, 10)));
+        assertEquals(2L, service.countWithLimit(query("手机", null), 100));
+        assertEquals(1L, service.countWithLimit(query("手机", null), 1));
+    }
+
+    @Test
+    public void testCountWithExtraFilters() {
+        service.onApplicationReady();
+
+        ProductQueryDTO query = query("华为", null);
+        query.setCategoryId(9L);
+        assertEquals(2L, service.countWithLimit(query, 100));
+        verify(productMapper).selectByIdsWithFilters(List.of(3L, 1L), 9L, null, null);
+    }
+
+    @Test
+    public void testScanBudgetCountsVisitedCandidates() {
+        table.put(4L, product(4L, "abc", "A"));
+        // 同时包含 "ab"、"bc" 但不包含 "abc" 的商品：在索引中被访问但不匹配
+        for (long id = 5; id <= 14; id++) {
+            table.put(id, product(id, "ab bc", "B"));
+        }
+        config.setMaxScanCandidates(10);
+        service.onApplicationReady();
+
+        // 只匹配 1 条，但访问了 10 条以上候选：回退到 LIKE
+        assertNull(service.searchByCursor(query("abc", null), null, 10));
+        assertNull(service.countWithLimit(query("abc", null), 100));
+        verify(productMapper, never()).selectByIdsWithFilters(anyList(), any(), any(), any());
+
+        config.setMaxScanCandidates(11);
+        assertEquals(List.of(4L), ids(service.searchByCursor(query("abc", null), null, 10)));
+        assertEquals(1L, service.countWithLimit(query("abc", null), 100));
+    }
+
+    @Test
+    public void testKeywordsNotMatchingLiterallyFallBackToLike() {
+        service.onApplicationReady();
+
+        // LIKE 中 %、_ 为通配符，\ 为转义符；LIKE 不去除关键词首尾空白
+        assertFalse(service.canServe("手%", null));
+        assertFalse(service.canServe(null, "MATE_0"));
+        assertFalse(service.canServe("手\\机", null));
+        assertFalse(service.canServe("手机 ", null));
+        assertFalse(service.canServe(" ", "MATE60"));
+        assertNull(service.searchByCursor(query("华为", "MATE_0"), null, 10));
+        assertNull(service.countWithLimit(query(" 手机", null), 100));
+
+        assertTrue(service.canServe("华为 Mate60", ""));
+        assertEquals(List.of(1L), ids(service.searchByCursor(query("华为 mate60", null), null, 10)));
+    }
+
+    @Test
+    public void testIncrementalRefreshAppliesRenameAndSoftDelete() {
+        service.onApplicationReady();
+
+        ProductEntity renamed = product(2L, "小米 平板", "XMPAD");
+        ProductEntity deleted = product(1L, "华为 Mate60 手机", "MATE60");
+        deleted.setIsDel(true);
+        table.put(2L, renamed);
+        table.remove(1L);
+        when(productMapper.selectByExample(any(ProductEntityExample.class))).thenReturn(List.of(renamed, deleted));
+
+        service.scheduledRefresh();
+
+        assertEquals(List.of(), ids(service.searchByCursor(query("手机", null), null, 10)));
+        assertEquals(List.of(3L, 2L), ids(service.searchByCursor(query("平板", null), null, 10)));
+        assertEquals(2, service.stats().get("products"));
+    }
+
+    @Test
+    public void testProductsChangedRemovesMissingProducts() {
+        service.onApplicationReady();
+
+        table.remove(3L);
+        when(productMapper.selectByExample(any(ProductEntityExample.class))).thenReturn(List.of());
+        service.onProductsChanged(List.of(3L));
+
+        assertEquals(List.of(1L), ids(service.searchByCursor(query("华为", null), null, 10)));
+    }
+
+    @Test
+    public void testFullLoadSkippedWhenOverCapacity() {
+        config.setMaxIndexedProducts(2);
+
+        service.onApplicationReady();
+
+        assertFalse(service.canServe("手机", null));
+        assertEquals(false, service.stats().get("loaded"));
+    }
+
+    @Test
+    public void testIndexDroppedWhenIncrementalGrowthExceedsCapacity() {
+        config.setMaxIndexedProducts(3);
+        service.onApplicationReady();
+        assertTrue(service.canServe("手机", null));
+
+        ProductEntity added = product(4L, "新手机", "NEW");
+        table.put(4L, added);
+        when(productMapper.selectByExample(any(ProductEntityExample.class))).thenReturn(List.of(added));
+        service.onProductsChanged(List.of(4L));
+
+        assertFalse(service.canServe("手机", null));
+        assertNull(service.searchByCursor(query("手机", null), null, 10));
+    }
+
+    @Test
+    public void testStatsReportsEstimatedMemory() {
+        service.onApplicationReady();
+
+        Map<String, Object> stats = service.stats();
+        assertEquals(true, stats.get("loaded"));
+        assertEquals(3, stats.get("products"));
+        assertTrue((Long) stats.get("estimatedBytes") > 0);
+    }
+
+    private static ProductQueryDTO query(String name, String model) {
+        ProductQueryDTO query = new ProductQueryDTO();
+        query.setName(name);
+        query.setModel(model);
+        return query;
+    }
+
+    private static ProductEntity product(Long id, String name, String model) {
+        return ProductEntity.builder()
+                .id(id)
+                .name(name)
+                .model(model)
+                .isDel(false)
+                .updateTime(LocalDateTime.now())
+                .build();
+    }
+
+    private static List<Long> ids(List<ProductEntity> products) {
+        return products.stream().map(ProductEntity::getId).collect(Collectors.toList());
+    }
+}
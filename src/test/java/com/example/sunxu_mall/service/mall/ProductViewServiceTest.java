@@ -0,0 +1,159 @@
+package com.example.sunxu_mall.service.mall;
+
+import com.example.sunxu_mall.config.props.ProductDetailConfig;
+import com.example.sunxu_mall.config.props.ProductViewConfig;
+import com.example.sunxu_mall.dto.mall.ProductDetailDTO;
+import com.example.sunxu_mall.entity.mall.MallProductViewEntity;
+import com.example.sunxu_mall.entity.mall.ProductEntity;
+import com.example.sunxu_mall.mapper.mall.MallProductViewEntityMapper;
+import com.example.sunxu_mall.mapper.mall.ProductEntityMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * ProductViewService 投影、重建与读取测试
+ *
+ * @author sunxu
+ */
+public class ProductViewServiceTest {
+
+    private final MallProductViewEntityMapper productViewMapper = mock(MallProductViewEntityMapper.class);
+    private final ProductEntityMapper productMapper = mock(ProductEntityMapper.class);
+    private final ProductService productService = mock(ProductService.class);
+    private final ProductViewConfig viewConfig = new ProductViewConfig();
+
+    private ProductViewService service;
+
+    @BeforeEach
+    public void setUp() {
+        viewConfig.setEnabled(true);
+        viewConfig.setRebuildBatchSize(2);
+        service = new ProductViewService(productViewMapper, productMapper, productService,
+                viewConfig, new ProductDetailConfig(), Runnable::run);
+        when(productService.withLiveStock(any(ProductDetailDTO.class))).thenAnswer(inv -> inv.getArgument(0));
+        when(productService.withLiveStock(anyList())).thenAnswer(inv -> inv.getArgument(0));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testProjectUpsertsLiveAndDeletesRemoved() {
+        Map<Long, ProductDetailDTO> source = new HashMap<>();
+        source.put(1L, product(1L, 10, 3));
+        ProductDetailDTO deleted = product(2L, 5, 1);
+        deleted.setIsDel(true);
+        source.put(2L, deleted);
+        when(productService.loadFromSource(List.of(1L, 2L, 3L))).thenReturn(source);
+
+        service.project(List.of(1L, 2L, 1L, 3L));
+
+        ArgumentCaptor<List<MallProductViewEntity>> upserts = ArgumentCaptor.forClass(List.class);
+        verify(productViewMapper).batchUpsert(upserts.capture());
+        assertEquals(1, upserts.getValue().size());
+        MallProductViewEntity row = upserts.getValue().get(0);
+        assertEquals(1L, row.getProductId());
+        assertEquals(10, row.getRemainQuantity());
+        assertEquals(3, row.getProductVersion());
+        verify(productViewMapper).deleteByProductIds(List.of(2L, 3L));
+    }
+
+    @Test
+    public void testProjectIgnoresEmptyInput() {
+        service.project(Collections.singletonList(null));
+
+        verifyNoInteractions(productService, productViewMapper);
+    }
+
+    @Test
+    public void testRebuildWalksCursorAndRemovesOrphans() {
+        when(productMapper.selectByCursorWithLimit(isNull(), isNull(), isNull(), isNull(), isNull(), isNull(), eq(2)))
+                .thenReturn(List.of(entity(9L), entity(8L)));
+        when(productMapper.selectByCursorWithLimit(isNull(), isNull(), isNull(), isNull(), isNull(), eq(8L), eq(2)))
+                .thenReturn(List.of(entity(7L)));
+        when(productService.loadFromSource(anyList())).thenReturn(Collections.emptyMap());
+
+        assertEquals(3L, service.rebuild());
+
+        verify(productService).loadFromSource(List.of(9L, 8L));
+        verify(productService).loadFromSource(List.of(7L));
+        verify(productViewMapper).deleteOrphans();
+    }
+
+    @Test
+    public void testStartRebuildRunsOnExecutor() {
+        when(productMapper.selectByCursorWithLimit(any(), any(), any(), any(), any(), any(), anyInt()))
+                .thenReturn(Collections.emptyList());
+
+        assertTrue(service.startRebuild());
+        // 同步执行器：重建已结束，标记已释放，可再次触发
+        assertTrue(service.startRebuild());
+        verify(productViewMapper, times(2)).deleteOrphans();
+    }
+
+    @Test
+    public void testReadSwitch() {
+        assertFalse(service.isReadEnabled());
+        viewConfig.setReadEnabled(true);
+        assertTrue(service.isReadEnabled());
+        viewConfig.setEnabled(false);
+        assertFalse(service.isReadEnabled());
+    }
+
+    @Test
+    public void testFindByIdAppliesLiveStock() {
+        when(productViewMapper.selectByProductId(1L, false)).thenReturn(view(1L, 10));
+        ProductDetailDTO live = product(1L, 4, 1);
+        when(productService.withLiveStock(any(ProductDetailDTO.class))).thenReturn(live);
+
+        assertSame(live, service.findById(1L, false));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testFindByIdsKeepsOrderAndAppliesLiveStock() {
+        when(productViewMapper.selectByProductIds(List.of(2L, 1L, 3L), false))
+                .thenReturn(List.of(view(1L, 10), view(2L, 20)));
+
+        List<ProductDetailDTO> result = service.findByIds(List.of(2L, 1L, 3L), false);
+
+        assertEquals(2, result.size());
+        assertEquals(2L, result.get(0).getId());
+        assertEquals(1L, result.get(1).getId());
+        ArgumentCaptor<List<ProductDetailDTO>> captor = ArgumentCaptor.forClass(List.class);
+        verify(productService).withLiveStock(captor.capture());
+        assertEquals(2, captor.getValue().size());
+    }
+
+    private static ProductDetailDTO product(Long id, int remain, int version) {
+        ProductDetailDTO dto = new ProductDetailDTO();
+        dto.setId(id);
+        dto.setName("product-" + id);
+        dto.setQuantity(100);
+        dto.setRemainQuantity(remain);
+        dto.setVersion(version);
+        dto.setIsDel(false);
+        return dto;
+    }
+
+    private static ProductEntity entity(Long id) {
+        return ProductEntity.builder().id(id).build();
+    }
+
+    private static MallProductViewEntity view(Long id, int remain) {
+        return MallProductViewEntity.builder()
+                .productId(id)
+                .name("product-" + id)
+                .remainQuantity(remain)
+                .productVersion(1)
+                .build();
+    }
+}
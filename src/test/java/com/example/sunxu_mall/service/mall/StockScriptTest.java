@@ -0,0 +1,166 @@
+package com.example.sunxu_mall.service.mall;
+
+import com.example.sunxu_mall.entity.mall.StockJournalEntity;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.redisson.Redisson;
+import org.redisson.api.RScript;
+import org.redisson.api.RedissonClient;
+import org.redisson.client.codec.StringCodec;
+import org.redisson.config.Config;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 库存 Lua 脚本测试（需要真实 Redis：-Dstock.test.redis=redis://127.0.0.1:6379）
+ * <p>
+ * 所有键使用随机 hash tag，测试结束后删除。
+ *
+ * @author sunxu
+ */
+@EnabledIfSystemProperty(named = "stock.test.redis", matches = ".+")
+public class StockScriptTest {
+
+    private static RedissonClient redissonClient;
+
+    private final String prefix = "{stock-test-" + UUID.randomUUID() + "}:";
+    private final String remain = prefix + "remain:1";
+    private final String journal = prefix + "journal";
+    private final String seq = prefix + "journal:seq";
+    private final String segments = prefix + "segments";
+
+    @BeforeAll
+    public static void connect() {
+        Config config = new Config();
+        config.useSingleServer().setAddress(System.getProperty("stock.test.redis"));
+        redissonClient = Redisson.create(config);
+    }
+
+    @AfterAll
+    public static void disconnect() {
+        redissonClient.shutdown();
+    }
+
+    @AfterEach
+    public void cleanUp() {
+        redissonClient.getKeys().deleteByPattern(prefix.replace("{", "\\{").replace("}", "\\}") + "*");
+    }
+
+    @Test
+    public void testChangeScript() {
+        set(remain, "5");
+        String request = prefix + "req:deduct:1:order-1";
+
+        assertEquals(2L, change(request, -3));
+        assertEquals(StockService.DUPLICATE, change(request, -3));
+        assertEquals(StockService.INSUFFICIENT, change(prefix + "req:deduct:1:order-2", -3));
+        assertEquals("2", get(remain));
+        assertTrue(redissonClient.getBucket(request, StringCodec.INSTANCE).remainTimeToLive() > 0);
+
+        List<String> entries = journal();
+        assertEquals(1, entries.size());
+        StockJournalEntity entry = StockService.parseEntry(entries.get(0));
+        assertEquals(1L, entry.getEntrySeq());
+        assertEquals(1L, entry.getProductId());
+        assertEquals(-3, entry.getDelta());
+        assertEquals("order-1", entry.getBizKey());
+    }
+
+    @Test
+    public void testChangeScriptClampsReleaseToTotal() {
+        set(remain, "8");
+
+        assertEquals(10L, release(prefix + "req:release:1:cancel-1", 5, "10"));
+        // 已达总库存：只记录幂等键，不记流水
+        assertEquals(10L, release(prefix + "req:release:1:cancel-2", 3, "10"));
+        assertEquals(StockService.DUPLICATE, release(prefix + "req:release:1:cancel-2", 3, "10"));
+        assertEquals("10", get(remain));
+        assertEquals(List.of("1:1:2:cancel-1"), journal());
+    }
+
+    @Test
+    public void testChangeScriptNotLoadedAndSegmented() {
+        assertEquals(StockService.NOT_LOADED, change(prefix + "req:deduct:1:order-1", -1));
+
+        set(remain, "5");
+        redissonClient.getMap(segments, StringCodec.INSTANCE).put("1", "2");
+        assertEquals(StockService.SEGMENTED, change(prefix + "req:deduct:1:order-1", -1));
+        assertEquals("5", get(remain));
+    }
+
+    @Test
+    public void testClaimScript() {
+        String request = prefix + "req:deduct:1:order-1";
+
+        assertEquals(1L, eval(StockService.CLAIM_SCRIPT, List.<Object>of(request), "60"));
+        assertEquals(0L, eval(StockService.CLAIM_SCRIPT, List.<Object>of(request), "60"));
+        // 主键模式遇到分段模式占用的幂等键视为重复
+        set(remain, "5");
+        assertEquals(StockService.DUPLICATE, change(request, -1));
+    }
+
+    @Test
+    public void testSegmentChangeScriptTreatsMissingAsZero() {
+        List<Object> keys = Arrays.asList(remain, journal, seq);
+
+        assertEquals(-1L, eval(StockSegmentService.SEGMENT_CHANGE_SCRIPT, keys, "-1", "1", "order-1"));
+        assertEquals(3L, eval(StockSegmentService.SEGMENT_CHANGE_SCRIPT, keys, "3", "1", "order-2"));
+        assertEquals(1L, eval(StockSegmentService.SEGMENT_CHANGE_SCRIPT, keys, "-2", "1", "order-3"));
+        assertEquals(List.of("1:1:3:order-2", "2:1:-2:order-3"), journal());
+    }
+
+    @Test
+    public void testTakeAndGiveScripts() {
+        List<Object> keys = Arrays.asList(remain, journal, seq);
+        set(remain, "4");
+
+        assertEquals(4L, eval(StockService.TAKE_SCRIPT, keys, "10", "1", "segment:drain"));
+        assertEquals(0L, eval(StockService.TAKE_SCRIPT, keys, "10", "1", "segment:drain"));
+        assertEquals(6L, eval(StockService.GIVE_SCRIPT, keys, "6", "1", "segment:rebalance"));
+        assertEquals(List.of("1:1:-4:segment:drain", "2:1:6:segment:rebalance"), journal());
+    }
+
+    @Test
+    public void testSeqFloorScript() {
+        set(seq, "3");
+
+        eval(StockService.SEQ_FLOOR_SCRIPT, List.<Object>of(seq), "10");
+        assertEquals("10", get(seq));
+        eval(StockService.SEQ_FLOOR_SCRIPT, List.<Object>of(seq), "5");
+        assertEquals("10", get(seq));
+    }
+
+    private long change(String request, int delta) {
+        return eval(StockService.CHANGE_SCRIPT, Arrays.asList(remain, journal, seq, request, segments),
+                String.valueOf(delta), "1", request.substring(request.lastIndexOf(':') + 1), "60");
+    }
+
+    private long release(String request, int delta, String total) {
+        return eval(StockService.CHANGE_SCRIPT, Arrays.asList(remain, journal, seq, request, segments),
+                String.valueOf(delta), "1", request.substring(request.lastIndexOf(':') + 1), "60", total);
+    }
+
+    private Long eval(String script, List<Object> keys, Object... values) {
+        return redissonClient.getScript(StringCodec.INSTANCE)
+                .eval(RScript.Mode.READ_WRITE, script, RScript.ReturnType.INTEGER, keys, values);
+    }
+
+    private void set(String key, String value) {
+        redissonClient.<String>getBucket(key, StringCodec.INSTANCE).set(value);
+    }
+
+    private String get(String key) {
+        return redissonClient.<String>getBucket(key, StringCodec.INSTANCE).get();
+    }
+
+    private List<String> journal() {
+        return redissonClient.<String>getList(journal, StringCodec.INSTANCE).readAll();
+    }
+}
@@ -0,0 +1,272 @@
+package com.example.sunxu_mall.service.mall;
+
+import com.example.sunxu_mall.config.beans.CacheConfig;
+import com.example.sunxu_mall.config.props.StockConfig;
+import com.example.sunxu_mall.entity.mall.StockJournalEntity;
+import com.example.sunxu_mall.mapper.mall.StockJournalMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.invocation.InvocationOnMock;
+import org.redisson.api.RBucket;
+import org.redisson.api.RBuckets;
+import org.redisson.api.RKeys;
+import org.redisson.api.RMap;
+import org.redisson.api.RScript;
+import org.redisson.api.RedissonClient;
+import org.redisson.client.codec.Codec;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * StockSegmentService 分段扣减、共用幂等键与再平衡测试
+ * <p>
+ * Redis 以内存 Map 模拟，按脚本语义执行（脚本本身见 StockScriptTest）。
+ *
+ * @author sunxu
+ */
+public class StockSegmentServiceTest {
+
+    private static final Long PRODUCT_ID = 1L;
+    private static final String BIZ_KEY = "order-1";
+
+    private final Map<String, String> store = new HashMap<>();
+    private final Map<String, List<String>> lists = new HashMap<>();
+    private final Map<String, String> segmentsHash = new HashMap<>();
+    private final RedissonClient redissonClient = mock(RedissonClient.class);
+    private final ConcurrentMapCacheManager cacheManager = new ConcurrentMapCacheManager();
+    private final StockConfig config = new StockConfig();
+
+    private StockSegmentService service;
+    private int home;
+    private int donor;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    public void setUp() {
+        config.setSegmentShards(4);
+        config.setSegmentRebalanceAttempts(3);
+
+        RScript script = mock(RScript.class, this::eval);
+        RBuckets buckets = mock(RBuckets.class, inv -> {
+            if (!"get".equals(inv.getMethod().getName())) {
+                return null;
+            }
+            Map<String, String> values = new LinkedHashMap<>();
+            for (Object key : inv.getArguments()) {
+                if (store.containsKey(key)) {
+                    values.put((String) key, store.get(key));
+                }
+            }
+            return values;
+        });
+        RKeys keys = mock(RKeys.class, inv -> "delete".equals(inv.getMethod().getName())
+                ? Arrays.stream(inv.getArguments()).filter(key -> store.remove(key) != null).count() : null);
+        RMap<String, String> segments = mock(RMap.class);
+        when(segments.get(any())).thenAnswer(inv -> segmentsHash.get(inv.<String>getArgument(0)));
+        when(segments.readAllMap()).thenAnswer(inv -> new HashMap<>(segmentsHash));
+
+        when(redissonClient.getScript(any(Codec.class))).thenReturn(script);
+        when(redissonClient.getBuckets(any(Codec.class))).thenReturn(buckets);
+        when(redissonClient.getKeys()).thenReturn(keys);
+        when(redissonClient.getMap(eq(StockService.SEGMENTS_KEY), any(Codec.class))).thenAnswer(inv -> segments);
+        when(redissonClient.getBucket(anyString(), any(Codec.class))).thenAnswer(inv -> {
+            String key = inv.getArgument(0);
+            RBucket<String> bucket = mock(RBucket.class);
+            when(bucket.get()).thenAnswer(i -> store.get(key));
+            return bucket;
+        });
+
+        service = new StockSegmentService(redissonClient, cacheManager, mock(StockJournalMapper.class), config);
+
+        segmentsHash.put(String.valueOf(PRODUCT_ID), "2");
+        store.put(StockService.remainKey(PRODUCT_ID), "0");
+        home = service.shard(PRODUCT_ID, Math.floorMod(BIZ_KEY.hashCode(), 2));
+        donor = service.shard(PRODUCT_ID, 1 - Math.floorMod(BIZ_KEY.hashCode(), 2));
+    }
+
+    @Test
+    public void testNotSegmented() {
+        segmentsHash.clear();
+
+        assertEquals(StockService.NOT_SEGMENTED,
+                service.change(PRODUCT_ID, -1, StockService.DEDUCT_REQUEST_PREFIX, BIZ_KEY));
+        assertFalse(store.containsKey(requestKey()));
+    }
+
+    @Test
+    public void testDeductFromHomeSegment() {
+        setSegments(10, 10);
+
+        assertEquals(17L, service.change(PRODUCT_ID, -3, StockService.DEDUCT_REQUEST_PREFIX, BIZ_KEY));
+
+        assertEquals("7", store.get(StockSegmentService.remainKey(home, PRODUCT_ID)));
+        assertEquals("10", store.get(StockSegmentService.remainKey(donor, PRODUCT_ID)));
+        assertTrue(store.containsKey(requestKey()));
+        assertEquals(List.of(-3), deltas(home, BIZ_KEY));
+    }
+
+    @Test
+    public void testDuplicateRequestDeductedOnce() {
+        setSegments(10, 10);
+
+        service.change(PRODUCT_ID, -3, StockService.DEDUCT_REQUEST_PREFIX, BIZ_KEY);
+        assertEquals(17L, service.change(PRODUCT_ID, -3, StockService.DEDUCT_REQUEST_PREFIX, BIZ_KEY));
+
+        assertEquals(List.of(-3), deltas(home, BIZ_KEY));
+    }
+
+    @Test
+    public void testMarkerSharedWithMainMode() {
+        setSegments(10, 10);
+        // 切换分段前已在主键模式扣减过
+        store.put(requestKey(), "5");
+
+        assertEquals(20L, service.change(PRODUCT_ID, -3, StockService.DEDUCT_REQUEST_PREFIX, BIZ_KEY));
+        assertEquals(List.of(), deltas(home, BIZ_KEY));
+
+        // 不同商品使用同一业务键互不影响
+        assertNotEquals(requestKey(), StockService.requestKey(StockService.DEDUCT_REQUEST_PREFIX, 2L, BIZ_KEY));
+    }
+
+    @Test
+    public void testRebalanceMovesHalfOfRichestDonor() {
+        setSegments(1, 10);
+
+        assertEquals(8L, service.change(PRODUCT_ID, -3, StockService.DEDUCT_REQUEST_PREFIX, BIZ_KEY));
+
+        // 缺口 2，对方一半 5 更大：转入 5 后扣减 3
+        assertEquals("3", store.get(StockSegmentService.remainKey(home, PRODUCT_ID)));
+        assertEquals("5", store.get(StockSegmentService.remainKey(donor, PRODUCT_ID)));
+        assertEquals(List.of(5), deltas(home, "segment:rebalance"));
+        assertEquals(List.of(-5), deltas(donor, "segment:rebalance"));
+        assertEquals(List.of(-3), deltas(home, BIZ_KEY));
+        assertEquals(1L, service.stats().get("rebalanceCount"));
+    }
+
+    @Test
+    public void testRebalanceTakesShortfallWhenLarger() {
+        setSegments(0, 6);
+
+        assertEquals(1L, service.change(PRODUCT_ID, -5, StockService.DEDUCT_REQUEST_PREFIX, BIZ_KEY));
+
+        assertEquals(List.of(5), deltas(home, "segment:rebalance"));
+        assertEquals("1", store.get(StockSegmentService.remainKey(donor, PRODUCT_ID)));
+    }
+
+    @Test
+    public void testInsufficientReleasesMarker() {
+        setSegments(1, 1);
+
+        assertEquals(StockService.INSUFFICIENT,
+                service.change(PRODUCT_ID, -5, StockService.DEDUCT_REQUEST_PREFIX, BIZ_KEY));
+
+        assertFalse(store.containsKey(requestKey()));
+        assertEquals("2", store.get(StockSegmentService.remainKey(home, PRODUCT_ID)));
+        assertEquals("0", store.get(StockSegmentService.remainKey(donor, PRODUCT_ID)));
+        assertEquals(List.of(), deltas(home, BIZ_KEY));
+        assertEquals(1L, service.stats().get("insufficientCount"));
+
+        // 补货后同一业务键可以重试
+        store.put(StockSegmentService.remainKey(home, PRODUCT_ID), "9");
+        assertEquals(4L, service.change(PRODUCT_ID, -5, StockService.DEDUCT_REQUEST_PREFIX, BIZ_KEY));
+    }
+
+    @Test
+    public void testInsufficientAfterDisableFallsBackToMain() {
+        setSegments(0, 0);
+        segmentsHash.clear();
+        cacheManager.getCache(CacheConfig.STOCK_SEGMENT_CACHE).put(PRODUCT_ID, 2);
+
+        assertEquals(StockService.NOT_SEGMENTED,
+                service.change(PRODUCT_ID, -1, StockService.DEDUCT_REQUEST_PREFIX, BIZ_KEY));
+        assertFalse(store.containsKey(requestKey()));
+    }
+
+    private void setSegments(int homeValue, int donorValue) {
+        store.put(StockSegmentService.remainKey(home, PRODUCT_ID), String.valueOf(homeValue));
+        store.put(StockSegmentService.remainKey(donor, PRODUCT_ID), String.valueOf(donorValue));
+    }
+
+    private static String requestKey() {
+        return StockService.requestKey(StockService.DEDUCT_REQUEST_PREFIX, PRODUCT_ID, BIZ_KEY);
+    }
+
+    /**
+     * 指定分片流水中某业务键的增量（经 parseEntry 解析）
+     */
+    private List<Integer> deltas(int shard, String bizKey) {
+        return lists.getOrDefault(StockSegmentService.journalKey(shard), List.of()).stream()
+                .map(StockService::parseEntry)
+                .filter(entry -> bizKey.equals(entry.getBizKey()))
+                .map(StockJournalEntity::getDelta)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * 按脚本语义模拟 RScript.eval(mode, script, returnType, keys, values...)
+     */
+    @SuppressWarnings("unchecked")
+    private Object eval(InvocationOnMock inv) {
+        if (!"eval".equals(inv.getMethod().getName())) {
+            return null;
+        }
+        Object[] args = inv.getArguments();
+        String script = (String) args[1];
+        List<String> keys = new ArrayList<>();
+        ((List<Object>) args[3]).forEach(key -> keys.add((String) key));
+        Object[] argv = Arrays.copyOfRange(args, 4, args.length);
+
+        if (StockService.CLAIM_SCRIPT.equals(script)) {
+            return store.putIfAbsent(keys.get(0), "segment") == null ? 1L : 0L;
+        }
+        if (StockSegmentService.SEGMENT_CHANGE_SCRIPT.equals(script)) {
+            long delta = Long.parseLong((String) argv[0]);
+            long remain = value(keys.get(0));
+            if (remain + delta < 0) {
+                return -1L;
+            }
+            return append(keys, remain + delta, delta, argv);
+        }
+        if (StockService.TAKE_SCRIPT.equals(script)) {
+            long current = value(keys.get(0));
+            long take = Math.min(current, Long.parseLong((String) argv[0]));
+            if (take <= 0) {
+                return 0L;
+            }
+            append(keys, current - take, -take, argv);
+            return take;
+        }
+        if (StockService.GIVE_SCRIPT.equals(script)) {
+            long amount = Long.parseLong((String) argv[0]);
+            return append(keys, value(keys.get(0)) + amount, amount, argv);
+        }
+        return fail("unexpected script: " + script);
+    }
+
+    /**
+     * 写入新值并追加流水：KEYS = [remain, journal, seq]，ARGV = [_, productId, bizKey]
+     */
+    private long append(List<String> keys, long after, long delta, Object[] argv) {
+        store.put(keys.get(0), String.valueOf(after));
+        long seq = value(keys.get(2)) + 1;
+        store.put(keys.get(2), String.valueOf(seq));
+        lists.computeIfAbsent(keys.get(1), k -> new ArrayList<>()).add(seq + ":" + argv[1] + ":" + delta + ":" + argv[2]);
+        return after;
+    }
+
+    private long value(String key) {
+        String value = store.get(key);
+        return value == null ? 0L : Long.parseLong(value);
+    }
+}
@@ -0,0 +1,77 @@
+package com.example.sunxu_mall.service.mall;
+
+import com.example.sunxu_mall.config.props.StockConfig;
+import com.example.sunxu_mall.entity.mall.ProductEntity;
+import com.example.sunxu_mall.entity.mall.StockJournalEntity;
+import com.example.sunxu_mall.exception.BusinessException;
+import com.example.sunxu_mall.mapper.mall.ProductEntityMapper;
+import com.example.sunxu_mall.mapper.mall.StockJournalMapper;
+import org.junit.jupiter.api.Test;
+import org.redisson.api.RedissonClient;
+
+import java.util.List;
+
+import static com.example.sunxu_mall.errorcode.ErrorCode.STOCK_INSUFFICIENT;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * StockService 流水解析、键格式与回补上限测试
+ *
+ * @author sunxu
+ */
+public class StockServiceTest {
+
+    @Test
+    public void testParseEntry() {
+        StockJournalEntity entry = StockService.parseEntry("12:5:-3:order-1");
+
+        assertEquals(12L, entry.getEntrySeq());
+        assertEquals(5L, entry.getProductId());
+        assertEquals(-3, entry.getDelta());
+        assertEquals("order-1", entry.getBizKey());
+    }
+
+    @Test
+    public void testParseEntryKeepsColonsInBizKey() {
+        assertEquals("segment:rebalance", StockService.parseEntry("7:1:5:segment:rebalance").getBizKey());
+        assertNull(StockService.parseEntry("7:1:5").getBizKey());
+    }
+
+    @Test
+    public void testParseEntryRejectsMalformed() {
+        assertNull(StockService.parseEntry(null));
+        assertNull(StockService.parseEntry(""));
+        assertNull(StockService.parseEntry("7:1"));
+        assertNull(StockService.parseEntry("x:1:5:order"));
+        assertNull(StockService.parseEntry("7:1:5.5:order"));
+    }
+
+    @Test
+    public void testRequestKeySharedHashTagPerProduct() {
+        String key = StockService.requestKey(StockService.DEDUCT_REQUEST_PREFIX, 5L, "order-1");
+
+        assertEquals("{stock}:req:deduct:5:order-1", key);
+        assertTrue(key.startsWith(StockService.KEY_PREFIX));
+        assertNotEquals(key, StockService.requestKey(StockService.RELEASE_REQUEST_PREFIX, 5L, "order-1"));
+    }
+
+    @Test
+    public void testReleaseBoundedByTotalWhenDisabled() {
+        ProductEntityMapper productMapper = mock(ProductEntityMapper.class);
+        when(productMapper.selectRemainQuantityByIds(anyList())).thenReturn(List.of(
+                ProductEntity.builder().id(5L).quantity(10).remainQuantity(9).isDel(false).build()));
+        StockService service = new StockService(mock(RedissonClient.class), productMapper,
+                mock(StockJournalMapper.class), mock(StockSegmentService.class), new StockConfig());
+
+        when(productMapper.addRemainQuantityWithinBounds(5L, 1)).thenReturn(1);
+        assertEquals(9, service.release(5L, 1, "cancel-1"));
+
+        // 超出总库存：条件更新 0 行，不再无上限累加
+        when(productMapper.addRemainQuantityWithinBounds(5L, 2)).thenReturn(0);
+        BusinessException e = assertThrows(BusinessException.class, () -> service.release(5L, 2, "cancel-2"));
+        assertEquals(STOCK_INSUFFICIENT.getCode(), e.getCode());
+        verify(productMapper, never()).batchAddRemainQuantity(anyMap());
+    }
+}
@@ -0,0 +1,143 @@
+package com.example.sunxu_mall.service.task.impl;
+
+import cn.hutool.extra.spring.SpringUtil;
+import com.example.sunxu_mall.constant.ExportConstant;
+import com.example.sunxu_mall.entity.common.CommonTaskEntity;
+import com.example.sunxu_mall.enums.ExcelBizTypeEnum;
+import com.example.sunxu_mall.enums.TaskStatusEnum;
+import com.example.sunxu_mall.exception.BusinessException;
+import com.example.sunxu_mall.model.ExportCheckpoint;
+import com.example.sunxu_mall.model.UploadCheckpoint;
+import com.example.sunxu_mall.mq.producer.MessageProducer;
+import com.example.sunxu_mall.service.common.CommonNotifyService;
+import com.example.sunxu_mall.service.common.CommonTaskService;
+import com.example.sunxu_mall.service.export.ExcelExportService;
+import com.example.sunxu_mall.service.mall.ProductService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ApplicationContext;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * ExcelExportTask 失败重试与检查点保留/清除测试
+ *
+ * @author sunxu
+ */
+public class ExcelExportTaskTest {
+
+    private static final Long TASK_ID = 1L;
+
+    private final CommonTaskService commonTaskService = mock(CommonTaskService.class);
+    private final ExcelExportService excelExportService = mock(ExcelExportService.class);
+    private final ProductService productService = mock(ProductService.class);
+
+    /**
+     * 任务表中保存的检查点
+     */
+    private final AtomicReference<ExportCheckpoint> stored = new AtomicReference<>();
+
+    /**
+     * 每次导出收到的续传检查点
+     */
+    private final List<ExportCheckpoint> resumedFrom = new ArrayList<>();
+
+    private final ExportCheckpoint checkpoint = ExportCheckpoint.builder()
+            .format("csv.gz")
+            .cursorId(500L)
+            .rows(1000)
+            .upload(UploadCheckpoint.builder().path("/data/export.csv.gz").bytes(4096).build())
+            .build();
+
+    private ExcelExportTask task;
+
+    @BeforeEach
+    public void setUp() {
+        when(commonTaskService.getExportCheckpoint(TASK_ID)).thenAnswer(inv -> stored.get());
+        doAnswer(inv -> {
+            stored.set(inv.getArgument(1));
+            return null;
+        }).when(commonTaskService).saveExportCheckpoint(eq(TASK_ID), any());
+        doAnswer(inv -> {
+            stored.set(null);
+            return null;
+        }).when(commonTaskService).clearExportCheckpoint(TASK_ID);
+
+        ApplicationContext applicationContext = mock(ApplicationContext.class);
+        when(applicationContext.getBean(ExcelBizTypeEnum.PRODUCT.getServiceName())).thenReturn(productService);
+        new SpringUtil().setApplicationContext(applicationContext);
+
+        task = new ExcelExportTask(commonTaskService, mock(MessageProducer.class), mock(CommonNotifyService.class),
+                mock(TransactionTemplate.class), excelExportService);
+    }
+
+    @Test
+    public void testRetryAfterWaitingResumesFromCheckpoint() {
+        when(productService.export(any(), anyString(), anyString(), any(), any()))
+                .thenAnswer(inv -> {
+                    resumedFrom.add(inv.getArgument(3));
+                    // 写出一个检查点后失败
+                    inv.<Consumer<ExportCheckpoint>>getArgument(4).accept(checkpoint);
+                    throw new BusinessException("db down");
+                })
+                .thenAnswer(inv -> {
+                    resumedFrom.add(inv.getArgument(3));
+                    return "http://files/export.csv.gz";
+                });
+        CommonTaskEntity entity = entity(0);
+
+        task.doTask(entity);
+
+        // 未达最大失败次数：恢复为待执行并保留检查点
+        assertEquals(TaskStatusEnum.WAITING.getCode(), entity.getStatus());
+        assertEquals((byte) 1, entity.getFailureCount());
+        assertEquals(checkpoint, stored.get());
+        verify(commonTaskService, never()).clearExportCheckpoint(any());
+        verify(excelExportService, never()).discardCheckpoint(any());
+
+        task.doTask(entity);
+
+        // 重试时重新加载检查点并续传，成功后清除
+        assertEquals(TaskStatusEnum.SUCCESS.getCode(), entity.getStatus());
+        assertEquals("http://files/export.csv.gz", entity.getFileUrl());
+        assertNull(resumedFrom.get(0));
+        assertEquals(checkpoint, resumedFrom.get(1));
+        assertNull(stored.get());
+        verify(commonTaskService, times(2)).getExportCheckpoint(TASK_ID);
+        verify(excelExportService, never()).discardCheckpoint(any());
+    }
+
+    @Test
+    public void testFinalFailureDiscardsCheckpoint() {
+        stored.set(checkpoint);
+        when(productService.export(any(), anyString(), anyString(), any(), any()))
+                .thenThrow(new BusinessException("db down"));
+        CommonTaskEntity entity = entity(ExportConstant.MAX_FAILURE_COUNT - 1);
+
+        task.doTask(entity);
+
+        assertEquals(TaskStatusEnum.FAIL.getCode(), entity.getStatus());
+        verify(excelExportService).discardCheckpoint(checkpoint);
+        verify(commonTaskService).clearExportCheckpoint(TASK_ID);
+        assertNull(stored.get());
+    }
+
+    private static CommonTaskEntity entity(int failureCount) {
+        return CommonTaskEntity.builder()
+                .id(TASK_ID)
+                .bizType(ExcelBizTypeEnum.PRODUCT.getCode())
+                .requestParam("{\"exportFormat\":\"csv.gz\"}")
+                .status(TaskStatusEnum.WAITING.getCode())
+                .failureCount((byte) failureCount)
+                .createUserId(1L)
+                .build();
+    }
+}
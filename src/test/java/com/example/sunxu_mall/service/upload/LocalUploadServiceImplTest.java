@@ -0,0 +1,72 @@
+package com.example.sunxu_mall.service.upload;
+
+import com.example.sunxu_mall.config.props.UploadConfig;
+import com.example.sunxu_mall.dto.file.FileDTO;
+import com.example.sunxu_mall.exception.BusinessException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * LocalUploadServiceImpl 流式上传测试：直接写入存储目录下的目标文件，失败时不留下半成品
+ *
+ * @author sunxu
+ */
+public class LocalUploadServiceImplTest {
+
+    @TempDir
+    Path tempDir;
+
+    private LocalUploadServiceImpl service;
+
+    @BeforeEach
+    public void setUp() {
+        UploadConfig config = new UploadConfig();
+        config.getLocal().setPath(tempDir.toString());
+        config.getLocal().setDomain("http://localhost/files");
+        service = new LocalUploadServiceImpl(config);
+    }
+
+    @Test
+    public void testUploadStreamWritesTargetFile() throws IOException {
+        FileDTO file = service.uploadStream("商品.csv", "export", "text/csv",
+                out -> out.write("id,name\n1,a\n".getBytes(StandardCharsets.UTF_8)));
+
+        Path path = Path.of(file.getPath());
+        assertTrue(path.startsWith(tempDir));
+        assertEquals("id,name\n1,a\n", Files.readString(path));
+        assertEquals(Files.size(path), file.getSize());
+        assertEquals("csv", file.getType());
+        assertEquals("商品.csv", file.getOriginalName());
+        assertTrue(file.getDownloadUrl().endsWith("/" + path.getParent().getFileName() + "/" + file.getFileName()));
+        // 只有目标文件，没有中间临时文件
+        assertEquals(1, countFiles());
+    }
+
+    @Test
+    public void testUploadStreamFailureDeletesFile() throws IOException {
+        BusinessException e = assertThrows(BusinessException.class, () -> service.uploadStream("商品.csv", "export",
+                "text/csv", out -> {
+                    out.write("partial".getBytes(StandardCharsets.UTF_8));
+                    throw new IllegalStateException("query failed");
+                }));
+
+        assertTrue(e.getMessage().contains("query failed"));
+        assertEquals(0, countFiles());
+    }
+
+    private long countFiles() throws IOException {
+        try (Stream<Path> paths = Files.walk(tempDir)) {
+            return paths.map(Path::toFile).filter(File::isFile).count();
+        }
+    }
+}
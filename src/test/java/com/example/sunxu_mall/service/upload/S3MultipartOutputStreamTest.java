@@ -0,0 +1,143 @@
+package com.example.sunxu_mall.service.upload;
+
+import com.amazonaws.services.s3.AmazonS3;
+import com.amazonaws.services.s3.model.AbortMultipartUploadRequest;
+import com.amazonaws.services.s3.model.CompleteMultipartUploadRequest;
+import com.amazonaws.services.s3.model.InitiateMultipartUploadResult;
+import com.amazonaws.services.s3.model.PartETag;
+import com.amazonaws.services.s3.model.PutObjectRequest;
+import com.amazonaws.services.s3.model.UploadPartRequest;
+import com.amazonaws.services.s3.model.UploadPartResult;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * S3MultipartOutputStream 测试：按分片大小切分上传、小文件退化为 PutObject、失败中止分片上传
+ *
+ * @author sunxu
+ */
+public class S3MultipartOutputStreamTest {
+
+    private static final String BUCKET = "bucket";
+    private static final String KEY = "export/a.xlsx";
+    private static final int PART_SIZE = 4;
+
+    private final AmazonS3 amazonS3 = mock(AmazonS3.class);
+
+    /**
+     * 按上传顺序记录的分片内容（缓冲区会被复用，必须在上传时读出）
+     */
+    private final List<String> parts = new ArrayList<>();
+
+    @BeforeEach
+    public void setUp() {
+        InitiateMultipartUploadResult initiated = new InitiateMultipartUploadResult();
+        initiated.setUploadId("upload-1");
+        when(amazonS3.initiateMultipartUpload(any())).thenReturn(initiated);
+        when(amazonS3.uploadPart(any())).thenAnswer(inv -> {
+            UploadPartRequest request = inv.getArgument(0);
+            parts.add(read(request.getInputStream()));
+            assertEquals(request.getPartSize(), parts.get(parts.size() - 1).length());
+            UploadPartResult result = new UploadPartResult();
+            result.setPartNumber(request.getPartNumber());
+            result.setETag("etag-" + request.getPartNumber());
+            return result;
+        });
+    }
+
+    @Test
+    public void testSmallContentUsesPutObject() throws IOException {
+        S3MultipartOutputStream out = new S3MultipartOutputStream(amazonS3, BUCKET, KEY, "text/csv", PART_SIZE);
+        out.write("abc".getBytes(StandardCharsets.UTF_8));
+        out.close();
+
+        ArgumentCaptor<PutObjectRequest> put = ArgumentCaptor.forClass(PutObjectRequest.class);
+        verify(amazonS3).putObject(put.capture());
+        assertEquals(KEY, put.getValue().getKey());
+        assertEquals(3, put.getValue().getMetadata().getContentLength());
+        assertEquals("abc", read(put.getValue().getInputStream()));
+        verify(amazonS3, never()).initiateMultipartUpload(any());
+        assertEquals(3, out.getBytesWritten());
+    }
+
+    @Test
+    public void testContentSplitIntoParts() throws IOException {
+        S3MultipartOutputStream out = new S3MultipartOutputStream(amazonS3, BUCKET, KEY, "text/csv", PART_SIZE);
+        out.write("abcdef".getBytes(StandardCharsets.UTF_8));
+        out.write('g');
+        out.write("hij".getBytes(StandardCharsets.UTF_8));
+
+        // 写满的分片立即上传，内存中只保留一个分片
+        assertEquals(List.of("abcd", "efgh"), parts);
+
+        out.close();
+
+        // 最后一个分片可以小于分片大小
+        assertEquals(List.of("abcd", "efgh", "ij"), parts);
+        ArgumentCaptor<CompleteMultipartUploadRequest> complete = ArgumentCaptor.forClass(CompleteMultipartUploadRequest.class);
+        verify(amazonS3).completeMultipartUpload(complete.capture());
+        assertEquals("upload-1", complete.getValue().getUploadId());
+        assertEquals(List.of(1, 2, 3), complete.getValue().getPartETags().stream()
+                .map(PartETag::getPartNumber).collect(Collectors.toList()));
+        verify(amazonS3, never()).putObject(any(PutObjectRequest.class));
+        assertEquals(10, out.getBytesWritten());
+    }
+
+    @Test
+    public void testAbortDiscardsUploadedParts() throws IOException {
+        S3MultipartOutputStream out = new S3MultipartOutputStream(amazonS3, BUCKET, KEY, "text/csv", PART_SIZE);
+        out.write("abcdef".getBytes(StandardCharsets.UTF_8));
+
+        out.abort();
+
+        ArgumentCaptor<AbortMultipartUploadRequest> abort = ArgumentCaptor.forClass(AbortMultipartUploadRequest.class);
+        verify(amazonS3).abortMultipartUpload(abort.capture());
+        assertEquals("upload-1", abort.getValue().getUploadId());
+        verify(amazonS3, never()).completeMultipartUpload(any());
+        assertThrows(IOException.class, () -> out.write('x'));
+
+        // 中止后关闭不再提交
+        out.close();
+        verify(amazonS3, never()).completeMultipartUpload(any());
+        verify(amazonS3, never()).putObject(any(PutObjectRequest.class));
+    }
+
+    @Test
+    public void testCompleteFailureAbortsUpload() throws IOException {
+        when(amazonS3.completeMultipartUpload(any())).thenThrow(new IllegalStateException("complete failed"));
+        S3MultipartOutputStream out = new S3MultipartOutputStream(amazonS3, BUCKET, KEY, "text/csv", PART_SIZE);
+        out.write("abcdef".getBytes(StandardCharsets.UTF_8));
+
+        assertThrows(IllegalStateException.class, out::close);
+        verify(amazonS3).abortMultipartUpload(any());
+    }
+
+    @Test
+    public void testAbortWithoutPartsIsNoop() throws IOException {
+        S3MultipartOutputStream out = new S3MultipartOutputStream(amazonS3, BUCKET, KEY, "text/csv", PART_SIZE);
+        out.write("ab".getBytes(StandardCharsets.UTF_8));
+
+        out.abort();
+
+        verifyNoInteractions(amazonS3);
+    }
+
+    private static String read(InputStream in) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        in.transferTo(bytes);
+        return bytes.toString(StandardCharsets.UTF_8);
+    }
+}
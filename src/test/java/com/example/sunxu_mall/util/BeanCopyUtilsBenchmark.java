@@ -0,0 +1,94 @@
+package com.example.sunxu_mall.util;
+
+import com.example.sunxu_mall.entity.mall.ProductEntity;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.beans.BeanUtils;
+import org.springframework.beans.BeanWrapper;
+import org.springframework.beans.BeanWrapperImpl;
+
+import java.beans.PropertyDescriptor;
+import java.math.BigDecimal;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * BeanCopyUtils 基准测试：缓存复制器 vs 原实现（每次 BeanWrapper 取空值属性名 + BeanUtils.copyProperties）
+ * <p>
+ * 场景与商品更新一致：源对象只有少数字段非空，复制到从库里读出的完整实体上。
+ * 不随单元测试执行，运行方式：在 IDE 中执行 main，或
+ * {@code mvn test-compile exec:java -Dexec.classpathScope=test -Dexec.mainClass=com.example.sunxu_mall.util.BeanCopyUtilsBenchmark}
+ *
+ * @author sunxu
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class BeanCopyUtilsBenchmark {
+
+    private ProductEntity changes;
+    private ProductEntity current;
+
+    @Setup
+    public void setUp() {
+        changes = ProductEntity.builder()
+                .name("iPhone 15")
+                .price(new BigDecimal("5999.00"))
+                .quantity(100)
+                .build();
+        current = ProductEntity.builder()
+                .id(1L)
+                .categoryId(2L)
+                .brandId(3L)
+                .unitId(4L)
+                .productGroupId(5L)
+                .name("iPhone 14")
+                .model("A2882")
+                .quantity(80)
+                .remainQuantity(60)
+                .price(new BigDecimal("4999.00"))
+                .coverUrl("https://example.com/cover.png")
+                .version(7)
+                .isDel(false)
+                .build();
+    }
+
+    @Benchmark
+    public ProductEntity cachedCopier() {
+        BeanCopyUtils.copyNonNullProperties(changes, current);
+        return current;
+    }
+
+    @Benchmark
+    public ProductEntity beanWrapperBaseline() {
+        BeanUtils.copyProperties(changes, current, getNullPropertyNames(changes));
+        return current;
+    }
+
+    /**
+     * 原实现，作为对照
+     */
+    private static String[] getNullPropertyNames(Object source) {
+        final BeanWrapper src = new BeanWrapperImpl(source);
+        PropertyDescriptor[] pds = src.getPropertyDescriptors();
+
+        Set<String> emptyNames = new HashSet<>();
+        for (PropertyDescriptor pd : pds) {
+            Object srcValue = src.getPropertyValue(pd.getName());
+            if (srcValue == null) emptyNames.add(pd.getName());
+        }
+        return emptyNames.toArray(new String[0]);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(BeanCopyUtilsBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
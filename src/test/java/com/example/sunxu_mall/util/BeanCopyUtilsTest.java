@@ -0,0 +1,107 @@
+package com.example.sunxu_mall.util;
+
+import lombok.Data;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * BeanCopyUtils 测试类
+ *
+ * @author sunxu
+ */
+public class BeanCopyUtilsTest {
+
+    @Data
+    public static class Source {
+        private Long id;
+        private String name;
+        private BigDecimal price;
+        private int sort;
+        private List<String> tags;
+        private String onlyInSource;
+        private Integer mismatched;
+    }
+
+    @Data
+    public static class Target {
+        private Long id;
+        private String name;
+        private BigDecimal price;
+        private int sort;
+        private List<String> tags;
+        private String onlyInTarget;
+        private String mismatched;
+    }
+
+    @Data
+    public static class SubSource extends Source {
+        private String extra;
+    }
+
+    @Test
+    public void testCopyNonNullOnly() {
+        Source source = new Source();
+        source.setName("new");
+        source.setSort(3);
+
+        Target target = new Target();
+        target.setId(1L);
+        target.setName("old");
+        target.setPrice(BigDecimal.TEN);
+        target.setOnlyInTarget("keep");
+
+        BeanCopyUtils.copyNonNullProperties(source, target);
+
+        assertEquals(1L, target.getId());
+        assertEquals("new", target.getName());
+        assertEquals(BigDecimal.TEN, target.getPrice());
+        assertEquals(3, target.getSort());
+        assertEquals("keep", target.getOnlyInTarget());
+    }
+
+    @Test
+    public void testSkipIncompatibleTypes() {
+        Source source = new Source();
+        source.setMismatched(5);
+        source.setTags(List.of("a"));
+
+        Target target = new Target();
+        target.setMismatched("keep");
+
+        BeanCopyUtils.copyNonNullProperties(source, target);
+
+        assertEquals("keep", target.getMismatched());
+        assertEquals(List.of("a"), target.getTags());
+    }
+
+    @Test
+    public void testSubclassAndRepeatedCopy() {
+        for (int i = 0; i < 3; i++) {
+            SubSource source = new SubSource();
+            source.setId((long) i);
+            source.setExtra("x");
+
+            Target target = new Target();
+            BeanCopyUtils.copyNonNullProperties(source, target);
+            assertEquals((long) i, target.getId());
+            assertNull(target.getName());
+        }
+    }
+
+    @Test
+    public void testSameType() {
+        Target source = new Target();
+        source.setName("a");
+        Target target = new Target();
+        target.setId(9L);
+
+        BeanCopyUtils.copyNonNullProperties(source, target);
+
+        assertEquals("a", target.getName());
+        assertEquals(9L, target.getId());
+    }
+}
@@ -0,0 +1,132 @@
+package com.example.sunxu_mall.util;
+
+import com.example.sunxu_mall.dto.CursorState;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * CursorTokenCodec 测试类
+ *
+ * @author sunxu
+ */
+public class CursorTokenCodecTest {
+
+    private static final byte[] SECRET = "test-secret".getBytes(StandardCharsets.UTF_8);
+
+    private final CursorTokenCodec codec = new CursorTokenCodec(SECRET, 5, true);
+
+    @Test
+    public void testRoundTrip() {
+        CursorState state = new CursorState(3, 20);
+        state.setLastId(9001L);
+        state.setSortBy("price");
+        state.setSortDirection("ASC");
+        state.setCursorForPage(1, 9100L);
+        state.setSortValueForPage(1, "12.50");
+        state.setCursorForPage(2, 9050L);
+        state.setSortValueForPage(2, null);
+        state.setCursorForPage(3, 9001L);
+        state.setSortValueForPage(3, "价格");
+
+        CursorState decoded = codec.decode(codec.encode(state));
+
+        assertNotNull(decoded);
+        assertEquals(3, decoded.getPageNum());
+        assertEquals(20, decoded.getPageSize());
+        assertEquals(9001L, decoded.getLastId());
+        assertEquals("price", decoded.getSortBy());
+        assertEquals("ASC", decoded.getSortDirection());
+        assertEquals(9100L, decoded.getCursorForPage(1));
+        assertEquals(9050L, decoded.getCursorForPage(2));
+        assertEquals("12.50", decoded.getSortValueForPage(1));
+        assertNull(decoded.getSortValueForPage(2));
+        assertEquals("价格", decoded.getSortValueForPage(3));
+    }
+
+    @Test
+    public void testIdOnlyStateWithoutSort() {
+        CursorState state = new CursorState(1, 10);
+        state.setSortDirection("DESC");
+
+        CursorState decoded = codec.decode(codec.encode(state));
+
+        assertNotNull(decoded);
+        assertNull(decoded.getLastId());
+        assertNull(decoded.getSortBy());
+        assertEquals("DESC", decoded.getSortDirection());
+        assertTrue(decoded.getPageCursorMap().isEmpty());
+    }
+
+    /**
+     * 只保留距当前页最近的 windowSize 页，令牌大小不随翻页深度增长
+     */
+    @Test
+    public void testWindowKeepsPagesNearCurrent() {
+        CursorState state = new CursorState(50, 10);
+        for (int page = 1; page <= 50; page++) {
+            state.setCursorForPage(page, 100000L - page);
+        }
+        String token = codec.encode(state);
+
+        CursorState decoded = codec.decode(token);
+
+        assertNotNull(decoded);
+        assertEquals(5, decoded.getPageCursorMap().size());
+        for (int page = 46; page <= 50; page++) {
+            assertEquals(100000L - page, decoded.getCursorForPage(page));
+        }
+        assertNull(decoded.getCursorForPage(45));
+
+        CursorState shallow = new CursorState(5, 10);
+        for (int page = 1; page <= 5; page++) {
+            shallow.setCursorForPage(page, 100000L - page);
+        }
+        assertEquals(codec.encode(shallow).length(), token.length());
+    }
+
+    @Test
+    public void testTamperedTokenRejected() {
+        CursorState state = new CursorState(2, 10);
+        state.setCursorForPage(1, 500L);
+        byte[] bytes = Base64.getUrlDecoder().decode(codec.encode(state));
+        bytes[3] ^= 0x01;
+
+        assertNull(codec.decode(Base64.getUrlEncoder().withoutPadding().encodeToString(bytes)));
+    }
+
+    @Test
+    public void testTokenFromOtherSecretRejected() {
+        CursorTokenCodec other = new CursorTokenCodec("other-secret".getBytes(StandardCharsets.UTF_8), 5, true);
+        CursorState state = new CursorState(2, 10);
+        state.setCursorForPage(1, 500L);
+
+        assertNull(codec.decode(other.encode(state)));
+    }
+
+    @Test
+    public void testInvalidTokens() {
+        assertNull(codec.decode(null));
+        assertNull(codec.decode(" "));
+        assertNull(codec.decode("not base64!"));
+        assertNull(codec.decode("AQ"));
+    }
+
+    @SuppressWarnings("deprecation")
+    @Test
+    public void testDecodeLegacyJsonToken() {
+        CursorState state = new CursorState(2, 10);
+        state.setCursorForPage(1, 500L);
+        String legacy = CursorTokenUtil.encode(state);
+
+        CursorState decoded = codec.decode(legacy);
+        assertNotNull(decoded);
+        assertEquals(500L, decoded.getCursorForPage(1));
+
+        CursorTokenCodec strict = new CursorTokenCodec(SECRET, 5, false);
+        assertNull(strict.decode(legacy));
+    }
+}
@@ -0,0 +1,76 @@
+package com.example.sunxu_mall.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * LongObjectMap 测试类
+ *
+ * @author sunxu
+ */
+public class LongObjectMapTest {
+
+    @Test
+    public void testPutGetRemove() {
+        LongObjectMap<String> map = new LongObjectMap<>();
+        assertNull(map.put(1L, "a"));
+        assertNull(map.put(0L, "zero"));
+        assertEquals("a", map.put(1L, "b"));
+
+        assertEquals("b", map.get(1L));
+        assertEquals("zero", map.get(0L));
+        assertEquals(2, map.size());
+
+        assertEquals("b", map.remove(1L));
+        assertEquals("zero", map.remove(0L));
+        assertNull(map.get(1L));
+        assertTrue(map.isEmpty());
+    }
+
+    @Test
+    public void testResizeAndCopy() {
+        LongObjectMap<Long> map = new LongObjectMap<>(4);
+        for (long i = 1; i <= 1000; i++) {
+            map.put(i, i * 10);
+        }
+        assertEquals(1000, map.size());
+        assertTrue(map.capacity() >= 2000);
+
+        LongObjectMap<Long> copy = new LongObjectMap<>(map);
+        copy.remove(1L);
+        assertEquals(10L, map.get(1L));
+        assertNull(copy.get(1L));
+        assertEquals(999, copy.values().size());
+    }
+
+    /**
+     * 随机操作与 HashMap 对照，覆盖线性探测的回移删除
+     */
+    @Test
+    public void testRandomOperationsMatchHashMap() {
+        Random random = new Random(42);
+        LongObjectMap<Integer> map = new LongObjectMap<>();
+        Map<Long, Integer> expected = new HashMap<>();
+
+        for (int i = 0; i < 50000; i++) {
+            long key = random.nextInt(300) - 5;
+            switch (random.nextInt(3)) {
+                case 0:
+                    assertEquals(expected.put(key, i), map.put(key, i));
+                    break;
+                case 1:
+                    assertEquals(expected.remove(key), map.remove(key));
+                    break;
+                default:
+                    assertEquals(expected.get(key), map.get(key));
+                    break;
+            }
+            assertEquals(expected.size(), map.size());
+        }
+    }
+}
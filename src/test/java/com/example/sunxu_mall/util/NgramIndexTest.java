@@ -0,0 +1,146 @@
+package com.example.sunxu_mall.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * NgramIndex 测试类
+ *
+ * @author sunxu
+ */
+public class NgramIndexTest {
+
+    @Test
+    public void testSubstringSearch() {
+        NgramIndex index = new NgramIndex();
+        index.put(1L, "华为 Mate60 Pro 手机");
+        index.put(2L, "小米 14 手机");
+        index.put(3L, "华为平板");
+
+        assertArrayEquals(new long[]{2L, 1L}, index.search("手机", Long.MAX_VALUE, 10, null));
+        assertArrayEquals(new long[]{3L, 1L}, index.search("华", Long.MAX_VALUE, 10, null));
+        assertArrayEquals(new long[]{1L}, index.search("mate60", Long.MAX_VALUE, 10, null));
+        assertArrayEquals(new long[0], index.search("华为手机", Long.MAX_VALUE, 10, null));
+        // "为平" 与 "平板" 均出现在文档 3 中，但 "为板" 不是其子串
+        assertArrayEquals(new long[0], index.search("为板", Long.MAX_VALUE, 10, null));
+    }
+
+    @Test
+    public void testCursorLimitAndFilter() {
+        NgramIndex index = new NgramIndex();
+        for (long id = 1; id <= 10; id++) {
+            index.put(id, "商品" + id);
+        }
+        assertArrayEquals(new long[]{10L, 9L, 8L}, index.search("商品", Long.MAX_VALUE, 3, null));
+        assertArrayEquals(new long[]{7L, 6L}, index.search("商品", 8L, 2, null));
+        assertArrayEquals(new long[]{6L, 4L, 2L}, index.search("商品", 8L, 3, id -> id % 2 == 0));
+    }
+
+    @Test
+    public void testScanBudgetCountsVisitedIds() {
+        NgramIndex index = new NgramIndex();
+        index.put(1L, "abc");
+        // 同时包含 "ab"、"bc" 但不包含 "abc"：访问但不匹配
+        for (long id = 2; id <= 10; id++) {
+            index.put(id, "ab bc");
+        }
+
+        assertNull(index.search("abc", Long.MAX_VALUE, 10, null, new NgramIndex.ScanBudget(9)));
+
+        NgramIndex.ScanBudget budget = new NgramIndex.ScanBudget(10);
+        assertArrayEquals(new long[]{1L}, index.search("abc", Long.MAX_VALUE, 10, null, budget));
+        assertTrue(budget.isExhausted());
+        // 预算跨调用共享
+        assertNull(index.search("bc", Long.MAX_VALUE, 10, null, budget));
+        assertArrayEquals(new long[0], index.search("xyz", Long.MAX_VALUE, 10, null, budget));
+    }
+
+    @Test
+    public void testUpdateAndRemove() {
+        NgramIndex index = new NgramIndex();
+        index.put(1L, "红色T恤");
+        index.put(1L, "蓝色衬衫");
+        assertArrayEquals(new long[0], index.search("红色", Long.MAX_VALUE, 10, null));
+        assertArrayEquals(new long[]{1L}, index.search("蓝色", Long.MAX_VALUE, 10, null));
+        assertTrue(index.matches(1L, "衬衫"));
+
+        assertTrue(index.remove(1L));
+        assertFalse(index.remove(1L));
+        assertEquals(0, index.size());
+        assertEquals(0, index.termCount());
+    }
+
+    /**
+     * 随机数据与 String.contains 对照，覆盖 Builder 与增量写入两种路径
+     */
+    @Test
+    public void testRandomMatchesContains() {
+        Random random = new Random(7);
+        String alphabet = "abcAB手机华为";
+        Map<Long, String> docs = new HashMap<>();
+        NgramIndex.Builder builder = new NgramIndex.Builder(16);
+        for (long id = 300; id > 0; id--) {
+            String text = randomText(random, alphabet, 1 + random.nextInt(8));
+            docs.put(id, text);
+            builder.add(id, text);
+        }
+        NgramIndex index = builder.build();
+        for (int i = 0; i < 200; i++) {
+            long id = 1 + random.nextInt(400);
+            if (random.nextBoolean()) {
+                String text = randomText(random, alphabet, random.nextInt(8));
+                docs.put(id, text);
+                index.put(id, text);
+            } else {
+                docs.remove(id);
+                index.remove(id);
+            }
+        }
+
+        for (int i = 0; i < 200; i++) {
+            String keyword = randomText(random, alphabet, 1 + random.nextInt(3));
+            List<Long> expected = new ArrayList<>();
+            for (long id = 400; id > 0; id--) {
+                String text = docs.get(id);
+                if (text != null && text.toLowerCase().contains(keyword.toLowerCase())) {
+                    expected.add(id);
+                }
+            }
+            long[] actual = index.search(keyword, Long.MAX_VALUE, 1000, null);
+            assertEquals(expected.size(), actual.length, "keyword=" + keyword);
+            for (int j = 0; j < actual.length; j++) {
+                assertEquals(expected.get(j), actual[j]);
+            }
+        }
+    }
+
+    @Test
+    public void testEstimatedBytesTracksContent() {
+        NgramIndex index = new NgramIndex();
+        assertEquals(0L, index.estimatedBytes());
+
+        index.put(1L, "华为手机");
+        long one = index.estimatedBytes();
+        assertTrue(one > 0);
+        index.put(2L, "小米平板电脑");
+        assertTrue(index.estimatedBytes() > one);
+
+        index.remove(2L);
+        assertEquals(one, index.estimatedBytes());
+    }
+
+    private static String randomText(Random random, String alphabet, int length) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < length; i++) {
+            sb.append(alphabet.charAt(random.nextInt(alphabet.length())));
+        }
+        return sb.toString();
+    }
+}
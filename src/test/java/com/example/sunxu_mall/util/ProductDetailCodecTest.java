@@ -0,0 +1,45 @@
+package com.example.sunxu_mall.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * ProductDetailCodec 测试类
+ *
+ * @author sunxu
+ */
+public class ProductDetailCodecTest {
+
+    private static final String LARGE_DETAIL = "<p>商品详情 product detail</p>".repeat(200);
+
+    @Test
+    public void testCompressRoundTrip() {
+        byte[] encoded = ProductDetailCodec.encode(LARGE_DETAIL, true, 1024);
+
+        assertTrue(ProductDetailCodec.isCompressed(encoded));
+        assertTrue(encoded.length < LARGE_DETAIL.getBytes(StandardCharsets.UTF_8).length);
+        assertEquals(LARGE_DETAIL, ProductDetailCodec.decode(encoded));
+    }
+
+    @Test
+    public void testShortTextKeptRaw() {
+        byte[] encoded = ProductDetailCodec.encode("<p>短文本</p>", true, 1024);
+
+        assertFalse(ProductDetailCodec.isCompressed(encoded));
+        assertEquals("<p>短文本</p>", ProductDetailCodec.decode(encoded));
+    }
+
+    /**
+     * 历史数据为原始 UTF-8 字节，无格式标记
+     */
+    @Test
+    public void testDecodeLegacyRawBytes() {
+        byte[] legacy = LARGE_DETAIL.getBytes(StandardCharsets.UTF_8);
+
+        assertEquals(LARGE_DETAIL, ProductDetailCodec.decode(legacy));
+        assertNull(ProductDetailCodec.decode(null));
+    }
+}